@@ -0,0 +1,11 @@
+#!/bin/bash
+# ============================================
+# Gerador de Carga das Sessões (Linux/Unix/macOS)
+# Uso: executar-carga.sh [ouvintes] [comandosPorOuvinte]
+# ============================================
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+cd "$SCRIPT_DIR/../.."
+
+javac -encoding UTF-8 -d bin -sourcepath src src/main/GeradorCarga.java || exit 1
+java -Dfile.encoding=UTF-8 -Dstdout.encoding=UTF-8 -cp bin main.GeradorCarga "$@"
@@ -0,0 +1,11 @@
+@echo off
+REM ============================================
+REM Gerador de Carga das Sessoes (Windows)
+REM Uso: executar-carga.bat [ouvintes] [comandosPorOuvinte]
+REM ============================================
+
+cd /d "%~dp0..\.."
+chcp 65001 > nul
+javac -encoding UTF-8 -d bin -sourcepath src src\main\GeradorCarga.java
+java -Dfile.encoding=UTF-8 -Dstdout.encoding=UTF-8 -cp bin main.GeradorCarga %*
+pause
@@ -0,0 +1,33 @@
+package exception;
+
+/**
+ * Exceção lançada quando os dados salvos existem mas não podem ser lidos,
+ * ou quando uma alteração não pode ser gravada.
+ * 
+ * <p>
+ * Exemplos: "catalogo.db" e sua geração anterior corrompidos, partição
+ * de usuários ou journal ilegível. A aplicação não deve continuar com um estado vazio, pois a
+ * próxima gravação apagaria os dados que ainda podem ser recuperados.
+ * </p>
+ * 
+ * <p>
+ * Na gravação, o journal de usuários que não pôde ser gravado faz a
+ * alteração seguinte ser recusada, em vez de mantida só na memória.
+ * </p>
+ * 
+ * @see BaseAppException
+ */
+public class PersistenciaException extends BaseAppException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Cria exceção de persistência.
+     * 
+     * @param mensagem Descrição do arquivo que não pôde ser lido ou gravado
+     * @param causa    Falha de leitura, gravação ou verificação original
+     */
+    public PersistenciaException(String mensagem, Throwable causa) {
+        super(mensagem, causa);
+    }
+}
@@ -13,7 +13,8 @@
  *   RuntimeException
  *     └── BaseAppException
  *           ├── ValidacaoException
- *           └── UsuarioNaoEncontradoException
+ *           ├── UsuarioNaoEncontradoException
+ *           └── PersistenciaException
  * </pre>
  * 
  * <h2>Exceções Disponíveis</h2>
@@ -21,6 +22,7 @@
  * <li>{@link exception.BaseAppException} - Exceção base do sistema</li>
  * <li>{@link exception.ValidacaoException} - Erros de validação de dados</li>
  * <li>{@link exception.UsuarioNaoEncontradoException} - Usuário não existe</li>
+ * <li>{@link exception.PersistenciaException} - Dados salvos ilegíveis</li>
  * </ul>
  * 
  * <h2>Por que RuntimeException?</h2>
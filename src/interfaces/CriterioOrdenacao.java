@@ -0,0 +1,44 @@
+package interfaces;
+
+import model.midia.Audio;
+
+/**
+ * Interface para critérios de ordenação da fila de reprodução.
+ * 
+ * <p>
+ * Em vez de comparar dois áudios, o critério extrai de cada áudio uma
+ * chave numérica e, opcionalmente, um texto. O ordenador chama esses
+ * métodos uma única vez por item, guarda os valores em vetores e ordena
+ * apenas índices, sem chamar o critério durante a ordenação.
+ * </p>
+ * 
+ * <p>
+ * A ordem resultante é: primeiro pelo texto (normalizado, sem acentos e
+ * em minúsculas), quando houver; depois pela chave, em ordem crescente.
+ * Itens empatados mantêm a ordem que tinham na fila. Para ordem
+ * decrescente, basta negar a chave.
+ * </p>
+ * 
+ * @see service.fila.Ordenacao
+ * @see service.PlayerService#ordenar(CriterioOrdenacao)
+ */
+public interface CriterioOrdenacao {
+
+	/**
+	 * Retorna a chave numérica do áudio.
+	 * 
+	 * @param audio Áudio da fila
+	 * @return Chave (menor vem antes)
+	 */
+	long chave(Audio audio);
+
+	/**
+	 * Retorna o texto que ordena o áudio antes da chave.
+	 * 
+	 * @param audio Áudio da fila
+	 * @return Texto do áudio, ou null se o critério for só numérico
+	 */
+	default String texto(Audio audio) {
+		return null;
+	}
+}
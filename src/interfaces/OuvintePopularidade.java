@@ -0,0 +1,45 @@
+package interfaces;
+
+import model.midia.Audio;
+
+/**
+ * Interface para objetos que precisam saber quando a popularidade de
+ * um áudio muda.
+ * 
+ * <p>
+ * Um {@link Audio} avisa o seu ouvinte sempre que recebe ou perde uma
+ * curtida ou uma reprodução. Isso permite manter estruturas derivadas
+ * (como o ranking de popularidade) atualizadas, sem precisar reordenar o
+ * catálogo inteiro a cada consulta.
+ * </p>
+ * 
+ * <p>
+ * O aviso roda na thread que tocou ou curtiu o áudio, então deve ser
+ * rápido e não disputar travas compartilhadas: o catálogo apenas marca o
+ * áudio e atualiza o ranking em lote antes da próxima consulta.
+ * </p>
+ * 
+ * <p>
+ * Os contadores podem ser alterados por várias threads ao mesmo tempo,
+ * então o aviso não informa os valores anteriores: cada ouvinte guarda a
+ * última fotografia que leu e compara com os totais atuais.
+ * </p>
+ * 
+ * <h2>Conceito de POO: Observer</h2>
+ * <p>
+ * O áudio não conhece o ranking; conhece apenas este contrato. Assim o
+ * modelo continua independente da camada de serviço.
+ * </p>
+ * 
+ * @see model.midia.Audio#registrarOuvinte(OuvintePopularidade)
+ * @see service.ranking.RankingPopularidade
+ */
+public interface OuvintePopularidade {
+
+	/**
+	 * Chamado logo após a mudança de curtidas ou reproduções de um áudio.
+	 * 
+	 * @param audio Áudio alterado (já com os novos valores)
+	 */
+	void popularidadeAlterada(Audio audio);
+}
@@ -0,0 +1,52 @@
+package interfaces;
+
+import model.midia.Audio;
+
+/**
+ * Interface para objetos que precisam saber quando uma faixa chega ao fim
+ * durante a reprodução.
+ * 
+ * <p>
+ * O player avisa o seu ouvinte quando o relógio de reprodução alcança a
+ * duração do áudio atual, logo antes de avançar sozinho para a próxima
+ * faixa da fila (se houver). Também avisa o início de cada reprodução e
+ * o tempo ouvido de cada trecho (métodos opcionais), usados no histórico
+ * do usuário.
+ * </p>
+ * 
+ * <p>
+ * Os avisos podem ser dados na thread do relógio, compartilhada por todos
+ * os players, então devem ser rápidos e não devem esperar por outras
+ * threads.
+ * </p>
+ * 
+ * @see service.PlayerService#registrarOuvinte(OuvinteReproducao)
+ */
+public interface OuvinteReproducao {
+
+	/**
+	 * Chamado quando a reprodução de um áudio termina.
+	 * 
+	 * @param audio Áudio que terminou de tocar
+	 */
+	void faixaTerminada(Audio audio);
+
+	/**
+	 * Chamado quando um áudio começa a tocar do início (quando a reprodução
+	 * é contada).
+	 * 
+	 * @param audio Áudio que começou a tocar
+	 */
+	default void reproducaoIniciada(Audio audio) {
+	}
+
+	/**
+	 * Chamado quando um trecho tocado termina (pausa, troca de faixa ou fim
+	 * da faixa), com o tempo efetivamente ouvido.
+	 * 
+	 * @param audio  Áudio que estava tocando
+	 * @param millis Tempo ouvido no trecho, em milissegundos
+	 */
+	default void trechoOuvido(Audio audio, long millis) {
+	}
+}
@@ -11,6 +11,12 @@
  * <ul>
  * <li>{@link interfaces.Reproduzivel} - Define comportamento de itens
  * reproduzíveis</li>
+ * <li>{@link interfaces.OuvintePopularidade} - Recebe avisos de mudança
+ * nas curtidas e reproduções de um áudio</li>
+ * <li>{@link interfaces.OuvinteReproducao} - Recebe avisos de fim de faixa
+ * do player</li>
+ * <li>{@link interfaces.CriterioOrdenacao} - Extrai as chaves de
+ * ordenação da fila de reprodução</li>
  * </ul>
  * 
  * <h2>Conceitos de POO Aplicados</h2>
@@ -0,0 +1,184 @@
+package main;
+
+import model.midia.Audio;
+import service.BibliotecaService;
+import service.sessao.Comando;
+import service.sessao.GerenciadorSessoes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gerador de carga para o {@link GerenciadorSessoes}.
+ *
+ * <p>
+ * Simula vários ouvintes ao mesmo tempo na mesma JVM. Cada ouvinte
+ * define uma fila a partir do catálogo e envia uma sequência aleatória de
+ * comandos (play, pause, próxima, anterior, shuffle), um depois do outro,
+ * medindo o tempo entre o envio e a conclusão de cada comando.
+ * </p>
+ *
+ * <h2>Uso</h2>
+ *
+ * <pre>
+ *   java -cp bin main.GeradorCarga [ouvintes] [comandosPorOuvinte]
+ * </pre>
+ *
+ * <p>
+ * Por padrão, 10.000 ouvintes com 50 comandos cada.
+ * </p>
+ *
+ */
+public class GeradorCarga {
+
+	/** Comandos sorteados, com peso pela repetição. */
+	private static final Comando[] SORTEIO = { Comando.PLAY, Comando.PROXIMA, Comando.PROXIMA, Comando.PROXIMA,
+			Comando.ANTERIOR, Comando.PAUSE, Comando.SHUFFLE };
+
+	/**
+	 * Construtor privado para evitar instanciação.
+	 */
+	private GeradorCarga() {
+		// Classe utilitária, não deve ser instanciada
+	}
+
+	/**
+	 * Executa a carga padrão sobre o catálogo salvo e imprime as latências.
+	 *
+	 * @param args [ouvintes] [comandosPorOuvinte]
+	 * @throws InterruptedException Se interrompido durante a execução
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int ouvintes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int comandos = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+		BibliotecaService biblioteca = BibliotecaService.getInstance();
+		biblioteca.carregarDadosDoDisco();
+
+		GerenciadorSessoes gerenciador = new GerenciadorSessoes(60_000);
+		Resultado resultado = executar(gerenciador, biblioteca.getCatalogo(), ouvintes, comandos);
+		System.out.println(resultado);
+		gerenciador.encerrar();
+	}
+
+	/**
+	 * Simula os ouvintes e espera todos terminarem.
+	 *
+	 * <p>
+	 * Todos os ouvintes começam juntos. O próximo comando de um ouvinte é
+	 * enviado quando o anterior termina, sem criar uma thread por
+	 * ouvinte.
+	 * </p>
+	 *
+	 * @param gerenciador Gerenciador que hospeda as sessões
+	 * @param catalogo    Áudios usados para montar as filas
+	 * @param ouvintes    Quantidade de ouvintes simultâneos
+	 * @param comandos    Comandos enviados por ouvinte
+	 * @return Latências medidas
+	 * @throws InterruptedException Se interrompido enquanto espera
+	 */
+	public static Resultado executar(GerenciadorSessoes gerenciador, List<Audio> catalogo, int ouvintes,
+			int comandos) throws InterruptedException {
+		long[] latencias = new long[ouvintes * comandos];
+		CountDownLatch fim = new CountDownLatch(ouvintes);
+		long inicio = System.nanoTime();
+
+		for (int i = 0; i < ouvintes; i++) {
+			String id = "ouvinte-" + i;
+			Random random = new Random(i);
+			int deslocamento = catalogo.isEmpty() ? 0 : random.nextInt(catalogo.size());
+			List<Audio> fila = catalogo.subList(deslocamento, catalogo.size());
+			int base = i * comandos;
+			gerenciador.executar(id, player -> player.definirFila(fila))
+					.thenRun(() -> enviar(gerenciador, id, random, latencias, base, comandos, fim));
+		}
+
+		if (!fim.await(5, TimeUnit.MINUTES)) {
+			throw new IllegalStateException("Ouvintes não terminaram: " + fim.getCount() + " restantes");
+		}
+		return new Resultado(latencias, System.nanoTime() - inicio, ouvintes);
+	}
+
+	/**
+	 * Envia o próximo comando do ouvinte e agenda o seguinte para quando
+	 * ele terminar.
+	 */
+	private static void enviar(GerenciadorSessoes gerenciador, String id, Random random, long[] latencias,
+			int posicao, int restantes, CountDownLatch fim) {
+		if (restantes == 0) {
+			fim.countDown();
+			return;
+		}
+		Comando comando = SORTEIO[random.nextInt(SORTEIO.length)];
+		long envio = System.nanoTime();
+		gerenciador.enviar(id, comando).whenComplete((ok, erro) -> {
+			latencias[posicao] = System.nanoTime() - envio;
+			enviar(gerenciador, id, random, latencias, posicao + 1, restantes - 1, fim);
+		});
+	}
+
+	/**
+	 * Latências de uma execução do gerador de carga.
+	 */
+	public static class Resultado {
+
+		/** Latências em nanossegundos, em ordem crescente. */
+		private final long[] latencias;
+
+		/** Duração total em nanossegundos. */
+		private final long duracao;
+
+		/** Quantidade de ouvintes simulados. */
+		private final int ouvintes;
+
+		Resultado(long[] latencias, long duracao, int ouvintes) {
+			this.latencias = latencias.clone();
+			Arrays.sort(this.latencias);
+			this.duracao = duracao;
+			this.ouvintes = ouvintes;
+		}
+
+		/**
+		 * Retorna a latência de um percentil.
+		 *
+		 * @param percentil Percentil entre 0 e 100 (por exemplo, 99)
+		 * @return Latência em nanossegundos, ou 0 se não houve comandos
+		 */
+		public long getPercentil(double percentil) {
+			if (latencias.length == 0) {
+				return 0;
+			}
+			int indice = (int) Math.ceil(percentil / 100 * latencias.length) - 1;
+			return latencias[Math.max(0, Math.min(latencias.length - 1, indice))];
+		}
+
+		/**
+		 * Retorna a quantidade de comandos medidos.
+		 *
+		 * @return Total de comandos
+		 */
+		public int getTotalComandos() {
+			return latencias.length;
+		}
+
+		/**
+		 * Retorna a duração total da execução.
+		 *
+		 * @return Duração em nanossegundos
+		 */
+		public long getDuracao() {
+			return duracao;
+		}
+
+		@Override
+		public String toString() {
+			double segundos = duracao / 1e9;
+			return String.format("%d ouvintes, %d comandos em %.2f s (%.0f comandos/s) | p50=%.1f µs p99=%.1f µs máx=%.1f µs",
+					ouvintes, latencias.length, segundos, latencias.length / segundos, getPercentil(50) / 1e3,
+					getPercentil(99) / 1e3, getPercentil(100) / 1e3);
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package main;
 
+import exception.PersistenciaException;
 import menu.*;
 import model.usuario.Usuario;
 import service.*;
+import service.reproducao.RodaTemporizacao;
 
 import java.util.Scanner;
 
@@ -59,12 +61,20 @@ public class Projeto {
 		BibliotecaService biblioteca = BibliotecaService.getInstance();
 		UsuarioService usuarioService = UsuarioService.getInstance();
 
-		// Cria nova instância do player para esta sessão
-		PlayerService player = new PlayerService();
+		// Cria nova instância do player para esta sessão, tocando em tempo real
+		PlayerService player = new PlayerService(RodaTemporizacao.getInstance());
 
 		// Carregar dados persistidos do disco
-		biblioteca.carregarDadosDoDisco();
-		usuarioService.carregarUsuarios();
+		try {
+			biblioteca.carregarDadosDoDisco();
+			usuarioService.carregarUsuarios();
+		} catch (PersistenciaException e) {
+			// Não continua com dados vazios: a próxima gravação apagaria os arquivos
+			System.out.println("❌ " + e.getMessage() + ": " + e.getCause().getMessage());
+			System.out.println("Os arquivos de dados não foram alterados. Restaure uma cópia ou remova-os para começar do zero.");
+			scanner.close();
+			return;
+		}
 
 		UtilConsole.limparConsole();
 
@@ -9,6 +9,8 @@
  * <h2>Classes Disponíveis</h2>
  * <ul>
  * <li>{@link main.Projeto} - Ponto de entrada da aplicação (método main)</li>
+ * <li>{@link main.GeradorCarga} - Simula milhares de ouvintes simultâneos
+ * sobre as sessões de reprodução</li>
  * </ul>
  * 
  * <h2>Fluxo de Inicialização</h2>
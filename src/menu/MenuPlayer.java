@@ -3,6 +3,8 @@ package menu;
 import model.midia.Audio;
 import model.usuario.Usuario;
 import service.PlayerService;
+import service.UsuarioService;
+import service.fila.Ordenacao;
 
 import java.util.List;
 import java.util.Scanner;
@@ -22,8 +24,9 @@ import java.util.Scanner;
  * <li>[&gt;] Próxima - Avança para próxima faixa</li>
  * <li>[&lt;] Anterior - Volta para faixa anterior</li>
  * <li>[L] Curtir - Adiciona/remove curtida</li>
- * <li>[S] Shuffle - Embaralha a fila</li>
- * <li>[O] Ordenar - Ordena por popularidade</li>
+ * <li>[S] Shuffle - Embaralha a fila (de novo: volta à ordem original)</li>
+ * <li>[O] Ordenar - Ordena por popularidade, título, artista, álbum,
+ * duração ou reproduções</li>
  * <li>[F] Ver Fila - Mostra fila de reprodução</li>
  * <li>[C] Limpar - Remove todos da fila</li>
  * </ul>
@@ -42,17 +45,22 @@ public class MenuPlayer {
     /** Usuário logado para operações de curtida. */
     private final Usuario usuario;
 
+    /** Serviço de usuários para registrar as curtidas. */
+    private final UsuarioService usuarioService;
+
     /**
      * Cria o menu do player com dependências necessárias.
      * 
-     * @param scanner Scanner para entrada do usuário
-     * @param player  Serviço de reprodução
-     * @param usuario Usuário logado (para curtidas)
+     * @param scanner        Scanner para entrada do usuário
+     * @param player         Serviço de reprodução
+     * @param usuario        Usuário logado (para curtidas)
+     * @param usuarioService Serviço de usuários (persistência das curtidas)
      */
-    public MenuPlayer(Scanner scanner, PlayerService player, Usuario usuario) {
+    public MenuPlayer(Scanner scanner, PlayerService player, Usuario usuario, UsuarioService usuarioService) {
         this.scanner = scanner;
         this.player = player;
         this.usuario = usuario;
+        this.usuarioService = usuarioService;
     }
 
     /**
@@ -75,6 +83,7 @@ public class MenuPlayer {
             String status = player.getStatus();
             int posicao = player.getIndiceAtual() + 1; // +1 para exibição (base 1)
             int total = player.getTamanhoFila();
+            int tocado = player.getPosicaoSegundos();
 
             // Exibe interface diferente dependendo se há item selecionado
             if (atual != null) {
@@ -87,6 +96,7 @@ public class MenuPlayer {
                         ═══════════════════════════════════════════
                           Título:  %s
                           Detalhe: %s
+                          Tempo:   %d:%02d / %d:%02d
                         ═══════════════════════════════════════════
                           [P] Play/Pause  [>] Próxima  [<] Anterior
                           [L] Curtir      [S] Shuffle  [O] Ordenar
@@ -97,7 +107,9 @@ public class MenuPlayer {
                         status,
                         posicao, total,
                         atual.getTitulo(),
-                        atual.getDetalhesFormatados());
+                        atual.getDetalhesFormatados(),
+                        tocado / 60, tocado % 60,
+                        atual.getDuracaoSegundos() / 60, atual.getDuracaoSegundos() % 60);
             } else {
                 // Interface simplificada quando não há item selecionado
                 System.out.printf("""
@@ -161,7 +173,7 @@ public class MenuPlayer {
                 case "L" -> {
                     // Curtir o áudio atual
                     if (atual != null) {
-                        boolean curtiu = usuario.curtirAudio(atual);
+                        boolean curtiu = usuarioService.curtirAudio(usuario, atual);
                         if (curtiu) {
                             System.out.println("❤ Você curtiu: " + atual.getDetalhesFormatados());
                         } else {
@@ -170,15 +182,21 @@ public class MenuPlayer {
                     }
                 }
                 case "S" -> {
-                    if (player.shuffle()) {
+                    // Toggle shuffle: desativar volta à ordem original
+                    if (player.desembaralhar()) {
+                        System.out.println("➡ Ordem original restaurada.");
+                    } else if (player.shuffle()) {
                         System.out.println("🔀 Fila embaralhada!");
                     } else {
                         System.out.println("A fila está vazia.");
                     }
                 }
                 case "O" -> {
-                    if (player.ordenarPorPopularidade()) {
-                        System.out.println("📊 Fila ordenada por popularidade!");
+                    Ordenacao ordenacao = escolherOrdenacao();
+                    if (ordenacao == null) {
+                        // Opção inválida, mantém a ordem
+                    } else if (player.ordenar(ordenacao)) {
+                        System.out.println("📊 Fila ordenada por " + ordenacao.getDescricao().toLowerCase() + "!");
                     } else {
                         System.out.println("A fila está vazia.");
                     }
@@ -196,6 +214,33 @@ public class MenuPlayer {
         }
     }
 
+    /**
+     * Pergunta ao usuário qual ordenação aplicar à fila.
+     * 
+     * @return Ordenação escolhida, ou null se a opção for inválida
+     */
+    private Ordenacao escolherOrdenacao() {
+        Ordenacao[] opcoes = Ordenacao.values();
+        System.out.println("═══════════════════════════════════════════");
+        System.out.println("  Ordenar fila por:");
+        for (int i = 0; i < opcoes.length; i++) {
+            System.out.println("  [" + (i + 1) + "] " + opcoes[i].getDescricao());
+        }
+        System.out.print(">> ");
+        String escolha = scanner.nextLine().trim();
+        UtilConsole.limparConsole();
+        try {
+            int opcao = Integer.parseInt(escolha);
+            if (opcao >= 1 && opcao <= opcoes.length) {
+                return opcoes[opcao - 1];
+            }
+        } catch (NumberFormatException e) {
+            // Cai na mensagem abaixo
+        }
+        System.out.println("Opção inválida.");
+        return null;
+    }
+
     /**
      * Exibe a lista de áudios na fila de reprodução.
      * 
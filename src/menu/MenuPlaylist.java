@@ -134,8 +134,7 @@ public class MenuPlaylist {
         System.out.print("Nome da nova playlist: ");
         String nome = scanner.nextLine().trim();
         if (!nome.isEmpty()) {
-            usuario.criarPlaylist(nome);
-            usuarioService.salvarUsuarios();
+            usuarioService.criarPlaylist(usuario, nome);
             System.out.println("✔ Playlist '" + nome + "' criada com sucesso.");
         } else {
             System.out.println("Nome não pode ser vazio.");
@@ -283,8 +282,7 @@ public class MenuPlaylist {
                         // Valida se o índice está dentro da página atual (entre inicio e fim)
                         if (idx >= inicio && idx < fim) {
                             Audio audio = audios.get(idx);
-                            if (playlist.adicionarItem(audio)) {
-                                usuarioService.salvarUsuarios();
+                            if (usuarioService.adicionarItemPlaylist(usuario, playlist, audio)) {
                                 System.out
                                         .println("✓ '" + audio.getTitulo() + "' adicionado à '" + playlist.getNome()
                                                 + "'");
@@ -345,8 +343,7 @@ public class MenuPlaylist {
 
             int idx = Integer.parseInt(input) - 1;
             if (idx >= 0 && idx < itens.size()) {
-                Audio removido = itens.remove(idx);
-                usuarioService.salvarUsuarios();
+                Audio removido = usuarioService.removerItemPlaylist(usuario, playlist, idx);
                 System.out.println("✓ '" + removido.getTitulo() + "' removido da playlist.");
             } else {
                 System.out.println("Índice inválido.");
@@ -361,8 +358,7 @@ public class MenuPlaylist {
         String confirmacao = scanner.nextLine().toUpperCase();
 
         if (confirmacao.equals("S")) {
-            usuario.getPlaylists().remove(playlist);
-            usuarioService.salvarUsuarios();
+            usuarioService.removerPlaylist(usuario, playlist);
             System.out.println("✓ Playlist '" + playlist.getNome() + "' excluída.");
             return true;
         }
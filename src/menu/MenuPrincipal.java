@@ -1,5 +1,6 @@
 package menu;
 
+import exception.PersistenciaException;
 import model.usuario.Usuario;
 import service.BibliotecaService;
 import service.PlayerService;
@@ -78,11 +79,14 @@ public class MenuPrincipal {
         this.player = player;
 
         // Inicializa submenus com as dependências necessárias
-        this.menuPlayer = new MenuPlayer(scanner, player, usuario);
+        this.menuPlayer = new MenuPlayer(scanner, player, usuario, usuarioService);
         this.menuPlaylist = new MenuPlaylist(scanner, usuario, biblioteca, player, menuPlayer, usuarioService);
         this.telaPerfil = new TelaPerfil(usuario, usuarioService, scanner);
         this.telaCatalogo = new TelaCatalogo(scanner, biblioteca, player, menuPlayer);
         this.telaCatalogo.setUsuario(usuario, usuarioService);
+
+        // Cada reprodução vai para o histórico do usuário logado
+        player.registrarOuvinte(usuarioService.criarOuvinteHistorico(usuario));
     }
 
     /**
@@ -96,29 +100,34 @@ public class MenuPrincipal {
 
             UtilConsole.limparConsole();
 
-            switch (opcao) {
-                case "1" -> telaCatalogo.listarCatalogo();
-                case "2" -> telaCatalogo.listarRecomendacoes();
-                case "3" -> telaCatalogo.buscarAudio();
-                case "4" -> {
-                    menuPlaylist.exibir();
-                    UtilConsole.limparConsole();
-                }
-                case "5" -> {
-                    menuPlayer.exibir();
-                    UtilConsole.limparConsole();
-                }
-                case "6" -> {
-                    if (!telaPerfil.exibir()) {
-                        // Conta excluída, encerrar
+            try {
+                switch (opcao) {
+                    case "1" -> telaCatalogo.listarCatalogo();
+                    case "2" -> telaCatalogo.listarRecomendacoes();
+                    case "3" -> telaCatalogo.buscarAudio();
+                    case "4" -> {
+                        menuPlaylist.exibir();
+                        UtilConsole.limparConsole();
+                    }
+                    case "5" -> {
+                        menuPlayer.exibir();
+                        UtilConsole.limparConsole();
+                    }
+                    case "6" -> {
+                        if (!telaPerfil.exibir()) {
+                            // Conta excluída, encerrar
+                            rodando = false;
+                        }
+                    }
+                    case "0" -> {
+                        salvarEEncerrar();
                         rodando = false;
                     }
+                    default -> System.out.println("Opção inválida.");
                 }
-                case "0" -> {
-                    salvarEEncerrar();
-                    rodando = false;
-                }
-                default -> System.out.println("Opção inválida.");
+            } catch (PersistenciaException e) {
+                // Journal sem gravar: a alteração foi recusada, o resto continua
+                avisarFalhaDeGravacao(e);
             }
         }
     }
@@ -144,10 +153,22 @@ public class MenuPrincipal {
 
     private void salvarEEncerrar() {
         // Salvar estado do player no usuário
-        usuario.setEstadoPlayerIndice(player.getIndiceAtual());
+        try {
+            usuarioService.salvarEstadoPlayer(usuario, player.getIndiceAtual());
+        } catch (PersistenciaException e) {
+            avisarFalhaDeGravacao(e);
+        }
 
-        biblioteca.salvarDadosNoDisco();
-        usuarioService.salvarUsuarios();
+        boolean catalogoSalvo = biblioteca.salvarDadosNoDisco();
+        boolean usuariosSalvos = usuarioService.salvarUsuarios();
+        if (!catalogoSalvo || !usuariosSalvos) {
+            System.out.println("⚠ Não foi possível salvar todos os dados; a versão anterior dos arquivos foi mantida.");
+        }
         System.out.println("Até mais, " + usuario.getNome() + "! 👋");
     }
+
+    private void avisarFalhaDeGravacao(PersistenciaException e) {
+        System.out.println("⚠ " + e.getMessage() + ": " + e.getCause().getMessage()
+                + ". A alteração não foi feita.");
+    }
 }
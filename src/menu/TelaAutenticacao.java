@@ -1,5 +1,6 @@
 package menu;
 
+import exception.PersistenciaException;
 import exception.ValidacaoException;
 import model.usuario.Usuario;
 import service.UsuarioService;
@@ -156,7 +157,7 @@ public class TelaAutenticacao {
             System.out.println("Usuário '" + usuario.getNome() + "' cadastrado com sucesso!");
             UtilConsole.pausar(scanner);
             return usuario;
-        } catch (ValidacaoException e) {
+        } catch (ValidacaoException | PersistenciaException e) {
             System.out.println("Erro: " + e.getMessage());
             UtilConsole.pausar(scanner);
             return null;
@@ -1,11 +1,13 @@
 package menu;
 
+import exception.ValidacaoException;
 import model.midia.Audio;
 import model.playlist.Playlist;
 import model.usuario.Usuario;
 import service.BibliotecaService;
 import service.PlayerService;
 import service.UsuarioService;
+import service.busca.ResultadoBusca;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,6 +36,12 @@ import java.util.Scanner;
  */
 public class TelaCatalogo {
 
+    /** Quantidade de sugestões exibidas ao autocompletar a busca. */
+    private static final int LIMITE_SUGESTOES = 8;
+
+    /** Resultados de busca exibidos por página. */
+    private static final int RESULTADOS_POR_PAGINA = 10;
+
     /** Scanner para leitura de entrada do usuário. */
     private final Scanner scanner;
 
@@ -153,16 +161,30 @@ public class TelaCatalogo {
 
     /**
      * Busca áudios por termo com navegação interativa nos resultados.
+     * 
+     * <p>
+     * Os resultados aparecem dos mais para os menos relevantes, e cada
+     * página só é calculada quando o usuário chega a ela.
+     * </p>
      */
     public void buscarAudio() {
         System.out.print("""
                 ═══════════════════════════════════════════
                       🔍 BUSCAR MÚSICA/ARTISTA
+                ═══════════════════════════════════════════
+                  Dica: termine com * para ver sugestões
+                  (ex.: "lui*")
+                  Filtros: artist: genre: year: type: liked:
+                  (ex.: "genre:forró,mpb -year:..1970")
                 ═══════════════════════════════════════════
                 Digite o termo de busca:\s""");
 
         String termo = scanner.nextLine().trim();
 
+        if (termo.endsWith("*")) {
+            termo = escolherSugestao(termo.substring(0, termo.length() - 1).trim());
+        }
+
         if (termo.isEmpty()) {
             System.out.println("Termo de busca vazio.");
             return;
@@ -170,15 +192,33 @@ public class TelaCatalogo {
 
         UtilConsole.limparConsole();
 
-        List<Audio> resultados = biblioteca.buscar(termo);
+        ResultadoBusca resultado;
+        try {
+            // Inclui resultados com erros de digitação, depois dos exatos
+            resultado = biblioteca.buscarRanqueado(termo, true, usuario == null ? null : usuario.getCurtidas());
+        } catch (ValidacaoException e) {
+            System.out.println("Erro: " + e.getMessage());
+            return;
+        }
 
-        if (resultados.isEmpty()) {
+        if (resultado.getTotal() == 0) {
             System.out.println("Nenhum resultado encontrado para: '" + termo + "'");
             return;
         }
 
+        // Páginas já carregadas, dos mais para os menos relevantes
+        List<Audio> resultados = new ArrayList<>();
+        int totalPaginas = (int) Math.ceil((double) resultado.getTotal() / RESULTADOS_POR_PAGINA);
+        int paginaAtual = 0;
+
         boolean navegando = true;
         while (navegando) {
+            int inicio = paginaAtual * RESULTADOS_POR_PAGINA;
+            int fim = Math.min(inicio + RESULTADOS_POR_PAGINA, resultado.getTotal());
+            while (resultados.size() < fim) {
+                resultados.addAll(resultado.proximaPagina(RESULTADOS_POR_PAGINA));
+            }
+
             System.out.printf("""
 
                     ═══════════════════════════════════════════
@@ -186,19 +226,32 @@ public class TelaCatalogo {
                       %s
                     ═══════════════════════════════════════════
                     %s═══════════════════════════════════════════
-                      [T] Tocar todos os resultados
+                    %s  [T] Tocar todos os resultados
                       [V] Voltar ao Menu
                     ═══════════════════════════════════════════
                     Selecione um item ou opção:\s""",
                     termo,
-                    resultados.size() + " item(s) encontrado(s)",
-                    formatarListaAudios(resultados, 0, resultados.size()));
+                    resultado.getTotal() + " item(s) encontrado(s) - Página " + (paginaAtual + 1) + "/"
+                            + totalPaginas,
+                    formatarListaAudios(resultados, inicio, fim),
+                    formatarNavegacaoPagina(paginaAtual, totalPaginas));
 
             String cmd = scanner.nextLine().toUpperCase();
             UtilConsole.limparConsole();
 
             switch (cmd) {
+                case "P" -> {
+                    if (paginaAtual < totalPaginas - 1)
+                        paginaAtual++;
+                }
+                case "A" -> {
+                    if (paginaAtual > 0)
+                        paginaAtual--;
+                }
                 case "T" -> {
+                    while (resultado.temMais()) {
+                        resultados.addAll(resultado.proximaPagina(RESULTADOS_POR_PAGINA));
+                    }
                     if (player.definirFila(resultados)) {
                         System.out.println("Fila de reprodução atualizada com " + resultados.size() + " itens.");
                         player.play();
@@ -214,12 +267,12 @@ public class TelaCatalogo {
                 default -> {
                     try {
                         int idx = Integer.parseInt(cmd) - 1;
-                        if (idx >= 0 && idx < resultados.size()) {
+                        if (idx >= inicio && idx < fim) {
                             if (!exibirDetalhesAudio(resultados.get(idx))) {
                                 navegando = false;
                             }
                         } else {
-                            System.out.println("Índice inválido.");
+                            System.out.println("Índice inválido. Selecione um item da página atual.");
                         }
                     } catch (NumberFormatException e) {
                         // Comando não reconhecido
@@ -229,6 +282,46 @@ public class TelaCatalogo {
         }
     }
 
+    /**
+     * Mostra as sugestões de autocompletar para um prefixo e permite
+     * escolher uma delas.
+     * 
+     * @param prefixo Início do termo digitado pelo usuário
+     * @return Sugestão escolhida, ou o próprio prefixo se nenhuma for
+     *         escolhida
+     */
+    private String escolherSugestao(String prefixo) {
+        List<String> sugestoes = biblioteca.sugerir(prefixo, LIMITE_SUGESTOES);
+        if (sugestoes.isEmpty()) {
+            System.out.println("Nenhuma sugestão para: '" + prefixo + "'");
+            return prefixo;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sugestoes.size(); i++) {
+            sb.append(String.format("  [%d] %s%n", i + 1, sugestoes.get(i)));
+        }
+        System.out.printf("""
+
+                ═══════════════════════════════════════════
+                  💡 Sugestões para: %s
+                ═══════════════════════════════════════════
+                %s═══════════════════════════════════════════
+                Escolha uma sugestão (Enter para buscar "%s"):\s""",
+                prefixo, sb, prefixo);
+
+        String escolha = scanner.nextLine().trim();
+        try {
+            int idx = Integer.parseInt(escolha) - 1;
+            if (idx >= 0 && idx < sugestoes.size()) {
+                return sugestoes.get(idx);
+            }
+        } catch (NumberFormatException e) {
+            // Sem escolha válida: busca pelo prefixo
+        }
+        return prefixo;
+    }
+
     /**
      * Lista recomendações baseadas em curtidas com navegação interativa.
      */
@@ -350,6 +443,7 @@ public class TelaCatalogo {
                     ═══════════════════════════════════════════
                       [R] Reproduzir agora
                       [F] Adicionar à Fila de reprodução
+                      [N] Tocar em seguida
                       [L] Curtir/Descurtir
                     %s  [V] Voltar
                       [0] Voltar ao Menu Principal
@@ -381,17 +475,19 @@ public class TelaCatalogo {
                                 + " itens)");
                     }
                 }
+                case "N" -> {
+                    if (player.tocarEmSeguida(audio)) {
+                        System.out.println("⏭ '" + audio.getTitulo() + "' vai tocar em seguida");
+                    }
+                }
                 case "L" -> {
-                    if (usuario != null) {
-                        boolean curtiu = usuario.curtirAudio(audio);
+                    if (usuario != null && usuarioService != null) {
+                        boolean curtiu = usuarioService.curtirAudio(usuario, audio);
                         if (curtiu) {
                             System.out.println("❤ Você curtiu: " + audio.getDetalhesFormatados());
                         } else {
                             System.out.println("💔 Curtida removida: " + audio.getDetalhesFormatados());
                         }
-                        if (usuarioService != null) {
-                            usuarioService.salvarUsuarios();
-                        }
                     } else {
                         System.out.println("Usuário não disponível.");
                     }
@@ -434,10 +530,7 @@ public class TelaCatalogo {
             int idx = Integer.parseInt(input) - 1;
             if (idx >= 0 && idx < playlists.size()) {
                 Playlist playlist = playlists.get(idx);
-                if (playlist.adicionarItem(audio)) {
-                    if (usuarioService != null) {
-                        usuarioService.salvarUsuarios();
-                    }
+                if (usuarioService.adicionarItemPlaylist(usuario, playlist, audio)) {
                     System.out.println("✓ '" + audio.getTitulo() + "' adicionado à '" + playlist.getNome() + "'");
                 } else {
                     System.out.println("⚠ '" + audio.getTitulo() + "' já existe na playlist.");
@@ -1,12 +1,16 @@
 package menu;
 
 import model.midia.Audio;
+import model.usuario.HistoricoReproducao;
 import model.usuario.Usuario;
+import service.BibliotecaService;
 import service.UsuarioService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Tela de gerenciamento do perfil do usuário.
@@ -20,6 +24,8 @@ import java.util.Scanner;
  * <h2>Funcionalidades</h2>
  * <ul>
  * <li>Visualizar informações do perfil</li>
+ * <li>Ver estatísticas de audição (tempo ouvido, recentes, artistas
+ * mais ouvidos)</li>
  * <li>Ver lista de itens curtidos</li>
  * <li>Alterar senha</li>
  * <li>Excluir conta</li>
@@ -39,6 +45,9 @@ public class TelaPerfil {
     /** Scanner para leitura de entrada do usuário. */
     private final Scanner scanner;
 
+    /** Período dos artistas mais ouvidos, em dias. */
+    private static final int DIAS_TOP_ARTISTAS = 30;
+
     /**
      * Cria a tela de perfil com dependências necessárias.
      * 
@@ -78,6 +87,7 @@ public class TelaPerfil {
                       Playlists: %d
                       Total de Curtidas: %d
                     ═══════════════════════════════════════════
+                    %s═══════════════════════════════════════════
                       [C] Ver itens curtidos
                       [S] Alterar senha
                       [X] Excluir conta
@@ -87,7 +97,8 @@ public class TelaPerfil {
                     usuario.getNome(),
                     usuario.getEmail(),
                     usuario.getPlaylists().size(),
-                    usuario.getCurtidas().size());
+                    usuario.getCurtidas().size(),
+                    formatarEstatisticas());
 
             String cmd = scanner.nextLine().toUpperCase();
             UtilConsole.limparConsole();
@@ -108,6 +119,44 @@ public class TelaPerfil {
         return true;
     }
 
+    /**
+     * Monta as estatísticas do histórico de reprodução.
+     * 
+     * <p>
+     * Os totais vêm de contadores e as consultas percorrem só o começo do
+     * histórico (recentes) ou o período pedido (artistas).
+     * </p>
+     */
+    private String formatarEstatisticas() {
+        HistoricoReproducao historico = usuario.getHistorico();
+        long minutos = historico.getTotalSegundos() / 60;
+        String resultado = "  Tempo ouvido: " + (minutos / 60) + "h " + (minutos % 60) + "min ("
+                + historico.getTotalReproducoes() + " reproduções)\n";
+
+        BibliotecaService biblioteca = BibliotecaService.getInstance();
+        String recentes = "";
+        for (int idAudio : historico.recentes(3)) {
+            Audio audio = biblioteca.getPorId(idAudio);
+            if (audio != null) {
+                recentes = recentes + (recentes.isEmpty() ? "" : ", ") + audio.getTitulo();
+            }
+        }
+        if (!recentes.isEmpty()) {
+            resultado = resultado + "  Ouvidos recentemente: " + recentes + "\n";
+        }
+
+        long desde = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(DIAS_TOP_ARTISTAS);
+        String artistas = "";
+        for (Map.Entry<String, Long> artista : historico.topArtistas(desde, 3, biblioteca::getPorId)) {
+            artistas = artistas + (artistas.isEmpty() ? "" : ", ") + artista.getKey()
+                    + " (" + (artista.getValue() / 60) + " min)";
+        }
+        if (!artistas.isEmpty()) {
+            resultado = resultado + "  Top artistas (" + DIAS_TOP_ARTISTAS + " dias): " + artistas + "\n";
+        }
+        return resultado;
+    }
+
     /**
      * Exibe os itens curtidos com paginação.
      */
@@ -221,8 +270,7 @@ public class TelaPerfil {
             return;
         }
 
-        usuario.alterarSenha(novaSenha);
-        usuarioService.salvarUsuarios();
+        usuarioService.alterarSenha(usuario, novaSenha);
         System.out.println("✅ Senha alterada com sucesso!");
         System.out.print("Pressione Enter para voltar...");
         scanner.nextLine();
@@ -71,6 +71,33 @@ public class Album implements Serializable {
         this.faixas = new ArrayList<>();
     }
 
+    /**
+     * Recria um álbum a partir de dados já persistidos, ainda sem faixas.
+     * 
+     * <p>
+     * Diferente do construtor, preserva o UUID original. Usado pelo
+     * {@link service.persistencia.CodecCatalogo} ao ler o catálogo.
+     * </p>
+     * 
+     * @param id            UUID original do álbum
+     * @param titulo        Título do álbum
+     * @param artista       Artista ou banda
+     * @param anoLancamento Ano de lançamento
+     * @return Álbum restaurado
+     */
+    public static Album restaurar(String id, String titulo, Artista artista, int anoLancamento) {
+        return new Album(id, titulo, artista, anoLancamento);
+    }
+
+    /** Construtor da restauração: não sorteia um UUID novo. */
+    private Album(String id, String titulo, Artista artista, int anoLancamento) {
+        this.id = id;
+        this.titulo = titulo;
+        this.artista = artista;
+        this.anoLancamento = anoLancamento;
+        this.faixas = new ArrayList<>();
+    }
+
     /**
      * Adiciona uma faixa ao final do álbum.
      * 
@@ -65,6 +65,30 @@ public class Artista implements Serializable {
         this.generos = new HashSet<>();
     }
 
+    /**
+     * Recria um artista a partir de dados já persistidos.
+     * 
+     * <p>
+     * Diferente dos construtores, preserva o UUID original. Usado pelo
+     * {@link service.persistencia.CodecCatalogo} ao ler o catálogo.
+     * </p>
+     * 
+     * @param id      UUID original do artista
+     * @param nome    Nome do artista ou banda
+     * @param generos Gêneros musicais
+     * @return Artista restaurado
+     */
+    public static Artista restaurar(String id, String nome, Set<String> generos) {
+        return new Artista(id, nome, generos);
+    }
+
+    /** Construtor da restauração: não sorteia um UUID novo. */
+    private Artista(String id, String nome, Set<String> generos) {
+        this.id = id;
+        this.nome = nome;
+        this.generos = generos != null ? new HashSet<>(generos) : new HashSet<>();
+    }
+
     /**
      * Cria um novo artista com nome e gêneros.
      * 
@@ -1,8 +1,13 @@
 package model.midia;
 
 import interfaces.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Classe abstrata que representa um conteúdo de áudio no sistema
@@ -25,6 +30,21 @@ import java.util.Objects;
  * <li>Map&lt;String, List&lt;Audio&gt;&gt; - Índice de busca</li>
  * </ul>
  * 
+ * <h2>Contadores</h2>
+ * <p>
+ * As reproduções ficam em um {@link LongAdder}: várias sessões tocando o
+ * mesmo áudio ao mesmo tempo incrementam células separadas, sem perder
+ * atualizações nem disputar a mesma linha de cache. Sem disputa, o valor
+ * fica numa única variável, e a leitura (em {@link #toString()} e nos
+ * comparadores de popularidade) continua sendo uma leitura simples.
+ * </p>
+ * <p>
+ * As curtidas também ficam em um {@link LongAdder}. O áudio não confere
+ * se o total passaria de zero: só quem curtiu pode descurtir, e quem
+ * garante isso é o usuário ({@code Usuario.curtirAudio}), sob a trava
+ * dele no {@code UsuarioService}. Os totais são de 64 bits.
+ * </p>
+ * 
  * @see Musica
  * @see Podcast
  * @see Reproduzivel
@@ -40,11 +60,37 @@ public abstract class Audio implements Reproduzivel, Serializable, Comparable<Au
 	/** Duração em segundos. */
 	protected int duracaoSegundos;
 
+	/**
+	 * Campos gravados na serialização. Os totais de 32 bits continuam
+	 * sendo gravados para que arquivos antigos e novos sejam lidos pelas
+	 * duas versões.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("titulo", String.class),
+			new ObjectStreamField("duracaoSegundos", Integer.TYPE),
+			new ObjectStreamField("totalReproducoes", Integer.TYPE),
+			new ObjectStreamField("totalCurtidas", Integer.TYPE),
+			new ObjectStreamField("id", Integer.TYPE),
+			new ObjectStreamField("reproducoes", Long.TYPE),
+			new ObjectStreamField("curtidas", Long.TYPE) };
+
 	/** Contador de reproduções. */
-	private int totalReproducoes;
+	private transient LongAdder totalReproducoes;
 
 	/** Contador de curtidas globais. */
-	private int totalCurtidas;
+	private transient LongAdder totalCurtidas;
+
+	/**
+	 * Identificador estável no catálogo (posição de inserção).
+	 * Valor -1 indica que o áudio ainda não pertence ao catálogo.
+	 */
+	private int id;
+
+	/**
+	 * Ouvinte avisado a cada mudança de curtidas ou reproduções.
+	 * Não é serializado: o catálogo registra o ouvinte ao carregar.
+	 */
+	private transient OuvintePopularidade ouvinte;
 
 	/**
 	 * Construtor para criar um novo áudio.
@@ -55,8 +101,43 @@ public abstract class Audio implements Reproduzivel, Serializable, Comparable<Au
 	public Audio(String titulo, int duracaoSegundos) {
 		this.titulo = titulo;
 		this.duracaoSegundos = duracaoSegundos;
-		this.totalReproducoes = 0;
-		this.totalCurtidas = 0;
+		this.totalReproducoes = new LongAdder();
+		this.totalCurtidas = new LongAdder();
+		this.id = -1; // Atribuído ao entrar no catálogo
+	}
+
+	/**
+	 * Retorna o identificador do áudio no catálogo.
+	 * 
+	 * <p>
+	 * Usuários e playlists guardam apenas este número em disco, em vez
+	 * de uma cópia completa do áudio.
+	 * </p>
+	 * 
+	 * @return Identificador no catálogo, ou -1 se não pertencer a ele
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Define o identificador do áudio no catálogo.
+	 * Chamado apenas pelo BibliotecaService ao adicionar ou carregar áudios.
+	 * 
+	 * @param id Posição do áudio no catálogo
+	 */
+	public void atribuirId(int id) {
+		this.id = id;
+	}
+
+	/**
+	 * Registra o ouvinte de mudanças de popularidade.
+	 * Chamado pelo BibliotecaService para manter o ranking atualizado.
+	 * 
+	 * @param ouvinte Ouvinte a ser avisado (ou null para remover)
+	 */
+	public void registrarOuvinte(OuvintePopularidade ouvinte) {
+		this.ouvinte = ouvinte;
 	}
 
 	/**
@@ -68,30 +149,52 @@ public abstract class Audio implements Reproduzivel, Serializable, Comparable<Au
 		return titulo;
 	}
 
+	/**
+	 * Retorna a duração do áudio.
+	 * 
+	 * @return Duração em segundos
+	 */
+	public int getDuracaoSegundos() {
+		return duracaoSegundos;
+	}
+
 	/**
 	 * Retorna o total de reproduções acumuladas.
 	 * 
+	 * <p>
+	 * Com incrementos simultâneos, o valor é uma fotografia: inclui os
+	 * incrementos concluídos antes da leitura.
+	 * </p>
+	 * 
 	 * @return Número de vezes que o áudio foi reproduzido
 	 */
-	public int getTotalReproducoes() {
-		return totalReproducoes;
+	public long getTotalReproducoes() {
+		return totalReproducoes.sum();
 	}
 
 	/**
 	 * Retorna o total de curtidas (likes) do áudio.
 	 * 
+	 * <p>
+	 * A soma das células não é um retrato atômico: durante uma curtida e
+	 * uma descurtida simultâneas ela pode ver só a descurtida. Por isso o
+	 * resultado é limitado a zero.
+	 * </p>
+	 * 
 	 * @return Número total de curtidas
 	 */
-	public int getTotalCurtidas() {
-		return totalCurtidas;
+	public long getTotalCurtidas() {
+		return Math.max(0, totalCurtidas.sum());
 	}
 
 	/**
 	 * Incrementa o contador de reproduções.
 	 * Chamado automaticamente pelo PlayerService ao reproduzir.
+	 * Pode ser chamado por várias threads ao mesmo tempo.
 	 */
 	public void incrementarReproducao() {
-		this.totalReproducoes++;
+		totalReproducoes.increment();
+		avisarOuvinte();
 	}
 
 	/**
@@ -99,19 +202,81 @@ public abstract class Audio implements Reproduzivel, Serializable, Comparable<Au
 	 * Usado pelo sistema de curtidas do usuário.
 	 */
 	public void curtir() {
-		this.totalCurtidas++;
+		totalCurtidas.increment();
+		avisarOuvinte();
 	}
 
 	/**
-	 * Decrementa o contador de curtidas (se maior que zero).
-	 * Usado quando um usuário remove sua curtida.
+	 * Decrementa o contador de curtidas.
+	 * Usado quando um usuário remove sua curtida; deve ser chamado só
+	 * para uma curtida que ele deu, o que mantém o total não negativo.
 	 */
 	public void descurtir() {
-		if (this.totalCurtidas > 0) {
-			this.totalCurtidas--;
+		totalCurtidas.decrement();
+		avisarOuvinte();
+	}
+
+	/**
+	 * Restaura os totais de reproduções e curtidas lidos do disco.
+	 * Chamado apenas ao carregar o catálogo, antes de o áudio ser
+	 * compartilhado.
+	 * 
+	 * @param reproducoes Total de reproduções
+	 * @param curtidas    Total de curtidas
+	 */
+	public void restaurarContadores(long reproducoes, long curtidas) {
+		totalReproducoes.reset();
+		totalReproducoes.add(reproducoes);
+		totalCurtidas.reset();
+		totalCurtidas.add(curtidas);
+	}
+
+	private void avisarOuvinte() {
+		OuvintePopularidade atual = ouvinte;
+		if (atual != null) {
+			atual.popularidadeAlterada(this);
 		}
 	}
 
+	/**
+	 * Grava o áudio, incluindo os totais antigos de 32 bits (limitados
+	 * a {@link Integer#MAX_VALUE}) para compatibilidade.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		long reproducoes = totalReproducoes.sum();
+		long curtidas = getTotalCurtidas();
+		ObjectOutputStream.PutField campos = out.putFields();
+		campos.put("titulo", titulo);
+		campos.put("duracaoSegundos", duracaoSegundos);
+		campos.put("totalReproducoes", (int) Math.min(reproducoes, Integer.MAX_VALUE));
+		campos.put("totalCurtidas", (int) Math.min(curtidas, Integer.MAX_VALUE));
+		campos.put("id", id);
+		campos.put("reproducoes", reproducoes);
+		campos.put("curtidas", curtidas);
+		out.writeFields();
+	}
+
+	/**
+	 * Lê o áudio. Arquivos gravados antes dos contadores de 64 bits só
+	 * têm os totais de 32 bits.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField campos = in.readFields();
+		titulo = (String) campos.get("titulo", null);
+		duracaoSegundos = campos.get("duracaoSegundos", 0);
+		id = campos.get("id", -1);
+		long reproducoes = campos.defaulted("reproducoes")
+				? campos.get("totalReproducoes", 0)
+				: campos.get("reproducoes", 0L);
+		long curtidas = campos.defaulted("curtidas")
+				? campos.get("totalCurtidas", 0)
+				: campos.get("curtidas", 0L);
+		totalReproducoes = new LongAdder();
+		totalReproducoes.add(reproducoes);
+		totalCurtidas = new LongAdder();
+		totalCurtidas.add(curtidas);
+	}
+
 	/**
 	 * Compara dois áudios pela igualdade de título.
 	 * 
@@ -156,6 +321,6 @@ public abstract class Audio implements Reproduzivel, Serializable, Comparable<Au
 	 */
 	@Override
 	public String toString() {
-		return getDetalhesFormatados() + " | Plays: " + totalReproducoes + " | Likes: " + totalCurtidas;
+		return getDetalhesFormatados() + " | Plays: " + totalReproducoes.sum() + " | Likes: " + getTotalCurtidas();
 	}
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package model.playlist;
 
 import model.midia.Audio;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.IntFunction;
 
 /**
  * Representa uma playlist personalizada do usuário.
@@ -24,6 +31,14 @@ import java.util.List;
  * <li>Suporta iteração sequencial</li>
  * </ul>
  * 
+ * <h2>Persistência</h2>
+ * <p>
+ * Em disco, a playlist guarda apenas os identificadores dos áudios no
+ * catálogo ({@link Audio#getId()}), e não cópias dos objetos. Após a
+ * leitura, {@link #resolverReferencias(IntFunction)} troca os
+ * identificadores pelos áudios já carregados do catálogo.
+ * </p>
+ * 
  * <h2>Exemplo de uso</h2>
  * 
  * <pre>{@code
@@ -39,13 +54,19 @@ import java.util.List;
 public class Playlist implements Serializable {
 
 	/** Identificador de versão para serialização. */
-	private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 2L;
 
 	/** Nome da playlist. */
 	private String nome;
 
-	/** Lista de itens de áudio na playlist. */
-	private List<Audio> itens;
+	/**
+	 * Lista de itens de áudio na playlist.
+	 * Não é serializada diretamente: apenas os IDs vão para o disco.
+	 */
+	private transient List<Audio> itens;
+
+	/** IDs lidos do disco que ainda não foram resolvidos no catálogo. */
+	private transient int[] idsPendentes;
 
 	/**
 	 * Cria uma nova playlist vazia.
@@ -108,6 +129,71 @@ public class Playlist implements Serializable {
 		return nome;
 	}
 
+	/**
+	 * Troca os IDs lidos do disco pelos áudios do catálogo.
+	 * 
+	 * <p>
+	 * IDs que não existem mais no catálogo são descartados.
+	 * </p>
+	 * 
+	 * @param catalogo Função que retorna o áudio de um ID (ou null)
+	 */
+	public void resolverReferencias(IntFunction<Audio> catalogo) {
+		if (idsPendentes == null) {
+			return;
+		}
+		for (int id : idsPendentes) {
+			Audio audio = catalogo.apply(id);
+			if (audio != null) {
+				adicionarItem(audio);
+			}
+		}
+		idsPendentes = null;
+	}
+
+	/**
+	 * Grava o nome e apenas os IDs dos itens.
+	 * Itens que não pertencem ao catálogo (ID -1) não são gravados.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		int[] ids = idsPendentes != null ? idsPendentes : idsDosItens(itens);
+		out.writeInt(ids.length);
+		for (int id : ids) {
+			out.writeInt(id);
+		}
+	}
+
+	/**
+	 * Lê o nome e guarda os IDs para resolução posterior.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int total = in.readInt();
+		idsPendentes = new int[total];
+		for (int i = 0; i < total; i++) {
+			idsPendentes[i] = in.readInt();
+		}
+		itens = new ArrayList<>(total);
+	}
+
+	/**
+	 * Converte uma coleção de áudios nos seus IDs de catálogo.
+	 * 
+	 * @param audios Áudios a converter
+	 * @return IDs dos áudios que pertencem ao catálogo
+	 */
+	public static int[] idsDosItens(Collection<Audio> audios) {
+		int[] ids = new int[audios.size()];
+		int total = 0;
+		for (Audio a : audios) {
+			if (a.getId() >= 0) {
+				ids[total++] = a.getId();
+			}
+		}
+		return total == ids.length ? ids : Arrays.copyOf(ids, total);
+	}
+
 	/**
 	 * Retorna representação textual da playlist.
 	 * 
@@ -0,0 +1,344 @@
+package model.usuario;
+
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Histórico de reprodução de um usuário, com capacidade fixa.
+ *
+ * <p>
+ * Guarda as últimas {@link #getCapacidade()} reproduções em um buffer
+ * circular de vetores paralelos: ID do áudio no catálogo, instante em que
+ * começou a tocar e segundos ouvidos. Quando o buffer enche, a entrada mais
+ * antiga é sobrescrita.
+ * </p>
+ *
+ * <h2>Custo</h2>
+ * <p>
+ * Registrar uma reprodução e somar segundos à mais recente apenas escrevem
+ * nos vetores, sem criar objetos. O total de tempo ouvido e de reproduções
+ * é mantido em contadores, inclusive das entradas já sobrescritas, e as
+ * consultas por período percorrem só as entradas do período, da mais
+ * recente para a mais antiga.
+ * </p>
+ *
+ * <h2>Persistência</h2>
+ * <p>
+ * É gravado junto com o {@link Usuario}: os contadores e as entradas em
+ * ordem cronológica, com o instante como diferença para a entrada anterior
+ * e os números em tamanho variável (um byte para valores pequenos).
+ * </p>
+ *
+ * <h2>Concorrência</h2>
+ * <p>
+ * Os métodos são sincronizados: o player registra as reproduções na
+ * thread do relógio enquanto a tela de perfil consulta o histórico.
+ * </p>
+ *
+ * @see Usuario#getHistorico()
+ */
+public class HistoricoReproducao implements Serializable {
+
+	/** Identificador de versão para serialização. */
+	private static final long serialVersionUID = 1L;
+
+	/** Capacidade usada para novos usuários. */
+	public static final int CAPACIDADE_PADRAO = 1024;
+
+	/** IDs dos áudios no catálogo. */
+	private transient int[] ids;
+
+	/** Instantes de início, em milissegundos desde a época. */
+	private transient long[] instantes;
+
+	/** Segundos ouvidos de cada reprodução. */
+	private transient int[] segundos;
+
+	/** Posição em que a próxima entrada será escrita. */
+	private transient int proxima;
+
+	/** Entradas válidas (até a capacidade). */
+	private transient int tamanho;
+
+	/** Segundos ouvidos desde a criação, inclusive de entradas sobrescritas. */
+	private transient long totalSegundos;
+
+	/** Reproduções desde a criação, inclusive de entradas sobrescritas. */
+	private transient long totalReproducoes;
+
+	/**
+	 * Cria um histórico vazio.
+	 *
+	 * @param capacidade Quantidade de reproduções guardadas
+	 * @throws IllegalArgumentException Se a capacidade não for positiva
+	 */
+	public HistoricoReproducao(int capacidade) {
+		if (capacidade <= 0) {
+			throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacidade);
+		}
+		alocar(capacidade);
+	}
+
+	private void alocar(int capacidade) {
+		this.ids = new int[capacidade];
+		this.instantes = new long[capacidade];
+		this.segundos = new int[capacidade];
+	}
+
+	/**
+	 * Registra o início de uma reprodução.
+	 *
+	 * @param idAudio ID do áudio no catálogo
+	 * @param instante Instante de início, em milissegundos desde a época
+	 */
+	public synchronized void registrar(int idAudio, long instante) {
+		ids[proxima] = idAudio;
+		instantes[proxima] = instante;
+		segundos[proxima] = 0;
+		proxima = (proxima + 1) % ids.length;
+		if (tamanho < ids.length) {
+			tamanho++;
+		}
+		totalReproducoes++;
+	}
+
+	/**
+	 * Soma segundos ouvidos à reprodução mais recente, se ela for do áudio
+	 * informado.
+	 *
+	 * @param idAudio ID do áudio que estava tocando
+	 * @param ouvidos Segundos ouvidos
+	 * @return true se somou, false se a última reprodução é de outro áudio
+	 */
+	public synchronized boolean acumular(int idAudio, int ouvidos) {
+		if (tamanho == 0 || ouvidos <= 0) {
+			return false;
+		}
+		int ultima = posicao(0);
+		if (ids[ultima] != idAudio) {
+			return false;
+		}
+		segundos[ultima] += ouvidos;
+		totalSegundos += ouvidos;
+		return true;
+	}
+
+	/**
+	 * Retorna os áudios tocados mais recentemente, sem repetições.
+	 *
+	 * @param limite Quantidade máxima de IDs
+	 * @return IDs do mais recente para o mais antigo
+	 */
+	public synchronized int[] recentes(int limite) {
+		int[] resultado = new int[Math.min(limite, tamanho)];
+		int encontrados = 0;
+		for (int i = 0; i < tamanho && encontrados < resultado.length; i++) {
+			int idAudio = ids[posicao(i)];
+			boolean repetido = false;
+			for (int j = 0; j < encontrados && !repetido; j++) {
+				repetido = resultado[j] == idAudio;
+			}
+			if (!repetido) {
+				resultado[encontrados++] = idAudio;
+			}
+		}
+		return Arrays.copyOf(resultado, encontrados);
+	}
+
+	/**
+	 * Retorna os artistas (ou apresentadores) mais ouvidos desde um instante,
+	 * por segundos ouvidos.
+	 *
+	 * <p>
+	 * Percorre apenas as entradas a partir do instante, da mais recente para
+	 * trás. Reproduções sem tempo ouvido contam como um segundo, para que
+	 * apareçam mesmo sem relógio de reprodução.
+	 * </p>
+	 *
+	 * @param desde    Instante inicial, em milissegundos desde a época
+	 * @param limite   Quantidade máxima de artistas
+	 * @param catalogo Função que retorna o áudio de um ID (ou null)
+	 * @return Pares (artista, segundos), do mais ouvido para o menos ouvido
+	 */
+	public synchronized List<Map.Entry<String, Long>> topArtistas(long desde, int limite,
+			IntFunction<Audio> catalogo) {
+		Map<String, Long> porArtista = new HashMap<>();
+		for (int i = 0; i < tamanho; i++) {
+			int p = posicao(i);
+			if (instantes[p] < desde) {
+				break; // Entradas mais antigas que o período
+			}
+			String artista = nomeDoAutor(catalogo.apply(ids[p]));
+			if (artista != null) {
+				porArtista.merge(artista, (long) Math.max(1, segundos[p]), Long::sum);
+			}
+		}
+		List<Map.Entry<String, Long>> ordenados = new ArrayList<>(porArtista.entrySet());
+		ordenados.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+				.thenComparing(Map.Entry.comparingByKey()));
+		return ordenados.subList(0, Math.min(limite, ordenados.size()));
+	}
+
+	/**
+	 * Retorna o total de segundos ouvidos, inclusive de reproduções que já
+	 * saíram do histórico.
+	 *
+	 * @return Segundos ouvidos
+	 */
+	public synchronized long getTotalSegundos() {
+		return totalSegundos;
+	}
+
+	/**
+	 * Retorna o total de reproduções, inclusive das que já saíram do
+	 * histórico.
+	 *
+	 * @return Quantidade de reproduções
+	 */
+	public synchronized long getTotalReproducoes() {
+		return totalReproducoes;
+	}
+
+	/**
+	 * Retorna a quantidade de reproduções guardadas.
+	 *
+	 * @return Entradas no histórico (até a capacidade)
+	 */
+	public synchronized int getTamanho() {
+		return tamanho;
+	}
+
+	/**
+	 * Retorna quantas reproduções o histórico guarda.
+	 *
+	 * @return Capacidade
+	 */
+	public int getCapacidade() {
+		return ids.length;
+	}
+
+	/**
+	 * Retorna o ID do áudio de uma entrada.
+	 *
+	 * @param i Entrada, contando da mais recente (0)
+	 * @return ID do áudio no catálogo
+	 */
+	public synchronized int getIdAudio(int i) {
+		return ids[posicaoValida(i)];
+	}
+
+	/**
+	 * Retorna o instante de início de uma entrada.
+	 *
+	 * @param i Entrada, contando da mais recente (0)
+	 * @return Instante em milissegundos desde a época
+	 */
+	public synchronized long getInstante(int i) {
+		return instantes[posicaoValida(i)];
+	}
+
+	/**
+	 * Retorna os segundos ouvidos de uma entrada.
+	 *
+	 * @param i Entrada, contando da mais recente (0)
+	 * @return Segundos ouvidos
+	 */
+	public synchronized int getSegundos(int i) {
+		return segundos[posicaoValida(i)];
+	}
+
+	/** Posição no vetor da i-ésima entrada mais recente. */
+	private int posicao(int i) {
+		return Math.floorMod(proxima - 1 - i, ids.length);
+	}
+
+	private int posicaoValida(int i) {
+		if (i < 0 || i >= tamanho) {
+			throw new IndexOutOfBoundsException("Entrada " + i + " fora de 0.." + (tamanho - 1));
+		}
+		return posicao(i);
+	}
+
+	private static String nomeDoAutor(Audio audio) {
+		if (audio instanceof Musica musica) {
+			return musica.getNomeArtista();
+		}
+		if (audio instanceof Podcast podcast) {
+			return podcast.getApresentador();
+		}
+		return null;
+	}
+
+	/**
+	 * Grava os contadores e as entradas em ordem cronológica, com números
+	 * de tamanho variável.
+	 */
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		escreverVariavel(out, ids.length);
+		escreverVariavel(out, tamanho);
+		escreverVariavel(out, totalSegundos);
+		escreverVariavel(out, totalReproducoes);
+		long anterior = 0;
+		for (int i = tamanho - 1; i >= 0; i--) {
+			int p = posicao(i);
+			escreverVariavel(out, ids[p]);
+			escreverVariavel(out, instantes[p] - anterior); // Diferença: quase sempre poucos bytes
+			escreverVariavel(out, segundos[p]);
+			anterior = instantes[p];
+		}
+	}
+
+	/**
+	 * Lê o formato gravado por {@link #writeObject(ObjectOutputStream)}.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int capacidade = (int) lerVariavel(in);
+		int total = (int) lerVariavel(in);
+		if (capacidade <= 0 || total < 0 || total > capacidade) {
+			throw new IOException("Histórico corrompido: " + total + "/" + capacidade);
+		}
+		alocar(capacidade);
+		totalSegundos = lerVariavel(in);
+		totalReproducoes = lerVariavel(in);
+		long instante = 0;
+		for (int i = 0; i < total; i++) {
+			ids[i] = (int) lerVariavel(in);
+			instante += lerVariavel(in);
+			instantes[i] = instante;
+			segundos[i] = (int) lerVariavel(in);
+		}
+		tamanho = total;
+		proxima = total % capacidade;
+	}
+
+	/** Grava um número não negativo em grupos de 7 bits (LEB128). */
+	private static void escreverVariavel(ObjectOutputStream out, long valor) throws IOException {
+		while ((valor & ~0x7FL) != 0) {
+			out.writeByte((int) ((valor & 0x7F) | 0x80));
+			valor >>>= 7;
+		}
+		out.writeByte((int) valor);
+	}
+
+	private static long lerVariavel(ObjectInputStream in) throws IOException {
+		long valor = 0;
+		for (int deslocamento = 0; deslocamento < Long.SIZE; deslocamento += 7) {
+			int b = in.readUnsignedByte();
+			valor |= (long) (b & 0x7F) << deslocamento;
+			if ((b & 0x80) == 0) {
+				return valor;
+			}
+		}
+		throw new IOException("Número de tamanho variável inválido");
+	}
+}
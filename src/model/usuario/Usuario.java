@@ -3,17 +3,22 @@ package model.usuario;
 import model.midia.Audio;
 import model.playlist.Playlist;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.IntFunction;
 
 /**
  * Representa um usuário do sistema AudioStreaming.
  * 
  * <p>
- * Esta classe gerencia autenticação, playlists pessoais e curtidas.
+ * Esta classe gerencia autenticação, playlists pessoais, curtidas e o
+ * histórico de reprodução.
  * Implementa {@link Serializable} para permitir persistência em disco.
  * </p>
  * 
@@ -30,12 +35,20 @@ import java.util.*;
  * <li>Set&lt;Audio&gt; - Evita curtidas duplicadas, busca O(1)</li>
  * </ul>
  * 
+ * <h2>Persistência</h2>
+ * <p>
+ * Curtidas e itens de playlists são gravados em disco apenas como IDs
+ * do catálogo. Depois da leitura, {@link #resolverReferencias(IntFunction)}
+ * liga o usuário aos mesmos objetos {@link Audio} carregados pelo
+ * catálogo, sem cópias duplicadas em memória.
+ * </p>
+ * 
  * @see Playlist
  */
 public class Usuario implements Serializable {
 
 	/** Identificador de versão para serialização. */
-	private static final long serialVersionUID = 3L;
+	private static final long serialVersionUID = 4L;
 
 	/** Identificador único do usuário (UUID). */
 	private String id;
@@ -43,8 +56,11 @@ public class Usuario implements Serializable {
 	/** Email do usuário (usado para login). */
 	private String email;
 
-	/** Hash SHA-256 da senha (nunca texto plano). */
-	private String senhaHash;
+	/**
+	 * Hash SHA-256 da senha (nunca texto plano).
+	 * Volátil porque o login o lê sem travas.
+	 */
+	private volatile String senhaHash;
 
 	/** Nome de exibição do usuário. */
 	private String nome;
@@ -52,12 +68,24 @@ public class Usuario implements Serializable {
 	/** Lista de playlists pessoais do usuário. */
 	private List<Playlist> playlists;
 
-	/** Conjunto de áudios curtidos (sem duplicatas). */
-	private Set<Audio> curtidas;
+	/**
+	 * Conjunto de áudios curtidos (sem duplicatas).
+	 * Não é serializado diretamente: apenas os IDs vão para o disco.
+	 */
+	private transient Set<Audio> curtidas;
+
+	/** IDs de curtidas lidos do disco e ainda não resolvidos. */
+	private transient int[] idsCurtidasPendentes;
 
 	/** Índice salvo da última posição no player. */
 	private int estadoPlayerIndice;
 
+	/**
+	 * Últimas reproduções e tempo ouvido.
+	 * Ausente em arquivos gravados antes do histórico (criado ao ler).
+	 */
+	private HistoricoReproducao historico;
+
 	/**
 	 * Cria um novo usuário com autenticação.
 	 * 
@@ -78,6 +106,29 @@ public class Usuario implements Serializable {
 		this.playlists = new ArrayList<>(); // Lista ordenada
 		this.curtidas = new HashSet<>(); // Set para evitar duplicatas
 		this.estadoPlayerIndice = -1; // Nenhum estado salvo
+		this.historico = new HistoricoReproducao(HistoricoReproducao.CAPACIDADE_PADRAO);
+	}
+
+	/**
+	 * Recria um usuário a partir de dados já persistidos.
+	 * 
+	 * <p>
+	 * Diferente do construtor, recebe o hash da senha (e não a senha em
+	 * texto plano) e preserva o UUID original. Usado ao reaplicar o
+	 * journal de alterações.
+	 * </p>
+	 * 
+	 * @param id        UUID original do usuário
+	 * @param email     Email normalizado
+	 * @param senhaHash Hash SHA-256 da senha
+	 * @param nome      Nome de exibição
+	 * @return Usuário restaurado
+	 */
+	public static Usuario restaurar(String id, String email, String senhaHash, String nome) {
+		Usuario usuario = new Usuario(email, "", nome);
+		usuario.id = id;
+		usuario.senhaHash = senhaHash;
+		return usuario;
 	}
 
 	/**
@@ -138,6 +189,20 @@ public class Usuario implements Serializable {
 		this.senhaHash = hashSenha(novaSenha);
 	}
 
+	/**
+	 * Substitui diretamente o hash da senha.
+	 * 
+	 * <p>
+	 * Usado apenas na restauração de dados persistidos, onde a senha
+	 * em texto plano não está disponível.
+	 * </p>
+	 * 
+	 * @param senhaHash Hash SHA-256 da senha
+	 */
+	public void restaurarSenhaHash(String senhaHash) {
+		this.senhaHash = senhaHash;
+	}
+
 	/**
 	 * Cria uma nova playlist para o usuário.
 	 * 
@@ -154,7 +219,9 @@ public class Usuario implements Serializable {
 	 * <p>
 	 * Se o áudio já está curtido, remove a curtida.
 	 * Se não está curtido, adiciona a curtida.
-	 * Atualiza também o contador global de curtidas do áudio.
+	 * Atualiza também o contador global de curtidas do áudio, que só é
+	 * decrementado por uma curtida que está no Set; é isso que impede o
+	 * total de ficar negativo.
 	 * </p>
 	 * 
 	 * @param audio Áudio para curtir/descurtir
@@ -195,6 +262,20 @@ public class Usuario implements Serializable {
 		return email;
 	}
 
+	/**
+	 * Retorna o hash SHA-256 da senha.
+	 * 
+	 * <p>
+	 * Necessário para persistir alterações de senha no journal.
+	 * A senha original nunca é exposta.
+	 * </p>
+	 * 
+	 * @return Hash da senha em hexadecimal
+	 */
+	public String getSenhaHash() {
+		return senhaHash;
+	}
+
 	/**
 	 * Retorna a lista de playlists do usuário.
 	 * 
@@ -240,6 +321,69 @@ public class Usuario implements Serializable {
 		this.estadoPlayerIndice = indice;
 	}
 
+	/**
+	 * Retorna o histórico de reprodução do usuário.
+	 * 
+	 * @return Histórico de reprodução
+	 */
+	public HistoricoReproducao getHistorico() {
+		return historico;
+	}
+
+	/**
+	 * Troca os IDs lidos do disco pelos áudios do catálogo.
+	 * 
+	 * <p>
+	 * Resolve as curtidas e os itens de todas as playlists. IDs que não
+	 * existem mais no catálogo são descartados.
+	 * </p>
+	 * 
+	 * @param catalogo Função que retorna o áudio de um ID (ou null)
+	 */
+	public void resolverReferencias(IntFunction<Audio> catalogo) {
+		if (idsCurtidasPendentes != null) {
+			for (int idAudio : idsCurtidasPendentes) {
+				Audio audio = catalogo.apply(idAudio);
+				if (audio != null) {
+					curtidas.add(audio);
+				}
+			}
+			idsCurtidasPendentes = null;
+		}
+		for (Playlist p : playlists) {
+			p.resolverReferencias(catalogo);
+		}
+	}
+
+	/**
+	 * Grava os campos do usuário e apenas os IDs das curtidas.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		int[] ids = idsCurtidasPendentes != null ? idsCurtidasPendentes : Playlist.idsDosItens(curtidas);
+		out.writeInt(ids.length);
+		for (int idAudio : ids) {
+			out.writeInt(idAudio);
+		}
+	}
+
+	/**
+	 * Lê os campos do usuário e guarda os IDs das curtidas para
+	 * resolução posterior.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int total = in.readInt();
+		idsCurtidasPendentes = new int[total];
+		for (int i = 0; i < total; i++) {
+			idsCurtidasPendentes[i] = in.readInt();
+		}
+		curtidas = new HashSet<>();
+		if (historico == null) {
+			historico = new HistoricoReproducao(HistoricoReproducao.CAPACIDADE_PADRAO);
+		}
+	}
+
 	/**
 	 * Compara usuários pela igualdade de ID.
 	 * 
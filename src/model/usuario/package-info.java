@@ -9,6 +9,8 @@
  * <h2>Classes Disponíveis</h2>
  * <ul>
  * <li>{@link model.usuario.Usuario} - Representa um usuário do sistema</li>
+ * <li>{@link model.usuario.HistoricoReproducao} - Últimas reproduções e
+ * tempo ouvido, em buffer circular de vetores primitivos</li>
  * </ul>
  * 
  * <h2>Funcionalidades do Usuário</h2>
@@ -17,6 +19,7 @@
  * <li>Playlists personalizadas (List&lt;Playlist&gt;)</li>
  * <li>Sistema de curtidas (Set&lt;Audio&gt;)</li>
  * <li>Persistência do estado do player</li>
+ * <li>Histórico de reprodução com estatísticas de audição</li>
  * </ul>
  * 
  * <h2>Uso de Coleções</h2>
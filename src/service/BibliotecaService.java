@@ -1,9 +1,31 @@
 package service;
 
+import exception.PersistenciaException;
+import exception.ValidacaoException;
+import interfaces.OuvintePopularidade;
 import model.midia.*;
+import service.busca.BitmapIds;
+import service.busca.CacheBusca;
+import service.busca.Consulta;
+import service.busca.IndiceBusca;
+import service.busca.IndiceCampos;
+import service.busca.Normalizador;
+import service.busca.ResultadoBusca;
+import service.busca.TrieSugestoes;
+import service.persistencia.ArquivoSnapshot;
+import service.persistencia.CatalogoMapeado;
+import service.persistencia.CodecCatalogo;
+import service.ranking.RankingPopularidade;
 
 import java.io.*;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
 
 /**
  * Serviço responsável pelo gerenciamento do catálogo global de áudios.
@@ -28,15 +50,54 @@ import java.util.*;
  * <h2>Uso de Coleções</h2>
  * <ul>
  * <li>List&lt;Audio&gt; - Catálogo principal, mantém ordem de inserção</li>
- * <li>Map&lt;String, List&lt;Audio&gt;&gt; - Índice de busca rápida O(1)</li>
+ * <li>{@link IndiceBusca} - Índice invertido de termos e n-gramas para
+ * busca por substring sem percorrer o catálogo</li>
+ * <li>{@link IndiceCampos} - Índices por artista, gênero, ano e tipo
+ * para os filtros da busca, em conjuntos {@link BitmapIds}</li>
  * <li>Map&lt;String, Artista&gt; - Cache de artistas para evitar
  * duplicatas</li>
+ * <li>{@link RankingPopularidade} - Ranking por curtidas e reproduções,
+ * atualizado em lote, O(log n) por áudio alterado</li>
+ * <li>{@link TrieSugestoes} - Árvore de prefixos para autocompletar,
+ * com as sugestões mais populares de cada prefixo</li>
+ * <li>{@link CacheBusca} - Resultados das buscas mais frequentes,
+ * invalidados pela versão do catálogo</li>
+ * </ul>
+ * 
+ * <h2>Concorrência</h2>
+ * <p>
+ * O serviço é compartilhado por todas as sessões:
+ * </p>
+ * <ul>
+ * <li>O catálogo é publicado como uma fotografia imutável a cada áudio
+ * adicionado; {@link #getCatalogo()} e {@link #getPorId(int)} apenas
+ * leem a fotografia atual, sem travas</li>
+ * <li>As escritas nos índices ({@link #adicionarAudio(Audio)} e o
+ * carregamento) usam a trava de escrita de um {@link StampedLock}</li>
+ * <li>As buscas leem os índices com a trava de leitura, compartilhada
+ * entre elas; as buscas repetidas vêm do cache, sem trava</li>
+ * <li>{@link #getCatalogoPorPopularidade()} lê a lista publicada pelo
+ * ranking, refeita apenas quando a ordem muda</li>
+ * <li>Reproduções e curtidas só marcam o áudio como alterado; o ranking
+ * e o autocompletar, sincronizados, são atualizados em lote por quem os
+ * consulta, e nunca na thread que está tocando</li>
  * </ul>
  * 
  * <h2>Persistência</h2>
  * <p>
- * Os dados são salvos/carregados via serialização Java no arquivo
- * "catalogo.db".
+ * Os dados são salvos/carregados no arquivo "catalogo.db", no formato
+ * binário de {@link CodecCatalogo}. Ao carregar, o arquivo é mapeado em
+ * memória e os áudios são decodificados quando acessados; os índices
+ * são montados em segundo plano, a partir dos campos gravados, sem
+ * decodificar os áudios. Um catálogo antigo, gravado por
+ * serialização Java, ainda é lido e passa ao formato novo na próxima
+ * gravação.
+ * </p>
+ * <p>
+ * A gravação e a verificação ficam em {@link ArquivoSnapshot}: o arquivo
+ * é trocado de uma vez, com somas de verificação, e a versão anterior é
+ * guardada. O catálogo de demonstração só é criado quando não há
+ * arquivo algum; um arquivo corrompido nunca é substituído por ele.
  * </p>
  * 
  * @see Audio
@@ -44,30 +105,88 @@ import java.util.*;
  */
 public class BibliotecaService {
 
-    /** Instância única do serviço (Singleton). */
-    private static BibliotecaService instance;
-
     /** Nome do arquivo para persistência do catálogo. */
     private static final String ARQUIVO_CATALOGO = "catalogo.db";
 
+    /** Peso do logaritmo das curtidas no bônus de popularidade da busca. */
+    private static final double PESO_CURTIDAS = 0.5;
+
+    /** Peso do logaritmo das reproduções no bônus de popularidade da busca. */
+    private static final double PESO_REPRODUCOES = 0.2;
+
+    /** Total de IDs guardados no cache de buscas. */
+    private static final int CAPACIDADE_CACHE_BUSCA = 50_000;
+
+    /** Quantidade esperada de buscas distintas no cache. */
+    private static final int ENTRADAS_CACHE_BUSCA = 1_000;
+
+    /**
+     * Fotografia atual do catálogo, em ordem de inserção.
+     * Substituída (nunca alterada) a cada escrita; leitores usam a que
+     * estiver publicada, sem travas.
+     */
+    private volatile Instantaneo atual;
+
+    /**
+     * Trava dos índices. Escritas usam a trava exclusiva; buscas, a
+     * trava de leitura.
+     */
+    private final StampedLock trava;
+
     /**
-     * Catálogo principal de áudios.
-     * Usa List para manter ordem de inserção e permitir iteração sequencial.
+     * Índice invertido de busca (termos e n-gramas normalizados).
+     * Permite buscas por substring com custo proporcional ao número
+     * de resultados, e não ao tamanho do catálogo.
      */
-    private List<Audio> catalogo;
+    private final IndiceBusca indiceBusca;
 
     /**
-     * Índice de busca rápida por termo.
-     * Chave: termo em minúsculo, Valor: lista de áudios correspondentes.
-     * Permite busca em O(1) por termos exatos.
+     * Índices por campo (artista, gênero, ano e tipo) para os filtros
+     * da busca, como {@code genre:forro year:1970..1980}.
      */
-    private Map<String, List<Audio>> indiceBusca;
+    private final IndiceCampos indiceCampos;
 
     /**
      * Cache de artistas para evitar criar duplicatas.
      * Chave: nome em minúsculo, Valor: objeto Artista.
      */
-    private Map<String, Artista> artistas;
+    private final ConcurrentHashMap<String, Artista> artistas;
+
+    /**
+     * Ranking de popularidade do catálogo.
+     * Recebe os áudios alterados a cada consulta, então as listagens por
+     * popularidade não precisam ordenar nada.
+     */
+    private final RankingPopularidade ranking;
+
+    /**
+     * Árvore de prefixos com títulos, artistas e álbuns para
+     * autocompletar a busca.
+     */
+    private final TrieSugestoes sugestoes;
+
+    /**
+     * Cache dos IDs encontrados pelas buscas mais frequentes, com a
+     * relevância do texto. Não guarda a popularidade, que é somada na
+     * leitura, então curtidas e reproduções não invalidam nada.
+     */
+    private final CacheBusca<Encontrados> cacheBusca;
+
+    /**
+     * IDs dos áudios cujas curtidas ou reproduções mudaram desde a última
+     * atualização do ranking e do autocompletar. Um áudio tocado muitas
+     * vezes entre duas consultas aparece uma vez só.
+     */
+    private final Set<Integer> popularidadePendente;
+
+    /** Ouvinte registrado em cada áudio do catálogo. */
+    private final OuvintePopularidade ouvinte;
+
+    /**
+     * Liberada quando os índices cobrem todo o catálogo carregado do
+     * disco. Substituída a cada carregamento.
+     */
+    private volatile CountDownLatch indexacao;
 
     /**
      * Construtor privado (Singleton).
@@ -77,9 +196,17 @@ public class BibliotecaService {
      * </p>
      */
     private BibliotecaService() {
-        catalogo = new ArrayList<>();
-        indiceBusca = new HashMap<>();
-        artistas = new HashMap<>();
+        atual = new Instantaneo(List.of(), new Audio[16], 0, 0);
+        trava = new StampedLock();
+        indiceBusca = new IndiceBusca();
+        indiceCampos = new IndiceCampos();
+        artistas = new ConcurrentHashMap<>();
+        ranking = new RankingPopularidade(this::getPorId);
+        sugestoes = new TrieSugestoes();
+        cacheBusca = new CacheBusca<>(CAPACIDADE_CACHE_BUSCA, ENTRADAS_CACHE_BUSCA, Encontrados::peso);
+        popularidadePendente = ConcurrentHashMap.newKeySet();
+        ouvinte = this::popularidadeAlterada;
+        indexacao = new CountDownLatch(0);
     }
 
     /**
@@ -87,16 +214,22 @@ public class BibliotecaService {
      * 
      * <p>
      * Cria a instância na primeira chamada (lazy initialization).
-     * Chamadas subsequentes retornam a mesma instância.
+     * Chamadas subsequentes retornam a mesma instância. A criação fica a
+     * cargo da inicialização da classe {@link Instancia}, que a JVM
+     * garante acontecer uma única vez, mesmo com várias threads.
      * </p>
      * 
      * @return Instância única do BibliotecaService
      */
     public static BibliotecaService getInstance() {
-        if (instance == null) {
-            instance = new BibliotecaService();
-        }
-        return instance;
+        return Instancia.UNICA;
+    }
+
+    /**
+     * Guarda a instância única, criada quando esta classe é carregada.
+     */
+    private static final class Instancia {
+        private static final BibliotecaService UNICA = new BibliotecaService();
     }
 
     /**
@@ -105,92 +238,437 @@ public class BibliotecaService {
      * <p>
      * Evita duplicação de artistas usando um cache Map.
      * A busca é case-insensitive (ignora maiúsculas/minúsculas).
+     * A criação é atômica: chamadas simultâneas com o mesmo nome recebem
+     * o mesmo artista.
      * </p>
      * 
      * @param nome Nome do artista
      * @return Artista existente ou recém-criado
      */
     public Artista getOuCriarArtista(String nome) {
-        String chave = nome.toLowerCase();
-        if (!artistas.containsKey(chave)) {
-            artistas.put(chave, new Artista(nome));
-        }
-        return artistas.get(chave);
+        return artistas.computeIfAbsent(nome.toLowerCase(), chave -> new Artista(nome));
     }
 
     /**
      * Adiciona um áudio ao catálogo e atualiza o índice de busca.
      * 
+     * <p>
+     * O áudio recebe como ID a sua posição no catálogo. Como o catálogo
+     * só cresce, o ID permanece estável entre execuções.
+     * </p>
+     * 
+     * <p>
+     * Indexa o áudio com a trava de escrita e só então publica a nova
+     * fotografia do catálogo, que passa a incluí-lo.
+     * </p>
+     * 
      * @param audio Áudio a ser adicionado ao catálogo
      */
     public void adicionarAudio(Audio audio) {
-        catalogo.add(audio);
-        indexarAudio(audio);
+        long stamp = trava.writeLock();
+        try {
+            Instantaneo anterior = atual;
+            audio.atribuirId(anterior.tamanho);
+            indexarAudio(audio);
+            atual = anterior.com(audio);
+        } finally {
+            trava.unlockWrite(stamp);
+        }
     }
 
     /**
-     * Cria entradas no Map de índice baseadas no título e (se for música) no
-     * artista.
+     * Inclui o áudio nos índices de busca, no autocompletar e no ranking,
+     * e passa a receber suas mudanças de popularidade.
      */
     private void indexarAudio(Audio audio) {
-        // Indexar por título
-        String chaveTitulo = audio.getTitulo().toLowerCase();
-        adicionarAoIndice(chaveTitulo, audio);
+        // Ouvinte primeiro: uma mudança antes da inserção no autocompletar
+        // ou no ranking é lida por eles, e as seguintes chegam pelo aviso
+        audio.registrarOuvinte(ouvinte);
+        indiceBusca.indexar(audio);
+        indiceCampos.indexar(audio);
+        sugestoes.indexar(audio,
+                IndiceBusca.textoDoCampo(audio, IndiceBusca.Campo.TITULO),
+                IndiceBusca.textoDoCampo(audio, IndiceBusca.Campo.ARTISTA),
+                IndiceBusca.textoDoCampo(audio, IndiceBusca.Campo.ALBUM));
+        ranking.inserir(audio);
+    }
 
-        // Se for música, indexar por artista
-        if (audio instanceof Musica) {
-            String chaveArtista = ((Musica) audio).getNomeArtista().toLowerCase();
-            adicionarAoIndice(chaveArtista, audio);
-        }
+    /**
+     * Marca o áudio cujas curtidas ou reproduções mudaram.
+     * 
+     * <p>
+     * Roda na thread que tocou ou curtiu, então não disputa as travas do
+     * ranking nem do autocompletar: a mudança é aplicada por
+     * {@link #aplicarPopularidadePendente()}.
+     * </p>
+     */
+    private void popularidadeAlterada(Audio audio) {
+        popularidadePendente.add(audio.getId());
     }
 
-    private void adicionarAoIndice(String chave, Audio audio) {
-        if (!indiceBusca.containsKey(chave)) {
-            indiceBusca.put(chave, new ArrayList<>());
+    /**
+     * Repassa ao ranking e ao autocompletar os áudios alterados desde a
+     * última consulta.
+     * 
+     * <p>
+     * Cada ID sai do conjunto antes de os contadores serem lidos: uma
+     * mudança que chegue durante a atualização marca o áudio de novo e
+     * entra na próxima.
+     * </p>
+     */
+    private void aplicarPopularidadePendente() {
+        if (popularidadePendente.isEmpty()) {
+            return;
+        }
+        Iterator<Integer> pendentes = popularidadePendente.iterator();
+        while (pendentes.hasNext()) {
+            int id = pendentes.next();
+            pendentes.remove();
+            Audio audio = getPorId(id);
+            if (audio != null) {
+                ranking.popularidadeAlterada(audio);
+                sugestoes.popularidadeAlterada(audio);
+            }
         }
-        indiceBusca.get(chave).add(audio);
     }
 
     /**
      * Busca áudios por termo no catálogo.
      * 
      * <p>
-     * Realiza busca O(1) média no Map para termos exatos,
-     * ou O(N) parcial se for substring.
+     * Retorna os áudios cujo título, artista, álbum ou apresentador
+     * contém o termo, ignorando acentos e maiúsculas ("ze ramalho"
+     * encontra "Zé Ramalho"). A busca usa o índice invertido de
+     * n-gramas, sem percorrer o catálogo.
+     * </p>
+     * 
+     * <p>
+     * Aceita os mesmos filtros por campo de
+     * {@link #buscar(String, boolean)}.
+     * </p>
+     * 
+     * @param termo Termo de busca
+     * @return Lista de áudios que correspondem ao termo, na ordem do catálogo
+     * @throws ValidacaoException Se um filtro for inválido
+     */
+    public List<Audio> buscar(String termo) throws ValidacaoException {
+        return buscar(termo, false);
+    }
+
+    /**
+     * Busca áudios por termo, opcionalmente tolerando erros de digitação.
+     * 
+     * <p>
+     * Com a busca aproximada ligada, "bohemian rapsody" ou "belchoir"
+     * também encontram "Bohemian Rhapsody" e "Belchior". Os resultados
+     * exatos (os mesmos de {@link #buscar(String)}) vêm primeiro; os
+     * aproximados vêm depois, dos mais para os menos parecidos. Com ela
+     * desligada, apenas o caminho exato é executado.
      * </p>
      * 
-     * @param termo Termo de busca (título ou artista)
-     * @return Lista de áudios que correspondem ao termo
+     * <p>
+     * O termo pode conter filtros por campo ({@link Consulta}), como
+     * {@code genre:forró year:1970..1980 type:musica}. Cada filtro é
+     * respondido pelo seu índice, e o resultado é a interseção dos
+     * filtros com a busca pelo restante do texto.
+     * </p>
+     * 
+     * @param termo      Termo de busca, com filtros opcionais
+     * @param aproximada true para incluir resultados com erros de
+     *                   digitação
+     * @return Lista de áudios que correspondem ao termo, exatos primeiro
+     * @throws ValidacaoException Se um filtro for inválido (ex.:
+     *                            {@code year:abc})
      */
-    public List<Audio> buscar(String termo) {
-        termo = termo.toLowerCase();
+    public List<Audio> buscar(String termo, boolean aproximada) throws ValidacaoException {
+        return buscar(termo, aproximada, null);
+    }
 
-        // Tentativa de busca exata no índice (muito rápido)
-        if (indiceBusca.containsKey(termo)) {
-            return indiceBusca.get(termo);
+    /**
+     * Busca áudios por termo e filtros, incluindo o filtro de curtidas
+     * do usuário.
+     * 
+     * <p>
+     * As cláusulas são avaliadas com E, OU ({@code genre:forro,mpb}) e
+     * NÃO ({@code -genre:rock}) sobre conjuntos em bitmap
+     * ({@link BitmapIds}), sem montar listas de áudios intermediárias.
+     * {@code liked:sim} usa as curtidas informadas.
+     * </p>
+     * 
+     * @param termo      Termo de busca, com filtros opcionais
+     * @param aproximada true para incluir resultados com erros de
+     *                   digitação
+     * @param curtidas   Áudios curtidos pelo usuário, ou null se não
+     *                   houver usuário logado
+     * @return Lista de áudios que correspondem ao termo, exatos primeiro
+     * @throws ValidacaoException Se um filtro for inválido, ou se
+     *                            {@code liked:} for usado sem curtidas
+     */
+    public List<Audio> buscar(String termo, boolean aproximada, Collection<Audio> curtidas)
+            throws ValidacaoException {
+        Encontrados encontrados = localizar(termo, aproximada, curtidas);
+        Instantaneo catalogo = atual; // Posterior à busca, contém todos os IDs
+        int[] exatos = encontrados.exatos;
+        int[] aproximados = encontrados.aproximados;
+        List<Audio> resultados = new ArrayList<>(exatos.length + aproximados.length);
+        for (int id : exatos) {
+            resultados.add(catalogo.get(id));
+        }
+        for (int id : aproximados) {
+            resultados.add(catalogo.get(id));
         }
+        return resultados;
+    }
 
-        // Fallback: Busca linear parcial (contém)
-        List<Audio> resultados = new ArrayList<>();
-        for (Audio a : catalogo) {
-            if (a.getTitulo().toLowerCase().contains(termo)) {
-                resultados.add(a);
-            } else if (a instanceof Musica) {
-                if (((Musica) a).getNomeArtista().toLowerCase().contains(termo)) {
-                    resultados.add(a);
-                }
+    /**
+     * Busca áudios e os ordena por relevância, para exibição em páginas.
+     * 
+     * <p>
+     * Encontra os mesmos áudios de
+     * {@link #buscar(String, boolean, Collection)}, mas os exatos são
+     * ordenados pela relevância BM25 do texto em título, artista e álbum
+     * ({@link IndiceBusca#pontuar(String, int[])}) somada a um bônus de
+     * popularidade em escala logarítmica
+     * ({@link #bonusPopularidade(Audio)}). Os aproximados vêm depois.
+     * </p>
+     * 
+     * <p>
+     * Nada é ordenado por inteiro: cada página é selecionada com um heap
+     * do tamanho da página ({@link ResultadoBusca}).
+     * </p>
+     * 
+     * <p>
+     * Os IDs e a relevância do texto vêm do cache de buscas quando a
+     * consulta é frequente; só o bônus de popularidade é recalculado.
+     * </p>
+     * 
+     * @param termo      Termo de busca, com filtros opcionais
+     * @param aproximada true para incluir resultados com erros de
+     *                   digitação
+     * @param curtidas   Áudios curtidos pelo usuário, ou null
+     * @return Resultado a ser lido página a página
+     * @throws ValidacaoException Se um filtro for inválido
+     */
+    public ResultadoBusca buscarRanqueado(String termo, boolean aproximada, Collection<Audio> curtidas)
+            throws ValidacaoException {
+        Encontrados encontrados = localizar(termo, aproximada, curtidas);
+        Instantaneo catalogo = atual;
+        int[] exatos = encontrados.exatos;
+        double[] pontuacoes = encontrados.relevancia.clone();
+        for (int i = 0; i < exatos.length; i++) {
+            pontuacoes[i] += catalogo.bonusPopularidade(exatos[i]);
+        }
+        return new ResultadoBusca(exatos, pontuacoes, encontrados.aproximados, this::getPorId);
+    }
+
+    /**
+     * Calcula o bônus de popularidade somado à relevância da busca.
+     * 
+     * <p>
+     * Usa o logaritmo de curtidas e reproduções, para que itens muito
+     * populares subam sem esconder resultados mais relevantes. Cada
+     * curtida vale mais que uma reprodução.
+     * </p>
+     * 
+     * @param audio Áudio do catálogo
+     * @return Bônus (0 para áudios sem curtidas nem reproduções)
+     */
+    public static double bonusPopularidade(Audio audio) {
+        return bonusPopularidade(audio.getTotalCurtidas(), audio.getTotalReproducoes());
+    }
+
+    private static double bonusPopularidade(long curtidas, long reproducoes) {
+        return PESO_CURTIDAS * Math.log1p(curtidas) + PESO_REPRODUCOES * Math.log1p(reproducoes);
+    }
+
+    /**
+     * Retorna o cache de buscas, para consulta das suas estatísticas
+     * (acertos, falhas e remoções).
+     * 
+     * @return Cache de buscas do catálogo
+     */
+    public CacheBusca<?> getCacheBusca() {
+        return cacheBusca;
+    }
+
+    /**
+     * Localiza os IDs de uma busca, pelo cache quando possível.
+     * 
+     * <p>
+     * A chave é a consulta normalizada. Consultas com {@code liked:}
+     * dependem do usuário e não passam pelo cache.
+     * </p>
+     */
+    private Encontrados localizar(String termo, boolean aproximada, Collection<Audio> curtidas)
+            throws ValidacaoException {
+        aguardarIndexacao();
+        Consulta consulta = Consulta.interpretar(termo);
+        if (consulta.usaCampo(Consulta.CampoFiltro.CURTIDA)) {
+            return calcular(consulta, termo, aproximada, curtidas);
+        }
+        String chave = (aproximada ? "~" : "=") + Normalizador.normalizar(termo);
+        Encontrados encontrados = cacheBusca.obter(chave, atual.versao);
+        if (encontrados == null) {
+            encontrados = calcular(consulta, termo, aproximada, curtidas);
+            cacheBusca.guardar(chave, encontrados, encontrados.versao);
+        }
+        return encontrados;
+    }
+
+    /**
+     * Executa a busca nos índices.
+     * 
+     * <p>
+     * Os índices são estruturas mutáveis, alteradas pelas escritas no
+     * lugar. Uma leitura sem trava poderia vê-los no meio de uma escrita
+     * (arrays ainda não preenchidos, laços que não terminam), então a
+     * busca inteira usa a trava de leitura; várias buscas a seguram ao
+     * mesmo tempo, e só as adições esperam.
+     * </p>
+     */
+    private Encontrados calcular(Consulta consulta, String termo, boolean aproximada, Collection<Audio> curtidas)
+            throws ValidacaoException {
+        long stamp = trava.readLock();
+        try {
+            return calcularNosIndices(consulta, termo, aproximada, curtidas);
+        } finally {
+            trava.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Busca nos índices: exatos em ordem de ID, aproximados em ordem de
+     * distância e a relevância do texto de cada exato.
+     */
+    private Encontrados calcularNosIndices(Consulta consulta, String termo, boolean aproximada,
+            Collection<Audio> curtidas) throws ValidacaoException {
+        long versao = atual.versao;
+        if (!consulta.temFiltros()) {
+            int[] exatos = indiceBusca.buscar(termo);
+            return new Encontrados(versao, exatos,
+                    aproximada ? indiceBusca.buscarAproximados(termo, exatos) : new int[0],
+                    indiceBusca.pontuar(termo, exatos));
+        }
+
+        BitmapIds filtrados = indiceCampos.filtrar(consulta.getClausulas(),
+                curtidas == null ? null : bitmapDe(curtidas));
+        String texto = consulta.getTextoLivre();
+        if (texto.isBlank()) {
+            int[] exatos = filtrados.paraArray();
+            return new Encontrados(versao, exatos, new int[0], new double[exatos.length]);
+        }
+        int[] todosExatos = indiceBusca.buscar(texto);
+        int[] aproximados = aproximada ? indiceBusca.buscarAproximados(texto, todosExatos) : new int[0];
+        int[] exatos = manterFiltrados(todosExatos, filtrados);
+        return new Encontrados(versao, exatos, manterFiltrados(aproximados, filtrados),
+                indiceBusca.pontuar(texto, exatos));
+    }
+
+    /**
+     * IDs encontrados por uma busca e a relevância do texto de cada
+     * exato. É compartilhado pelo cache, por isso os arrays nunca são
+     * alterados.
+     */
+    private static final class Encontrados {
+        private final long versao;
+        private final int[] exatos;
+        private final int[] aproximados;
+        private final double[] relevancia;
+
+        Encontrados(long versao, int[] exatos, int[] aproximados, double[] relevancia) {
+            this.versao = versao;
+            this.exatos = exatos;
+            this.aproximados = aproximados;
+            this.relevancia = relevancia;
+        }
+
+        /** Peso no cache: a quantidade de IDs guardados. */
+        int peso() {
+            return 1 + exatos.length + aproximados.length;
+        }
+    }
+
+    /**
+     * Monta o conjunto de IDs de uma coleção de áudios do catálogo.
+     */
+    private static BitmapIds bitmapDe(Collection<Audio> audios) {
+        BitmapIds ids = new BitmapIds();
+        for (Audio audio : audios) {
+            if (audio.getId() >= 0) {
+                ids.adicionar(audio.getId());
             }
         }
-        return resultados;
+        return ids;
+    }
+
+    /**
+     * Mantém, na ordem original, apenas os IDs presentes nos filtrados.
+     */
+    private static int[] manterFiltrados(int[] ids, BitmapIds filtrados) {
+        int[] resultado = new int[ids.length];
+        int total = 0;
+        for (int id : ids) {
+            if (filtrados.contem(id)) {
+                resultado[total++] = id;
+            }
+        }
+        return Arrays.copyOf(resultado, total);
+    }
+
+    /**
+     * Sugere textos para completar o que o usuário começou a digitar.
+     * 
+     * <p>
+     * Procura títulos, artistas e álbuns que começam com o prefixo
+     * (ignorando acentos e maiúsculas), dos mais para os menos populares.
+     * O custo depende apenas do tamanho do prefixo e do limite, e não do
+     * tamanho do catálogo.
+     * </p>
+     * 
+     * @param prefixo Início do texto digitado
+     * @param limite  Máximo de sugestões (até {@value TrieSugestoes#TOP_K})
+     * @return Textos sugeridos, como aparecem no catálogo
+     */
+    public List<String> sugerir(String prefixo, int limite) {
+        aguardarIndexacao();
+        aplicarPopularidadePendente();
+        return sugestoes.sugerir(prefixo, limite);
+    }
+
+    /**
+     * Retorna o áudio com o identificador informado.
+     * 
+     * <p>
+     * O ID é a posição do áudio no catálogo, por isso a busca é O(1).
+     * Usado para resolver as referências guardadas por usuários e
+     * playlists.
+     * </p>
+     * 
+     * @param id Identificador do áudio ({@link Audio#getId()})
+     * @return Áudio do catálogo, ou null se o ID não existir
+     */
+    public Audio getPorId(int id) {
+        Instantaneo catalogo = atual;
+        if (id < 0 || id >= catalogo.tamanho) {
+            return null;
+        }
+        return catalogo.get(id);
     }
 
     /**
      * Retorna o catálogo completo de áudios.
      * 
-     * @return Lista de todos os áudios cadastrados
+     * <p>
+     * A lista é a fotografia publicada no momento da chamada: não pode
+     * ser alterada e não muda quando novos áudios são adicionados.
+     * Os áudios lidos do disco são decodificados à medida que são
+     * acessados, sem copiar o catálogo.
+     * </p>
+     * 
+     * @return Lista imutável de todos os áudios cadastrados
      */
     public List<Audio> getCatalogo() {
-        return catalogo;
+        return atual.lista;
     }
 
     /**
@@ -201,73 +679,232 @@ public class BibliotecaService {
      * Critério de desempate: reproduções (decrescente).
      * </p>
      * 
-     * @return Lista de áudios ordenada por popularidade
+     * <p>
+     * A lista é lida do ranking já ordenado, sem ordenar o catálogo.
+     * Enquanto a popularidade não muda, a mesma lista imutável é
+     * devolvida sem travas.
+     * </p>
+     * 
+     * @return Lista imutável de áudios ordenada por popularidade
      */
     public List<Audio> getCatalogoPorPopularidade() {
-        List<Audio> ordenado = new ArrayList<>(catalogo);
-        Collections.sort(ordenado, new Comparator<Audio>() {
-            @Override
-            public int compare(Audio o1, Audio o2) {
-                // Primeiro compara por curtidas (decrescente)
-                int comparacaoCurtidas = Integer.compare(o2.getTotalCurtidas(), o1.getTotalCurtidas());
-                if (comparacaoCurtidas != 0) {
-                    return comparacaoCurtidas;
-                }
-                // Em caso de empate, compara por reproduções (decrescente)
-                return Integer.compare(o2.getTotalReproducoes(), o1.getTotalReproducoes());
-            }
-        });
-        return ordenado;
+        aguardarIndexacao();
+        aplicarPopularidadePendente();
+        return ranking.getInstantaneo();
+    }
+
+    /**
+     * Retorna uma página do ranking de popularidade.
+     * 
+     * @param inicio     Posição do primeiro item (0 = mais popular)
+     * @param quantidade Número máximo de itens
+     * @return Áudios da página, do mais para o menos popular
+     */
+    public List<Audio> getPaginaPorPopularidade(int inicio, int quantidade) {
+        aguardarIndexacao();
+        aplicarPopularidadePendente();
+        return ranking.getPagina(inicio, quantidade);
+    }
+
+    /**
+     * Retorna a posição de um áudio no ranking de popularidade.
+     * 
+     * @param audio Áudio do catálogo
+     * @return Posição (0 = mais popular), ou -1 se não estiver no catálogo
+     */
+    public int getPosicaoPorPopularidade(Audio audio) {
+        aguardarIndexacao();
+        aplicarPopularidadePendente();
+        return ranking.getPosicao(audio);
     }
 
     /**
      * Retorna recomendações baseadas nos itens mais curtidos.
      * 
      * <p>
-     * Recomendação simples: retorna os top 5 itens mais curtidos.
+     * Recomendação simples: retorna os top 5 itens mais curtidos,
+     * lidos diretamente do ranking em O(log n).
      * </p>
      * 
      * @return Lista com até 5 áudios mais populares
      */
     public List<Audio> recomendarMaisCurtidos() {
-        List<Audio> top = getCatalogoPorPopularidade();
-        // Retorna top 5 ou tamanho total
-        return top.subList(0, Math.min(5, top.size()));
+        aguardarIndexacao();
+        aplicarPopularidadePendente();
+        return ranking.getTop(5);
     }
 
-    // Persistência: Carregar/Salvar estado (Serialização)
+    // Persistência: Carregar/Salvar estado
     /**
      * Carrega dados do disco.
      * Operação silenciosa - não imprime mensagens.
      * 
-     * @return true se carregou com sucesso, false se usou dados iniciais
+     * <p>
+     * O arquivo é mapeado em memória ({@link CatalogoMapeado}) e publicado
+     * como catálogo sem decodificar nenhum áudio, então o tempo de início
+     * não depende do tamanho do catálogo. Os índices de busca, o
+     * autocompletar e o ranking são montados em uma thread de fundo;
+     * buscas, sugestões e listagens por popularidade esperam o fim da
+     * montagem. A montagem lê os campos do arquivo
+     * ({@link CatalogoMapeado#campos(int)}); só os áudios exibidos ou
+     * tocados são decodificados.
+     * </p>
+     * 
+     * <p>
+     * As somas de verificação do arquivo são conferidas antes do
+     * mapeamento. Se ele estiver corrompido, a geração anterior é usada.
+     * </p>
+     * 
+     * <p>
+     * Um catálogo antigo, gravado por serialização Java, é lido inteiro e
+     * seus áudios recebem os IDs antes da publicação: usuários e
+     * playlists são resolvidos pelo ID assim que o catálogo aparece,
+     * antes do fim da indexação.
+     * </p>
+     * 
+     * @return true se carregou do disco, false se não havia arquivo e
+     *         usou dados iniciais
+     * @throws PersistenciaException Se o arquivo e a geração anterior
+     *                               estiverem corrompidos
      */
-    @SuppressWarnings("unchecked")
     public boolean carregarDadosDoDisco() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(ARQUIVO_CATALOGO))) {
-            this.catalogo = (List<Audio>) ois.readObject();
-            // Recriar índice após carregar
-            this.indiceBusca = new HashMap<>();
-            this.artistas = new HashMap<>();
-            for (Audio a : catalogo) {
-                indexarAudio(a);
-                // Reconstruir mapa de artistas
-                if (a instanceof Musica) {
-                    Artista artista = ((Musica) a).getArtista();
-                    if (artista != null) {
-                        artistas.put(artista.getNome().toLowerCase(), artista);
+        return carregarDadosDoDisco(Paths.get(ARQUIVO_CATALOGO));
+    }
+
+    /**
+     * Carrega o catálogo de um arquivo informado, como
+     * {@link #carregarDadosDoDisco()}.
+     * 
+     * @param arquivo Caminho do catálogo
+     * @return true se carregou do disco, false se não havia arquivo e
+     *         usou dados iniciais
+     * @throws PersistenciaException Se o arquivo e a geração anterior
+     *                               estiverem corrompidos
+     */
+    public boolean carregarDadosDoDisco(Path arquivo) {
+        List<Audio> lidos;
+        try {
+            lidos = lerCatalogo(arquivo, audio -> audio.registrarOuvinte(ouvinte));
+        } catch (NoSuchFileException e) {
+            // Nenhuma geração existe - criar catálogo padrão
+            carregarDadosIniciais();
+            return false;
+        } catch (IOException e) {
+            throw new PersistenciaException("Não foi possível ler " + arquivo.getFileName()
+                    + " nem a geração anterior", e);
+        }
+        if (!(lidos instanceof CatalogoMapeado)) {
+            // O formato serializado não guarda o ID (ID = posição no catálogo)
+            for (int i = 0; i < lidos.size(); i++) {
+                lidos.get(i).atribuirId(i);
+            }
+        }
+
+        CountDownLatch pronta = new CountDownLatch(1);
+        Instantaneo carregado;
+        long stamp = trava.writeLock();
+        try {
+            indiceBusca.limpar();
+            indiceCampos.limpar();
+            sugestoes.limpar();
+            artistas.clear();
+            ranking.limpar();
+            carregado = new Instantaneo(lidos, new Audio[16], lidos.size(), atual.versao + 1);
+            atual = carregado;
+            indexacao = pronta;
+        } finally {
+            trava.unlockWrite(stamp);
+        }
+        Thread indexador = new Thread(() -> indexarCarregados(carregado.base, pronta), "indexacao-catalogo");
+        indexador.setDaemon(true);
+        indexador.start();
+        return true;
+    }
+
+    /**
+     * Indexa os áudios lidos do disco (na thread de fundo), com a trava
+     * de escrita.
+     */
+    private void indexarCarregados(List<Audio> base, CountDownLatch pronta) {
+        long stamp = trava.writeLock();
+        try {
+            if (atual.base != base) {
+                return; // Outro carregamento substituiu este
+            }
+            if (base instanceof CatalogoMapeado mapeado) {
+                indexarMapeado(mapeado);
+            } else {
+                for (int i = 0; i < base.size(); i++) {
+                    Audio a = base.get(i);
+                    indexarAudio(a);
+                    // Reconstruir mapa de artistas
+                    if (a instanceof Musica) {
+                        Artista artista = ((Musica) a).getArtista();
+                        if (artista != null) {
+                            artistas.put(artista.getNome().toLowerCase(), artista);
+                        }
                     }
                 }
             }
-            return true;
-        } catch (FileNotFoundException e) {
-            // Arquivo não existe - criar catálogo padrão
-            carregarDadosIniciais();
-            return false;
-        } catch (IOException | ClassNotFoundException e) {
-            // Erro ao ler - criar catálogo padrão
-            carregarDadosIniciais();
-            return false;
+            indiceCampos.otimizar();
+        } finally {
+            trava.unlockWrite(stamp);
+            pronta.countDown();
+        }
+    }
+
+    /**
+     * Indexa o catálogo mapeado pelos campos gravados, sem decodificar
+     * os áudios: cada um só é criado quando for exibido ou tocado, e
+     * recebe o ouvinte de popularidade nesse momento
+     * ({@link #lerCatalogo(Path, Consumer)}).
+     */
+    private void indexarMapeado(CatalogoMapeado mapeado) {
+        String[] textos = new String[IndiceBusca.Campo.values().length];
+        for (int id = 0; id < mapeado.size(); id++) {
+            CatalogoMapeado.Campos campos = mapeado.campos(id);
+            textos[IndiceBusca.Campo.TITULO.ordinal()] = campos.getTitulo();
+            textos[IndiceBusca.Campo.ARTISTA.ordinal()] = campos.getNomeArtista();
+            textos[IndiceBusca.Campo.ALBUM.ordinal()] = campos.getAlbum() != null ? campos.getAlbum().getTitulo() : null;
+            textos[IndiceBusca.Campo.APRESENTADOR.ordinal()] = campos.getApresentador();
+            indiceBusca.indexar(id, textos);
+            if (campos.isMusica()) {
+                indiceCampos.indexarMusica(id, campos.getArtista(), campos.getAlbum());
+                Artista artista = campos.getArtista();
+                if (artista != null) {
+                    artistas.put(artista.getNome().toLowerCase(), artista);
+                }
+            } else {
+                indiceCampos.indexarPodcast(id);
+            }
+            sugestoes.indexar(id, campos.getTotalCurtidas(), campos.getTotalReproducoes(),
+                    textos[IndiceBusca.Campo.TITULO.ordinal()],
+                    textos[IndiceBusca.Campo.ARTISTA.ordinal()],
+                    textos[IndiceBusca.Campo.ALBUM.ordinal()]);
+            ranking.inserir(id, campos.getTotalCurtidas(), campos.getTotalReproducoes());
+        }
+    }
+
+    /**
+     * Espera a indexação do catálogo carregado do disco, se ainda estiver
+     * em andamento.
+     */
+    private void aguardarIndexacao() {
+        CountDownLatch pronta = indexacao;
+        if (pronta.getCount() == 0) {
+            return;
+        }
+        boolean interrompida = false;
+        while (true) {
+            try {
+                pronta.await();
+                break;
+            } catch (InterruptedException e) {
+                interrompida = true; // Espera até o fim e preserva a interrupção
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -278,8 +915,8 @@ public class BibliotecaService {
      * @return true se salvou com sucesso, false em caso de erro
      */
     public boolean salvarDadosNoDisco() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ARQUIVO_CATALOGO))) {
-            oos.writeObject(catalogo);
+        try {
+            CodecCatalogo.gravar(Paths.get(ARQUIVO_CATALOGO), atual.lista);
             return true;
         } catch (IOException e) {
             // Erro silencioso - log poderia ser adicionado aqui
@@ -287,8 +924,37 @@ public class BibliotecaService {
         }
     }
 
+    /**
+     * Mapeia a geração íntegra mais recente do catálogo ou, se for um
+     * arquivo antigo, a lê inteira por serialização Java.
+     * 
+     * @param aoDecodificar Preparação de cada áudio do catálogo mapeado,
+     *                      feita quando ele é decodificado
+     */
+    private static List<Audio> lerCatalogo(Path arquivo, Consumer<Audio> aoDecodificar) throws IOException {
+        return ArquivoSnapshot.ler(arquivo, (geracao, tamanho) -> {
+            if (CodecCatalogo.reconhece(geracao)) {
+                if (tamanho == ArquivoSnapshot.SEM_RODAPE) {
+                    throw new IOException("Catálogo sem somas de verificação: " + geracao.getFileName());
+                }
+                return CodecCatalogo.mapear(geracao, tamanho, aoDecodificar);
+            }
+            return lerCatalogoSerializado(geracao);
+        });
+    }
+
+    /** Lê um catálogo gravado por serialização Java. */
+    @SuppressWarnings("unchecked")
+    private static List<Audio> lerCatalogoSerializado(Path arquivo) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(arquivo.toFile())))) {
+            return (List<Audio>) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Catálogo serializado inválido: " + arquivo.getFileName(), e);
+        }
+    }
+
     private void carregarDadosIniciais() {
-        if (!catalogo.isEmpty())
+        if (atual.tamanho > 0)
             return;
 
         // Criar artistas
@@ -496,5 +1162,87 @@ public class BibliotecaService {
         adicionarAudio(new Musica("Requebra", 230, olodum, egitoMadagascar));
 
         // --- FIM DADOS NORTE/NORDESTE ---
+
+        long stamp = trava.writeLock();
+        try {
+            indiceCampos.otimizar();
+        } finally {
+            trava.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Fotografia imutável do catálogo.
+     * 
+     * <p>
+     * Os áudios lidos do disco ficam na base (um {@link CatalogoMapeado},
+     * decodificado sob demanda); os adicionados depois ficam no array.
+     * Fotografias sucessivas compartilham o mesmo array: a nova apenas
+     * preenche a posição seguinte ao fim da anterior, que nunca a lê. O
+     * array só é copiado quando enche, então adicionar custa O(1)
+     * amortizado.
+     * </p>
+     */
+    private static final class Instantaneo {
+        private final List<Audio> base;
+        private final Audio[] novos;
+        private final int tamanho;
+
+        /** Versão do catálogo, usada pelo cache de buscas. */
+        private final long versao;
+
+        /** Visão imutável das posições em uso. */
+        private final List<Audio> lista;
+
+        Instantaneo(List<Audio> base, Audio[] novos, int tamanho, long versao) {
+            this.base = base;
+            this.novos = novos;
+            this.tamanho = tamanho;
+            this.versao = versao;
+            this.lista = new Visao();
+        }
+
+        /** Áudio com o ID (posição) informado, entre 0 e o tamanho. */
+        Audio get(int id) {
+            int naBase = base.size();
+            return id < naBase ? base.get(id) : novos[id - naBase];
+        }
+
+        /**
+         * Bônus de popularidade do áudio com o ID informado, sem
+         * decodificá-lo se ainda estiver só no catálogo mapeado.
+         */
+        double bonusPopularidade(int id) {
+            if (id < base.size() && base instanceof CatalogoMapeado mapeado) {
+                return BibliotecaService.bonusPopularidade(mapeado.getTotalCurtidas(id),
+                        mapeado.getTotalReproducoes(id));
+            }
+            return BibliotecaService.bonusPopularidade(get(id));
+        }
+
+        /** Nova fotografia com o áudio no fim (chamado com a trava de escrita). */
+        Instantaneo com(Audio audio) {
+            Audio[] destino = novos;
+            int posicao = tamanho - base.size();
+            if (posicao == destino.length) {
+                destino = Arrays.copyOf(novos, Math.max(16, posicao * 2));
+            }
+            destino[posicao] = audio;
+            return new Instantaneo(base, destino, tamanho + 1, versao + 1);
+        }
+
+        /** Lista somente leitura sobre a base e o array. */
+        private final class Visao extends AbstractList<Audio> implements RandomAccess {
+            @Override
+            public Audio get(int indice) {
+                Objects.checkIndex(indice, tamanho);
+                return Instantaneo.this.get(indice);
+            }
+
+            @Override
+            public int size() {
+                return tamanho;
+            }
+        }
     }
-}
\ No newline at end of file
+}
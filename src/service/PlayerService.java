@@ -1,10 +1,19 @@
 package service;
 
+import interfaces.CriterioOrdenacao;
+import interfaces.OuvinteReproducao;
 import model.midia.Audio;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import service.fila.FilaIndexada;
+import service.fila.Ordenacao;
+import service.fila.OrdenadorFila;
+import service.fila.PermutacaoAleatoria;
+import service.reproducao.RodaTemporizacao;
+
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Serviço responsável pelo controle de reprodução de áudio.
@@ -21,22 +30,74 @@ import java.util.List;
  * 
  * <h2>Funcionalidades Principais</h2>
  * <ul>
- * <li>Gerenciamento de fila de reprodução (List&lt;Audio&gt;)</li>
+ * <li>Gerenciamento de fila de reprodução ({@link FilaIndexada})</li>
  * <li>Controles de reprodução (play, pause, next, prev)</li>
- * <li>Embaralhamento (shuffle) e ordenação por popularidade</li>
- * <li>Adição individual ou em lote à fila</li>
+ * <li>Embaralhamento (shuffle) sem alterar a fila, e ordenação por
+ * popularidade, reproduções, título, artista, álbum ou duração</li>
+ * <li>Adição individual ou em lote à fila, "tocar em seguida", remoção e
+ * movimento de itens</li>
+ * <li>Posição dentro da faixa e avanço automático ao fim dela</li>
  * </ul>
  * 
+ * <h2>Shuffle</h2>
+ * <p>
+ * O modo shuffle não reordena a fila: a ordem de reprodução é uma
+ * {@link PermutacaoAleatoria} dos índices, calculada a cada passo, que
+ * começa no áudio atual. Embaralhar e desembaralhar custam O(1), a fila
+ * original continua intacta e nenhuma cópia dela é feita, mesmo com
+ * milhões de itens. Com o shuffle ativo, índices e {@link #getFila()}
+ * seguem a ordem embaralhada.
+ * </p>
+ * 
+ * <p>
+ * Adicionar à fila com o shuffle ativo não sorteia a ordem inteira de
+ * novo: as posições até o áudio atual (o que já tocou) ficam fixas, e só
+ * o restante, com os itens novos, é sorteado. Para isso o player guarda
+ * os índices dessas posições, um por faixa já tocada.
+ * </p>
+ * 
+ * <h2>Relógio de Reprodução</h2>
+ * <p>
+ * Criado com uma {@link RodaTemporizacao}, o player simula a reprodução
+ * em tempo real: ao tocar uma faixa, agenda o seu fim para daqui a
+ * {@link Audio#getDuracaoSegundos()} segundos (menos a posição atual) e,
+ * quando o temporizador vence, avisa o {@link OuvinteReproducao} e avança
+ * sozinho para a próxima faixa. Pausar, pular ou trocar a fila cancela o
+ * temporizador em O(1). A mesma roda atende todos os players, sem uma
+ * thread por player. Sem roda, a reprodução é instantânea, como antes.
+ * </p>
+ * 
+ * <p>
+ * O ouvinte também é avisado do início de cada reprodução e do tempo
+ * ouvido em cada trecho (até a pausa, a troca de faixa ou o fim dela),
+ * o que alimenta o histórico do usuário.
+ * </p>
+ * 
+ * <p>
+ * Como o fim da faixa chega pela thread do relógio, os métodos públicos
+ * são sincronizados.
+ * </p>
+ * 
  * <h2>Uso de Coleções</h2>
  * <p>
- * Utiliza List&lt;Audio&gt; para a fila porque:
+ * A fila é uma {@link FilaIndexada} (árvore balanceada com tamanhos das
+ * subárvores) em vez de um ArrayList porque:
  * </p>
  * <ul>
  * <li>Mantém ordem de reprodução</li>
- * <li>Permite acesso por índice (próxima/anterior)</li>
- * <li>Suporta operações de shuffle e sort</li>
+ * <li>Acessa, insere, remove e move por posição em O(log n), sem deslocar
+ * o resto da fila</li>
+ * <li>O áudio atual é guardado como um {@link FilaIndexada.Item}, que
+ * continua apontando para ele depois de inserções, remoções e
+ * ordenações; a posição atual é calculada a partir dele</li>
  * </ul>
  * 
+ * <p>
+ * Remover, mover ou inserir com o shuffle ativo fixa antes a ordem
+ * embaralhada na fila e desativa o shuffle, para que as posições
+ * informadas sejam as que o usuário está vendo.
+ * </p>
+ * 
  * @see Audio
  */
 public class PlayerService {
@@ -44,16 +105,20 @@ public class PlayerService {
     // ========= ATRIBUTOS =========
 
     /**
-     * Lista que armazena os áudios na fila de reprodução.
-     * Utiliza ArrayList para acesso rápido por índice O(1).
+     * Árvore que armazena os áudios na fila de reprodução.
+     * Acesso, inserção e remoção por posição em O(log n).
      */
-    private List<Audio> filaReproducao;
+    private final FilaIndexada filaReproducao;
 
     /**
-     * Posição atual na fila de reprodução (0 a tamanho-1).
-     * Valor -1 indica que nenhum item está selecionado.
+     * Item do áudio atual na fila; a sua posição (na ordem original) é
+     * calculada sob demanda. Valor null indica que nenhum item está
+     * selecionado.
      */
-    private int indiceAtual;
+    private FilaIndexada.Item itemAtual;
+
+    /** Visão somente leitura da fila, na ordem de reprodução. */
+    private final List<Audio> visaoFila = new VisaoFila();
 
     /**
      * Indica se há reprodução em andamento.
@@ -67,19 +132,90 @@ public class PlayerService {
      */
     private boolean modoShuffle;
 
+    /** Ordem embaralhada dos índices (criada no primeiro shuffle e reaproveitada). */
+    private PermutacaoAleatoria permutacao;
+
+    /** Posição da permutação em que a ordem embaralhada começa (o áudio atual). */
+    private int inicioEmbaralhado;
+
+    /** Posição do áudio atual na ordem embaralhada. */
+    private int posicaoEmbaralhada;
+
+    /**
+     * Índices na fila das primeiras posições da ordem embaralhada, fixadas
+     * quando a fila cresceu com o shuffle ativo; a permutação sorteia só
+     * os demais índices.
+     */
+    private int[] ordemFixada = SEM_POSICOES_FIXAS;
+
+    /** Os índices de {@link #ordemFixada}, em ordem crescente. */
+    private int[] fixadosOrdenados = SEM_POSICOES_FIXAS;
+
+    /** Nenhuma posição fixada: a permutação sorteia a fila inteira. */
+    private static final int[] SEM_POSICOES_FIXAS = new int[0];
+
+    /** Relógio que avisa o fim das faixas (null = reprodução instantânea). */
+    private final RodaTemporizacao relogio;
+
+    /** Temporizador do fim da faixa atual, se estiver tocando. */
+    private RodaTemporizacao.Temporizador fimDaFaixa;
+
+    /**
+     * Versão do temporizador atual; um aviso de uma versão anterior
+     * (cancelado depois de vencer) é ignorado.
+     */
+    private long versaoFimDaFaixa;
+
+    /** Posição na faixa atual no início do trecho tocando, em ms. */
+    private long posicaoMillis;
+
+    /** Instante do relógio em que o trecho atual começou a tocar. */
+    private long inicioTrecho;
+
+    /** Áudio do trecho tocando (o atual pode já ter mudado ao encerrá-lo). */
+    private Audio audioDoTrecho;
+
+    /** Quanto faltava do áudio quando o trecho atual começou, em ms. */
+    private long restanteTrecho;
+
+    /** Avisado quando uma faixa termina de tocar. */
+    private OuvinteReproducao ouvinte;
+
     /**
      * Construtor que inicializa o player em estado "parado".
      * 
      * <p>
      * Cria uma fila vazia e define os estados iniciais:
      * índice em -1 (nenhum item), não tocando, shuffle desativado.
+     * A reprodução é instantânea (sem relógio).
      * </p>
      */
     public PlayerService() {
-        this.filaReproducao = new ArrayList<>();
-        this.indiceAtual = -1;
+        this(null);
+    }
+
+    /**
+     * Construtor que inicializa o player parado, usando um relógio de
+     * reprodução.
+     * 
+     * @param relogio Roda que avisa o fim das faixas (null = reprodução
+     *                instantânea)
+     */
+    public PlayerService(RodaTemporizacao relogio) {
+        this.filaReproducao = new FilaIndexada();
+        this.itemAtual = null;
         this.tocando = false;
         this.modoShuffle = false;
+        this.relogio = relogio;
+    }
+
+    /**
+     * Registra o ouvinte de fim de faixa.
+     * 
+     * @param ouvinte Ouvinte a ser avisado (ou null para remover)
+     */
+    public synchronized void registrarOuvinte(OuvinteReproducao ouvinte) {
+        this.ouvinte = ouvinte;
     }
 
     /**
@@ -93,15 +229,18 @@ public class PlayerService {
      * @param novaFila Lista de áudios para definir como nova fila
      * @return true se a fila foi atualizada, false se a lista era vazia/nula
      */
-    public boolean definirFila(List<Audio> novaFila) {
+    public synchronized boolean definirFila(List<Audio> novaFila) {
         // Validação: ignora listas nulas ou vazias
         if (novaFila == null || novaFila.isEmpty())
             return false;
 
-        // Cria cópia defensiva para evitar modificações externas
-        this.filaReproducao = new ArrayList<>(novaFila);
-        this.indiceAtual = 0; // Posiciona no primeiro item
+        // Copia os itens para a árvore, sem guardar a lista externa
+        filaReproducao.limpar();
+        filaReproducao.adicionarTodos(novaFila);
+        this.itemAtual = filaReproducao.itemEm(0); // Posiciona no primeiro item
         this.tocando = false; // Aguarda comando de play
+        this.modoShuffle = false; // Nova fila começa na ordem original
+        pararRelogio(0);
         return true;
     }
 
@@ -111,27 +250,39 @@ public class PlayerService {
      * <p>
      * Se o índice estiver inválido, automaticamente volta para
      * o primeiro item da fila. Incrementa o contador de reproduções
-     * do áudio antes de reproduzi-lo.
+     * do áudio antes de reproduzi-lo. Se o áudio estava pausado no meio
+     * (com relógio), continua da mesma posição sem contar outra
+     * reprodução.
      * </p>
      * 
      * @return true se iniciou reprodução, false se fila vazia
      */
-    public boolean play() {
+    public synchronized boolean play() {
         // Verifica se há itens na fila
-        if (filaReproducao.isEmpty()) {
+        if (filaReproducao.isVazia()) {
             return false;
         }
 
-        // Se índice inválido (ex: após limpar fila), reseta para início
-        if (indiceAtual < 0 || indiceAtual >= filaReproducao.size()) {
-            indiceAtual = 0;
+        // Se nenhum item selecionado (ex: após limpar fila), reseta para início
+        if (itemAtual == null) {
+            irPara(0);
+            posicaoMillis = 0;
         }
 
+        encerrarTrecho(); // Contabiliza o que estava tocando antes de recomeçar
+
         // Obtém o áudio da posição atual e reproduz
-        Audio atual = filaReproducao.get(indiceAtual);
-        atual.incrementarReproducao(); // Incrementa estatística
+        Audio atual = itemAtual.getAudio();
+        if (tocando || posicaoMillis == 0 || posicaoMillis >= duracaoMillis(atual)) {
+            posicaoMillis = 0; // Começa do início
+            atual.incrementarReproducao(); // Incrementa estatística
+            if (ouvinte != null) {
+                ouvinte.reproducaoIniciada(atual);
+            }
+        }
         atual.reproduzir(); // Chama método polimórfico
         tocando = true; // Atualiza estado
+        agendarFimDaFaixa(atual);
         return true;
     }
 
@@ -144,10 +295,11 @@ public class PlayerService {
      * 
      * @return true se pausou, false se não havia nada tocando
      */
-    public boolean pause() {
+    public synchronized boolean pause() {
         // Só pausa se realmente estiver tocando algo
-        if (tocando && !filaReproducao.isEmpty()) {
-            filaReproducao.get(indiceAtual).pausar();
+        if (tocando && itemAtual != null) {
+            itemAtual.getAudio().pausar();
+            pararRelogio(getPosicaoMillis()); // Guarda a posição para retomar
             tocando = false;
             return true;
         }
@@ -164,17 +316,22 @@ public class PlayerService {
      * 
      * @return true se avançou, false se no fim da playlist ou fila vazia
      */
-    public boolean proxima() {
-        if (filaReproducao.isEmpty())
+    public synchronized boolean proxima() {
+        if (filaReproducao.isVazia())
             return false;
 
         // Verifica se há próxima faixa disponível
-        if (indiceAtual + 1 < filaReproducao.size()) {
-            indiceAtual++; // Avança para próxima
+        int posicao = posicaoNaOrdem();
+        if (posicao + 1 < filaReproducao.tamanho()) {
+            irPara(posicao + 1); // Avança para próxima
+            posicaoMillis = 0;
             play(); // Inicia reprodução
             return true;
         } else {
             // Chegou ao fim da fila
+            if (tocando) {
+                pararRelogio(getPosicaoMillis());
+            }
             tocando = false;
             return false;
         }
@@ -190,13 +347,15 @@ public class PlayerService {
      * 
      * @return true se voltou para anterior, false se já estava no início
      */
-    public boolean anterior() {
-        if (filaReproducao.isEmpty())
+    public synchronized boolean anterior() {
+        if (filaReproducao.isVazia())
             return false;
 
+        posicaoMillis = 0;
         // Verifica se há faixa anterior disponível
-        if (indiceAtual - 1 >= 0) {
-            indiceAtual--; // Volta uma posição
+        int posicao = posicaoNaOrdem();
+        if (posicao - 1 >= 0) {
+            irPara(posicao - 1); // Volta uma posição
             play(); // Inicia reprodução
             return true;
         } else {
@@ -210,32 +369,52 @@ public class PlayerService {
      * Embaralha a fila de reprodução aleatoriamente (modo shuffle).
      * 
      * <p>
-     * Usa {@link Collections#shuffle} para randomizar a ordem.
-     * O áudio que estava tocando é mantido na primeira posição
-     * para não interromper a reprodução atual.
+     * Sorteia uma nova ordem de reprodução sem mexer na fila. O áudio que
+     * estava tocando fica na primeira posição da nova ordem para não
+     * interromper a reprodução atual. Chamado com o shuffle já ativo,
+     * sorteia outra ordem.
+     * </p>
+     * 
+     * @return true se embaralhou, false se fila vazia
+     */
+    public synchronized boolean shuffle() {
+        return shuffle(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Embaralha a fila com uma semente conhecida.
+     * 
+     * <p>
+     * A mesma semente, sobre a mesma fila e o mesmo áudio atual, gera a
+     * mesma ordem.
      * </p>
      * 
+     * @param semente Semente da ordem embaralhada
      * @return true se embaralhou, false se fila vazia
      */
-    public boolean shuffle() {
-        if (filaReproducao.isEmpty()) {
+    public synchronized boolean shuffle(long semente) {
+        if (filaReproducao.isVazia()) {
             return false;
         }
+        embaralharAPartirDoAtual(semente);
+        return true;
+    }
 
-        // Salva o áudio atual para manter na posição 0 após shuffle
-        Audio audioAtual = getAudioAtual();
-
-        // Embaralha toda a fila usando algoritmo Fisher-Yates
-        Collections.shuffle(filaReproducao);
-
-        // Move o áudio que estava tocando para primeira posição
-        if (audioAtual != null) {
-            filaReproducao.remove(audioAtual);
-            filaReproducao.add(0, audioAtual);
-            indiceAtual = 0;
+    /**
+     * Desativa o shuffle, voltando à ordem original da fila.
+     * 
+     * <p>
+     * Custa O(1): a fila nunca foi alterada, e o áudio atual continua
+     * tocando na sua posição original.
+     * </p>
+     * 
+     * @return true se desativou, false se o shuffle não estava ativo
+     */
+    public synchronized boolean desembaralhar() {
+        if (!modoShuffle) {
+            return false;
         }
-
-        modoShuffle = true;
+        modoShuffle = false;
         return true;
     }
 
@@ -244,41 +423,39 @@ public class PlayerService {
      * 
      * <p>
      * Os áudios mais curtidos ficam no início da fila.
-     * Usa {@link Collections#sort} com um {@link Comparator}
-     * customizado para ordenar de forma decrescente.
+     * Equivale a {@code ordenar(Ordenacao.POPULARIDADE)}.
+     * </p>
+     * 
+     * @return true se ordenou, false se fila vazia
+     */
+    public synchronized boolean ordenarPorPopularidade() {
+        return ordenar(Ordenacao.POPULARIDADE);
+    }
+
+    /**
+     * Ordena a fila por um critério.
+     * 
+     * <p>
+     * O {@link OrdenadorFila} lê as chaves de cada áudio uma única vez e
+     * ordena apenas índices; a permutação resultante é aplicada à fila em
+     * uma passada, reaproveitando os itens, então o áudio atual continua
+     * selecionado. A ordenação é estável.
      * </p>
      * 
      * <p>
      * Desativa o modo shuffle automaticamente.
      * </p>
      * 
+     * @param criterio Critério de ordenação (ex: um valor de {@link Ordenacao})
      * @return true se ordenou, false se fila vazia
      */
-    public boolean ordenarPorPopularidade() {
-        if (filaReproducao.isEmpty()) {
+    public synchronized boolean ordenar(CriterioOrdenacao criterio) {
+        if (filaReproducao.isVazia()) {
             return false;
         }
 
-        // Guarda referência do áudio atual para reposicionar depois
-        Audio audioAtual = getAudioAtual();
-
-        // Ordena usando Comparator anônimo (ordem decrescente de curtidas)
-        Collections.sort(filaReproducao, new Comparator<Audio>() {
-            @Override
-            public int compare(Audio o1, Audio o2) {
-                // o2 primeiro para ordem decrescente
-                return Integer.compare(o2.getTotalCurtidas(), o1.getTotalCurtidas());
-            }
-        });
-
-        // Reposiciona índice para o áudio que estava tocando
-        if (audioAtual != null) {
-            indiceAtual = filaReproducao.indexOf(audioAtual);
-            if (indiceAtual < 0)
-                indiceAtual = 0;
-        }
-
-        modoShuffle = false; // Desativa shuffle
+        modoShuffle = false; // Desativa shuffle (índices voltam à ordem da fila)
+        filaReproducao.reordenar(OrdenadorFila.ordenar(filaReproducao.visao(), criterio));
         return true;
     }
 
@@ -287,20 +464,21 @@ public class PlayerService {
      * 
      * @return O áudio atual, ou null se a fila estiver vazia
      */
-    public Audio getAudioAtual() {
-        if (indiceAtual >= 0 && indiceAtual < filaReproducao.size()) {
-            return filaReproducao.get(indiceAtual);
-        }
-        return null;
+    public synchronized Audio getAudioAtual() {
+        return itemAtual == null ? null : itemAtual.getAudio();
     }
 
     /**
-     * Retorna o índice da posição atual na fila (base 0).
+     * Retorna a posição atual na ordem de reprodução (base 0).
+     * 
+     * <p>
+     * Com o shuffle ativo, é a posição na ordem embaralhada.
+     * </p>
      * 
      * @return Índice atual, ou -1 se nenhum item selecionado
      */
-    public int getIndiceAtual() {
-        return indiceAtual;
+    public synchronized int getIndiceAtual() {
+        return posicaoNaOrdem();
     }
 
     /**
@@ -312,9 +490,13 @@ public class PlayerService {
      * 
      * @param indice Nova posição (deve ser válida)
      */
-    public void setIndiceAtual(int indice) {
-        if (indice >= 0 && indice < filaReproducao.size()) {
-            this.indiceAtual = indice;
+    public synchronized void setIndiceAtual(int indice) {
+        if (indice >= 0 && indice < filaReproducao.tamanho() && indice != posicaoNaOrdem()) {
+            irPara(indice);
+            pararRelogio(0);
+            if (tocando) {
+                agendarFimDaFaixa(itemAtual.getAudio());
+            }
         }
     }
 
@@ -323,7 +505,7 @@ public class PlayerService {
      * 
      * @return true se estiver tocando, false caso contrário
      */
-    public boolean isTocando() {
+    public synchronized boolean isTocando() {
         return tocando;
     }
 
@@ -332,7 +514,7 @@ public class PlayerService {
      * 
      * @return true se shuffle ativo, false caso contrário
      */
-    public boolean isModoShuffle() {
+    public synchronized boolean isModoShuffle() {
         return modoShuffle;
     }
 
@@ -341,8 +523,8 @@ public class PlayerService {
      * 
      * @return Quantidade de áudios na fila
      */
-    public int getTamanhoFila() {
-        return filaReproducao.size();
+    public synchronized int getTamanhoFila() {
+        return filaReproducao.tamanho();
     }
 
     /**
@@ -350,8 +532,8 @@ public class PlayerService {
      * 
      * @return String com status formatado
      */
-    public String getStatus() {
-        if (filaReproducao.isEmpty()) {
+    public synchronized String getStatus() {
+        if (filaReproducao.isVazia()) {
             return "Fila vazia";
         }
         return tocando ? "▶ Reproduzindo" : "⏸ Pausado";
@@ -360,18 +542,28 @@ public class PlayerService {
     /**
      * Adiciona um áudio ao final da fila de reprodução.
      * 
+     * <p>
+     * Com o shuffle ativo, o novo áudio entra em uma posição sorteada
+     * depois do atual; o que já tocou continua na mesma ordem.
+     * </p>
+     * 
      * @param audio Áudio a adicionar
      * @return true se adicionou, false se áudio era null
      */
-    public boolean adicionarAFila(Audio audio) {
+    public synchronized boolean adicionarAFila(Audio audio) {
         if (audio == null)
             return false;
 
-        filaReproducao.add(audio);
+        int[] tocadas = modoShuffle ? ordemAteOAtual() : null;
+        filaReproducao.inserir(filaReproducao.tamanho(), audio);
 
         // Se fila estava vazia, posiciona no primeiro item
-        if (filaReproducao.size() == 1) {
-            indiceAtual = 0;
+        if (itemAtual == null) {
+            itemAtual = filaReproducao.itemEm(0);
+        }
+        if (modoShuffle) {
+            // Sorteia de novo só o que ainda não tocou, incluindo o novo item
+            embaralharDepoisDoAtual(tocadas, ThreadLocalRandom.current().nextLong());
         }
         return true;
     }
@@ -379,39 +571,380 @@ public class PlayerService {
     /**
      * Adiciona múltiplos áudios à fila.
      * 
+     * <p>
+     * Com o shuffle ativo, segue a mesma regra de
+     * {@link #adicionarAFila(Audio)}.
+     * </p>
+     * 
      * @param audios     Lista de áudios a adicionar
      * @param nomeOrigem Nome da origem (para referência, não usado internamente)
      * @return Número de itens adicionados
      */
-    public int adicionarListaAFila(List<Audio> audios, String nomeOrigem) {
+    public synchronized int adicionarListaAFila(List<Audio> audios, String nomeOrigem) {
         if (audios == null || audios.isEmpty())
             return 0;
 
-        boolean filaVazia = filaReproducao.isEmpty();
-        filaReproducao.addAll(audios);
+        int[] tocadas = modoShuffle ? ordemAteOAtual() : null;
+        filaReproducao.adicionarTodos(audios);
 
-        if (filaVazia) {
-            indiceAtual = 0;
+        if (itemAtual == null) {
+            itemAtual = filaReproducao.itemEm(0);
+        }
+        if (modoShuffle) {
+            // Sorteia de novo só o que ainda não tocou, incluindo os novos itens
+            embaralharDepoisDoAtual(tocadas, ThreadLocalRandom.current().nextLong());
         }
 
         return audios.size();
     }
 
+    /**
+     * Insere um áudio logo depois do atual ("tocar em seguida").
+     * 
+     * <p>
+     * Com a fila vazia, o áudio vira o atual. Custa O(log n).
+     * </p>
+     * 
+     * @param audio Áudio a inserir
+     * @return true se inseriu, false se áudio era null
+     */
+    public synchronized boolean tocarEmSeguida(Audio audio) {
+        if (audio == null)
+            return false;
+
+        fixarOrdemDeReproducao();
+        if (itemAtual == null) {
+            itemAtual = filaReproducao.inserir(0, audio);
+        } else {
+            filaReproducao.inserir(filaReproducao.posicaoDe(itemAtual) + 1, audio);
+        }
+        return true;
+    }
+
+    /**
+     * Remove o áudio de uma posição da fila.
+     * 
+     * <p>
+     * Se for o áudio atual, o item que ocupa o seu lugar vira o atual (e
+     * começa a tocar, se o player estava tocando); se era o último, o
+     * anterior vira o atual, pausado. Custa O(log n).
+     * </p>
+     * 
+     * @param posicao Posição na ordem de reprodução (base 0)
+     * @return true se removeu, false se a posição era inválida
+     */
+    public synchronized boolean removerDaFila(int posicao) {
+        if (posicao < 0 || posicao >= filaReproducao.tamanho())
+            return false;
+
+        fixarOrdemDeReproducao();
+        FilaIndexada.Item removido = filaReproducao.remover(posicao);
+        if (removido == itemAtual) {
+            boolean estavaTocando = tocando;
+            tocando = false;
+            pararRelogio(0);
+            if (filaReproducao.isVazia()) {
+                itemAtual = null;
+            } else if (posicao < filaReproducao.tamanho()) {
+                itemAtual = filaReproducao.itemEm(posicao);
+                if (estavaTocando) {
+                    play();
+                }
+            } else {
+                itemAtual = filaReproducao.itemEm(posicao - 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move o áudio de uma posição para outra da fila.
+     * 
+     * <p>
+     * O áudio atual continua o mesmo, mesmo que mude de posição.
+     * Custa O(log n).
+     * </p>
+     * 
+     * @param de   Posição atual na ordem de reprodução (base 0)
+     * @param para Posição que o áudio deve ocupar depois do movimento
+     * @return true se moveu, false se alguma posição era inválida
+     */
+    public synchronized boolean moverNaFila(int de, int para) {
+        int tamanho = filaReproducao.tamanho();
+        if (de < 0 || de >= tamanho || para < 0 || para >= tamanho)
+            return false;
+
+        fixarOrdemDeReproducao();
+        filaReproducao.mover(de, para);
+        return true;
+    }
+
     /**
      * Retorna a fila de reprodução para visualização.
      * 
-     * @return Cópia da fila de reprodução
+     * <p>
+     * Não copia a fila: a lista retornada é uma visão somente leitura, na
+     * ordem em que a fila será tocada, que acompanha as alterações
+     * seguintes. Cada acesso por índice custa O(log n).
+     * </p>
+     * 
+     * @return Visão da fila de reprodução, na ordem em que será tocada
      */
     public List<Audio> getFila() {
-        return new ArrayList<>(filaReproducao);
+        return visaoFila;
     }
 
     /**
      * Limpa a fila de reprodução.
      */
-    public void limparFila() {
-        filaReproducao.clear();
-        indiceAtual = -1;
+    public synchronized void limparFila() {
+        filaReproducao.limpar();
+        itemAtual = null;
         tocando = false;
+        modoShuffle = false;
+        pararRelogio(0);
+    }
+
+    /**
+     * Retorna a posição de reprodução dentro do áudio atual.
+     * 
+     * <p>
+     * Sem relógio, a posição é sempre 0.
+     * </p>
+     * 
+     * @return Segundos já tocados do áudio atual
+     */
+    public synchronized int getPosicaoSegundos() {
+        return (int) (getPosicaoMillis() / 1000);
+    }
+
+    /**
+     * Verifica se o fim da faixa atual está agendado no relógio, ou seja,
+     * se o player vai avançar sozinho.
+     * 
+     * @return true se estiver tocando com relógio
+     */
+    public synchronized boolean isReproducaoEmAndamento() {
+        return fimDaFaixa != null;
+    }
+
+    // ========= ORDEM DE REPRODUÇÃO =========
+
+    /**
+     * Posição do áudio atual na ordem de reprodução (embaralhada ou não).
+     */
+    private int posicaoNaOrdem() {
+        if (modoShuffle) {
+            return posicaoEmbaralhada;
+        }
+        return itemAtual == null ? -1 : filaReproducao.posicaoDe(itemAtual);
+    }
+
+    /**
+     * Índice na fila do áudio que ocupa uma posição da ordem de reprodução.
+     */
+    private int indiceNaOrdem(int posicao) {
+        if (!modoShuffle) {
+            return posicao;
+        }
+        int fixas = ordemFixada.length;
+        if (posicao < fixas) {
+            return ordemFixada[posicao];
+        }
+        int sorteados = filaReproducao.tamanho() - fixas;
+        return naoFixado(permutacao.aplicar((int) ((inicioEmbaralhado + (long) (posicao - fixas)) % sorteados)));
+    }
+
+    /**
+     * O {@code ordem}-ésimo índice da fila (base 0) que não está em
+     * {@link #ordemFixada}, em O(log k).
+     */
+    private int naoFixado(int ordem) {
+        // Quantos fixados ficam antes dele: fixadosOrdenados[i] - i não decresce
+        int baixo = 0;
+        int alto = fixadosOrdenados.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (fixadosOrdenados[meio] - meio <= ordem) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return ordem + baixo;
+    }
+
+    /**
+     * Seleciona o áudio de uma posição da ordem de reprodução.
+     */
+    private void irPara(int posicao) {
+        itemAtual = filaReproducao.itemEm(indiceNaOrdem(posicao));
+        if (modoShuffle) {
+            posicaoEmbaralhada = posicao;
+        }
+    }
+
+    /**
+     * Sorteia uma ordem embaralhada que começa no áudio atual, sem alocar
+     * nada depois do primeiro shuffle.
+     */
+    private void embaralharAPartirDoAtual(long semente) {
+        int tamanho = filaReproducao.tamanho();
+        if (permutacao == null) {
+            permutacao = new PermutacaoAleatoria(tamanho, semente);
+        } else {
+            permutacao.redimensionar(tamanho);
+            permutacao.reembaralhar(semente);
+        }
+        if (itemAtual == null) {
+            itemAtual = filaReproducao.itemEm(0);
+        }
+        // A ordem é a permutação "girada" para começar no áudio atual
+        ordemFixada = SEM_POSICOES_FIXAS;
+        fixadosOrdenados = SEM_POSICOES_FIXAS;
+        inicioEmbaralhado = permutacao.inverter(filaReproducao.posicaoDe(itemAtual));
+        posicaoEmbaralhada = 0;
+        modoShuffle = true;
+    }
+
+    /**
+     * Índices na fila das posições da ordem embaralhada até o áudio
+     * atual, lidos antes de a fila crescer.
+     */
+    private int[] ordemAteOAtual() {
+        int[] ordem = Arrays.copyOf(ordemFixada, posicaoEmbaralhada + 1);
+        for (int posicao = ordemFixada.length; posicao < ordem.length; posicao++) {
+            ordem[posicao] = indiceNaOrdem(posicao);
+        }
+        return ordem;
+    }
+
+    /**
+     * Depois de a fila crescer, fixa as posições já tocadas e sorteia a
+     * ordem dos demais índices, antigos e novos. O áudio atual continua
+     * na mesma posição, então {@link #anterior()} refaz o mesmo caminho.
+     */
+    private void embaralharDepoisDoAtual(int[] tocadas, long semente) {
+        ordemFixada = tocadas;
+        fixadosOrdenados = tocadas.clone();
+        Arrays.sort(fixadosOrdenados);
+        permutacao.redimensionar(filaReproducao.tamanho() - tocadas.length);
+        permutacao.reembaralhar(semente);
+        inicioEmbaralhado = 0;
+    }
+
+    /**
+     * Antes de uma alteração por posição com o shuffle ativo, reordena a
+     * fila na ordem embaralhada (O(n), uma vez) e desativa o shuffle.
+     */
+    private void fixarOrdemDeReproducao() {
+        if (!modoShuffle) {
+            return;
+        }
+        int[] ordem = new int[filaReproducao.tamanho()];
+        for (int posicao = 0; posicao < ordem.length; posicao++) {
+            ordem[posicao] = indiceNaOrdem(posicao);
+        }
+        filaReproducao.reordenar(ordem); // Reaproveita os itens: o atual continua o mesmo
+        modoShuffle = false;
+    }
+
+    /**
+     * Lista somente leitura da fila na ordem de reprodução, calculada a
+     * cada acesso.
+     */
+    private final class VisaoFila extends AbstractList<Audio> {
+
+        @Override
+        public Audio get(int posicao) {
+            synchronized (PlayerService.this) {
+                Objects.checkIndex(posicao, filaReproducao.tamanho());
+                return filaReproducao.get(indiceNaOrdem(posicao));
+            }
+        }
+
+        @Override
+        public int size() {
+            return getTamanhoFila();
+        }
+    }
+
+    // ========= RELÓGIO =========
+
+    private long getPosicaoMillis() {
+        if (!tocando || relogio == null || fimDaFaixa == null) {
+            return posicaoMillis;
+        }
+        long tocado = posicaoMillis + relogio.getTempoAtual() - inicioTrecho;
+        Audio atual = getAudioAtual();
+        return atual == null ? tocado : Math.min(tocado, duracaoMillis(atual));
+    }
+
+    private static long duracaoMillis(Audio audio) {
+        return audio.getDuracaoSegundos() * 1000L;
+    }
+
+    /**
+     * Agenda o fim do áudio a partir da posição atual, cancelando o
+     * temporizador anterior.
+     */
+    private void agendarFimDaFaixa(Audio atual) {
+        if (relogio == null) {
+            return;
+        }
+        encerrarTrecho();
+        long versao = ++versaoFimDaFaixa;
+        inicioTrecho = relogio.getTempoAtual();
+        audioDoTrecho = atual;
+        restanteTrecho = Math.max(0, duracaoMillis(atual) - posicaoMillis);
+        fimDaFaixa = relogio.agendar(restanteTrecho, () -> faixaTerminou(versao));
+    }
+
+    /**
+     * Cancela o temporizador da faixa atual e fixa a posição.
+     */
+    private void pararRelogio(long posicao) {
+        posicaoMillis = posicao;
+        encerrarTrecho();
+    }
+
+    /**
+     * Cancela o temporizador do trecho em andamento, se houver, e avisa o
+     * ouvinte do tempo ouvido nele.
+     */
+    private void encerrarTrecho() {
+        if (fimDaFaixa == null) {
+            return;
+        }
+        relogio.cancelar(fimDaFaixa);
+        fimDaFaixa = null;
+        versaoFimDaFaixa++;
+        avisarTrecho(Math.min(relogio.getTempoAtual() - inicioTrecho, restanteTrecho));
+    }
+
+    private void avisarTrecho(long ouvido) {
+        if (ouvinte != null && ouvido > 0) {
+            ouvinte.trechoOuvido(audioDoTrecho, ouvido);
+        }
+    }
+
+    /**
+     * Chamado pela thread do relógio quando o temporizador vence: avisa o
+     * ouvinte e avança para a próxima faixa, se houver.
+     */
+    private synchronized void faixaTerminou(long versao) {
+        if (versao != versaoFimDaFaixa || !tocando) {
+            return; // Cancelado depois de vencer
+        }
+        fimDaFaixa = null;
+        avisarTrecho(restanteTrecho); // Tocou até o fim
+        Audio terminada = getAudioAtual();
+        if (terminada != null) {
+            posicaoMillis = duracaoMillis(terminada);
+            if (ouvinte != null) {
+                ouvinte.faixaTerminada(terminada);
+            }
+        }
+        proxima();
     }
 }
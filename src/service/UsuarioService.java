@@ -1,11 +1,37 @@
 package service;
 
+import exception.PersistenciaException;
 import exception.ValidacaoException;
+import interfaces.OuvinteReproducao;
+import model.midia.Audio;
+import model.playlist.Playlist;
+import model.usuario.HistoricoReproducao;
 import model.usuario.Usuario;
+import service.persistencia.AlteracaoUsuario;
+import service.persistencia.ArmazemUsuarios;
+import service.persistencia.ArquivoSnapshot;
+import service.persistencia.GravadorJournal;
+import service.persistencia.JournalUsuarios;
+import service.persistencia.legado.EntradaUsuariosLegado;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Serviço responsável pelo gerenciamento de usuários.
@@ -16,28 +42,269 @@ import java.util.Map;
  * Esta classe não realiza impressões na tela. Erros são comunicados
  * via exceções e a camada de menu é responsável pela exibição.
  * </p>
+ * 
+ * <h2>Persistência com Journal</h2>
+ * <p>
+ * Toda alteração de usuário (cadastro, curtida, playlist, senha) deve
+ * passar pelos métodos deste serviço. Cada uma gera um registro pequeno
+ * no {@link JournalUsuarios} e marca o usuário como alterado. Na
+ * compactação, que roda em segundo plano quando o journal cresce, e em
+ * {@link #salvarUsuarios()} ao encerrar, só os usuários alterados são
+ * regravados no {@link ArmazemUsuarios}, um registro cada; uma conta
+ * removida vira uma lápide.
+ * </p>
+ * 
+ * <p>
+ * Os usuários não são todos lidos na inicialização: o login lê o
+ * registro daquele email e o mantém em memória. O carregamento só lê o
+ * journal posterior à última gravação, então seu custo não depende do
+ * número de contas. O antigo "usuarios.db" é migrado para o armazenamento
+ * na primeira inicialização e guardado como "usuarios.db.migrado"; se
+ * ele for de uma versão com os áudios embutidos nos usuários, é lido por
+ * {@link EntradaUsuariosLegado}.
+ * </p>
+ * 
+ * <p>
+ * As alterações não esperam o disco: o {@link GravadorJournal} grava o
+ * journal em segundo plano, juntando as alterações de até
+ * {@value #INTERVALO_GRAVACAO_MS} ms em um único fsync. Uma queda pode
+ * perder esse último intervalo; {@link #salvarUsuarios()} grava tudo de
+ * forma síncrona. Se uma gravação em segundo plano falhar, a alteração
+ * seguinte tenta gravar o journal antes de ser feita e, se ainda não
+ * conseguir, é recusada com {@link PersistenciaException}.
+ * </p>
+ * 
+ * <p>
+ * Cada registro guarda o LSN que contém, e o LSN do armazenamento é
+ * gravado por {@link ArquivoSnapshot} depois dos registros, com a versão
+ * anterior guardada junto com os segmentos do journal posteriores a ela.
+ * Se o estado estiver corrompido, o carregamento usa a versão anterior e
+ * reaplica o journal sem perder alterações.
+ * </p>
+ * 
+ * <p>
+ * O histórico de reprodução é a exceção: é atualizado a cada faixa, na
+ * thread do relógio, e esperar o journal ali atrasaria todos os players.
+ * Ele só marca o usuário como alterado e vai para o disco junto com o
+ * registro dele, na próxima compactação.
+ * </p>
+ * 
+ * <h2>Concorrência</h2>
+ * <ul>
+ * <li>Os usuários já lidos ficam em um {@link ConcurrentHashMap}: o
+ * login e as consultas por email não usam travas depois da primeira
+ * leitura</li>
+ * <li>O cadastro e a leitura de um usuário do armazenamento usam a trava
+ * do email: dois cadastros simultâneos com o mesmo email nunca são
+ * aceitos</li>
+ * <li>As alterações de um usuário usam uma das {@value #TOTAL_TRAVAS}
+ * travas escolhida pelo email (lock striping), então usuários diferentes
+ * raramente disputam a mesma trava; as alterações de um mesmo usuário
+ * chegam ao journal na ordem em que foram aplicadas</li>
+ * <li>A compactação e o carregamento tomam todas as travas, em ordem,
+ * para ver um estado consistente de todos os usuários</li>
+ * </ul>
  */
-public class UsuarioService {
-    private static UsuarioService instance;
+public class UsuarioService implements Closeable {
+    /** Snapshot único dos usuários, usado antes do armazenamento particionado. */
     private static final String ARQUIVO_USUARIOS = "usuarios.db";
 
-    // Map: email -> Usuario (busca O(1))
-    private Map<String, Usuario> usuarios;
+    /** Sufixo do snapshot único depois de migrado. */
+    private static final String SUFIXO_MIGRADO = ".migrado";
+
+    /** Diretório do armazenamento dos usuários. */
+    private static final String DIRETORIO_USUARIOS = "usuarios";
+
+    /** Partições do armazenamento (fixo depois de criado). */
+    private static final int TOTAL_PARTICOES = 256;
+
+    /** Quantidade de travas das alterações de usuários (potência de 2). */
+    private static final int TOTAL_TRAVAS = 64;
+
+    /** Prefixo dos segmentos do journal de alterações. */
+    private static final String PREFIXO_JOURNAL = "usuarios.journal";
+
+    /** Tamanho do segmento do journal que dispara a compactação. */
+    private static final long LIMITE_COMPACTACAO_BYTES = 1024 * 1024;
+
+    /** Tempo máximo que uma alteração espera para ir ao disco. */
+    private static final long INTERVALO_GRAVACAO_MS = 200;
+
+    /** Alterações pendentes (em bytes) que antecipam a gravação. */
+    private static final int LOTE_GRAVACAO_BYTES = 64 * 1024;
+
+    /** Alterações pendentes (em bytes) a partir das quais quem altera espera o disco. */
+    private static final int LIMITE_PENDENTE_BYTES = 1024 * 1024;
+
+    // Map: email -> Usuario já lido do armazenamento (busca O(1), sem travas)
+    private volatile ConcurrentHashMap<String, Usuario> usuarios;
+
+    /** Registro de cada usuário, em partições. */
+    private final ArmazemUsuarios armazem;
+
+    /**
+     * Emails alterados desde a última compactação. Um email presente aqui
+     * e ausente de {@link #usuarios} foi removido.
+     */
+    private volatile Set<String> alterados = ConcurrentHashMap.newKeySet();
+
+    /** Emails sendo gravados pela compactação em andamento. */
+    private volatile Set<String> emGravacao = Set.of();
+
+    /** Travas das alterações, escolhidas pelo email do usuário. */
+    private final ReentrantLock[] travas;
+
+    /** Journal de alterações (write-ahead log). */
+    private final JournalUsuarios journal;
+
+    /** Thread que grava o journal em segundo plano (write-behind). */
+    private final GravadorJournal gravador;
+
+    /** Thread de fundo responsável pela compactação. */
+    private final ExecutorService compactador;
+
+    /** Evita agendar mais de uma compactação ao mesmo tempo. */
+    private final AtomicBoolean compactando = new AtomicBoolean(false);
+
+    /**
+     * Serializa compactações e carregamentos: um snapshot antigo não pode
+     * sobrescrever um mais novo, nem segmentos podem ser apagados enquanto
+     * o journal é reaplicado.
+     */
+    private final Object travaArquivos = new Object();
+
+    /**
+     * Último segmento do journal contido no estado atual do armazenamento
+     * e na geração anterior (0 se desconhecido). Os segmentos posteriores
+     * ao da geração anterior são mantidos, para que ela possa ser usada
+     * se o estado atual se corromper.
+     */
+    private int segmentoDoEstado;
+    private int segmentoDoAnterior;
+
+    /** Snapshot único a migrar ("usuarios.db" no diretório de dados). */
+    private final Path arquivoSnapshotUnico;
 
     private UsuarioService() {
-        this.usuarios = new HashMap<>();
+        this(Paths.get("."));
+    }
+
+    /**
+     * Cria um serviço independente da instância única, com os arquivos
+     * em outro diretório.
+     * 
+     * <p>
+     * Usado nos testes, para não tocar nos dados da aplicação. Deve ser
+     * encerrado com {@link #close()}.
+     * </p>
+     * 
+     * @param diretorio Diretório do armazenamento e do journal
+     */
+    public UsuarioService(Path diretorio) {
+        this.arquivoSnapshotUnico = diretorio.resolve(ARQUIVO_USUARIOS);
+        this.usuarios = new ConcurrentHashMap<>();
+        this.travas = new ReentrantLock[TOTAL_TRAVAS];
+        for (int i = 0; i < TOTAL_TRAVAS; i++) {
+            travas[i] = new ReentrantLock();
+        }
+        this.armazem = new ArmazemUsuarios(diretorio.resolve(DIRETORIO_USUARIOS), TOTAL_PARTICOES);
+        this.journal = new JournalUsuarios(diretorio.toFile(), PREFIXO_JOURNAL);
+        this.gravador = new GravadorJournal(journal, INTERVALO_GRAVACAO_MS, LOTE_GRAVACAO_BYTES,
+                LIMITE_PENDENTE_BYTES);
+        this.compactador = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "compactacao-usuarios");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     /**
      * Retorna a instância única do serviço (Singleton).
      * 
+     * <p>
+     * A instância é criada na inicialização da classe {@link Instancia},
+     * que a JVM garante acontecer uma única vez, mesmo com várias threads.
+     * </p>
+     * 
      * @return Instância única do UsuarioService
      */
     public static UsuarioService getInstance() {
-        if (instance == null) {
-            instance = new UsuarioService();
+        return Instancia.UNICA;
+    }
+
+    /**
+     * Guarda a instância única, criada quando esta classe é carregada.
+     */
+    private static final class Instancia {
+        private static final UsuarioService UNICA = new UsuarioService();
+    }
+
+    /**
+     * Retorna a trava das alterações do usuário com o email informado.
+     */
+    private ReentrantLock travaDe(String email) {
+        int hash = email.hashCode();
+        return travas[(hash ^ (hash >>> 16)) & (TOTAL_TRAVAS - 1)];
+    }
+
+    /** Toma todas as travas, sempre na mesma ordem. */
+    private void travarTodos() {
+        for (ReentrantLock trava : travas) {
+            trava.lock();
+        }
+    }
+
+    /** Libera todas as travas, na ordem inversa. */
+    private void liberarTodos() {
+        for (int i = travas.length - 1; i >= 0; i--) {
+            travas[i].unlock();
+        }
+    }
+
+    /**
+     * Retorna o usuário com o email informado, lendo só o registro dele
+     * do armazenamento na primeira vez.
+     * 
+     * @param email Email normalizado
+     * @return Usuário, ou null se não existir
+     * @throws PersistenciaException Se o registro não puder ser lido
+     */
+    private Usuario buscar(String email) {
+        Usuario usuario = usuarios.get(email);
+        if (usuario != null) {
+            return usuario;
+        }
+        ReentrantLock trava = travaDe(email);
+        trava.lock();
+        try {
+            usuario = usuarios.get(email);
+            if (usuario != null || alterados.contains(email) || emGravacao.contains(email)) {
+                return usuario; // Ausente e alterado: removido desde a última gravação
+            }
+            ArmazemUsuarios.Registro registro = armazem.ler(email);
+            if (registro == null) {
+                return null;
+            }
+            usuario = desserializar(registro.getDados());
+            usuario.resolverReferencias(BibliotecaService.getInstance()::getPorId);
+            usuarios.put(email, usuario);
+            return usuario;
+        } catch (IOException e) {
+            throw new PersistenciaException("Não foi possível ler o usuário " + email, e);
+        } finally {
+            trava.unlock();
         }
-        return instance;
+    }
+
+    /**
+     * Marca o usuário como alterado e anexa a alteração ao journal. Deve
+     * ser chamado com a trava do usuário.
+     * 
+     * @return LSN atribuído à alteração
+     */
+    private long registrar(AlteracaoUsuario alteracao) {
+        alterados.add(alteracao.getEmail());
+        return journal.anexar(alteracao);
     }
 
     /**
@@ -47,7 +314,9 @@ public class UsuarioService {
      * @param senha Senha em texto plano (será hasheada)
      * @param nome  Nome de exibição
      * @return O usuário cadastrado
-     * @throws ValidacaoException Se dados inválidos ou email já existente
+     * @throws ValidacaoException   Se dados inválidos ou email já existente
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
      */
     public Usuario cadastrar(String email, String senha, String nome) throws ValidacaoException {
         // Validação de campos obrigatórios
@@ -63,7 +332,7 @@ public class UsuarioService {
             throw new ValidacaoException("Formato de email inválido.");
         }
 
-        // Validação de email único
+        // Validação de email único (verificação rápida; a definitiva é sob a trava)
         if (existeUsuario(emailNormalizado)) {
             throw new ValidacaoException("Email '" + email + "' já está cadastrado.");
         }
@@ -73,10 +342,23 @@ public class UsuarioService {
             throw new ValidacaoException("A senha deve ter pelo menos 4 caracteres.");
         }
 
+        verificarGravacao();
+
         // Criação do usuário
         Usuario novoUsuario = new Usuario(emailNormalizado, senha, nome.trim());
-        usuarios.put(emailNormalizado, novoUsuario);
-        salvarUsuarios();
+        long lsn;
+        ReentrantLock trava = travaDe(emailNormalizado);
+        trava.lock();
+        try {
+            if (buscar(emailNormalizado) != null) {
+                throw new ValidacaoException("Email '" + email + "' já está cadastrado.");
+            }
+            usuarios.put(emailNormalizado, novoUsuario);
+            lsn = registrar(AlteracaoUsuario.cadastro(novoUsuario));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
 
         return novoUsuario;
     }
@@ -84,6 +366,12 @@ public class UsuarioService {
     /**
      * Realiza login do usuário.
      * 
+     * <p>
+     * Na primeira vez lê só o registro deste email do armazenamento;
+     * depois não usa travas: apenas consulta o mapa concorrente e compara
+     * o hash da senha.
+     * </p>
+     * 
      * @param email Email do usuário
      * @param senha Senha em texto plano
      * @return O usuário logado
@@ -92,7 +380,7 @@ public class UsuarioService {
     public Usuario login(String email, String senha) throws ValidacaoException {
         String emailNormalizado = email.toLowerCase().trim();
 
-        Usuario usuario = usuarios.get(emailNormalizado);
+        Usuario usuario = buscar(emailNormalizado);
 
         if (usuario == null) {
             throw new ValidacaoException("Usuário não encontrado.");
@@ -112,38 +400,427 @@ public class UsuarioService {
      * @return true se já existe, false caso contrário
      */
     public boolean existeUsuario(String email) {
-        return usuarios.containsKey(email.toLowerCase().trim());
+        return buscar(email.toLowerCase().trim()) != null;
     }
 
     /**
      * Remove um usuário do sistema.
      * 
+     * <p>
+     * No armazenamento, só uma lápide é gravada para o email, na próxima
+     * compactação.
+     * </p>
+     * 
      * @param email Email do usuário a remover
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
      */
     public void removerUsuario(String email) {
+        verificarGravacao();
         String emailNormalizado = email.toLowerCase().trim();
-        usuarios.remove(emailNormalizado);
-        salvarUsuarios();
+        long lsn;
+        ReentrantLock trava = travaDe(emailNormalizado);
+        trava.lock();
+        try {
+            usuarios.remove(emailNormalizado);
+            lsn = registrar(AlteracaoUsuario.remocao(emailNormalizado));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
     }
 
+    // ========= ALTERAÇÕES DE USUÁRIO (registradas no journal) =========
+
     /**
-     * Retorna o número total de usuários cadastrados.
+     * Alterna a curtida de um áudio e registra a alteração.
+     * 
+     * <p>
+     * A trava do usuário junta a conferência das curtidas dele e a
+     * alteração do contador do áudio: duas descurtidas simultâneas do
+     * mesmo usuário não removem a mesma curtida duas vezes, então o total
+     * do áudio nunca fica negativo.
+     * </p>
      * 
-     * @return Quantidade de usuários
+     * @param usuario Usuário que curtiu
+     * @param audio   Áudio curtido/descurtido
+     * @return true se a curtida foi adicionada, false se foi removida
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
      */
-    public int getTotalUsuarios() {
-        return usuarios.size();
+    public boolean curtirAudio(Usuario usuario, Audio audio) {
+        verificarGravacao();
+        boolean curtiu;
+        long lsn;
+        ReentrantLock trava = travaDe(usuario.getEmail());
+        trava.lock();
+        try {
+            curtiu = usuario.curtirAudio(audio);
+            lsn = registrar(AlteracaoUsuario.curtida(usuario.getEmail(), audio.getId(), curtiu));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
+        return curtiu;
     }
 
+    /**
+     * Cria uma playlist para o usuário e registra a alteração.
+     * 
+     * @param usuario      Dono da playlist
+     * @param nomePlaylist Nome da nova playlist
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
+     */
+    public void criarPlaylist(Usuario usuario, String nomePlaylist) {
+        verificarGravacao();
+        long lsn;
+        ReentrantLock trava = travaDe(usuario.getEmail());
+        trava.lock();
+        try {
+            usuario.criarPlaylist(nomePlaylist);
+            lsn = registrar(AlteracaoUsuario.playlistCriada(usuario.getEmail(), nomePlaylist));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
+    }
+
+    /**
+     * Exclui uma playlist do usuário e registra a alteração.
+     * 
+     * @param usuario  Dono da playlist
+     * @param playlist Playlist a excluir
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
+     */
+    public void removerPlaylist(Usuario usuario, Playlist playlist) {
+        verificarGravacao();
+        long lsn;
+        ReentrantLock trava = travaDe(usuario.getEmail());
+        trava.lock();
+        try {
+            int indice = usuario.getPlaylists().indexOf(playlist);
+            if (indice < 0) {
+                return;
+            }
+            usuario.getPlaylists().remove(indice);
+            lsn = registrar(AlteracaoUsuario.playlistRemovida(usuario.getEmail(), indice));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
+    }
+
+    /**
+     * Adiciona um áudio a uma playlist e registra a alteração.
+     * 
+     * @param usuario  Dono da playlist
+     * @param playlist Playlist de destino
+     * @param audio    Áudio a adicionar
+     * @return true se adicionou, false se o áudio já estava na playlist
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
+     */
+    public boolean adicionarItemPlaylist(Usuario usuario, Playlist playlist, Audio audio) {
+        verificarGravacao();
+        long lsn;
+        ReentrantLock trava = travaDe(usuario.getEmail());
+        trava.lock();
+        try {
+            int indice = usuario.getPlaylists().indexOf(playlist);
+            if (indice < 0 || !playlist.adicionarItem(audio)) {
+                return false;
+            }
+            lsn = registrar(AlteracaoUsuario.itemAdicionado(usuario.getEmail(), indice, audio.getId()));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
+        return true;
+    }
+
+    /**
+     * Remove o item de uma posição da playlist e registra a alteração.
+     * 
+     * @param usuario    Dono da playlist
+     * @param playlist   Playlist alterada
+     * @param indiceItem Posição do item (base 0)
+     * @return Áudio removido, ou null se o índice for inválido
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
+     */
+    public Audio removerItemPlaylist(Usuario usuario, Playlist playlist, int indiceItem) {
+        verificarGravacao();
+        Audio removido;
+        long lsn;
+        ReentrantLock trava = travaDe(usuario.getEmail());
+        trava.lock();
+        try {
+            int indice = usuario.getPlaylists().indexOf(playlist);
+            List<Audio> itens = playlist.getItens();
+            if (indice < 0 || indiceItem < 0 || indiceItem >= itens.size()) {
+                return null;
+            }
+            removido = itens.remove(indiceItem);
+            lsn = registrar(AlteracaoUsuario.itemRemovido(usuario.getEmail(), indice, indiceItem));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
+        return removido;
+    }
+
+    /**
+     * Altera a senha do usuário e registra a alteração.
+     * 
+     * @param usuario   Usuário
+     * @param novaSenha Nova senha em texto plano
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
+     */
+    public void alterarSenha(Usuario usuario, String novaSenha) {
+        verificarGravacao();
+        long lsn;
+        ReentrantLock trava = travaDe(usuario.getEmail());
+        trava.lock();
+        try {
+            usuario.alterarSenha(novaSenha);
+            lsn = registrar(AlteracaoUsuario.senhaAlterada(usuario.getEmail(), usuario.getSenhaHash()));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
+    }
+
+    /**
+     * Salva a posição atual do player e registra a alteração.
+     * 
+     * @param usuario Usuário
+     * @param indice  Índice atual do player
+     * @throws PersistenciaException Se o journal não puder ser gravado (a
+     *                               alteração não é feita)
+     */
+    public void salvarEstadoPlayer(Usuario usuario, int indice) {
+        verificarGravacao();
+        long lsn;
+        ReentrantLock trava = travaDe(usuario.getEmail());
+        trava.lock();
+        try {
+            usuario.setEstadoPlayerIndice(indice);
+            lsn = registrar(AlteracaoUsuario.estadoPlayer(usuario.getEmail(), indice));
+        } finally {
+            trava.unlock();
+        }
+        agendarGravacao(lsn);
+    }
+
+    /**
+     * Cria o ouvinte que grava as reproduções do player no histórico do
+     * usuário.
+     * 
+     * <p>
+     * Registra o início de cada reprodução e soma o tempo ouvido de cada
+     * trecho, sem criar objetos nem passar pelo journal (ver
+     * {@link HistoricoReproducao}); só marca o usuário como alterado, para
+     * a próxima compactação. Áudios fora do catálogo são ignorados.
+     * </p>
+     * 
+     * @param usuario Usuário que está ouvindo
+     * @return Ouvinte a registrar no {@link PlayerService}
+     */
+    public OuvinteReproducao criarOuvinteHistorico(Usuario usuario) {
+        HistoricoReproducao historico = usuario.getHistorico();
+        ReentrantLock trava = travaDe(usuario.getEmail());
+        return new OuvinteReproducao() {
+            @Override
+            public void faixaTerminada(Audio audio) {
+                // O tempo da faixa já chega por trechoOuvido
+            }
+
+            @Override
+            public void reproducaoIniciada(Audio audio) {
+                if (audio.getId() >= 0) {
+                    historico.registrar(audio.getId(), System.currentTimeMillis());
+                    marcarAlterado();
+                }
+            }
+
+            @Override
+            public void trechoOuvido(Audio audio, long millis) {
+                historico.acumular(audio.getId(), (int) ((millis + 500) / 1000));
+                marcarAlterado();
+            }
+
+            private void marcarAlterado() {
+                // Sob a trava, para não cair no conjunto que a compactação acabou de trocar
+                trava.lock();
+                try {
+                    if (usuarios.get(usuario.getEmail()) == usuario) {
+                        alterados.add(usuario.getEmail());
+                    }
+                } finally {
+                    trava.unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Antes de uma alteração, confere a última gravação do journal. Se
+     * ela falhou, grava de novo agora; se ainda falhar, a alteração é
+     * recusada, em vez de ficar só na memória sem ninguém saber.
+     * 
+     * @throws PersistenciaException Se o journal não puder ser gravado
+     */
+    private void verificarGravacao() {
+        if (gravador.getUltimaFalha() == null) {
+            return;
+        }
+        try {
+            gravador.descarregar();
+        } catch (IOException e) {
+            throw new PersistenciaException("Não foi possível gravar o journal de usuários", e);
+        }
+    }
+
+    /**
+     * Entrega o registro ao gravador em segundo plano e agenda a
+     * compactação quando o journal fica grande.
+     */
+    private void agendarGravacao(long lsn) {
+        try {
+            gravador.registrado(lsn);
+        } catch (IOException e) {
+            // A alteração já foi feita e o registro continua pendente; a
+            // falha fica no gravador e é levantada na próxima alteração
+            // (verificarGravacao) ou em salvarUsuarios()
+        }
+        if (journal.getTamanhoSegmentoAtual() > LIMITE_COMPACTACAO_BYTES) {
+            compactarEmSegundoPlano();
+        }
+    }
+
+    // ========= PERSISTÊNCIA =========
+
     /**
      * Salva usuários no disco.
      * Operação silenciosa - não imprime mensagens.
+     * 
+     * <p>
+     * Grava as alterações pendentes no journal e então os usuários
+     * alterados no armazenamento, descartando o journal já incorporado.
+     * Durante o uso normal não é necessário chamar este método após cada
+     * alteração: o journal é gravado em segundo plano.
+     * </p>
+     * 
+     * @return true se salvou com sucesso, false em caso de erro (o
+     *         journal e o armazenamento continuam válidos)
      */
-    public void salvarUsuarios() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ARQUIVO_USUARIOS))) {
-            oos.writeObject(usuarios);
+    public boolean salvarUsuarios() {
+        try {
+            gravador.descarregar();
+            compactar();
+            return true;
         } catch (IOException e) {
-            // Erro silencioso - log poderia ser adicionado aqui
+            return false;
+        }
+    }
+
+    /**
+     * Encerra as threads de fundo e fecha os arquivos, gravando o journal
+     * pendente. Não regrava o armazenamento: para isso, chame
+     * {@link #salvarUsuarios()} antes.
+     * 
+     * @throws IOException Se a gravação final do journal falhar
+     */
+    @Override
+    public void close() throws IOException {
+        compactador.shutdown();
+        try {
+            compactador.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            gravador.close();
+        } finally {
+            journal.close();
+            armazem.close();
+        }
+    }
+
+    /**
+     * Agenda a compactação na thread de fundo, se ainda não houver
+     * uma em andamento.
+     */
+    private void compactarEmSegundoPlano() {
+        if (compactando.compareAndSet(false, true)) {
+            compactador.execute(() -> {
+                try {
+                    compactar();
+                } catch (IOException e) {
+                    // Erro silencioso - tentará novamente na próxima vez
+                } finally {
+                    compactando.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Grava os usuários alterados no armazenamento e descarta os segmentos
+     * do journal que ele já contém.
+     * 
+     * <p>
+     * Apenas a cópia dos usuários alterados e a rotação do journal ocorrem
+     * sob as travas dos usuários (todas elas, para que nenhuma alteração
+     * fique pela metade na cópia); a escrita em disco acontece fora delas,
+     * mas ainda sob a trava de arquivos, para que duas compactações nunca
+     * se intercalem. Se a escrita falhar, os usuários voltam a constar
+     * como alterados.
+     * </p>
+     * 
+     * <p>
+     * Os segmentos são descartados só até o da geração anterior do
+     * estado, que continua utilizável junto com o journal.
+     * </p>
+     */
+    private void compactar() throws IOException {
+        synchronized (travaArquivos) {
+            Map<String, byte[]> lote = new HashMap<>();
+            long lsn;
+            int segmentoFechado;
+            travarTodos();
+            try {
+                lsn = journal.getUltimoLsn();
+                emGravacao = alterados;
+                alterados = ConcurrentHashMap.newKeySet();
+                for (String email : emGravacao) {
+                    Usuario usuario = usuarios.get(email);
+                    lote.put(email, usuario == null ? null : serializar(usuario)); // null: lápide
+                }
+                segmentoFechado = journal.rotacionar();
+            } catch (IOException | RuntimeException e) {
+                alterados.addAll(emGravacao);
+                emGravacao = Set.of();
+                throw e;
+            } finally {
+                liberarTodos();
+            }
+
+            try {
+                if (armazem.gravar(lote, lsn)) {
+                    segmentoDoAnterior = segmentoDoEstado;
+                }
+                segmentoDoEstado = segmentoFechado;
+            } catch (IOException | RuntimeException e) {
+                alterados.addAll(emGravacao);
+                throw e;
+            } finally {
+                emGravacao = Set.of();
+            }
+            journal.descartarAte(segmentoDoAnterior);
         }
     }
 
@@ -151,21 +828,249 @@ public class UsuarioService {
      * Carrega usuários do disco.
      * Operação silenciosa - não imprime mensagens.
      * 
-     * @return Número de usuários carregados
+     * <p>
+     * Descarta os usuários em memória (voltam a ser lidos do armazenamento
+     * sob demanda) e reaplica as alterações do journal posteriores à
+     * última gravação. Cada alteração só é aplicada se for mais nova que o
+     * registro gravado do usuário.
+     * </p>
+     * 
+     * <p>
+     * Na primeira vez, migra o antigo "usuarios.db" (ou sua geração
+     * anterior, se ele estiver corrompido) para o armazenamento. Sem
+     * nenhum arquivo, o sistema começa vazio.
+     * </p>
+     * 
+     * @return Número de alterações reaplicadas do journal
+     * @throws PersistenciaException Se o armazenamento, o snapshot a
+     *                               migrar ou o journal não puderem ser
+     *                               lidos; nada é alterado
      */
-    @SuppressWarnings("unchecked")
     public int carregarUsuarios() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(ARQUIVO_USUARIOS))) {
-            this.usuarios = (Map<String, Usuario>) ois.readObject();
-            return usuarios.size();
-        } catch (FileNotFoundException e) {
-            // Arquivo não existe - sistema iniciado vazio
-            this.usuarios = new HashMap<>();
-            return 0;
-        } catch (IOException | ClassNotFoundException e) {
-            // Erro ao ler - reinicia com mapa vazio
-            this.usuarios = new HashMap<>();
-            return -1; // Indica erro
+        synchronized (travaArquivos) {
+            travarTodos();
+            try {
+                // Alterações ainda no buffer precisam estar no disco para a reaplicação
+                gravador.descarregar();
+                migrarSnapshotUnico();
+                return reaplicarJournal();
+            } catch (IOException e) {
+                throw new PersistenciaException("Não foi possível gravar o journal de usuários", e);
+            } finally {
+                liberarTodos();
+            }
+        }
+    }
+
+    /**
+     * Grava todos os usuários do antigo "usuarios.db" no armazenamento,
+     * se ele ainda não existir, e renomeia o arquivo.
+     */
+    private void migrarSnapshotUnico() {
+        Path antigo = arquivoSnapshotUnico;
+        Path anterior = ArquivoSnapshot.anterior(antigo);
+        if (armazem.existe() || !(Files.exists(antigo) || Files.exists(anterior))) {
+            return;
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = ArquivoSnapshot.ler(antigo, UsuarioService::lerSnapshot);
+        } catch (IOException e) {
+            throw new PersistenciaException("Não foi possível ler " + ARQUIVO_USUARIOS
+                    + " nem a geração anterior", e);
+        }
+        try {
+            Map<String, byte[]> lote = new HashMap<>();
+            for (Map.Entry<String, Usuario> entrada : snapshot.usuarios.entrySet()) {
+                lote.put(entrada.getKey(), serializar(entrada.getValue()));
+            }
+            armazem.gravar(lote, snapshot.lsn);
+            if (Files.exists(antigo)) {
+                Files.move(antigo, antigo.resolveSibling(ARQUIVO_USUARIOS + SUFIXO_MIGRADO),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.deleteIfExists(anterior);
+        } catch (IOException e) {
+            throw new PersistenciaException("Não foi possível migrar " + ARQUIVO_USUARIOS
+                    + " para o diretório " + DIRETORIO_USUARIOS, e);
+        }
+    }
+
+    private int reaplicarJournal() {
+        long lsnArmazem;
+        try {
+            lsnArmazem = armazem.getLsn();
+        } catch (IOException e) {
+            throw new PersistenciaException("Não foi possível ler o estado de " + DIRETORIO_USUARIOS
+                    + " nem a geração anterior", e);
+        }
+
+        ConcurrentHashMap<String, Usuario> anteriores = this.usuarios;
+        Set<String> alteradosAnteriores = this.alterados;
+        this.usuarios = new ConcurrentHashMap<>();
+        this.alterados = ConcurrentHashMap.newKeySet();
+
+        // LSN contido no registro de cada email já visto no journal
+        Map<String, Long> lsnGravado = new HashMap<>();
+        int[] reaplicadas = { 0 };
+        try {
+            journal.reproduzirComLsn(lsnArmazem, (alteracao, lsn) -> {
+                String email = alteracao.getEmail();
+                Long gravado = lsnGravado.get(email);
+                if (gravado == null) {
+                    gravado = carregarRegistro(email);
+                    lsnGravado.put(email, gravado);
+                }
+                if (lsn > gravado) {
+                    aplicar(alteracao);
+                    alterados.add(email);
+                    reaplicadas[0]++;
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            this.usuarios = anteriores;
+            this.alterados = alteradosAnteriores;
+            throw new PersistenciaException("Não foi possível ler o journal de usuários", e);
+        }
+
+        if (reaplicadas[0] > 0) {
+            compactarEmSegundoPlano();
+        }
+        return reaplicadas[0];
+    }
+
+    /**
+     * Lê o registro de um usuário para a memória durante a reaplicação.
+     * 
+     * @return LSN contido no registro, ou 0 se não houver registro
+     */
+    private long carregarRegistro(String email) {
+        try {
+            ArmazemUsuarios.Registro registro = armazem.ler(email);
+            if (registro == null) {
+                return 0;
+            }
+            Usuario usuario = desserializar(registro.getDados());
+            usuario.resolverReferencias(BibliotecaService.getInstance()::getPorId);
+            usuarios.put(email, usuario);
+            return registro.getLsn();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] serializar(Usuario usuario) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(buffer)) {
+            oos.writeObject(usuario);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Usuario desserializar(byte[] dados) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(dados))) {
+            return (Usuario) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Registro de usuário inválido", e);
+        }
+    }
+
+    /** Usuários e último LSN lidos de uma geração do snapshot único. */
+    private static final class Snapshot {
+        final Map<String, Usuario> usuarios;
+        final long lsn;
+
+        Snapshot(Map<String, Usuario> usuarios, long lsn) {
+            this.usuarios = usuarios;
+            this.lsn = lsn;
+        }
+    }
+
+    /**
+     * Interpreta uma geração já verificada por {@link ArquivoSnapshot}.
+     * 
+     * <p>
+     * Usuários gravados antes das curtidas e playlists por ID são
+     * convertidos, com os áudios localizados no catálogo já carregado.
+     * </p>
+     */
+    private static Snapshot lerSnapshot(Path arquivo, long tamanho) throws IOException {
+        try (EntradaUsuariosLegado ois = new EntradaUsuariosLegado(new BufferedInputStream(
+                Channels.newInputStream(FileChannel.open(arquivo, StandardOpenOption.READ))),
+                BibliotecaService.getInstance()::getCatalogo)) {
+            Map<String, Usuario> lidos = new HashMap<>();
+            for (Map.Entry<?, ?> entrada : ((Map<?, ?>) ois.readObject()).entrySet()) {
+                lidos.put((String) entrada.getKey(), ois.converter(entrada.getValue()));
+            }
+            long lsn = 0;
+            try {
+                lsn = ois.readLong();
+            } catch (EOFException e) {
+                // Snapshot antigo, sem LSN: todo o journal é posterior a ele
+            }
+            return new Snapshot(lidos, lsn);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Snapshot de usuários inválido: " + arquivo.getFileName(), e);
+        }
+    }
+
+    /**
+     * Reaplica uma alteração lida do journal sobre o mapa de usuários.
+     * 
+     * <p>
+     * Não altera os contadores globais dos áudios, que são persistidos
+     * junto com o catálogo.
+     * </p>
+     */
+    private void aplicar(AlteracaoUsuario alteracao) {
+        if (alteracao.getTipo() == AlteracaoUsuario.Tipo.CADASTRO) {
+            usuarios.put(alteracao.getEmail(), Usuario.restaurar(alteracao.getIdUsuario(),
+                    alteracao.getEmail(), alteracao.getSenhaHash(), alteracao.getNome()));
+            return;
+        }
+
+        Usuario usuario = usuarios.get(alteracao.getEmail());
+        if (usuario == null) {
+            return;
+        }
+        List<Playlist> playlists = usuario.getPlaylists();
+        Playlist playlist = alteracao.getIndicePlaylist() >= 0 && alteracao.getIndicePlaylist() < playlists.size()
+                ? playlists.get(alteracao.getIndicePlaylist())
+                : null;
+
+        switch (alteracao.getTipo()) {
+            case REMOCAO -> usuarios.remove(alteracao.getEmail());
+            case CURTIDA -> {
+                Audio audio = BibliotecaService.getInstance().getPorId(alteracao.getIdAudio());
+                if (audio != null) {
+                    if (alteracao.isCurtido()) {
+                        usuario.getCurtidas().add(audio);
+                    } else {
+                        usuario.getCurtidas().remove(audio);
+                    }
+                }
+            }
+            case PLAYLIST_CRIADA -> usuario.criarPlaylist(alteracao.getNome());
+            case PLAYLIST_REMOVIDA -> {
+                if (playlist != null) {
+                    playlists.remove(alteracao.getIndicePlaylist());
+                }
+            }
+            case ITEM_ADICIONADO -> {
+                Audio audio = BibliotecaService.getInstance().getPorId(alteracao.getIdAudio());
+                if (playlist != null && audio != null) {
+                    playlist.adicionarItem(audio);
+                }
+            }
+            case ITEM_REMOVIDO -> {
+                if (playlist != null && alteracao.getIndice() < playlist.getItens().size()) {
+                    playlist.getItens().remove(alteracao.getIndice());
+                }
+            }
+            case SENHA_ALTERADA -> usuario.restaurarSenhaHash(alteracao.getSenhaHash());
+            case ESTADO_PLAYER -> usuario.setEstadoPlayerIndice(alteracao.getIndice());
+            default -> {
+            }
         }
     }
 }
@@ -0,0 +1,214 @@
+package service.busca;
+
+import java.util.Arrays;
+
+/**
+ * Árvore BK (Burkhard-Keller) para encontrar termos parecidos.
+ * 
+ * <p>
+ * Guarda o dicionário de palavras normalizadas do catálogo e responde
+ * "quais termos estão a no máximo {@code d} edições deste?", usando a
+ * distância de Levenshtein (inserção, remoção ou troca de um caractere).
+ * É o que permite encontrar "rhapsody" a partir de "rapsody".
+ * </p>
+ * 
+ * <h2>Poda pela Desigualdade Triangular</h2>
+ * <p>
+ * Cada filho é pendurado no pai pela distância entre os dois termos.
+ * Se a consulta está a distância {@code x} de um nó, só os filhos com
+ * aresta entre {@code x - d} e {@code x + d} podem conter resultados; os
+ * demais ramos são descartados sem serem visitados. Para distâncias
+ * pequenas (1 ou 2), apenas uma fração do dicionário é comparada.
+ * </p>
+ * 
+ * <h2>Estrutura</h2>
+ * <p>
+ * Assim como na {@link TrieSugestoes}, os nós ficam em arrays paralelos
+ * (termo, primeiro filho, próximo irmão e distância ao pai), sem um
+ * objeto por nó.
+ * </p>
+ * 
+ * @see IndiceBusca#buscar(String, boolean)
+ */
+public class ArvoreBK {
+
+    /** Indica ausência de nó. */
+    private static final int NENHUM = -1;
+
+    /** Termo de cada nó (o nó 0 é a raiz). */
+    private String[] termos = new String[64];
+
+    /** Primeiro filho de cada nó. */
+    private int[] primeiroFilho = new int[64];
+
+    /** Próximo irmão de cada nó. */
+    private int[] proximoIrmao = new int[64];
+
+    /** Distância de cada nó ao seu pai. */
+    private int[] distanciaAoPai = new int[64];
+
+    /** Quantidade de nós (termos distintos). */
+    private int totalNos;
+
+    /**
+     * Adiciona um termo ao dicionário. Termos repetidos são ignorados.
+     * 
+     * @param termo Palavra já normalizada
+     */
+    public void adicionar(String termo) {
+        if (totalNos == 0) {
+            criarNo(termo, 0);
+            return;
+        }
+        int no = 0;
+        while (true) {
+            int distancia = distancia(termo, termos[no], Integer.MAX_VALUE);
+            if (distancia == 0) {
+                return;
+            }
+            int filho = filhoComDistancia(no, distancia);
+            if (filho == NENHUM) {
+                int novo = criarNo(termo, distancia);
+                proximoIrmao[novo] = primeiroFilho[no];
+                primeiroFilho[no] = novo;
+                return;
+            }
+            no = filho;
+        }
+    }
+
+    /**
+     * Procura os termos a no máximo {@code maximo} edições da consulta.
+     * 
+     * @param consulta Palavra já normalizada
+     * @param maximo   Distância de edição máxima
+     * @param destino  Recebe cada termo encontrado e sua distância
+     */
+    public void buscar(String consulta, int maximo, Destino destino) {
+        if (totalNos == 0) {
+            return;
+        }
+        int[] pilha = new int[16];
+        int topo = 0;
+        pilha[topo++] = 0;
+        while (topo > 0) {
+            int no = pilha[--topo];
+            int distancia = distancia(consulta, termos[no], Integer.MAX_VALUE);
+            if (distancia <= maximo) {
+                destino.encontrado(termos[no], distancia);
+            }
+            for (int f = primeiroFilho[no]; f != NENHUM; f = proximoIrmao[f]) {
+                if (Math.abs(distanciaAoPai[f] - distancia) <= maximo) {
+                    if (topo == pilha.length) {
+                        pilha = Arrays.copyOf(pilha, topo * 2);
+                    }
+                    pilha[topo++] = f;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade de termos distintos.
+     * 
+     * @return Tamanho do dicionário
+     */
+    public int tamanho() {
+        return totalNos;
+    }
+
+    /**
+     * Remove todos os termos.
+     */
+    public void limpar() {
+        termos = new String[64];
+        primeiroFilho = new int[64];
+        proximoIrmao = new int[64];
+        distanciaAoPai = new int[64];
+        totalNos = 0;
+    }
+
+    /**
+     * Calcula a distância de Levenshtein entre dois textos.
+     * 
+     * <p>
+     * Usa duas linhas da matriz de programação dinâmica. Quando toda uma
+     * linha passa de {@code limite}, o cálculo para e devolve
+     * {@code limite + 1}, pois a distância só pode crescer.
+     * </p>
+     * 
+     * @param a      Primeiro texto
+     * @param b      Segundo texto
+     * @param limite Maior distância que interessa ao chamador
+     * @return Distância de edição, ou {@code limite + 1} se for maior que
+     *         o limite
+     */
+    public static int distancia(String a, String b, int limite) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limite) {
+            return limite + 1;
+        }
+        int[] anterior = new int[m + 1];
+        int[] atual = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            atual[0] = i;
+            int menorDaLinha = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int substituicao = anterior[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                atual[j] = Math.min(substituicao, Math.min(anterior[j], atual[j - 1]) + 1);
+                menorDaLinha = Math.min(menorDaLinha, atual[j]);
+            }
+            if (menorDaLinha > limite) {
+                return limite + 1;
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return anterior[m] > limite ? limite + 1 : anterior[m];
+    }
+
+    private int filhoComDistancia(int no, int distancia) {
+        for (int f = primeiroFilho[no]; f != NENHUM; f = proximoIrmao[f]) {
+            if (distanciaAoPai[f] == distancia) {
+                return f;
+            }
+        }
+        return NENHUM;
+    }
+
+    private int criarNo(String termo, int distancia) {
+        if (totalNos == termos.length) {
+            int novo = totalNos * 2;
+            termos = Arrays.copyOf(termos, novo);
+            primeiroFilho = Arrays.copyOf(primeiroFilho, novo);
+            proximoIrmao = Arrays.copyOf(proximoIrmao, novo);
+            distanciaAoPai = Arrays.copyOf(distanciaAoPai, novo);
+        }
+        int no = totalNos++;
+        termos[no] = termo;
+        primeiroFilho[no] = NENHUM;
+        proximoIrmao[no] = NENHUM;
+        distanciaAoPai[no] = distancia;
+        return no;
+    }
+
+    /**
+     * Recebe os termos encontrados por {@link ArvoreBK#buscar}.
+     */
+    @FunctionalInterface
+    public interface Destino {
+        /**
+         * Chamado para cada termo dentro da distância máxima.
+         * 
+         * @param termo     Termo do dicionário
+         * @param distancia Distância de edição até a consulta
+         */
+        void encontrado(String termo, int distancia);
+    }
+}
@@ -0,0 +1,776 @@
+package service.busca;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto compacto de IDs de áudios, no estilo do Roaring Bitmap.
+ * 
+ * <p>
+ * Os IDs são divididos em blocos de 65.536 valores pelos 16 bits altos.
+ * Cada bloco guarda os 16 bits baixos em um container, cujo formato é
+ * escolhido pelo que ocupar menos memória:
+ * </p>
+ * <ul>
+ * <li><b>Array:</b> valores em ordem em um {@code char[]} (até
+ * {@value #LIMITE_ARRAY} valores, 2 bytes cada)</li>
+ * <li><b>Bitmap:</b> 65.536 bits em um {@code long[1024]} (8 KB),
+ * para blocos densos</li>
+ * <li><b>Runs:</b> pares (início, comprimento) para sequências
+ * contínuas, como "todas as músicas de um álbum"</li>
+ * </ul>
+ * 
+ * <h2>Operações</h2>
+ * <p>
+ * {@link #e(BitmapIds)}, {@link #ou(BitmapIds)} e
+ * {@link #exceto(BitmapIds)} combinam bloco a bloco e nunca alteram os
+ * operandos. Blocos ausentes em um dos lados são pulados sem custo. Entre
+ * containers densos, as operações trabalham com palavras de 64 bits.
+ * </p>
+ * 
+ * <p>
+ * {@link #cardinalidade()}, {@link #iterador()} e
+ * {@link #paraCada(IntConsumer)} trabalham com {@code int}, sem
+ * {@code Integer} por ID.
+ * </p>
+ * 
+ * @see IndiceCampos
+ * @see service.BibliotecaService#buscar(String, boolean, java.util.Collection)
+ */
+public class BitmapIds {
+
+    /** Maior quantidade de valores de um container em array. */
+    static final int LIMITE_ARRAY = 4096;
+
+    /** Palavras de 64 bits em um container bitmap. */
+    private static final int PALAVRAS = 1024;
+
+    /** 16 bits altos de cada bloco, em ordem crescente. */
+    private char[] chaves;
+
+    /** Container de cada bloco (mesma posição de {@link #chaves}). */
+    private Container[] containers;
+
+    /** Quantidade de blocos. */
+    private int tamanho;
+
+    /**
+     * Cria um conjunto vazio.
+     */
+    public BitmapIds() {
+        chaves = new char[4];
+        containers = new Container[4];
+    }
+
+    /**
+     * Cria um conjunto com os IDs informados, em qualquer ordem.
+     * 
+     * @param ids IDs (não negativos)
+     * @return Conjunto otimizado
+     */
+    public static BitmapIds de(int... ids) {
+        BitmapIds bitmap = new BitmapIds();
+        for (int id : ids) {
+            bitmap.adicionar(id);
+        }
+        bitmap.otimizar();
+        return bitmap;
+    }
+
+    /**
+     * Adiciona um ID ao conjunto.
+     * 
+     * @param id ID do áudio (não negativo)
+     * @throws IllegalArgumentException Se o ID for negativo
+     */
+    public void adicionar(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID negativo: " + id);
+        }
+        char chave = (char) (id >>> 16);
+        int pos = buscarChave(chave);
+        if (pos >= 0) {
+            containers[pos] = containers[pos].adicionar((char) id);
+            return;
+        }
+        pos = -pos - 1;
+        if (tamanho == chaves.length) {
+            chaves = Arrays.copyOf(chaves, tamanho * 2);
+            containers = Arrays.copyOf(containers, tamanho * 2);
+        }
+        System.arraycopy(chaves, pos, chaves, pos + 1, tamanho - pos);
+        System.arraycopy(containers, pos, containers, pos + 1, tamanho - pos);
+        chaves[pos] = chave;
+        containers[pos] = new ContainerArray().adicionar((char) id);
+        tamanho++;
+    }
+
+    /**
+     * Verifica se o ID está no conjunto.
+     * 
+     * @param id ID do áudio
+     * @return true se presente
+     */
+    public boolean contem(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int pos = buscarChave((char) (id >>> 16));
+        return pos >= 0 && containers[pos].contem((char) id);
+    }
+
+    /**
+     * Retorna a quantidade de IDs.
+     * 
+     * @return Cardinalidade do conjunto
+     */
+    public int cardinalidade() {
+        int total = 0;
+        for (int i = 0; i < tamanho; i++) {
+            total += containers[i].cardinalidade();
+        }
+        return total;
+    }
+
+    /**
+     * Verifica se o conjunto está vazio.
+     * 
+     * @return true se não houver IDs
+     */
+    public boolean vazio() {
+        return tamanho == 0;
+    }
+
+    /**
+     * Retorna a interseção (E) com outro conjunto.
+     * 
+     * @param outro Outro conjunto
+     * @return IDs presentes nos dois
+     */
+    public BitmapIds e(BitmapIds outro) {
+        BitmapIds resultado = new BitmapIds();
+        int i = 0;
+        int j = 0;
+        while (i < tamanho && j < outro.tamanho) {
+            if (chaves[i] < outro.chaves[j]) {
+                i++;
+            } else if (chaves[i] > outro.chaves[j]) {
+                j++;
+            } else {
+                resultado.anexar(chaves[i], containers[i].e(outro.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna a união (OU) com outro conjunto.
+     * 
+     * @param outro Outro conjunto
+     * @return IDs presentes em algum dos dois
+     */
+    public BitmapIds ou(BitmapIds outro) {
+        BitmapIds resultado = new BitmapIds();
+        int i = 0;
+        int j = 0;
+        while (i < tamanho || j < outro.tamanho) {
+            if (j == outro.tamanho || (i < tamanho && chaves[i] < outro.chaves[j])) {
+                resultado.anexar(chaves[i], containers[i].copia());
+                i++;
+            } else if (i == tamanho || chaves[i] > outro.chaves[j]) {
+                resultado.anexar(outro.chaves[j], outro.containers[j].copia());
+                j++;
+            } else {
+                resultado.anexar(chaves[i], containers[i].ou(outro.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna a diferença (E NÃO) com outro conjunto.
+     * 
+     * @param outro Conjunto a remover
+     * @return IDs deste conjunto que não estão no outro
+     */
+    public BitmapIds exceto(BitmapIds outro) {
+        BitmapIds resultado = new BitmapIds();
+        int j = 0;
+        for (int i = 0; i < tamanho; i++) {
+            while (j < outro.tamanho && outro.chaves[j] < chaves[i]) {
+                j++;
+            }
+            if (j < outro.tamanho && outro.chaves[j] == chaves[i]) {
+                resultado.anexar(chaves[i], containers[i].exceto(outro.containers[j]));
+            } else {
+                resultado.anexar(chaves[i], containers[i].copia());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Converte os containers para runs quando isso ocupar menos memória.
+     * Útil depois de adicionar muitos IDs em sequência.
+     */
+    public void otimizar() {
+        for (int i = 0; i < tamanho; i++) {
+            containers[i] = containers[i].otimizar();
+        }
+    }
+
+    /**
+     * Percorre os IDs em ordem crescente.
+     * 
+     * @param acao Ação executada para cada ID
+     */
+    public void paraCada(IntConsumer acao) {
+        for (int i = 0; i < tamanho; i++) {
+            containers[i].paraCada(chaves[i] << 16, acao);
+        }
+    }
+
+    /**
+     * Retorna um iterador de IDs em ordem crescente, sem boxing.
+     * 
+     * @return Iterador primitivo
+     */
+    public PrimitiveIterator.OfInt iterador() {
+        return new PrimitiveIterator.OfInt() {
+            private int bloco;
+            private int proximo = avancar(0, 0);
+
+            private int avancar(int inicioBloco, int baixo) {
+                for (bloco = inicioBloco; bloco < tamanho; bloco++, baixo = 0) {
+                    int valor = containers[bloco].proximo(baixo);
+                    if (valor >= 0) {
+                        return (chaves[bloco] << 16) | valor;
+                    }
+                }
+                return -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return proximo >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (proximo < 0) {
+                    throw new NoSuchElementException();
+                }
+                int atual = proximo;
+                int baixo = (atual & 0xFFFF) + 1;
+                proximo = baixo > 0xFFFF ? avancar(bloco + 1, 0) : avancar(bloco, baixo);
+                return atual;
+            }
+        };
+    }
+
+    /**
+     * Retorna os IDs em ordem crescente.
+     * 
+     * @return Array com os IDs
+     */
+    public int[] paraArray() {
+        int[] ids = new int[cardinalidade()];
+        int[] pos = { 0 };
+        paraCada(id -> ids[pos[0]++] = id);
+        return ids;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitmapIds outro)) {
+            return false;
+        }
+        return Arrays.equals(paraArray(), outro.paraArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(paraArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(paraArray());
+    }
+
+    private int buscarChave(char chave) {
+        return Arrays.binarySearch(chaves, 0, tamanho, chave);
+    }
+
+    /** Acrescenta um bloco no fim (chaves em ordem), ignorando vazios. */
+    private void anexar(char chave, Container container) {
+        if (container.cardinalidade() == 0) {
+            return;
+        }
+        if (tamanho == chaves.length) {
+            chaves = Arrays.copyOf(chaves, tamanho * 2);
+            containers = Arrays.copyOf(containers, tamanho * 2);
+        }
+        chaves[tamanho] = chave;
+        containers[tamanho] = container;
+        tamanho++;
+    }
+
+    // ========= CONTAINERS =========
+
+    /**
+     * Valores de 16 bits de um bloco. As operações entre conjuntos criam
+     * containers novos (ou cópias), de modo que {@link #adicionar(char)}
+     * nunca altera um container de outro conjunto.
+     */
+    private abstract static class Container {
+
+        abstract int cardinalidade();
+
+        abstract boolean contem(char valor);
+
+        /** Adiciona o valor, possivelmente trocando de formato. */
+        abstract Container adicionar(char valor);
+
+        /** Menor valor maior ou igual a {@code de}, ou -1. */
+        abstract int proximo(int de);
+
+        abstract void paraCada(int base, IntConsumer acao);
+
+        /** Faz OU dos valores nas palavras de 64 bits. */
+        abstract void paraPalavras(long[] palavras);
+
+        /** Cópia independente, que pode ser alterada sem afetar esta. */
+        abstract Container copia();
+
+        Container e(Container outro) {
+            if (outro instanceof ContainerArray) {
+                return outro.e(this);
+            }
+            long[] palavras = palavras(this);
+            long[] outras = palavras(outro);
+            for (int i = 0; i < PALAVRAS; i++) {
+                palavras[i] &= outras[i];
+            }
+            return dePalavras(palavras);
+        }
+
+        Container ou(Container outro) {
+            long[] palavras = palavras(this);
+            outro.paraPalavras(palavras);
+            return dePalavras(palavras);
+        }
+
+        Container exceto(Container outro) {
+            long[] palavras = palavras(this);
+            long[] outras = palavras(outro);
+            for (int i = 0; i < PALAVRAS; i++) {
+                palavras[i] &= ~outras[i];
+            }
+            return dePalavras(palavras);
+        }
+
+        /** Troca para runs se ocuparem menos memória. */
+        Container otimizar() {
+            int runs = contarRuns();
+            int bytesAtuais = this instanceof ContainerArray ? cardinalidade() * 2 : PALAVRAS * 8;
+            if (runs * 4 < bytesAtuais) {
+                return ContainerRuns.criar(palavras(this), runs);
+            }
+            return this;
+        }
+
+        int contarRuns() {
+            return ContainerRuns.contarRuns(palavras(this));
+        }
+    }
+
+    private static long[] palavras(Container container) {
+        long[] palavras = new long[PALAVRAS];
+        container.paraPalavras(palavras);
+        return palavras;
+    }
+
+    /** Cria o container mais adequado (array ou bitmap) para as palavras. */
+    private static Container dePalavras(long[] palavras) {
+        int total = 0;
+        for (long p : palavras) {
+            total += Long.bitCount(p);
+        }
+        if (total > LIMITE_ARRAY) {
+            return new ContainerBitmap(palavras, total);
+        }
+        char[] valores = new char[total];
+        int n = 0;
+        for (int i = 0; i < PALAVRAS; i++) {
+            long p = palavras[i];
+            while (p != 0) {
+                valores[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(p));
+                p &= p - 1;
+            }
+        }
+        return new ContainerArray(valores, total);
+    }
+
+    /** Valores esparsos em um array ordenado. */
+    private static final class ContainerArray extends Container {
+
+        private char[] valores;
+        private int total;
+
+        ContainerArray() {
+            this(new char[4], 0);
+        }
+
+        ContainerArray(char[] valores, int total) {
+            this.valores = valores;
+            this.total = total;
+        }
+
+        @Override
+        int cardinalidade() {
+            return total;
+        }
+
+        @Override
+        boolean contem(char valor) {
+            return Arrays.binarySearch(valores, 0, total, valor) >= 0;
+        }
+
+        @Override
+        Container adicionar(char valor) {
+            int pos = total > 0 && valores[total - 1] < valor ? -total - 1
+                    : Arrays.binarySearch(valores, 0, total, valor);
+            if (pos >= 0) {
+                return this;
+            }
+            if (total == LIMITE_ARRAY) {
+                long[] palavras = palavras(this);
+                palavras[valor >>> 6] |= 1L << valor;
+                return new ContainerBitmap(palavras, total + 1);
+            }
+            pos = -pos - 1;
+            if (total == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(total * 2, LIMITE_ARRAY));
+            }
+            System.arraycopy(valores, pos, valores, pos + 1, total - pos);
+            valores[pos] = valor;
+            total++;
+            return this;
+        }
+
+        @Override
+        Container copia() {
+            return new ContainerArray(Arrays.copyOf(valores, total), total);
+        }
+
+        @Override
+        int proximo(int de) {
+            int pos = Arrays.binarySearch(valores, 0, total, (char) de);
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            return pos < total ? valores[pos] : -1;
+        }
+
+        @Override
+        void paraCada(int base, IntConsumer acao) {
+            for (int i = 0; i < total; i++) {
+                acao.accept(base | valores[i]);
+            }
+        }
+
+        @Override
+        void paraPalavras(long[] palavras) {
+            for (int i = 0; i < total; i++) {
+                palavras[valores[i] >>> 6] |= 1L << valores[i];
+            }
+        }
+
+        @Override
+        Container e(Container outro) {
+            char[] resultado = new char[total];
+            int n = 0;
+            for (int i = 0; i < total; i++) {
+                if (outro.contem(valores[i])) {
+                    resultado[n++] = valores[i];
+                }
+            }
+            return new ContainerArray(resultado, n);
+        }
+
+        @Override
+        Container ou(Container outro) {
+            if (!(outro instanceof ContainerArray a) || total + a.total > LIMITE_ARRAY) {
+                return super.ou(outro);
+            }
+            char[] resultado = new char[total + a.total];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < total || j < a.total) {
+                if (j == a.total || (i < total && valores[i] < a.valores[j])) {
+                    resultado[n++] = valores[i++];
+                } else if (i == total || valores[i] > a.valores[j]) {
+                    resultado[n++] = a.valores[j++];
+                } else {
+                    resultado[n++] = valores[i++];
+                    j++;
+                }
+            }
+            return new ContainerArray(resultado, n);
+        }
+
+        @Override
+        Container exceto(Container outro) {
+            char[] resultado = new char[total];
+            int n = 0;
+            for (int i = 0; i < total; i++) {
+                if (!outro.contem(valores[i])) {
+                    resultado[n++] = valores[i];
+                }
+            }
+            return new ContainerArray(resultado, n);
+        }
+
+        @Override
+        int contarRuns() {
+            int runs = 0;
+            for (int i = 0; i < total; i++) {
+                if (i == 0 || valores[i] != valores[i - 1] + 1) {
+                    runs++;
+                }
+            }
+            return runs;
+        }
+    }
+
+    /** Valores densos em 65.536 bits. */
+    private static final class ContainerBitmap extends Container {
+
+        private final long[] palavras;
+        private int total;
+
+        ContainerBitmap(long[] palavras, int total) {
+            this.palavras = palavras;
+            this.total = total;
+        }
+
+        @Override
+        int cardinalidade() {
+            return total;
+        }
+
+        @Override
+        boolean contem(char valor) {
+            return (palavras[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        @Override
+        Container adicionar(char valor) {
+            if (!contem(valor)) {
+                palavras[valor >>> 6] |= 1L << valor;
+                total++;
+            }
+            return this;
+        }
+
+        @Override
+        Container copia() {
+            return new ContainerBitmap(palavras.clone(), total);
+        }
+
+        @Override
+        int proximo(int de) {
+            if (de > 0xFFFF) {
+                return -1;
+            }
+            int i = de >>> 6;
+            long p = palavras[i] & (-1L << de);
+            while (p == 0) {
+                if (++i == PALAVRAS) {
+                    return -1;
+                }
+                p = palavras[i];
+            }
+            return (i << 6) + Long.numberOfTrailingZeros(p);
+        }
+
+        @Override
+        void paraCada(int base, IntConsumer acao) {
+            for (int i = 0; i < PALAVRAS; i++) {
+                long p = palavras[i];
+                while (p != 0) {
+                    acao.accept(base | (i << 6) + Long.numberOfTrailingZeros(p));
+                    p &= p - 1;
+                }
+            }
+        }
+
+        @Override
+        void paraPalavras(long[] destino) {
+            for (int i = 0; i < PALAVRAS; i++) {
+                destino[i] |= palavras[i];
+            }
+        }
+    }
+
+    /** Sequências contínuas de valores (início e comprimento). */
+    private static final class ContainerRuns extends Container {
+
+        /** Primeiro valor de cada run, em ordem. */
+        private final char[] inicios;
+
+        /** Comprimento de cada run menos 1. */
+        private final char[] comprimentos;
+
+        private final int runs;
+        private final int total;
+
+        private ContainerRuns(char[] inicios, char[] comprimentos, int runs, int total) {
+            this.inicios = inicios;
+            this.comprimentos = comprimentos;
+            this.runs = runs;
+            this.total = total;
+        }
+
+        static int contarRuns(long[] palavras) {
+            int runs = 0;
+            long anterior = 0;
+            for (long p : palavras) {
+                // Bits ligados cujo vizinho anterior está desligado
+                runs += Long.bitCount(p & ~((p << 1) | (anterior >>> 63)));
+                anterior = p;
+            }
+            return runs;
+        }
+
+        static ContainerRuns criar(long[] palavras, int runs) {
+            char[] inicios = new char[runs];
+            char[] comprimentos = new char[runs];
+            int n = 0;
+            int total = 0;
+            int valor = 0;
+            while (valor <= 0xFFFF) {
+                int inicio = proximoBit(palavras, valor, true);
+                if (inicio < 0) {
+                    break;
+                }
+                int fim = proximoBit(palavras, inicio, false);
+                if (fim < 0) {
+                    fim = 0x10000;
+                }
+                inicios[n] = (char) inicio;
+                comprimentos[n] = (char) (fim - inicio - 1);
+                n++;
+                total += fim - inicio;
+                valor = fim;
+            }
+            return new ContainerRuns(inicios, comprimentos, n, total);
+        }
+
+        /** Primeira posição a partir de {@code de} com o bit igual a {@code ligado}. */
+        private static int proximoBit(long[] palavras, int de, boolean ligado) {
+            int i = de >>> 6;
+            long p = (ligado ? palavras[i] : ~palavras[i]) & (-1L << de);
+            while (p == 0) {
+                if (++i == PALAVRAS) {
+                    return -1;
+                }
+                p = ligado ? palavras[i] : ~palavras[i];
+            }
+            return (i << 6) + Long.numberOfTrailingZeros(p);
+        }
+
+        @Override
+        int cardinalidade() {
+            return total;
+        }
+
+        /** Run que começa no valor ou antes dele, ou -1. */
+        private int runAte(int valor) {
+            int pos = Arrays.binarySearch(inicios, 0, runs, (char) valor);
+            return pos >= 0 ? pos : -pos - 2;
+        }
+
+        @Override
+        boolean contem(char valor) {
+            int r = runAte(valor);
+            return r >= 0 && valor - inicios[r] <= comprimentos[r];
+        }
+
+        @Override
+        Container adicionar(char valor) {
+            if (contem(valor)) {
+                return this;
+            }
+            return dePalavras(palavras(this)).adicionar(valor);
+        }
+
+        @Override
+        int proximo(int de) {
+            if (de > 0xFFFF) {
+                return -1;
+            }
+            int r = runAte(de);
+            if (r >= 0 && de - inicios[r] <= comprimentos[r]) {
+                return de;
+            }
+            return r + 1 < runs ? inicios[r + 1] : -1;
+        }
+
+        @Override
+        void paraCada(int base, IntConsumer acao) {
+            for (int r = 0; r < runs; r++) {
+                int fim = inicios[r] + comprimentos[r];
+                for (int v = inicios[r]; v <= fim; v++) {
+                    acao.accept(base | v);
+                }
+            }
+        }
+
+        @Override
+        void paraPalavras(long[] palavras) {
+            for (int r = 0; r < runs; r++) {
+                int inicio = inicios[r];
+                int fim = inicio + comprimentos[r];
+                int primeira = inicio >>> 6;
+                int ultima = fim >>> 6;
+                if (primeira == ultima) {
+                    palavras[primeira] |= (-1L >>> (63 - (fim & 63))) & (-1L << inicio);
+                    continue;
+                }
+                palavras[primeira] |= -1L << inicio;
+                for (int i = primeira + 1; i < ultima; i++) {
+                    palavras[i] = -1L;
+                }
+                palavras[ultima] |= -1L >>> (63 - (fim & 63));
+            }
+        }
+
+        @Override
+        int contarRuns() {
+            return runs;
+        }
+
+        @Override
+        Container copia() {
+            // Runs nunca são alterados: adicionar cria outro container
+            return this;
+        }
+
+        @Override
+        Container otimizar() {
+            return this;
+        }
+    }
+}
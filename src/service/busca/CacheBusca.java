@@ -0,0 +1,369 @@
+package service.busca;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache limitado de resultados de busca, com admissão por frequência
+ * (estilo TinyLFU).
+ *
+ * <p>
+ * As buscas se concentram em poucos termos ("luiz gonzaga", "queen").
+ * O cache guarda o resultado desses termos até um limite de
+ * <b>peso</b> total (por exemplo, a quantidade de IDs guardados), e não
+ * de entradas, para que uma busca com milhares de resultados não ocupe o
+ * mesmo que uma com três.
+ * </p>
+ *
+ * <h2>Admissão e Remoção</h2>
+ * <p>
+ * Cada consulta, com ou sem acerto, incrementa a frequência estimada da
+ * chave em um sketch Count-Min de contadores de 4 bits
+ * ({@link SketchFrequencia}). Quando falta espaço, as entradas menos
+ * recentes são candidatas a sair, mas só saem se a nova chave for mais
+ * frequente que elas; caso contrário, a nova chave é rejeitada. Assim,
+ * uma sequência de buscas únicas não expulsa os termos populares.
+ * </p>
+ *
+ * <h2>Versão</h2>
+ * <p>
+ * Cada entrada guarda a versão dos dados com que foi calculada. Uma
+ * consulta com versão diferente é tratada como falha e a entrada é
+ * substituída, sem precisar limpar o cache inteiro quando os dados mudam.
+ * </p>
+ *
+ * <h2>Concorrência</h2>
+ * <p>
+ * Os acertos não usam travas: a consulta é um {@link ConcurrentHashMap},
+ * os contadores são {@link LongAdder}s e a recência é um bit por entrada
+ * (algoritmo do relógio), escrito só na primeira leitura depois de cada
+ * passagem do relógio. Apenas {@link #guardar}, que já vem depois de uma
+ * busca completa, é sincronizado.
+ * </p>
+ *
+ * @param <V> Tipo do valor guardado
+ * @see service.BibliotecaService#buscar(String, boolean, java.util.Collection)
+ */
+public class CacheBusca<V> {
+
+    /** Peso máximo somado das entradas. */
+    private final long capacidade;
+
+    /** Calcula o peso de um valor. */
+    private final ToIntFunction<V> pesador;
+
+    /** Entradas por chave. */
+    private final ConcurrentHashMap<String, Entrada<V>> entradas = new ConcurrentHashMap<>();
+
+    /** Ordem do relógio (a primeira é a próxima candidata a sair). */
+    private final ArrayDeque<Entrada<V>> relogio = new ArrayDeque<>();
+
+    /** Frequência estimada das chaves consultadas. */
+    private final SketchFrequencia frequencias;
+
+    /** Peso somado das entradas atuais (escrito só em trechos sincronizados). */
+    private volatile long pesoTotal;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder remocoes = new LongAdder();
+    private final LongAdder rejeicoes = new LongAdder();
+
+    /**
+     * Cria um cache vazio.
+     *
+     * @param capacidade      Peso máximo somado das entradas
+     * @param entradasTipicas Quantidade esperada de entradas, usada para
+     *                        dimensionar o sketch de frequências
+     * @param pesador         Calcula o peso de um valor (ao menos 1)
+     * @throws IllegalArgumentException Se a capacidade não for positiva
+     */
+    public CacheBusca(long capacidade, int entradasTipicas, ToIntFunction<V> pesador) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacidade);
+        }
+        this.capacidade = capacidade;
+        this.pesador = pesador;
+        this.frequencias = new SketchFrequencia(Math.max(16, entradasTipicas));
+    }
+
+    /**
+     * Procura o valor de uma chave calculado com a versão informada.
+     *
+     * <p>
+     * Toda consulta conta para a frequência da chave, inclusive as falhas.
+     * Pode ser chamado por várias threads sem travas.
+     * </p>
+     *
+     * @param chave  Chave (consulta normalizada)
+     * @param versao Versão atual dos dados
+     * @return Valor guardado, ou null se ausente ou de outra versão
+     */
+    public V obter(String chave, long versao) {
+        frequencias.incrementar(chave);
+        Entrada<V> entrada = entradas.get(chave);
+        if (entrada == null || entrada.versao != versao) {
+            falhas.increment();
+            return null;
+        }
+        if (!entrada.referenciada) {
+            entrada.referenciada = true;
+        }
+        acertos.increment();
+        return entrada.valor;
+    }
+
+    /**
+     * Guarda o valor de uma chave, se ele couber e for admitido.
+     *
+     * @param chave  Chave (consulta normalizada)
+     * @param valor  Valor calculado
+     * @param versao Versão dos dados usados no cálculo
+     * @return true se o valor foi guardado
+     */
+    public synchronized boolean guardar(String chave, V valor, long versao) {
+        long peso = Math.max(1, pesador.applyAsInt(valor));
+        Entrada<V> antiga = entradas.get(chave);
+        if (antiga != null) {
+            descartar(antiga);
+        }
+        if (peso > capacidade) {
+            rejeicoes.increment();
+            return false;
+        }
+
+        // Vítimas na ordem do relógio; todas precisam ser menos frequentes
+        int frequencia = frequencias.estimar(chave);
+        List<Entrada<V>> vitimas = new ArrayList<>();
+        long liberado = 0;
+        while (pesoTotal - liberado + peso > capacidade) {
+            Entrada<V> candidata = relogio.pollFirst();
+            if (candidata.descartada) {
+                continue;
+            }
+            boolean desatualizada = candidata.versao != versao;
+            if (!desatualizada && candidata.referenciada) {
+                candidata.referenciada = false; // Segunda chance
+                relogio.addLast(candidata);
+                continue;
+            }
+            if (!desatualizada && frequencias.estimar(candidata.chave) >= frequencia) {
+                relogio.addFirst(candidata);
+                for (int i = vitimas.size() - 1; i >= 0; i--) {
+                    relogio.addFirst(vitimas.get(i));
+                }
+                rejeicoes.increment();
+                return false;
+            }
+            vitimas.add(candidata);
+            liberado += candidata.peso;
+        }
+
+        for (Entrada<V> vitima : vitimas) {
+            descartar(vitima);
+            remocoes.increment();
+        }
+        Entrada<V> nova = new Entrada<>(chave, valor, versao, peso);
+        entradas.put(chave, nova);
+        relogio.addLast(nova);
+        pesoTotal += peso;
+        return true;
+    }
+
+    /**
+     * Remove uma entrada do mapa. Ela sai do relógio quando for alcançada.
+     */
+    private void descartar(Entrada<V> entrada) {
+        entradas.remove(entrada.chave, entrada);
+        entrada.descartada = true;
+        pesoTotal -= entrada.peso;
+    }
+
+    /**
+     * Remove todas as entradas (as frequências são mantidas).
+     */
+    public synchronized void limpar() {
+        entradas.clear();
+        relogio.clear();
+        pesoTotal = 0;
+    }
+
+    /**
+     * Retorna a quantidade de consultas respondidas pelo cache.
+     *
+     * @return Total de acertos
+     */
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    /**
+     * Retorna a quantidade de consultas não respondidas pelo cache.
+     *
+     * @return Total de falhas (ausentes ou desatualizadas)
+     */
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    /**
+     * Retorna a quantidade de entradas removidas para abrir espaço.
+     *
+     * @return Total de remoções
+     */
+    public long getRemocoes() {
+        return remocoes.sum();
+    }
+
+    /**
+     * Retorna a quantidade de valores não admitidos (pouco frequentes ou
+     * grandes demais).
+     *
+     * @return Total de rejeições
+     */
+    public long getRejeicoes() {
+        return rejeicoes.sum();
+    }
+
+    /**
+     * Retorna a quantidade de entradas guardadas.
+     *
+     * @return Número de entradas
+     */
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Retorna o peso somado das entradas guardadas.
+     *
+     * @return Peso total (no máximo a capacidade)
+     */
+    public long getPesoTotal() {
+        return pesoTotal;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheBusca[entradas=%d, peso=%d/%d, acertos=%d, falhas=%d, remoções=%d, rejeições=%d]",
+                tamanho(), pesoTotal, capacidade, getAcertos(), getFalhas(), getRemocoes(), getRejeicoes());
+    }
+
+    /**
+     * Entrada do cache: chave, valor, versão dos dados e peso.
+     */
+    private static final class Entrada<V> {
+        private final String chave;
+        private final V valor;
+        private final long versao;
+        private final long peso;
+
+        /** Lida desde a última passagem do relógio. */
+        private volatile boolean referenciada;
+
+        /** Já removida do mapa (alterada só em trechos sincronizados). */
+        private boolean descartada;
+
+        Entrada(String chave, V valor, long versao, long peso) {
+            this.chave = chave;
+            this.valor = valor;
+            this.versao = versao;
+            this.peso = peso;
+        }
+    }
+
+    /**
+     * Sketch Count-Min com contadores de 4 bits para estimar a frequência
+     * das chaves.
+     *
+     * <p>
+     * Cada chave incrementa 4 contadores escolhidos por hash, e a
+     * estimativa é o menor deles. A cada {@code 10 × largura} incrementos
+     * todos os contadores são divididos por 2 (envelhecimento), para que
+     * termos que deixaram de ser buscados percam prioridade.
+     * </p>
+     *
+     * <p>
+     * Os contadores são atualizados com CAS. Um contador saturado (15)
+     * não é mais escrito, então os termos mais buscados não geram
+     * escritas disputadas.
+     * </p>
+     */
+    static final class SketchFrequencia {
+
+        /** Sementes das 4 funções de hash. */
+        private static final long[] SEMENTES = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+                0xD6E8FEB86659FD93L };
+
+        /** 16 contadores de 4 bits por palavra. */
+        private final AtomicLongArray tabela;
+
+        /** Quantidade de contadores (potência de 2). */
+        private final int contadores;
+
+        private final int incrementosAteEnvelhecer;
+        private final AtomicInteger incrementos = new AtomicInteger();
+
+        SketchFrequencia(int entradasTipicas) {
+            contadores = Integer.highestOneBit(Math.max(64, entradasTipicas * 4) - 1) << 1;
+            tabela = new AtomicLongArray(contadores / 16);
+            incrementosAteEnvelhecer = 10 * contadores;
+        }
+
+        void incrementar(String chave) {
+            int hash = chave.hashCode();
+            boolean alterou = false;
+            for (int i = 0; i < SEMENTES.length; i++) {
+                int indice = indice(hash, i);
+                int deslocamento = (indice & 15) << 2;
+                while (true) {
+                    long palavra = tabela.get(indice >>> 4);
+                    if (((palavra >>> deslocamento) & 0xF) == 15) {
+                        break;
+                    }
+                    if (tabela.compareAndSet(indice >>> 4, palavra, palavra + (1L << deslocamento))) {
+                        alterou = true;
+                        break;
+                    }
+                }
+            }
+            if (alterou && incrementos.incrementAndGet() >= incrementosAteEnvelhecer) {
+                envelhecer();
+            }
+        }
+
+        int estimar(String chave) {
+            int hash = chave.hashCode();
+            int menor = 15;
+            for (int i = 0; i < SEMENTES.length; i++) {
+                int indice = indice(hash, i);
+                int valor = (int) ((tabela.get(indice >>> 4) >>> ((indice & 15) << 2)) & 0xF);
+                menor = Math.min(menor, valor);
+            }
+            return menor;
+        }
+
+        private int indice(int hash, int funcao) {
+            long h = (hash + SEMENTES[funcao]) * SEMENTES[funcao];
+            h ^= h >>> 32;
+            return (int) h & (contadores - 1);
+        }
+
+        private synchronized void envelhecer() {
+            if (incrementos.get() < incrementosAteEnvelhecer) {
+                return; // Outra thread já envelheceu
+            }
+            for (int i = 0; i < tabela.length(); i++) {
+                // Divide os 16 contadores por 2 de uma vez
+                tabela.getAndUpdate(i, palavra -> (palavra >>> 1) & 0x7777777777777777L);
+            }
+            incrementos.set(incrementos.get() / 2);
+        }
+    }
+}
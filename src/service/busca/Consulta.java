@@ -0,0 +1,378 @@
+package service.busca;
+
+import exception.ValidacaoException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Consulta de busca interpretada: texto livre e filtros por campo.
+ * 
+ * <p>
+ * Aceita consultas como {@code genre:forró year:1970..1980 type:musica}.
+ * Cada cláusula {@code campo:valor} vira uma {@link Clausula}; as
+ * palavras sem campo formam o texto livre, buscado como antes em título,
+ * artista, álbum e apresentador. Valores com espaços vão entre aspas
+ * ({@code artist:"ze ramalho"}).
+ * </p>
+ * 
+ * <h2>Operadores</h2>
+ * <ul>
+ * <li>Cláusulas diferentes se combinam com E</li>
+ * <li>Valores separados por vírgula se combinam com OU
+ * ({@code genre:forro,mpb})</li>
+ * <li>Um {@code -} antes do campo nega a cláusula
+ * ({@code -genre:rock})</li>
+ * </ul>
+ * 
+ * <h2>Campos</h2>
+ * <ul>
+ * <li>{@code artist:} / {@code artista:} - Nome do artista (trecho)</li>
+ * <li>{@code genre:} / {@code genero:} - Gênero do artista (exato)</li>
+ * <li>{@code year:} / {@code ano:} - Ano do álbum: {@code 1978},
+ * {@code 1970..1980}, {@code 1970..} ou {@code ..1980}</li>
+ * <li>{@code type:} / {@code tipo:} - {@code musica} ou
+ * {@code podcast}</li>
+ * <li>{@code liked:} / {@code curtida:} - {@code sim} ou {@code nao}
+ * (curtidas do usuário logado)</li>
+ * </ul>
+ * 
+ * <p>
+ * Os nomes de campo e os valores ignoram acentos e maiúsculas. Um prefixo
+ * que não é um campo conhecido (como em "Tech News: #1") faz parte do
+ * texto livre.
+ * </p>
+ * 
+ * @see IndiceCampos
+ */
+public class Consulta {
+
+    /**
+     * Campos que podem ser filtrados.
+     */
+    public enum CampoFiltro {
+        /** Nome do artista da música. */
+        ARTISTA("artist", "artista"),
+        /** Gênero do artista da música. */
+        GENERO("genre", "genero"),
+        /** Ano de lançamento do álbum. */
+        ANO("year", "ano"),
+        /** Tipo do áudio (música ou podcast). */
+        TIPO("type", "tipo"),
+        /** Curtido ou não pelo usuário logado. */
+        CURTIDA("liked", "curtida");
+
+        private final String[] nomes;
+
+        CampoFiltro(String... nomes) {
+            this.nomes = nomes;
+        }
+
+        /**
+         * Procura o campo pelo nome usado na consulta.
+         * 
+         * @param nome Nome normalizado (ex.: "genre" ou "genero")
+         * @return Campo correspondente, ou null se não existir
+         */
+        public static CampoFiltro porNome(String nome) {
+            for (CampoFiltro campo : values()) {
+                for (String n : campo.nomes) {
+                    if (n.equals(nome)) {
+                        return campo;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Tipos de áudio aceitos por {@code type:}.
+     */
+    public enum TipoAudio {
+        /** {@link model.midia.Musica}. */
+        MUSICA,
+        /** {@link model.midia.Podcast}. */
+        PODCAST
+    }
+
+    /**
+     * Uma cláusula {@code campo:valor} da consulta.
+     */
+    public static class Filtro {
+
+        private final CampoFiltro campo;
+        private final String valor;
+        private final int anoMinimo;
+        private final int anoMaximo;
+        private final TipoAudio tipo;
+
+        private Filtro(CampoFiltro campo, String valor, int anoMinimo, int anoMaximo, TipoAudio tipo) {
+            this.campo = campo;
+            this.valor = valor;
+            this.anoMinimo = anoMinimo;
+            this.anoMaximo = anoMaximo;
+            this.tipo = tipo;
+        }
+
+        /**
+         * Retorna o campo filtrado.
+         * 
+         * @return Campo
+         */
+        public CampoFiltro getCampo() {
+            return campo;
+        }
+
+        /**
+         * Retorna o valor normalizado (artista e gênero; "sim" ou "nao"
+         * para curtidas).
+         * 
+         * @return Valor do filtro
+         */
+        public String getValor() {
+            return valor;
+        }
+
+        /**
+         * Retorna o menor ano aceito (filtro de ano).
+         * 
+         * @return Ano mínimo, inclusive
+         */
+        public int getAnoMinimo() {
+            return anoMinimo;
+        }
+
+        /**
+         * Retorna o maior ano aceito (filtro de ano).
+         * 
+         * @return Ano máximo, inclusive
+         */
+        public int getAnoMaximo() {
+            return anoMaximo;
+        }
+
+        /**
+         * Retorna o tipo de áudio aceito (filtro de tipo).
+         * 
+         * @return Tipo de áudio
+         */
+        public TipoAudio getTipo() {
+            return tipo;
+        }
+    }
+
+    /**
+     * Uma cláusula da consulta: um ou mais filtros do mesmo campo
+     * combinados com OU, possivelmente negados.
+     */
+    public static class Clausula {
+
+        private final boolean negada;
+        private final List<Filtro> alternativas;
+
+        private Clausula(boolean negada, List<Filtro> alternativas) {
+            this.negada = negada;
+            this.alternativas = Collections.unmodifiableList(alternativas);
+        }
+
+        /**
+         * Verifica se a cláusula foi negada com {@code -}.
+         * 
+         * @return true se os áudios que a atendem devem ser excluídos
+         */
+        public boolean isNegada() {
+            return negada;
+        }
+
+        /**
+         * Retorna os filtros combinados com OU (ao menos um).
+         * 
+         * @return Lista imutável de filtros
+         */
+        public List<Filtro> getAlternativas() {
+            return alternativas;
+        }
+    }
+
+    private final String textoLivre;
+    private final List<Clausula> clausulas;
+
+    private Consulta(String textoLivre, List<Clausula> clausulas) {
+        this.textoLivre = textoLivre;
+        this.clausulas = Collections.unmodifiableList(clausulas);
+    }
+
+    /**
+     * Interpreta o texto digitado pelo usuário.
+     * 
+     * @param texto Consulta (ex.: {@code "asa genre:forro year:1950"})
+     * @return Consulta interpretada
+     * @throws ValidacaoException Se um filtro tiver valor vazio ou
+     *                            inválido
+     */
+    public static Consulta interpretar(String texto) throws ValidacaoException {
+        List<Clausula> clausulas = new ArrayList<>();
+        if (texto.indexOf(':') < 0) {
+            // Sem filtros: o texto inteiro é texto livre
+            return new Consulta(texto, clausulas);
+        }
+
+        StringBuilder livre = new StringBuilder();
+        for (String parte : dividir(texto, ' ')) {
+            boolean negada = parte.startsWith("-");
+            String semSinal = negada ? parte.substring(1) : parte;
+            int doisPontos = semSinal.indexOf(':');
+            CampoFiltro campo = doisPontos > 0
+                    ? CampoFiltro.porNome(Normalizador.normalizar(semSinal.substring(0, doisPontos)))
+                    : null;
+            if (campo == null) {
+                if (livre.length() > 0) {
+                    livre.append(' ');
+                }
+                livre.append(parte.replace("\"", ""));
+                continue;
+            }
+            List<Filtro> alternativas = new ArrayList<>();
+            for (String alternativa : dividir(semSinal.substring(doisPontos + 1), ',')) {
+                String valor = Normalizador.normalizar(alternativa.replace("\"", ""));
+                if (!valor.isEmpty()) {
+                    alternativas.add(criarFiltro(campo, valor));
+                }
+            }
+            if (alternativas.isEmpty()) {
+                throw new ValidacaoException("Informe um valor para o filtro '" + parte + "'.");
+            }
+            clausulas.add(new Clausula(negada, alternativas));
+        }
+        return new Consulta(livre.toString(), clausulas);
+    }
+
+    /**
+     * Retorna o texto livre (palavras fora de filtros).
+     * 
+     * @return Texto livre, possivelmente vazio
+     */
+    public String getTextoLivre() {
+        return textoLivre;
+    }
+
+    /**
+     * Retorna as cláusulas da consulta, na ordem digitada.
+     * 
+     * @return Lista imutável de cláusulas
+     */
+    public List<Clausula> getClausulas() {
+        return clausulas;
+    }
+
+    /**
+     * Retorna todos os filtros da consulta, na ordem digitada, sem a
+     * estrutura de cláusulas.
+     * 
+     * @return Lista de filtros
+     */
+    public List<Filtro> getFiltros() {
+        List<Filtro> filtros = new ArrayList<>();
+        for (Clausula clausula : clausulas) {
+            filtros.addAll(clausula.getAlternativas());
+        }
+        return filtros;
+    }
+
+    /**
+     * Verifica se a consulta tem algum filtro por campo.
+     * 
+     * @return true se houver filtros
+     */
+    public boolean temFiltros() {
+        return !clausulas.isEmpty();
+    }
+
+    /**
+     * Verifica se algum filtro da consulta usa o campo informado.
+     *
+     * @param campo Campo procurado
+     * @return true se o campo aparecer em alguma cláusula
+     */
+    public boolean usaCampo(CampoFiltro campo) {
+        for (Clausula clausula : clausulas) {
+            for (Filtro filtro : clausula.getAlternativas()) {
+                if (filtro.getCampo() == campo) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Filtro criarFiltro(CampoFiltro campo, String valor) throws ValidacaoException {
+        return switch (campo) {
+            case ARTISTA, GENERO -> new Filtro(campo, valor, 0, 0, null);
+            case ANO -> {
+                int separador = valor.indexOf("..");
+                int minimo;
+                int maximo;
+                if (separador < 0) {
+                    minimo = maximo = lerAno(valor);
+                } else {
+                    String inicio = valor.substring(0, separador).trim();
+                    String fim = valor.substring(separador + 2).trim();
+                    minimo = inicio.isEmpty() ? Integer.MIN_VALUE : lerAno(inicio);
+                    maximo = fim.isEmpty() ? Integer.MAX_VALUE : lerAno(fim);
+                }
+                if (minimo > maximo) {
+                    throw new ValidacaoException("Intervalo de anos inválido: " + valor);
+                }
+                yield new Filtro(campo, valor, minimo, maximo, null);
+            }
+            case TIPO -> switch (valor) {
+                case "musica", "music", "song" -> new Filtro(campo, valor, 0, 0, TipoAudio.MUSICA);
+                case "podcast" -> new Filtro(campo, valor, 0, 0, TipoAudio.PODCAST);
+                default -> throw new ValidacaoException("Tipo desconhecido: " + valor + " (use musica ou podcast).");
+            };
+            case CURTIDA -> switch (valor) {
+                case "sim", "s", "yes", "true" -> new Filtro(campo, "sim", 0, 0, null);
+                case "nao", "n", "no", "false" -> new Filtro(campo, "nao", 0, 0, null);
+                default -> throw new ValidacaoException("Valor de curtida inválido: " + valor + " (use sim ou nao).");
+            };
+        };
+    }
+
+    private static int lerAno(String texto) throws ValidacaoException {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new ValidacaoException("Ano inválido: " + texto);
+        }
+    }
+
+    /**
+     * Divide o texto nas ocorrências do separador (espaço significa
+     * qualquer espaço em branco), mantendo juntos os trechos entre aspas.
+     */
+    private static List<String> dividir(String texto, char separador) {
+        List<String> partes = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"') {
+                entreAspas = !entreAspas;
+                atual.append(c);
+            } else if (!entreAspas && (separador == ' ' ? Character.isWhitespace(c) : c == separador)) {
+                if (atual.length() > 0) {
+                    partes.add(atual.toString());
+                    atual.setLength(0);
+                }
+            } else {
+                atual.append(c);
+            }
+        }
+        if (atual.length() > 0) {
+            partes.add(atual.toString());
+        }
+        return partes;
+    }
+}
@@ -0,0 +1,148 @@
+package service.busca;
+
+/**
+ * Heap de tamanho fixo que guarda os k IDs de maior pontuação.
+ * 
+ * <p>
+ * É um heap de mínimo em arrays paralelos ({@code int[]} de IDs e
+ * {@code double[]} de pontuações), sem objetos por item: a raiz é o pior
+ * dos k guardados, e um candidato só entra se for melhor que ela.
+ * Selecionar os k melhores entre n candidatos custa O(n log k), sem
+ * ordenar os n.
+ * </p>
+ * 
+ * <p>
+ * A ordem é por pontuação decrescente e, no empate, por ID crescente (a
+ * ordem do catálogo), de modo que o resultado é sempre determinístico.
+ * </p>
+ * 
+ * @see ResultadoBusca
+ */
+public class HeapTopK {
+
+    private final int[] ids;
+    private final double[] pontuacoes;
+    private int tamanho;
+
+    /**
+     * Cria um heap vazio.
+     * 
+     * @param capacidade Quantidade k de itens guardados
+     * @throws IllegalArgumentException Se a capacidade for negativa
+     */
+    public HeapTopK(int capacidade) {
+        if (capacidade < 0) {
+            throw new IllegalArgumentException("Capacidade negativa: " + capacidade);
+        }
+        ids = new int[capacidade];
+        pontuacoes = new double[capacidade];
+    }
+
+    /**
+     * Oferece um candidato. Ele entra se houver espaço ou se for melhor
+     * que o pior guardado, que então sai.
+     * 
+     * @param id        ID do áudio
+     * @param pontuacao Pontuação do áudio
+     */
+    public void oferecer(int id, double pontuacao) {
+        if (tamanho < ids.length) {
+            ids[tamanho] = id;
+            pontuacoes[tamanho] = pontuacao;
+            subir(tamanho++);
+        } else if (tamanho > 0 && melhor(pontuacao, id, pontuacoes[0], ids[0])) {
+            ids[0] = id;
+            pontuacoes[0] = pontuacao;
+            descer(0);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de itens guardados.
+     * 
+     * @return Entre 0 e a capacidade
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna a pontuação do pior item guardado (a raiz do heap).
+     * 
+     * @return Menor pontuação entre os k guardados
+     * @throws IllegalStateException Se o heap estiver vazio
+     */
+    public double getPiorPontuacao() {
+        if (tamanho == 0) {
+            throw new IllegalStateException("Heap vazio.");
+        }
+        return pontuacoes[0];
+    }
+
+    /**
+     * Esvazia o heap e retorna os IDs guardados, do melhor para o pior.
+     * 
+     * @return IDs em ordem de pontuação decrescente
+     */
+    public int[] extrairOrdenados() {
+        int[] resultado = new int[tamanho];
+        for (int i = tamanho - 1; i >= 0; i--) {
+            resultado[i] = ids[0];
+            tamanho--;
+            ids[0] = ids[tamanho];
+            pontuacoes[0] = pontuacoes[tamanho];
+            descer(0);
+        }
+        return resultado;
+    }
+
+    /**
+     * Compara dois candidatos na ordem do resultado.
+     * 
+     * @param pontuacaoA Pontuação do primeiro
+     * @param idA        ID do primeiro
+     * @param pontuacaoB Pontuação do segundo
+     * @param idB        ID do segundo
+     * @return true se o primeiro vem antes do segundo
+     */
+    public static boolean melhor(double pontuacaoA, int idA, double pontuacaoB, int idB) {
+        int comparacao = Double.compare(pontuacaoA, pontuacaoB);
+        return comparacao > 0 || (comparacao == 0 && idA < idB);
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int pai = (i - 1) / 2;
+            if (!melhor(pontuacoes[pai], ids[pai], pontuacoes[i], ids[i])) {
+                return;
+            }
+            trocar(i, pai);
+            i = pai;
+        }
+    }
+
+    private void descer(int i) {
+        while (true) {
+            int pior = i;
+            for (int filho = 2 * i + 1; filho <= 2 * i + 2 && filho < tamanho; filho++) {
+                if (melhor(pontuacoes[pior], ids[pior], pontuacoes[filho], ids[filho])) {
+                    pior = filho;
+                }
+            }
+            if (pior == i) {
+                return;
+            }
+            trocar(i, pior);
+            i = pior;
+        }
+    }
+
+    private void trocar(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double pontuacao = pontuacoes[a];
+        pontuacoes[a] = pontuacoes[b];
+        pontuacoes[b] = pontuacao;
+    }
+}
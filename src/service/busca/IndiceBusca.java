@@ -0,0 +1,550 @@
+package service.busca;
+
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Índice invertido do catálogo para buscas por texto.
+ * 
+ * <p>
+ * Indexa, para cada áudio, os campos de texto pesquisáveis já
+ * normalizados ({@link Normalizador}): título, artista, título do álbum
+ * e apresentador do podcast. Dois índices são mantidos:
+ * </p>
+ * <ul>
+ * <li><b>Termos:</b> cada palavra aponta para os áudios que a contêm</li>
+ * <li><b>N-gramas:</b> cada trecho de 1 a 3 bytes do texto normalizado
+ * aponta para os áudios que o contêm, o que permite buscas por
+ * substring</li>
+ * </ul>
+ * 
+ * <h2>Chaves Pré-Calculadas</h2>
+ * <p>
+ * A normalização acontece uma única vez, em {@link #indexar(Audio)}.
+ * Cada campo fica guardado como {@code byte[]} em UTF-8
+ * ({@link Normalizador#chave(String)}), e os n-gramas são codificados
+ * como {@code int}. Uma consulta é normalizada uma vez e depois só
+ * compara arrays de bytes, sem criar objetos por candidato.
+ * </p>
+ * 
+ * <h2>Busca por Substring</h2>
+ * <p>
+ * {@link #buscar(String)} retorna os áudios em que algum campo contém o
+ * termo, como um {@code contains}. Termos de até 3 bytes são
+ * respondidos diretamente pela lista do n-grama. Termos maiores
+ * intersectam as listas dos seus trigramas e confirmam cada candidato
+ * no texto normalizado, descartando falsos positivos. O custo depende
+ * do número de candidatos, e não do tamanho do catálogo.
+ * </p>
+ * 
+ * <h2>Busca Tolerante a Erros</h2>
+ * <p>
+ * {@link #buscar(String, boolean)} pode também procurar cada palavra da
+ * consulta no dicionário de termos com uma distância de edição
+ * limitada ({@link ArvoreBK}), de modo que "bohemian rapsody" encontre
+ * "Bohemian Rhapsody". Esses resultados vêm depois dos exatos. A busca
+ * aproximada só roda quando pedida; sem ela, a busca exata não muda.
+ * </p>
+ * 
+ * <h2>Relevância</h2>
+ * <p>
+ * {@link #pontuar(String, int[])} calcula a relevância BM25 de cada
+ * resultado, com pesos por campo (título acima de artista, artista acima
+ * de álbum). A ordenação pelos mais relevantes fica a cargo de
+ * {@link ResultadoBusca}.
+ * </p>
+ * 
+ * <p>
+ * Os áudios são identificados pelo seu ID no catálogo
+ * ({@link Audio#getId()}), e os resultados vêm em ordem de ID, isto é,
+ * na ordem do catálogo.
+ * </p>
+ * 
+ * @see Normalizador
+ * @see ListaPostings
+ * @see ArvoreBK
+ * @see service.BibliotecaService#buscar(String)
+ */
+public class IndiceBusca {
+
+    /**
+     * Campos de texto indexados.
+     */
+    public enum Campo {
+        /** Título do áudio. */
+        TITULO,
+        /** Nome do artista (apenas músicas). */
+        ARTISTA,
+        /** Título do álbum (apenas músicas com álbum). */
+        ALBUM,
+        /** Apresentador (apenas podcasts). */
+        APRESENTADOR
+    }
+
+    /** Maior n-grama indexado. */
+    private static final int TAMANHO_NGRAMA = 3;
+
+    /** Saturação da frequência do termo no BM25. */
+    private static final double BM25_K1 = 1.2;
+
+    /** Peso da normalização pelo tamanho do campo no BM25. */
+    private static final double BM25_B = 0.75;
+
+    /** Chaves normalizadas de cada campo (posição = ID; null se ausente). */
+    private byte[][][] campos = new byte[64][][];
+
+    /** Maior ID indexado + 1. */
+    private int limiteIds;
+
+    /** Índice de palavras: termo normalizado → IDs. */
+    private final Map<String, ListaPostings> termos = new HashMap<>();
+
+    /** Índice de n-gramas (1 a 3 bytes, codificados em int) → IDs. */
+    private final Map<Integer, ListaPostings> ngramas = new HashMap<>();
+
+    /** Dicionário de termos para a busca aproximada. */
+    private final ArvoreBK dicionario = new ArvoreBK();
+
+    /** Quantidade de áudios indexados (N do BM25). */
+    private int totalIndexados;
+
+    /** Soma do número de palavras de cada campo, para o tamanho médio. */
+    private final long[] palavrasPorCampo = new long[Campo.values().length];
+
+    /** Quantidade de áudios que possuem cada campo. */
+    private final int[] camposPreenchidos = new int[Campo.values().length];
+
+    /**
+     * Indexa um áudio do catálogo.
+     * 
+     * <p>
+     * Os textos são normalizados uma única vez, aqui, e não a cada
+     * consulta.
+     * </p>
+     * 
+     * @param audio Áudio com ID já atribuído
+     * @throws IllegalArgumentException Se o áudio não tiver ID
+     */
+    public void indexar(Audio audio) {
+        int id = audio.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("Áudio sem ID no catálogo: " + audio.getTitulo());
+        }
+        String[] textos = new String[Campo.values().length];
+        for (Campo campo : Campo.values()) {
+            textos[campo.ordinal()] = textoDoCampo(audio, campo);
+        }
+        indexar(id, textos);
+    }
+
+    /**
+     * Indexa os textos de um áudio sem precisar do objeto, como ao
+     * montar o índice a partir do catálogo mapeado.
+     * 
+     * @param id     ID do áudio no catálogo
+     * @param textos Texto original de cada campo, na ordem de
+     *               {@link Campo#values()} (null se o áudio não o tiver)
+     * @throws IllegalArgumentException Se o ID for negativo
+     */
+    public void indexar(int id, String... textos) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID inválido no catálogo: " + id);
+        }
+        if (id >= campos.length) {
+            campos = Arrays.copyOf(campos, Math.max(id + 1, campos.length * 2));
+        }
+        limiteIds = Math.max(limiteIds, id + 1);
+
+        byte[][] chaves = new byte[Campo.values().length][];
+        for (Campo campo : Campo.values()) {
+            String original = textos[campo.ordinal()];
+            if (original == null) {
+                continue;
+            }
+            String normalizado = Normalizador.normalizar(original);
+            byte[] chave = normalizado.getBytes(StandardCharsets.UTF_8);
+            chaves[campo.ordinal()] = chave;
+            palavrasPorCampo[campo.ordinal()] += contarPalavras(chave);
+            camposPreenchidos[campo.ordinal()]++;
+
+            for (String termo : Normalizador.tokenizar(normalizado)) {
+                ListaPostings lista = termos.get(termo);
+                if (lista == null) {
+                    lista = new ListaPostings();
+                    termos.put(termo, lista);
+                    dicionario.adicionar(termo);
+                }
+                lista.adicionar(id);
+            }
+            for (int i = 0; i < chave.length; i++) {
+                for (int n = 1; n <= TAMANHO_NGRAMA && i + n <= chave.length; n++) {
+                    ngramas.computeIfAbsent(codificar(chave, i, n), g -> new ListaPostings()).adicionar(id);
+                }
+            }
+        }
+        campos[id] = chaves;
+        totalIndexados++;
+    }
+
+    /**
+     * Busca os áudios em que algum campo contém o termo.
+     * 
+     * <p>
+     * A comparação ignora acentos, maiúsculas e espaços repetidos. Um
+     * termo vazio retorna todos os áudios indexados.
+     * </p>
+     * 
+     * @param termo Texto digitado pelo usuário
+     * @return IDs dos áudios encontrados, em ordem crescente
+     */
+    public int[] buscar(String termo) {
+        byte[] consulta = Normalizador.chave(termo);
+        if (consulta.length == 0) {
+            return todos();
+        }
+        if (consulta.length <= TAMANHO_NGRAMA) {
+            // Todo n-grama curto está indexado: a lista já é a resposta
+            ListaPostings lista = ngramas.get(codificar(consulta, 0, consulta.length));
+            return lista == null ? new int[0] : lista.paraArray();
+        }
+
+        // Listas dos trigramas distintos da consulta
+        int quantidade = consulta.length - TAMANHO_NGRAMA + 1;
+        ListaPostings[] listas = new ListaPostings[quantidade];
+        int l = 0;
+        for (int i = 0; i < quantidade; i++) {
+            ListaPostings lista = ngramas.get(codificar(consulta, i, TAMANHO_NGRAMA));
+            if (lista == null) {
+                return new int[0];
+            }
+            boolean repetida = false;
+            for (int j = 0; j < l && !repetida; j++) {
+                repetida = listas[j] == lista;
+            }
+            if (!repetida) {
+                listas[l++] = lista;
+            }
+        }
+        listas = Arrays.copyOf(listas, l);
+
+        // Confirma os candidatos no texto (trigramas em comum não bastam)
+        int[] candidatos = ListaPostings.intersecao(listas);
+        int total = 0;
+        for (int id : candidatos) {
+            if (contem(id, consulta)) {
+                candidatos[total++] = id;
+            }
+        }
+        return Arrays.copyOf(candidatos, total);
+    }
+
+    /**
+     * Busca os áudios que contêm o termo, opcionalmente tolerando erros
+     * de digitação.
+     * 
+     * <p>
+     * Sem a busca aproximada, é o mesmo que {@link #buscar(String)}. Com
+     * ela, cada palavra da consulta também casa com os termos do
+     * dicionário a poucas edições de distância (veja
+     * {@link #toleranciaPara(int)}), e um áudio é incluído se todas as
+     * palavras casarem com algum dos seus termos. Os resultados exatos
+     * vêm primeiro, em ordem de ID; depois, os aproximados, da menor
+     * para a maior soma de distâncias.
+     * </p>
+     * 
+     * @param termo      Texto digitado pelo usuário
+     * @param aproximada true para incluir resultados com erros de
+     *                   digitação
+     * @return IDs dos áudios encontrados, exatos primeiro
+     */
+    public int[] buscar(String termo, boolean aproximada) {
+        int[] exatos = buscar(termo);
+        if (!aproximada) {
+            return exatos;
+        }
+        int[] aproximados = buscarAproximados(termo, exatos);
+        int[] resultado = Arrays.copyOf(exatos, exatos.length + aproximados.length);
+        System.arraycopy(aproximados, 0, resultado, exatos.length, aproximados.length);
+        return resultado;
+    }
+
+    /**
+     * Busca apenas os resultados aproximados de um termo, isto é, os que
+     * só casam tolerando erros de digitação.
+     * 
+     * @param termo  Texto digitado pelo usuário
+     * @param exatos Resultados exatos já encontrados, que são excluídos
+     * @return IDs dos áudios, da menor para a maior soma de distâncias
+     * @see #buscar(String, boolean)
+     */
+    public int[] buscarAproximados(String termo, int[] exatos) {
+        List<String> palavras = Normalizador.tokenizar(Normalizador.normalizar(termo));
+        if (palavras.isEmpty()) {
+            return new int[0];
+        }
+
+        // Soma, por áudio, a menor distância de cada palavra da consulta
+        Map<Integer, Integer> distancias = null;
+        for (String palavra : palavras) {
+            Map<Integer, Integer> daPalavra = new HashMap<>();
+            dicionario.buscar(palavra, toleranciaPara(palavra.length()), (encontrado, distancia) -> {
+                int[] ids = termos.get(encontrado).paraArray();
+                for (int id : ids) {
+                    daPalavra.merge(id, distancia, Math::min);
+                }
+            });
+            if (distancias == null) {
+                distancias = daPalavra;
+            } else {
+                Map<Integer, Integer> anteriores = distancias;
+                daPalavra.keySet().retainAll(anteriores.keySet());
+                daPalavra.replaceAll((id, distancia) -> distancia + anteriores.get(id));
+                distancias = daPalavra;
+            }
+            if (distancias.isEmpty()) {
+                return new int[0];
+            }
+        }
+
+        for (int id : exatos) {
+            distancias.remove(id);
+        }
+        Map<Integer, Integer> pontuacao = distancias;
+        return pontuacao.keySet().stream()
+                .sorted(Comparator.comparingInt((Integer id) -> pontuacao.get(id)).thenComparingInt(id -> id))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Calcula a relevância (BM25) de cada áudio para o termo.
+     * 
+     * <p>
+     * Cada palavra da consulta soma, em cada campo, o peso do campo
+     * ({@link #pesoDoCampo(Campo)}) vezes a pontuação BM25: palavras
+     * raras no catálogo valem mais (IDF), repetições no campo ajudam com
+     * retorno decrescente, e campos longos são penalizados em relação ao
+     * tamanho médio do campo. Uma palavra do campo conta quando contém a
+     * palavra da consulta, como na busca por substring.
+     * </p>
+     * 
+     * @param termo Texto digitado pelo usuário
+     * @param ids   IDs dos áudios a pontuar
+     * @return Pontuação de cada ID, na mesma posição
+     */
+    public double[] pontuar(String termo, int[] ids) {
+        double[] pontuacoes = new double[ids.length];
+        for (String palavra : Normalizador.tokenizar(Normalizador.normalizar(termo))) {
+            byte[] consulta = palavra.getBytes(StandardCharsets.UTF_8);
+            int frequencia = contarDocumentos(consulta);
+            if (frequencia == 0) {
+                continue;
+            }
+            double idf = Math.log(1 + (totalIndexados - frequencia + 0.5) / (frequencia + 0.5));
+            for (int i = 0; i < ids.length; i++) {
+                byte[][] chaves = campos[ids[i]];
+                for (Campo campo : Campo.values()) {
+                    byte[] chave = chaves[campo.ordinal()];
+                    if (chave == null) {
+                        continue;
+                    }
+                    int tf = contarPalavrasCom(chave, consulta);
+                    if (tf == 0) {
+                        continue;
+                    }
+                    double medio = (double) palavrasPorCampo[campo.ordinal()] / camposPreenchidos[campo.ordinal()];
+                    double normalizacao = BM25_K1 * (1 - BM25_B + BM25_B * contarPalavras(chave) / medio);
+                    pontuacoes[i] += pesoDoCampo(campo) * idf * tf * (BM25_K1 + 1) / (tf + normalizacao);
+                }
+            }
+        }
+        return pontuacoes;
+    }
+
+    /**
+     * Retorna o peso de um campo na relevância: o título vale mais que o
+     * artista (ou apresentador), que vale mais que o álbum.
+     * 
+     * @param campo Campo indexado
+     * @return Peso multiplicado à pontuação BM25 do campo
+     */
+    public static double pesoDoCampo(Campo campo) {
+        return switch (campo) {
+            case TITULO -> 3.0;
+            case ARTISTA, APRESENTADOR -> 2.0;
+            case ALBUM -> 1.0;
+        };
+    }
+
+    /**
+     * Retorna quantas edições são toleradas em uma palavra da consulta.
+     * 
+     * <p>
+     * Palavras curtas precisam ser exatas (com 3 letras, uma edição já
+     * casaria com quase tudo); até 7 letras, uma edição; a partir de 8,
+     * duas.
+     * </p>
+     * 
+     * @param tamanho Tamanho da palavra normalizada
+     * @return Distância de edição máxima
+     */
+    public static int toleranciaPara(int tamanho) {
+        if (tamanho < 4) {
+            return 0;
+        }
+        return tamanho < 8 ? 1 : 2;
+    }
+
+    /**
+     * Retorna os áudios que contêm a palavra exata.
+     * 
+     * @param termo Palavra (será normalizada)
+     * @return IDs em ordem crescente (vazio se a palavra não existir)
+     */
+    public int[] buscarTermo(String termo) {
+        ListaPostings lista = termos.get(Normalizador.normalizar(termo));
+        return lista == null ? new int[0] : lista.paraArray();
+    }
+
+    /**
+     * Retorna o texto normalizado de um campo de um áudio.
+     * 
+     * @param id    ID do áudio
+     * @param campo Campo desejado
+     * @return Texto normalizado, ou null se o áudio não tiver o campo
+     */
+    public String getCampo(int id, Campo campo) {
+        byte[] chave = getChave(id, campo);
+        return chave == null ? null : new String(chave, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retorna a chave normalizada (UTF-8) de um campo de um áudio, sem
+     * cópia. O array não deve ser modificado.
+     * 
+     * @param id    ID do áudio
+     * @param campo Campo desejado
+     * @return Chave normalizada, ou null se o áudio não tiver o campo
+     */
+    public byte[] getChave(int id, Campo campo) {
+        if (id < 0 || id >= limiteIds || campos[id] == null) {
+            return null;
+        }
+        return campos[id][campo.ordinal()];
+    }
+
+    /**
+     * Remove todos os áudios do índice.
+     */
+    public void limpar() {
+        campos = new byte[64][][];
+        limiteIds = 0;
+        termos.clear();
+        ngramas.clear();
+        dicionario.limpar();
+        totalIndexados = 0;
+        Arrays.fill(palavrasPorCampo, 0);
+        Arrays.fill(camposPreenchidos, 0);
+    }
+
+    /**
+     * Extrai o texto original de um campo do áudio.
+     * 
+     * @param audio Áudio
+     * @param campo Campo desejado
+     * @return Texto original, ou null se o áudio não possuir o campo
+     */
+    public static String textoDoCampo(Audio audio, Campo campo) {
+        return switch (campo) {
+            case TITULO -> audio.getTitulo();
+            case ARTISTA -> audio instanceof Musica m ? m.getNomeArtista() : null;
+            case ALBUM -> audio instanceof Musica m && m.getAlbum() != null ? m.getAlbum().getTitulo() : null;
+            case APRESENTADOR -> audio instanceof Podcast p ? p.getApresentador() : null;
+        };
+    }
+
+    /**
+     * Codifica um n-grama de até 3 bytes em um int: o tamanho nos bits
+     * altos e os bytes (sem sinal) nos 24 bits baixos.
+     */
+    private static int codificar(byte[] chave, int inicio, int tamanho) {
+        int codigo = tamanho;
+        for (int i = 0; i < TAMANHO_NGRAMA; i++) {
+            codigo = (codigo << 8) | (i < tamanho ? chave[inicio + i] & 0xFF : 0);
+        }
+        return codigo;
+    }
+
+    private boolean contem(int id, byte[] consulta) {
+        for (byte[] chave : campos[id]) {
+            if (chave != null && Normalizador.indiceDe(chave, consulta) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Quantidade de áudios que contêm o texto, sem montar a lista. */
+    private int contarDocumentos(byte[] consulta) {
+        if (consulta.length <= TAMANHO_NGRAMA) {
+            ListaPostings lista = ngramas.get(codificar(consulta, 0, consulta.length));
+            return lista == null ? 0 : lista.tamanho();
+        }
+        return buscar(new String(consulta, StandardCharsets.UTF_8)).length;
+    }
+
+    /** Quantidade de palavras de uma chave normalizada. */
+    private static int contarPalavras(byte[] chave) {
+        int palavras = chave.length == 0 ? 0 : 1;
+        for (byte b : chave) {
+            if (b == ' ') {
+                palavras++;
+            }
+        }
+        return palavras;
+    }
+
+    /** Quantidade de palavras da chave que contêm o texto procurado. */
+    private static int contarPalavrasCom(byte[] chave, byte[] procurado) {
+        int total = 0;
+        int inicio = 0;
+        while (inicio < chave.length) {
+            int fim = inicio;
+            while (fim < chave.length && chave[fim] != ' ') {
+                fim++;
+            }
+            if (contemTrecho(chave, inicio, fim, procurado)) {
+                total++;
+            }
+            inicio = fim + 1;
+        }
+        return total;
+    }
+
+    private static boolean contemTrecho(byte[] chave, int inicio, int fim, byte[] procurado) {
+        proxima: for (int i = inicio; i + procurado.length <= fim; i++) {
+            for (int j = 0; j < procurado.length; j++) {
+                if (chave[i + j] != procurado[j]) {
+                    continue proxima;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private int[] todos() {
+        int[] ids = new int[limiteIds];
+        int total = 0;
+        for (int id = 0; id < limiteIds; id++) {
+            if (campos[id] != null) {
+                ids[total++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, total);
+    }
+}
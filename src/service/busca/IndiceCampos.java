@@ -0,0 +1,217 @@
+package service.busca;
+
+import exception.ValidacaoException;
+import model.midia.Album;
+import model.midia.Artista;
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
+
+import java.util.*;
+
+/**
+ * Índices por campo para os filtros da busca ({@link Consulta}).
+ * 
+ * <p>
+ * Cada campo filtrável tem o seu próprio índice, de modo que um filtro é
+ * respondido sem percorrer o catálogo:
+ * </p>
+ * <ul>
+ * <li><b>Artista:</b> nome normalizado do artista → IDs</li>
+ * <li><b>Gênero:</b> cada gênero normalizado do artista → IDs</li>
+ * <li><b>Ano:</b> mapa ordenado ano do álbum → IDs; um intervalo junta
+ * apenas os conjuntos dos anos dentro dele</li>
+ * <li><b>Tipo:</b> um conjunto para músicas e outro para podcasts</li>
+ * </ul>
+ * 
+ * <h2>Conjuntos em Bitmap</h2>
+ * <p>
+ * Os IDs de cada valor ficam em um {@link BitmapIds}. As cláusulas de
+ * uma consulta são avaliadas com E, OU e E NÃO sobre esses conjuntos,
+ * sem listas intermediárias de áudios. Curtidas do usuário entram como
+ * mais um conjunto, montado a partir dos IDs curtidos.
+ * </p>
+ * 
+ * <p>
+ * Os gêneros são lidos do artista no momento da indexação. Gêneros
+ * adicionados depois só valem para as músicas indexadas a partir daí.
+ * </p>
+ * 
+ * @see Consulta
+ * @see BitmapIds
+ * @see service.BibliotecaService#buscar(String, boolean, java.util.Collection)
+ */
+public class IndiceCampos {
+
+    /** Nome normalizado do artista → IDs. */
+    private final Map<String, BitmapIds> artistas = new HashMap<>();
+
+    /** Gênero normalizado → IDs. */
+    private final Map<String, BitmapIds> generos = new HashMap<>();
+
+    /** Ano de lançamento do álbum → IDs, em ordem de ano. */
+    private final TreeMap<Integer, BitmapIds> anos = new TreeMap<>();
+
+    /** IDs das músicas. */
+    private BitmapIds musicas = new BitmapIds();
+
+    /** IDs dos podcasts. */
+    private BitmapIds podcasts = new BitmapIds();
+
+    /** IDs de todos os áudios indexados (base das cláusulas negadas). */
+    private BitmapIds todos = new BitmapIds();
+
+    /**
+     * Indexa os campos filtráveis de um áudio.
+     * 
+     * @param audio Áudio com ID já atribuído
+     */
+    public void indexar(Audio audio) {
+        if (audio instanceof Musica musica) {
+            indexarMusica(audio.getId(), musica.getArtista(), musica.getAlbum());
+        } else if (audio instanceof Podcast) {
+            indexarPodcast(audio.getId());
+        } else {
+            todos.adicionar(audio.getId());
+        }
+    }
+
+    /**
+     * Indexa um podcast pelo ID.
+     * 
+     * @param id ID do podcast no catálogo
+     */
+    public void indexarPodcast(int id) {
+        todos.adicionar(id);
+        podcasts.adicionar(id);
+    }
+
+    /**
+     * Indexa os campos filtráveis de uma música sem precisar do objeto,
+     * como ao montar o índice a partir do catálogo mapeado.
+     * 
+     * @param id      ID da música no catálogo
+     * @param artista Artista (gêneros), ou null
+     * @param album   Álbum (ano), ou null
+     */
+    public void indexarMusica(int id, Artista artista, Album album) {
+        todos.adicionar(id);
+        musicas.adicionar(id);
+
+        if (artista != null) {
+            artistas.computeIfAbsent(Normalizador.normalizar(artista.getNome()), n -> new BitmapIds()).adicionar(id);
+            for (String genero : artista.getGeneros()) {
+                generos.computeIfAbsent(Normalizador.normalizar(genero), g -> new BitmapIds()).adicionar(id);
+            }
+        }
+        if (album != null) {
+            anos.computeIfAbsent(album.getAnoLancamento(), a -> new BitmapIds()).adicionar(id);
+        }
+    }
+
+    /**
+     * Compacta os conjuntos (ex.: faixas consecutivas de um álbum viram
+     * um único run). Chamado depois de indexar o catálogo inteiro.
+     */
+    public void otimizar() {
+        artistas.values().forEach(BitmapIds::otimizar);
+        generos.values().forEach(BitmapIds::otimizar);
+        anos.values().forEach(BitmapIds::otimizar);
+        musicas.otimizar();
+        podcasts.otimizar();
+        todos.otimizar();
+    }
+
+    /**
+     * Retorna os áudios que atendem a todas as cláusulas.
+     * 
+     * <p>
+     * As cláusulas comuns são intersectadas (E), as alternativas de uma
+     * cláusula são unidas (OU) e as cláusulas negadas são removidas
+     * (E NÃO). Se todas as cláusulas forem negadas, parte de todos os
+     * áudios indexados.
+     * </p>
+     * 
+     * @param clausulas Cláusulas da consulta (ao menos uma)
+     * @param curtidas  IDs curtidos pelo usuário, ou null se não houver
+     *                  usuário (necessário apenas para {@code liked:})
+     * @return Conjunto de IDs encontrados
+     * @throws ValidacaoException Se houver filtro de curtidas sem usuário
+     */
+    public BitmapIds filtrar(List<Consulta.Clausula> clausulas, BitmapIds curtidas) throws ValidacaoException {
+        BitmapIds resultado = null;
+        BitmapIds excluidos = new BitmapIds();
+        for (Consulta.Clausula clausula : clausulas) {
+            BitmapIds ids = new BitmapIds();
+            for (Consulta.Filtro filtro : clausula.getAlternativas()) {
+                ids = ids.ou(filtrar(filtro, curtidas));
+            }
+            if (clausula.isNegada()) {
+                excluidos = excluidos.ou(ids);
+            } else {
+                resultado = resultado == null ? ids : resultado.e(ids);
+            }
+        }
+        return (resultado == null ? todos : resultado).exceto(excluidos);
+    }
+
+    /**
+     * Retorna os áudios que atendem a um filtro.
+     * 
+     * <p>
+     * O artista casa por trecho do nome ("ramalho" encontra "Zé Ramalho"
+     * e "Elba Ramalho"), percorrendo apenas o índice de artistas. O
+     * gênero precisa ser exato, e o ano pode ser um intervalo.
+     * </p>
+     * 
+     * @param filtro   Filtro da consulta
+     * @param curtidas IDs curtidos pelo usuário, ou null
+     * @return Conjunto de IDs (não deve ser alterado)
+     * @throws ValidacaoException Se for um filtro de curtidas sem usuário
+     */
+    public BitmapIds filtrar(Consulta.Filtro filtro, BitmapIds curtidas) throws ValidacaoException {
+        return switch (filtro.getCampo()) {
+            case ARTISTA -> {
+                BitmapIds exato = artistas.get(filtro.getValor());
+                if (exato != null) {
+                    yield exato;
+                }
+                BitmapIds ids = new BitmapIds();
+                for (Map.Entry<String, BitmapIds> e : artistas.entrySet()) {
+                    if (e.getKey().contains(filtro.getValor())) {
+                        ids = ids.ou(e.getValue());
+                    }
+                }
+                yield ids;
+            }
+            case GENERO -> generos.getOrDefault(filtro.getValor(), new BitmapIds());
+            case ANO -> {
+                BitmapIds ids = new BitmapIds();
+                for (BitmapIds doAno : anos.subMap(filtro.getAnoMinimo(), true, filtro.getAnoMaximo(), true)
+                        .values()) {
+                    ids = ids.ou(doAno);
+                }
+                yield ids;
+            }
+            case TIPO -> filtro.getTipo() == Consulta.TipoAudio.MUSICA ? musicas : podcasts;
+            case CURTIDA -> {
+                if (curtidas == null) {
+                    throw new ValidacaoException("Faça login para filtrar por curtidas.");
+                }
+                yield filtro.getValor().equals("sim") ? curtidas : todos.exceto(curtidas);
+            }
+        };
+    }
+
+    /**
+     * Remove todos os áudios dos índices.
+     */
+    public void limpar() {
+        artistas.clear();
+        generos.clear();
+        anos.clear();
+        musicas = new BitmapIds();
+        podcasts = new BitmapIds();
+        todos = new BitmapIds();
+    }
+}
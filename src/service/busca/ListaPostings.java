@@ -0,0 +1,118 @@
+package service.busca;
+
+import java.util.Arrays;
+
+/**
+ * Lista ordenada de IDs de áudios (posting list) de um índice invertido.
+ * 
+ * <p>
+ * Guarda os IDs em um {@code int[]} crescente e sem repetições, sem
+ * objetos por item. Como os áudios são indexados em ordem de ID, a
+ * inserção normalmente é apenas um acréscimo no fim do array.
+ * </p>
+ * 
+ * @see IndiceBusca
+ */
+public class ListaPostings {
+
+    /** IDs em ordem crescente (apenas as primeiras {@link #tamanho} posições). */
+    private int[] ids = new int[4];
+
+    /** Quantidade de IDs válidos. */
+    private int tamanho;
+
+    /**
+     * Adiciona um ID mantendo a ordem. IDs repetidos são ignorados.
+     * 
+     * @param id ID do áudio
+     */
+    public void adicionar(int id) {
+        if (tamanho > 0 && ids[tamanho - 1] >= id) {
+            int pos = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (pos >= 0) {
+                return;
+            }
+            inserirEm(-pos - 1, id);
+            return;
+        }
+        if (tamanho == ids.length) {
+            ids = Arrays.copyOf(ids, tamanho * 2);
+        }
+        ids[tamanho++] = id;
+    }
+
+    private void inserirEm(int posicao, int id) {
+        if (tamanho == ids.length) {
+            ids = Arrays.copyOf(ids, tamanho * 2);
+        }
+        System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+        ids[posicao] = id;
+        tamanho++;
+    }
+
+    /**
+     * Verifica se o ID está na lista (busca binária).
+     * 
+     * @param id ID do áudio
+     * @return true se presente
+     */
+    public boolean contem(int id) {
+        return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+    }
+
+    /**
+     * Retorna o número de IDs.
+     * 
+     * @return Tamanho da lista
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna uma cópia dos IDs em ordem crescente.
+     * 
+     * @return Array com os IDs
+     */
+    public int[] paraArray() {
+        return Arrays.copyOf(ids, tamanho);
+    }
+
+    /**
+     * Calcula a interseção de várias listas.
+     * 
+     * <p>
+     * Percorre a menor lista e procura cada ID nas demais por busca
+     * binária, de modo que o custo depende do tamanho da menor lista,
+     * e não do tamanho do catálogo.
+     * </p>
+     * 
+     * @param listas Listas a intersectar (ao menos uma)
+     * @return IDs presentes em todas as listas, em ordem crescente
+     */
+    public static int[] intersecao(ListaPostings... listas) {
+        ListaPostings[] ordenadas = listas.clone();
+        Arrays.sort(ordenadas, (a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+        ListaPostings menor = ordenadas[0];
+        int[] resultado = new int[menor.tamanho];
+        int total = 0;
+        // Posição de partida em cada lista (os IDs crescem, então só avançam)
+        int[] inicio = new int[ordenadas.length];
+
+        proximo: for (int i = 0; i < menor.tamanho; i++) {
+            int id = menor.ids[i];
+            for (int l = 1; l < ordenadas.length; l++) {
+                ListaPostings outra = ordenadas[l];
+                int pos = Arrays.binarySearch(outra.ids, inicio[l], outra.tamanho, id);
+                if (pos < 0) {
+                    inicio[l] = -pos - 1;
+                    continue proximo;
+                }
+                inicio[l] = pos + 1;
+            }
+            resultado[total++] = id;
+        }
+        return Arrays.copyOf(resultado, total);
+    }
+}
@@ -0,0 +1,190 @@
+package service.busca;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de textos para busca.
+ * 
+ * <p>
+ * Converte títulos, nomes e termos digitados para uma forma canônica,
+ * de modo que "Zé Ramalho", "ze ramalho" e "ZE  RAMALHO" sejam
+ * considerados iguais:
+ * </p>
+ * <ol>
+ * <li>Decomposição Unicode (NFD): "é" vira "e" + acento</li>
+ * <li>Remoção dos acentos (marcas combinantes)</li>
+ * <li>Conversão para minúsculas</li>
+ * <li>Espaços consecutivos viram um só, sem espaços nas pontas</li>
+ * </ol>
+ * 
+ * <h2>Caminho Rápido</h2>
+ * <p>
+ * Quase todo o catálogo usa apenas caracteres latinos (ASCII e
+ * acentuados do português). Para eles, o resultado de cada caractere é
+ * calculado uma única vez, na carga da classe, e guardado em uma tabela;
+ * a normalização vira uma só passada pelo texto, sem {@link Normalizer}
+ * nem expressões regulares. Textos com outros caracteres usam o
+ * processo completo, com o mesmo resultado.
+ * </p>
+ * 
+ * <h2>Chaves em Bytes</h2>
+ * <p>
+ * {@link #chave(String)} devolve o texto normalizado em UTF-8. O
+ * {@link IndiceBusca} guarda essas chaves ao indexar e compara a
+ * consulta com elas byte a byte ({@link #indiceDe(byte[], byte[])}),
+ * sem criar objetos por item pesquisado.
+ * </p>
+ * 
+ * @see IndiceBusca
+ */
+public final class Normalizador {
+
+    /** Marcas combinantes (acentos, til, cedilha) após a decomposição. */
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    /** Sequências de espaços em branco. */
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    /** Primeiro caractere fora da tabela do caminho rápido. */
+    private static final char LIMITE_TABELA = '\u0180';
+
+    /**
+     * Resultado pré-calculado para cada caractere até U+017F (ASCII,
+     * Latin-1 e Latin Extended-A), já sem acento e em minúsculas.
+     */
+    private static final String[] TABELA = new String[LIMITE_TABELA];
+
+    static {
+        for (char c = 0; c < LIMITE_TABELA; c++) {
+            TABELA[c] = dobrar(String.valueOf(c));
+        }
+    }
+
+    private Normalizador() {
+        // Classe utilitária
+    }
+
+    /**
+     * Normaliza um texto para indexação ou consulta.
+     * 
+     * @param texto Texto original
+     * @return Texto sem acentos, em minúsculas e com espaços simples
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(texto.length());
+        boolean espacoPendente = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= LIMITE_TABELA) {
+                return normalizarCompleto(texto);
+            }
+            if (ehEspaco(c)) {
+                espacoPendente = sb.length() > 0;
+                continue;
+            }
+            if (espacoPendente) {
+                sb.append(' ');
+                espacoPendente = false;
+            }
+            sb.append(TABELA[c]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Normaliza um texto e o codifica em UTF-8.
+     * 
+     * @param texto Texto original
+     * @return Bytes do texto normalizado
+     */
+    public static byte[] chave(String texto) {
+        return normalizar(texto).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Procura uma sequência de bytes dentro de outra.
+     * 
+     * <p>
+     * Como UTF-8 não tem sobreposição entre caracteres, encontrar os
+     * bytes da consulta equivale a encontrar o texto da consulta.
+     * </p>
+     * 
+     * @param texto     Chave onde procurar
+     * @param procurado Chave procurada
+     * @return Posição da primeira ocorrência, ou -1 se não houver
+     */
+    public static int indiceDe(byte[] texto, byte[] procurado) {
+        if (procurado.length == 0) {
+            return 0;
+        }
+        byte primeiro = procurado[0];
+        int ultimoInicio = texto.length - procurado.length;
+        busca: for (int i = 0; i <= ultimoInicio; i++) {
+            if (texto[i] != primeiro) {
+                continue;
+            }
+            for (int j = 1; j < procurado.length; j++) {
+                if (texto[i + j] != procurado[j]) {
+                    continue busca;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Separa um texto já normalizado em palavras.
+     * 
+     * <p>
+     * Qualquer caractere que não seja letra ou dígito separa palavras,
+     * então "chico science &amp; nacao zumbi" produz quatro termos.
+     * </p>
+     * 
+     * @param normalizado Texto retornado por {@link #normalizar(String)}
+     * @return Lista de termos, na ordem em que aparecem
+     */
+    public static List<String> tokenizar(String normalizado) {
+        List<String> termos = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean letra = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (letra && inicio < 0) {
+                inicio = i;
+            } else if (!letra && inicio >= 0) {
+                termos.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return termos;
+    }
+
+    /**
+     * Processo completo, para textos fora do caminho rápido.
+     */
+    private static String normalizarCompleto(String texto) {
+        String resultado = ESPACOS.matcher(dobrar(texto)).replaceAll(" ");
+        int inicio = resultado.startsWith(" ") ? 1 : 0;
+        int fim = resultado.endsWith(" ") ? resultado.length() - 1 : resultado.length();
+        return inicio < fim ? resultado.substring(inicio, fim) : "";
+    }
+
+    /** Decompõe, remove acentos e converte para minúsculas. */
+    private static String dobrar(String texto) {
+        String decomposto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(decomposto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /** Mesmos caracteres reconhecidos por {@code \s} em expressões regulares. */
+    private static boolean ehEspaco(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,139 @@
+package service.busca;
+
+import model.midia.Audio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Resultado de uma busca ranqueada, entregue em páginas.
+ * 
+ * <p>
+ * Guarda os IDs encontrados e suas pontuações em arrays primitivos, na
+ * ordem em que foram encontrados, sem ordená-los. Cada chamada a
+ * {@link #proximaPagina(int)} seleciona, com um {@link HeapTopK} do
+ * tamanho da página, os melhores ainda não entregues (os que vêm depois
+ * do último entregue na ordem de pontuação). Os áudios só são resolvidos
+ * para as páginas realmente pedidas.
+ * </p>
+ * 
+ * <p>
+ * Os resultados aproximados (com erros de digitação) vêm sempre depois
+ * dos ranqueados, na ordem em que foram informados.
+ * </p>
+ * 
+ * @see service.BibliotecaService#buscarRanqueado(String, boolean, java.util.Collection)
+ */
+public class ResultadoBusca {
+
+    /** IDs ranqueados, na ordem em que foram encontrados. */
+    private final int[] ids;
+
+    /** Pontuação de cada ID (mesma posição). */
+    private final double[] pontuacoes;
+
+    /** IDs aproximados, já na ordem de exibição. */
+    private final int[] aproximados;
+
+    /** Resolve um ID para o áudio do catálogo. */
+    private final IntFunction<Audio> catalogo;
+
+    /** Quantidade de ranqueados já entregues. */
+    private int entreguesRanqueados;
+
+    /** Quantidade de aproximados já entregues. */
+    private int entreguesAproximados;
+
+    /** Pontuação do último ranqueado entregue. */
+    private double ultimaPontuacao;
+
+    /** ID do último ranqueado entregue. */
+    private int ultimoId;
+
+    /**
+     * Cria o resultado de uma busca.
+     * 
+     * @param ids         IDs ranqueados, em qualquer ordem
+     * @param pontuacoes  Pontuação de cada ID (mesmo tamanho)
+     * @param aproximados IDs exibidos depois dos ranqueados, em ordem
+     * @param catalogo    Resolve um ID para o áudio do catálogo
+     * @throws IllegalArgumentException Se ids e pontuações tiverem
+     *                                  tamanhos diferentes
+     */
+    public ResultadoBusca(int[] ids, double[] pontuacoes, int[] aproximados, IntFunction<Audio> catalogo) {
+        if (ids.length != pontuacoes.length) {
+            throw new IllegalArgumentException("Cada ID precisa de uma pontuação.");
+        }
+        this.ids = ids;
+        this.pontuacoes = pontuacoes;
+        this.aproximados = aproximados;
+        this.catalogo = catalogo;
+    }
+
+    /**
+     * Retorna o total de resultados.
+     * 
+     * @return Ranqueados mais aproximados
+     */
+    public int getTotal() {
+        return ids.length + aproximados.length;
+    }
+
+    /**
+     * Retorna quantos resultados já foram entregues.
+     * 
+     * @return Quantidade entregue pelas páginas anteriores
+     */
+    public int getEntregues() {
+        return entreguesRanqueados + entreguesAproximados;
+    }
+
+    /**
+     * Verifica se ainda há resultados a entregar.
+     * 
+     * @return true se houver mais páginas
+     */
+    public boolean temMais() {
+        return getEntregues() < getTotal();
+    }
+
+    /**
+     * Retorna a próxima página de resultados, dos mais para os menos
+     * relevantes.
+     * 
+     * <p>
+     * Custa O(n log k) para n resultados ranqueados e páginas de k itens.
+     * </p>
+     * 
+     * @param quantidade Tamanho máximo da página
+     * @return Áudios da página (vazia se não houver mais resultados)
+     */
+    public List<Audio> proximaPagina(int quantidade) {
+        List<Audio> pagina = new ArrayList<>(Math.min(quantidade, getTotal() - getEntregues()));
+
+        int doRanking = Math.min(quantidade, ids.length - entreguesRanqueados);
+        if (doRanking > 0) {
+            HeapTopK heap = new HeapTopK(doRanking);
+            boolean inicio = entreguesRanqueados == 0;
+            for (int i = 0; i < ids.length; i++) {
+                // Só os que vêm depois do último entregue
+                if (inicio || HeapTopK.melhor(ultimaPontuacao, ultimoId, pontuacoes[i], ids[i])) {
+                    heap.oferecer(ids[i], pontuacoes[i]);
+                }
+            }
+            ultimaPontuacao = heap.getPiorPontuacao();
+            int[] melhores = heap.extrairOrdenados();
+            for (int id : melhores) {
+                pagina.add(catalogo.apply(id));
+            }
+            ultimoId = melhores[melhores.length - 1];
+            entreguesRanqueados += melhores.length;
+        }
+
+        while (pagina.size() < quantidade && entreguesAproximados < aproximados.length) {
+            pagina.add(catalogo.apply(aproximados[entreguesAproximados++]));
+        }
+        return pagina;
+    }
+}
@@ -0,0 +1,408 @@
+package service.busca;
+
+import model.midia.Audio;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Árvore de prefixos (trie) para autocompletar a busca.
+ * 
+ * <p>
+ * Guarda os títulos, nomes de artistas e títulos de álbuns do catálogo,
+ * normalizados ({@link Normalizador}), e responde "quais textos começam
+ * com este prefixo?" em O(tamanho do prefixo + k), independentemente do
+ * tamanho do catálogo.
+ * </p>
+ * 
+ * <h2>Top-k por Nó</h2>
+ * <p>
+ * Cada nó guarda, já ordenadas, as {@value #TOP_K} sugestões mais
+ * populares da sua subárvore. A popularidade de uma sugestão é a soma das
+ * curtidas (e, no empate, das reproduções) dos áudios ligados a ela: o
+ * próprio áudio para um título, todas as faixas para um artista ou
+ * álbum. Quando um áudio muda, apenas os nós do caminho de cada
+ * sugestão ligada a ele são atualizados.
+ * </p>
+ * 
+ * <h2>Estrutura</h2>
+ * <p>
+ * Os nós ficam em arrays paralelos (primeiro filho, próximo irmão, pai e
+ * o byte do rótulo), sem um objeto por nó. As arestas são os bytes UTF-8
+ * do texto normalizado.
+ * </p>
+ * 
+ * @see service.BibliotecaService#sugerir(String, int)
+ */
+public class TrieSugestoes {
+
+    /** Quantidade de sugestões guardadas em cada nó. */
+    public static final int TOP_K = 10;
+
+    /** Indica ausência de nó ou de sugestão. */
+    private static final int NENHUM = -1;
+
+    // ========= NÓS =========
+
+    /** Primeiro filho de cada nó. */
+    private int[] primeiroFilho = new int[256];
+
+    /** Próximo irmão de cada nó. */
+    private int[] proximoIrmao = new int[256];
+
+    /** Pai de cada nó. */
+    private int[] pai = new int[256];
+
+    /** Byte da aresta que chega ao nó. */
+    private byte[] rotulo = new byte[256];
+
+    /** Sugestão que termina exatamente no nó (ou {@link #NENHUM}). */
+    private int[] terminal = new int[256];
+
+    /** Melhores sugestões da subárvore de cada nó, em ordem. */
+    private int[][] melhores = new int[256][];
+
+    /** Quantidade de nós em uso (o nó 0 é a raiz). */
+    private int totalNos;
+
+    // ========= SUGESTÕES =========
+
+    /** Texto exibido de cada sugestão (o primeiro original visto). */
+    private String[] textos = new String[64];
+
+    /** Nó onde cada sugestão termina. */
+    private int[] nosTerminais = new int[64];
+
+    /** Soma das curtidas dos áudios de cada sugestão. */
+    private long[] curtidas = new long[64];
+
+    /** Soma das reproduções dos áudios de cada sugestão. */
+    private long[] reproducoes = new long[64];
+
+    /** Quantidade de sugestões. */
+    private int totalSugestoes;
+
+    /** Texto normalizado → sugestão. */
+    private final Map<String, Integer> sugestaoPorTexto = new HashMap<>();
+
+    /** Sugestões ligadas a cada áudio (posição = ID do áudio). */
+    private int[][] sugestoesDoAudio = new int[64][];
+
+    /** Curtidas de cada áudio já somadas às suas sugestões. */
+    private long[] curtidasDoAudio = new long[64];
+
+    /** Reproduções de cada áudio já somadas às suas sugestões. */
+    private long[] reproducoesDoAudio = new long[64];
+
+    /**
+     * Cria uma trie vazia.
+     */
+    public TrieSugestoes() {
+        limpar();
+    }
+
+    /**
+     * Adiciona ao autocompletar os textos de um áudio (título, artista,
+     * álbum). Textos já existentes apenas passam a somar a popularidade
+     * do áudio.
+     * 
+     * @param audio           Áudio com ID já atribuído
+     * @param textosOriginais Textos a sugerir (valores null são ignorados)
+     */
+    public void indexar(Audio audio, String... textosOriginais) {
+        indexar(audio.getId(), audio.getTotalCurtidas(), audio.getTotalReproducoes(), textosOriginais);
+    }
+
+    /**
+     * Adiciona ao autocompletar os textos de um áudio informado pelo ID e
+     * pelos totais, sem precisar do objeto.
+     * 
+     * @param id                ID do áudio no catálogo
+     * @param curtidasAtuais    Curtidas do áudio neste momento
+     * @param reproducoesAtuais Reproduções do áudio neste momento
+     * @param textosOriginais   Textos a sugerir (valores null são ignorados)
+     */
+    public synchronized void indexar(int id, long curtidasAtuais, long reproducoesAtuais,
+            String... textosOriginais) {
+        if (id >= sugestoesDoAudio.length) {
+            int nova = Math.max(id + 1, sugestoesDoAudio.length * 2);
+            sugestoesDoAudio = Arrays.copyOf(sugestoesDoAudio, nova);
+            curtidasDoAudio = Arrays.copyOf(curtidasDoAudio, nova);
+            reproducoesDoAudio = Arrays.copyOf(reproducoesDoAudio, nova);
+        }
+        int[] ligadas = new int[textosOriginais.length];
+        int total = 0;
+        for (String original : textosOriginais) {
+            if (original == null) {
+                continue;
+            }
+            String normalizado = Normalizador.normalizar(original);
+            if (normalizado.isEmpty()) {
+                continue;
+            }
+            int sugestao = obterSugestao(normalizado, original);
+            boolean repetida = false;
+            for (int i = 0; i < total && !repetida; i++) {
+                repetida = ligadas[i] == sugestao;
+            }
+            if (repetida) {
+                continue;
+            }
+            ligadas[total++] = sugestao;
+            curtidas[sugestao] += curtidasAtuais;
+            reproducoes[sugestao] += reproducoesAtuais;
+            promover(sugestao);
+        }
+        sugestoesDoAudio[id] = Arrays.copyOf(ligadas, total);
+        curtidasDoAudio[id] = curtidasAtuais;
+        reproducoesDoAudio[id] = reproducoesAtuais;
+    }
+
+    /**
+     * Atualiza a popularidade das sugestões ligadas a um áudio.
+     * 
+     * <p>
+     * Soma às sugestões a diferença entre os totais atuais do áudio e os
+     * da última fotografia guardada, de modo que avisos simultâneos nunca
+     * contam a mesma mudança duas vezes.
+     * </p>
+     * 
+     * @param audio Áudio alterado
+     */
+    public synchronized void popularidadeAlterada(Audio audio) {
+        int id = audio.getId();
+        if (id < 0 || id >= sugestoesDoAudio.length || sugestoesDoAudio[id] == null) {
+            return;
+        }
+        long curtidasAtuais = audio.getTotalCurtidas();
+        long reproducoesAtuais = audio.getTotalReproducoes();
+        long deltaCurtidas = curtidasAtuais - curtidasDoAudio[id];
+        long deltaReproducoes = reproducoesAtuais - reproducoesDoAudio[id];
+        if (deltaCurtidas == 0 && deltaReproducoes == 0) {
+            return;
+        }
+        curtidasDoAudio[id] = curtidasAtuais;
+        reproducoesDoAudio[id] = reproducoesAtuais;
+        boolean piorou = deltaCurtidas < 0 || (deltaCurtidas == 0 && deltaReproducoes < 0);
+        for (int sugestao : sugestoesDoAudio[id]) {
+            curtidas[sugestao] += deltaCurtidas;
+            reproducoes[sugestao] += deltaReproducoes;
+            if (piorou) {
+                recalcularCaminho(sugestao);
+            } else {
+                promover(sugestao);
+            }
+        }
+    }
+
+    /**
+     * Retorna as sugestões mais populares que começam com o prefixo.
+     * 
+     * @param prefixo Texto digitado (será normalizado)
+     * @param limite  Máximo de sugestões (no máximo {@value #TOP_K})
+     * @return Textos sugeridos, do mais para o menos popular
+     */
+    public synchronized List<String> sugerir(String prefixo, int limite) {
+        List<String> resultado = new ArrayList<>();
+        int no = 0;
+        for (byte b : Normalizador.chave(prefixo)) {
+            no = filho(no, b);
+            if (no == NENHUM) {
+                return resultado;
+            }
+        }
+        int[] lista = melhores[no];
+        for (int i = 0; lista != null && i < lista.length && resultado.size() < limite; i++) {
+            resultado.add(textos[lista[i]]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Remove todas as sugestões.
+     */
+    public synchronized void limpar() {
+        Arrays.fill(melhores, null);
+        Arrays.fill(sugestoesDoAudio, null);
+        sugestaoPorTexto.clear();
+        totalSugestoes = 0;
+        totalNos = 0;
+        novoNo(NENHUM, (byte) 0);
+    }
+
+    // ========= CONSTRUÇÃO =========
+
+    /**
+     * Retorna a sugestão do texto normalizado, criando-a (e o seu caminho
+     * na trie) se ainda não existir.
+     */
+    private int obterSugestao(String normalizado, String original) {
+        Integer existente = sugestaoPorTexto.get(normalizado);
+        if (existente != null) {
+            return existente;
+        }
+        int no = 0;
+        for (byte b : normalizado.getBytes(StandardCharsets.UTF_8)) {
+            int proximo = filho(no, b);
+            no = proximo != NENHUM ? proximo : novoNo(no, b);
+        }
+        if (totalSugestoes == textos.length) {
+            int nova = totalSugestoes * 2;
+            textos = Arrays.copyOf(textos, nova);
+            nosTerminais = Arrays.copyOf(nosTerminais, nova);
+            curtidas = Arrays.copyOf(curtidas, nova);
+            reproducoes = Arrays.copyOf(reproducoes, nova);
+        }
+        int sugestao = totalSugestoes++;
+        textos[sugestao] = original;
+        nosTerminais[sugestao] = no;
+        curtidas[sugestao] = 0;
+        reproducoes[sugestao] = 0;
+        terminal[no] = sugestao;
+        sugestaoPorTexto.put(normalizado, sugestao);
+        return sugestao;
+    }
+
+    private int filho(int no, byte b) {
+        for (int f = primeiroFilho[no]; f != NENHUM; f = proximoIrmao[f]) {
+            if (rotulo[f] == b) {
+                return f;
+            }
+        }
+        return NENHUM;
+    }
+
+    private int novoNo(int noPai, byte b) {
+        if (totalNos == rotulo.length) {
+            int nova = totalNos * 2;
+            primeiroFilho = Arrays.copyOf(primeiroFilho, nova);
+            proximoIrmao = Arrays.copyOf(proximoIrmao, nova);
+            pai = Arrays.copyOf(pai, nova);
+            rotulo = Arrays.copyOf(rotulo, nova);
+            terminal = Arrays.copyOf(terminal, nova);
+            melhores = Arrays.copyOf(melhores, nova);
+        }
+        int no = totalNos++;
+        primeiroFilho[no] = NENHUM;
+        pai[no] = noPai;
+        rotulo[no] = b;
+        terminal[no] = NENHUM;
+        melhores[no] = null;
+        if (noPai != NENHUM) {
+            proximoIrmao[no] = primeiroFilho[noPai];
+            primeiroFilho[noPai] = no;
+        } else {
+            proximoIrmao[no] = NENHUM;
+        }
+        return no;
+    }
+
+    // ========= TOP-K =========
+
+    /**
+     * A sugestão ficou mais popular (ou é nova): basta reposicioná-la na
+     * lista de cada nó do caminho, pois as demais não mudaram.
+     */
+    private void promover(int sugestao) {
+        for (int no = nosTerminais[sugestao]; no != NENHUM; no = pai[no]) {
+            int[] lista = melhores[no];
+            if (lista == null) {
+                melhores[no] = new int[] { sugestao };
+                continue;
+            }
+            int pos = indiceNaLista(lista, sugestao);
+            if (pos < 0 && lista.length == TOP_K && !melhor(sugestao, lista[TOP_K - 1])) {
+                continue; // Não entra no top-k deste nó
+            }
+            melhores[no] = inserirOrdenado(lista, pos, sugestao);
+        }
+    }
+
+    /**
+     * A sugestão ficou menos popular: outra sugestão da subárvore pode
+     * precisar entrar no seu lugar. Recalcula cada nó do caminho, de
+     * baixo para cima, a partir das listas dos filhos.
+     */
+    private void recalcularCaminho(int sugestao) {
+        int[] buffer = new int[TOP_K];
+        for (int no = nosTerminais[sugestao]; no != NENHUM; no = pai[no]) {
+            int total = 0;
+            if (terminal[no] != NENHUM) {
+                total = inserirLimitado(buffer, total, terminal[no]);
+            }
+            for (int f = primeiroFilho[no]; f != NENHUM; f = proximoIrmao[f]) {
+                int[] lista = melhores[f];
+                for (int i = 0; lista != null && i < lista.length; i++) {
+                    if (total == TOP_K && !melhor(lista[i], buffer[TOP_K - 1])) {
+                        break; // A lista do filho está ordenada
+                    }
+                    total = inserirLimitado(buffer, total, lista[i]);
+                }
+            }
+            melhores[no] = total == 0 ? null : Arrays.copyOf(buffer, total);
+        }
+    }
+
+    /**
+     * Insere em um buffer ordenado de até {@value #TOP_K} posições.
+     * 
+     * @return Nova quantidade de itens no buffer
+     */
+    private int inserirLimitado(int[] buffer, int total, int sugestao) {
+        int pos = total;
+        while (pos > 0 && melhor(sugestao, buffer[pos - 1])) {
+            pos--;
+        }
+        if (pos >= TOP_K) {
+            return total;
+        }
+        int fim = Math.min(total, TOP_K - 1);
+        System.arraycopy(buffer, pos, buffer, pos + 1, fim - pos);
+        buffer[pos] = sugestao;
+        return fim + 1;
+    }
+
+    /**
+     * Retorna uma nova lista com a sugestão na posição correta, removendo
+     * a posição antiga (se {@code posAtual >= 0}) e limitando a
+     * {@value #TOP_K} itens.
+     */
+    private int[] inserirOrdenado(int[] lista, int posAtual, int sugestao) {
+        int[] buffer = new int[TOP_K];
+        int total = 0;
+        for (int i = 0; i < lista.length; i++) {
+            if (i != posAtual) {
+                buffer[total++] = lista[i];
+            }
+        }
+        total = inserirLimitado(buffer, total, sugestao);
+        return Arrays.copyOf(buffer, total);
+    }
+
+    private static int indiceNaLista(int[] lista, int sugestao) {
+        for (int i = 0; i < lista.length; i++) {
+            if (lista[i] == sugestao) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Indica se {@code a} é mais popular que {@code b}: mais curtidas,
+     * depois mais reproduções e, no empate, a sugestão criada primeiro.
+     */
+    private boolean melhor(int a, int b) {
+        if (curtidas[a] != curtidas[b]) {
+            return curtidas[a] > curtidas[b];
+        }
+        if (reproducoes[a] != reproducoes[b]) {
+            return reproducoes[a] > reproducoes[b];
+        }
+        return a < b;
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Pacote de busca do catálogo do AudioStreaming.
+ * 
+ * <p>
+ * Contém os índices usados pelo {@link service.BibliotecaService} para
+ * responder buscas sem percorrer o catálogo inteiro a cada consulta.
+ * </p>
+ * 
+ * <h2>Classes Disponíveis</h2>
+ * <ul>
+ * <li>{@link service.busca.Normalizador} - Remove acentos, maiúsculas e
+ * espaços repetidos</li>
+ * <li>{@link service.busca.ListaPostings} - Lista ordenada de IDs de
+ * áudios</li>
+ * <li>{@link service.busca.IndiceBusca} - Índice invertido de termos e
+ * n-gramas</li>
+ * <li>{@link service.busca.Consulta} - Consulta interpretada, com
+ * texto livre e filtros por campo</li>
+ * <li>{@link service.busca.IndiceCampos} - Índices por artista, gênero,
+ * ano e tipo</li>
+ * <li>{@link service.busca.BitmapIds} - Conjunto compacto de IDs (array,
+ * bitmap ou runs) para combinar filtros</li>
+ * <li>{@link service.busca.HeapTopK} - Heap de tamanho fixo com os k
+ * resultados mais relevantes</li>
+ * <li>{@link service.busca.ResultadoBusca} - Resultado ranqueado, lido
+ * página a página</li>
+ * <li>{@link service.busca.ArvoreBK} - Dicionário de termos para a
+ * busca tolerante a erros de digitação</li>
+ * <li>{@link service.busca.TrieSugestoes} - Árvore de prefixos para
+ * autocompletar</li>
+ * <li>{@link service.busca.CacheBusca} - Cache limitado das buscas mais
+ * frequentes, com admissão por frequência</li>
+ * </ul>
+ * 
+ * <h2>IDs de Áudio</h2>
+ * <p>
+ * Os índices não guardam objetos {@link model.midia.Audio}, e sim seus
+ * IDs no catálogo ({@link model.midia.Audio#getId()}), em arrays de
+ * inteiros ordenados. Isso torna as interseções baratas e mantém os
+ * resultados na ordem do catálogo.
+ * </p>
+ * 
+ * @see service.BibliotecaService#buscar(String)
+ */
+package service.busca;
@@ -0,0 +1,458 @@
+package service.fila;
+
+import model.midia.Audio;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Fila de reprodução indexada: uma treap implícita (árvore balanceada
+ * aleatória ordenada pela posição), em que cada nó guarda o tamanho da
+ * sua subárvore.
+ *
+ * <p>
+ * Com os tamanhos, encontrar o item de uma posição, inserir, remover e
+ * mover custam O(log n) esperado, em vez de deslocar todos os itens
+ * seguintes como no {@link java.util.ArrayList}. Cada item é um
+ * {@link Item} que continua válido enquanto estiver na fila, mesmo
+ * depois de inserções, remoções, movimentos e ordenações; pelo ponteiro
+ * para o pai, a posição atual de um item também é calculada em O(log n).
+ * </p>
+ *
+ * <p>
+ * {@link #visao()} é uma lista somente leitura sobre a própria árvore:
+ * não copia nada, reflete as alterações seguintes e é percorrida em O(n).
+ * </p>
+ *
+ * <p>
+ * Não é segura para várias threads; o {@link service.PlayerService} a
+ * protege com a sua própria trava.
+ * </p>
+ *
+ * @see service.PlayerService
+ */
+public final class FilaIndexada {
+
+    /** Raiz da árvore (null = fila vazia). */
+    private Item raiz;
+
+    /** Estado do gerador das prioridades (xorshift). */
+    private int semente = 0x2545F491;
+
+    /** Visão somente leitura, criada uma vez. */
+    private final List<Audio> visao = new Visao();
+
+    /**
+     * Item da fila: guarda o áudio e serve de referência estável para ele.
+     */
+    public static final class Item {
+        private final Audio audio;
+        private final int prioridade;
+        private int tamanho = 1;
+        private Item esquerda;
+        private Item direita;
+        private Item pai;
+
+        private Item(Audio audio, int prioridade) {
+            this.audio = audio;
+            this.prioridade = prioridade;
+        }
+
+        /**
+         * Retorna o áudio do item.
+         *
+         * @return Áudio guardado
+         */
+        public Audio getAudio() {
+            return audio;
+        }
+    }
+
+    /**
+     * Retorna a quantidade de itens.
+     *
+     * @return Tamanho da fila
+     */
+    public int tamanho() {
+        return tamanho(raiz);
+    }
+
+    /**
+     * Verifica se a fila está vazia.
+     *
+     * @return true se não houver itens
+     */
+    public boolean isVazia() {
+        return raiz == null;
+    }
+
+    /**
+     * Retorna o item de uma posição.
+     *
+     * @param posicao Posição (base 0)
+     * @return Item na posição
+     * @throws IndexOutOfBoundsException Se a posição for inválida
+     */
+    public Item itemEm(int posicao) {
+        validar(posicao, tamanho());
+        Item no = raiz;
+        while (true) {
+            int esquerda = tamanho(no.esquerda);
+            if (posicao < esquerda) {
+                no = no.esquerda;
+            } else if (posicao == esquerda) {
+                return no;
+            } else {
+                posicao -= esquerda + 1;
+                no = no.direita;
+            }
+        }
+    }
+
+    /**
+     * Retorna o áudio de uma posição.
+     *
+     * @param posicao Posição (base 0)
+     * @return Áudio na posição
+     * @throws IndexOutOfBoundsException Se a posição for inválida
+     */
+    public Audio get(int posicao) {
+        return itemEm(posicao).audio;
+    }
+
+    /**
+     * Retorna a posição atual de um item, subindo pelos pais.
+     *
+     * @param item Item da fila
+     * @return Posição do item (base 0)
+     */
+    public int posicaoDe(Item item) {
+        int posicao = tamanho(item.esquerda);
+        for (Item no = item; no.pai != null; no = no.pai) {
+            if (no == no.pai.direita) {
+                posicao += tamanho(no.pai.esquerda) + 1;
+            }
+        }
+        return posicao;
+    }
+
+    /**
+     * Insere um áudio em uma posição, deslocando os seguintes.
+     *
+     * @param posicao Posição do novo item (0 a tamanho)
+     * @param audio   Áudio a inserir
+     * @return Item criado
+     * @throws IndexOutOfBoundsException Se a posição for inválida
+     */
+    public Item inserir(int posicao, Audio audio) {
+        validar(posicao, tamanho() + 1);
+        Item novo = new Item(audio, proximaPrioridade());
+        Item[] partes = dividir(raiz, posicao);
+        raiz = unir(unir(partes[0], novo), partes[1]);
+        raiz.pai = null;
+        return novo;
+    }
+
+    /**
+     * Adiciona vários áudios ao final da fila.
+     *
+     * <p>
+     * Os novos itens formam uma árvore montada em O(k) (com uma pilha,
+     * como uma árvore cartesiana), que é unida à fila em O(log n).
+     * </p>
+     *
+     * @param audios Áudios a adicionar, em ordem
+     */
+    public void adicionarTodos(List<Audio> audios) {
+        Item[] itens = new Item[audios.size()];
+        int i = 0;
+        for (Audio audio : audios) {
+            itens[i++] = new Item(audio, proximaPrioridade());
+        }
+        raiz = unir(raiz, montar(itens));
+        if (raiz != null) {
+            raiz.pai = null;
+        }
+    }
+
+    /**
+     * Remove o item de uma posição.
+     *
+     * @param posicao Posição (base 0)
+     * @return Item removido (não pertence mais à fila)
+     * @throws IndexOutOfBoundsException Se a posição for inválida
+     */
+    public Item remover(int posicao) {
+        validar(posicao, tamanho());
+        Item[] antes = dividir(raiz, posicao);
+        Item[] depois = dividir(antes[1], 1);
+        raiz = unir(antes[0], depois[1]);
+        if (raiz != null) {
+            raiz.pai = null;
+        }
+        Item removido = depois[0];
+        removido.pai = null;
+        return removido;
+    }
+
+    /**
+     * Move o item de uma posição para outra.
+     *
+     * @param de   Posição atual do item
+     * @param para Posição que o item deve ocupar depois do movimento
+     * @throws IndexOutOfBoundsException Se alguma posição for inválida
+     */
+    public void mover(int de, int para) {
+        int tamanho = tamanho();
+        validar(para, tamanho);
+        Item item = remover(de);
+        Item[] partes = dividir(raiz, para);
+        raiz = unir(unir(partes[0], item), partes[1]);
+        raiz.pai = null;
+    }
+
+    /**
+     * Reordena a fila de forma estável, mantendo os mesmos itens.
+     *
+     * <p>
+     * Os itens são reaproveitados, então as referências continuam
+     * válidas e já apontam para as novas posições.
+     * </p>
+     *
+     * @param comparador Ordem desejada dos áudios
+     */
+    public void ordenar(Comparator<Audio> comparador) {
+        Item[] itens = emOrdem();
+        Arrays.sort(itens, (a, b) -> comparador.compare(a.audio, b.audio));
+        raiz = montar(itens);
+    }
+
+    /**
+     * Reordena a fila segundo uma permutação das posições, mantendo os
+     * mesmos itens.
+     *
+     * @param ordem ordem[i] = posição atual do item que deve ficar em i
+     */
+    public void reordenar(int[] ordem) {
+        Item[] itens = emOrdem();
+        Item[] novos = new Item[itens.length];
+        for (int i = 0; i < ordem.length; i++) {
+            novos[i] = itens[ordem[i]];
+        }
+        raiz = montar(novos);
+    }
+
+    /**
+     * Remove todos os itens.
+     */
+    public void limpar() {
+        raiz = null;
+    }
+
+    /**
+     * Retorna uma lista somente leitura sobre a fila, sem cópia.
+     *
+     * @return Visão da fila, que reflete as alterações seguintes
+     */
+    public List<Audio> visao() {
+        return visao;
+    }
+
+    // ========= TREAP =========
+
+    private static int tamanho(Item no) {
+        return no == null ? 0 : no.tamanho;
+    }
+
+    /** Recalcula o tamanho e acerta o pai dos filhos. */
+    private static void atualizar(Item no) {
+        no.tamanho = 1 + tamanho(no.esquerda) + tamanho(no.direita);
+        if (no.esquerda != null) {
+            no.esquerda.pai = no;
+        }
+        if (no.direita != null) {
+            no.direita.pai = no;
+        }
+    }
+
+    /**
+     * Divide a árvore em [0, posicao) e [posicao, fim).
+     */
+    private static Item[] dividir(Item no, int posicao) {
+        if (no == null) {
+            return new Item[2];
+        }
+        Item[] partes;
+        if (posicao <= tamanho(no.esquerda)) {
+            partes = dividir(no.esquerda, posicao);
+            no.esquerda = partes[1];
+            partes[1] = no;
+        } else {
+            partes = dividir(no.direita, posicao - tamanho(no.esquerda) - 1);
+            no.direita = partes[0];
+            partes[0] = no;
+        }
+        atualizar(no);
+        no.pai = null;
+        return partes;
+    }
+
+    /**
+     * Une duas árvores: todos os itens de {@code a} vêm antes dos de
+     * {@code b}.
+     */
+    private static Item unir(Item a, Item b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.prioridade > b.prioridade) {
+            a.direita = unir(a.direita, b);
+            atualizar(a);
+            return a;
+        }
+        b.esquerda = unir(a, b.esquerda);
+        atualizar(b);
+        return b;
+    }
+
+    /**
+     * Monta uma treap com os itens na ordem do vetor, em O(n): a pilha
+     * guarda o caminho mais à direita, como na árvore cartesiana.
+     */
+    private static Item montar(Item[] itens) {
+        ArrayDeque<Item> direita = new ArrayDeque<>();
+        for (Item item : itens) {
+            item.esquerda = null;
+            item.direita = null;
+            item.pai = null;
+            Item ultimo = null;
+            while (!direita.isEmpty() && direita.peek().prioridade < item.prioridade) {
+                ultimo = direita.pop();
+            }
+            item.esquerda = ultimo;
+            if (!direita.isEmpty()) {
+                direita.peek().direita = item;
+            }
+            direita.push(item);
+        }
+        // Tamanhos de baixo para cima: do fim do vetor para o início não serve,
+        // então percorre em pós-ordem a partir da raiz
+        Item raiz = direita.peekLast();
+        if (raiz != null) {
+            atualizarSubarvore(raiz);
+            raiz.pai = null;
+        }
+        return raiz;
+    }
+
+    /** Recalcula tamanhos e pais de uma subárvore, sem recursão. */
+    private static void atualizarSubarvore(Item raiz) {
+        ArrayDeque<Item> pilha = new ArrayDeque<>();
+        ArrayDeque<Item> posOrdem = new ArrayDeque<>();
+        pilha.push(raiz);
+        while (!pilha.isEmpty()) {
+            Item no = pilha.pop();
+            posOrdem.push(no);
+            if (no.esquerda != null) {
+                pilha.push(no.esquerda);
+            }
+            if (no.direita != null) {
+                pilha.push(no.direita);
+            }
+        }
+        while (!posOrdem.isEmpty()) {
+            atualizar(posOrdem.pop());
+        }
+    }
+
+    /** Itens em ordem, sem recursão. */
+    private Item[] emOrdem() {
+        Item[] itens = new Item[tamanho()];
+        int i = 0;
+        for (Item no = primeiro(raiz); no != null; no = sucessor(no)) {
+            itens[i++] = no;
+        }
+        return itens;
+    }
+
+    private static Item primeiro(Item no) {
+        if (no == null) {
+            return null;
+        }
+        while (no.esquerda != null) {
+            no = no.esquerda;
+        }
+        return no;
+    }
+
+    /** Próximo item em ordem, pelos ponteiros de pai. */
+    private static Item sucessor(Item no) {
+        if (no.direita != null) {
+            return primeiro(no.direita);
+        }
+        while (no.pai != null && no == no.pai.direita) {
+            no = no.pai;
+        }
+        return no.pai;
+    }
+
+    private int proximaPrioridade() {
+        // Xorshift32: prioridades pseudoaleatórias mantêm a árvore balanceada
+        semente ^= semente << 13;
+        semente ^= semente >>> 17;
+        semente ^= semente << 5;
+        return semente;
+    }
+
+    private static void validar(int posicao, int limite) {
+        if (posicao < 0 || posicao >= limite) {
+            throw new IndexOutOfBoundsException("Posição " + posicao + " fora de 0.." + (limite - 1));
+        }
+    }
+
+    /**
+     * Lista somente leitura sobre a árvore.
+     */
+    private final class Visao extends AbstractList<Audio> {
+
+        @Override
+        public Audio get(int posicao) {
+            return FilaIndexada.this.get(posicao);
+        }
+
+        @Override
+        public int size() {
+            return tamanho();
+        }
+
+        @Override
+        public Iterator<Audio> iterator() {
+            return new Iterator<>() {
+                private Item proximo = primeiro(raiz);
+
+                @Override
+                public boolean hasNext() {
+                    return proximo != null;
+                }
+
+                @Override
+                public Audio next() {
+                    if (proximo == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Audio audio = proximo.audio;
+                    proximo = sucessor(proximo);
+                    return audio;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package service.fila;
+
+import interfaces.CriterioOrdenacao;
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
+
+/**
+ * Ordenações da fila de reprodução oferecidas pelo player.
+ *
+ * <p>
+ * Outras ordens podem ser criadas implementando
+ * {@link CriterioOrdenacao} diretamente, sem alterar o
+ * {@link service.PlayerService}.
+ * </p>
+ *
+ * @see OrdenadorFila
+ */
+public enum Ordenacao implements CriterioOrdenacao {
+
+    /** Mais curtidos primeiro. */
+    POPULARIDADE("Popularidade (curtidas)") {
+        @Override
+        public long chave(Audio audio) {
+            return -audio.getTotalCurtidas();
+        }
+    },
+
+    /** Mais reproduzidos primeiro. */
+    REPRODUCOES("Mais tocados") {
+        @Override
+        public long chave(Audio audio) {
+            return -audio.getTotalReproducoes();
+        }
+    },
+
+    /** Título em ordem alfabética. */
+    TITULO("Título") {
+        @Override
+        public long chave(Audio audio) {
+            return 0;
+        }
+
+        @Override
+        public String texto(Audio audio) {
+            return audio.getTitulo();
+        }
+    },
+
+    /** Artista (ou apresentador) em ordem alfabética. */
+    ARTISTA("Artista") {
+        @Override
+        public long chave(Audio audio) {
+            return 0;
+        }
+
+        @Override
+        public String texto(Audio audio) {
+            return nomeDoAutor(audio);
+        }
+    },
+
+    /**
+     * Álbum em ordem alfabética e, dentro dele, a ordem das faixas;
+     * podcasts ficam agrupados por programa, na ordem dos episódios.
+     */
+    ALBUM("Álbum e faixa") {
+        @Override
+        public long chave(Audio audio) {
+            if (audio instanceof Musica musica && musica.getAlbum() != null) {
+                return musica.getAlbum().getFaixas().indexOf(musica);
+            }
+            if (audio instanceof Podcast podcast) {
+                return podcast.getNumeroEpisodio();
+            }
+            return 0;
+        }
+
+        @Override
+        public String texto(Audio audio) {
+            if (audio instanceof Musica musica) {
+                return musica.getNomeAlbum();
+            }
+            return nomeDoAutor(audio);
+        }
+    },
+
+    /** Mais curtos primeiro. */
+    DURACAO("Duração") {
+        @Override
+        public long chave(Audio audio) {
+            return audio.getDuracaoSegundos();
+        }
+    };
+
+    /** Nome exibido no menu. */
+    private final String descricao;
+
+    Ordenacao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Retorna o nome da ordenação para exibição.
+     *
+     * @return Descrição da ordenação
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+
+    private static String nomeDoAutor(Audio audio) {
+        if (audio instanceof Musica musica) {
+            return musica.getNomeArtista();
+        }
+        if (audio instanceof Podcast podcast) {
+            return podcast.getApresentador();
+        }
+        return null;
+    }
+}
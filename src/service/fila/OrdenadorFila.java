@@ -0,0 +1,201 @@
+package service.fila;
+
+import interfaces.CriterioOrdenacao;
+import model.midia.Audio;
+import service.busca.Normalizador;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Ordena a fila de reprodução por um {@link CriterioOrdenacao}, sem
+ * comparar objetos.
+ *
+ * <p>
+ * O critério é consultado uma única vez por item: as chaves vão para um
+ * vetor de {@code long} e os textos (já normalizados) para um vetor de
+ * String. A ordenação trabalha só com um vetor de índices:
+ * </p>
+ * <ol>
+ * <li>Radix sort estável dos índices pela chave, um byte por passada;
+ * passadas em que todos os itens têm o mesmo byte são puladas</li>
+ * <li>Se houver texto, outro radix sort pelos quatro primeiros
+ * caracteres, guardados em um {@code long}</li>
+ * <li>Só os grupos com o mesmo começo são ordenados comparando os textos
+ * inteiros (merge sort estável)</li>
+ * </ol>
+ *
+ * <p>
+ * O resultado é a permutação que a {@link FilaIndexada#reordenar(int[])}
+ * aplica em uma única passada, reaproveitando os itens da fila.
+ * </p>
+ *
+ * @see Ordenacao
+ */
+public final class OrdenadorFila {
+
+    /** Abaixo deste tamanho, ordenação por inserção. */
+    private static final int LIMITE_INSERCAO = 32;
+
+    /** Caracteres do texto que cabem na chave de prefixo. */
+    private static final int CARACTERES_PREFIXO = 4;
+
+    private OrdenadorFila() {
+        // Classe utilitária
+    }
+
+    /**
+     * Calcula a ordem dos áudios segundo um critério.
+     *
+     * @param audios   Áudios na ordem atual
+     * @param criterio Critério de ordenação
+     * @return ordem[i] = posição atual do áudio que deve ficar em i
+     */
+    public static int[] ordenar(Collection<Audio> audios, CriterioOrdenacao criterio) {
+        int tamanho = audios.size();
+        long[] chaves = new long[tamanho];
+        String[] textos = null;
+        int i = 0;
+        for (Audio audio : audios) {
+            // Inverter o bit de sinal faz a ordem sem sinal do radix seguir a com sinal
+            chaves[i] = criterio.chave(audio) ^ Long.MIN_VALUE;
+            String texto = criterio.texto(audio);
+            if (texto != null) {
+                if (textos == null) {
+                    textos = new String[tamanho];
+                }
+                textos[i] = Normalizador.normalizar(texto);
+            }
+            i++;
+        }
+
+        int[] ordem = new int[tamanho];
+        for (i = 0; i < tamanho; i++) {
+            ordem[i] = i;
+        }
+        int[] auxiliar = new int[tamanho];
+        ordenarPorChave(ordem, auxiliar, chaves);
+
+        if (textos != null) {
+            // Ordenação estável pelo texto: empates mantêm a ordem da chave
+            long[] prefixos = new long[tamanho];
+            for (i = 0; i < tamanho; i++) {
+                if (textos[i] == null) {
+                    textos[i] = "";
+                }
+                prefixos[i] = prefixo(textos[i]);
+            }
+            ordenarPorChave(ordem, auxiliar, prefixos);
+            desempatarPorTexto(ordem, auxiliar, prefixos, textos);
+        }
+        return ordem;
+    }
+
+    /**
+     * Radix sort LSD estável dos índices pela chave, sem sinal.
+     */
+    private static void ordenarPorChave(int[] ordem, int[] auxiliar, long[] chaves) {
+        int tamanho = ordem.length;
+        if (tamanho <= LIMITE_INSERCAO) {
+            for (int i = 1; i < tamanho; i++) {
+                int indice = ordem[i];
+                int j = i - 1;
+                while (j >= 0 && Long.compareUnsigned(chaves[ordem[j]], chaves[indice]) > 0) {
+                    ordem[j + 1] = ordem[j];
+                    j--;
+                }
+                ordem[j + 1] = indice;
+            }
+            return;
+        }
+        int[] origem = ordem;
+        int[] destino = auxiliar;
+        int[] contagem = new int[257];
+        for (int deslocamento = 0; deslocamento < Long.SIZE; deslocamento += 8) {
+            Arrays.fill(contagem, 0);
+            for (int i = 0; i < tamanho; i++) {
+                contagem[(int) ((chaves[origem[i]] >>> deslocamento) & 0xFF) + 1]++;
+            }
+            if (contagem[(int) ((chaves[origem[0]] >>> deslocamento) & 0xFF) + 1] == tamanho) {
+                continue; // Todos com o mesmo byte: a passada não mudaria nada
+            }
+            for (int b = 0; b < 256; b++) {
+                contagem[b + 1] += contagem[b];
+            }
+            for (int i = 0; i < tamanho; i++) {
+                int indice = origem[i];
+                destino[contagem[(int) ((chaves[indice] >>> deslocamento) & 0xFF)]++] = indice;
+            }
+            int[] troca = origem;
+            origem = destino;
+            destino = troca;
+        }
+        if (origem != ordem) {
+            System.arraycopy(origem, 0, ordem, 0, tamanho);
+        }
+    }
+
+    /**
+     * Ordena pelo texto inteiro cada grupo de índices com o mesmo prefixo.
+     */
+    private static void desempatarPorTexto(int[] ordem, int[] auxiliar, long[] prefixos, String[] textos) {
+        int inicio = 0;
+        while (inicio < ordem.length) {
+            int fim = inicio + 1;
+            while (fim < ordem.length && prefixos[ordem[fim]] == prefixos[ordem[inicio]]) {
+                fim++;
+            }
+            if (fim - inicio > 1) {
+                ordenarPorTexto(ordem, auxiliar, inicio, fim, textos);
+            }
+            inicio = fim;
+        }
+    }
+
+    /**
+     * Merge sort estável de ordem[inicio, fim) pelo texto.
+     */
+    private static void ordenarPorTexto(int[] ordem, int[] auxiliar, int inicio, int fim, String[] textos) {
+        if (fim - inicio <= LIMITE_INSERCAO) {
+            for (int i = inicio + 1; i < fim; i++) {
+                int indice = ordem[i];
+                int j = i - 1;
+                while (j >= inicio && textos[ordem[j]].compareTo(textos[indice]) > 0) {
+                    ordem[j + 1] = ordem[j];
+                    j--;
+                }
+                ordem[j + 1] = indice;
+            }
+            return;
+        }
+        int meio = (inicio + fim) >>> 1;
+        ordenarPorTexto(ordem, auxiliar, inicio, meio, textos);
+        ordenarPorTexto(ordem, auxiliar, meio, fim, textos);
+        if (textos[ordem[meio - 1]].compareTo(textos[ordem[meio]]) <= 0) {
+            return; // Metades já em ordem
+        }
+        System.arraycopy(ordem, inicio, auxiliar, inicio, fim - inicio);
+        int esquerda = inicio;
+        int direita = meio;
+        for (int i = inicio; i < fim; i++) {
+            if (direita >= fim || (esquerda < meio
+                    && textos[auxiliar[esquerda]].compareTo(textos[auxiliar[direita]]) <= 0)) {
+                ordem[i] = auxiliar[esquerda++];
+            } else {
+                ordem[i] = auxiliar[direita++];
+            }
+        }
+    }
+
+    /**
+     * Primeiros caracteres do texto em um {@code long}: a ordem sem sinal
+     * dos prefixos é a mesma de {@link String#compareTo} sobre eles.
+     */
+    private static long prefixo(String texto) {
+        long prefixo = 0;
+        for (int i = 0; i < CARACTERES_PREFIXO; i++) {
+            prefixo = (prefixo << Character.SIZE) | (i < texto.length() ? texto.charAt(i) : 0);
+        }
+        return prefixo;
+    }
+}
@@ -0,0 +1,165 @@
+package service.fila;
+
+/**
+ * Permutação pseudoaleatória dos índices {@code 0..tamanho-1}, calculada
+ * sob demanda, sem guardar a ordem embaralhada.
+ *
+ * <p>
+ * Cada índice é cifrado por uma rede de Feistel de {@value #RODADAS}
+ * rodadas sobre o menor domínio de 2<sup>2h</sup> valores que contém o
+ * tamanho. Como a cifra é uma bijeção desse domínio, repetir a cifra
+ * enquanto o resultado cair fora do intervalo (cycle walking) dá uma
+ * bijeção de {@code 0..tamanho-1}. O domínio é menor que 4 × tamanho, então
+ * em média bastam poucas repetições.
+ * </p>
+ *
+ * <p>
+ * A memória é constante, qualquer que seja o tamanho: apenas as chaves
+ * das rodadas. {@link #aplicar(int)} e {@link #inverter(int)} custam O(1)
+ * esperado, e trocar a semente ou o tamanho não aloca nada.
+ * </p>
+ *
+ * @see service.PlayerService#shuffle()
+ */
+public final class PermutacaoAleatoria {
+
+    /** Rodadas da rede de Feistel. */
+    private static final int RODADAS = 4;
+
+    /** Chaves das rodadas, derivadas da semente. */
+    private final int[] chaves = new int[RODADAS];
+
+    /** Quantidade de índices permutados. */
+    private int tamanho;
+
+    /** Bits de cada metade do domínio da cifra. */
+    private int bitsMetade;
+
+    /** Máscara de uma metade. */
+    private int mascara;
+
+    /**
+     * Cria a permutação de {@code 0..tamanho-1} definida pela semente.
+     *
+     * @param tamanho Quantidade de índices (pode ser 0)
+     * @param semente Semente da permutação
+     * @throws IllegalArgumentException Se o tamanho for negativo
+     */
+    public PermutacaoAleatoria(int tamanho, long semente) {
+        redimensionar(tamanho);
+        reembaralhar(semente);
+    }
+
+    /**
+     * Troca a semente, gerando outra permutação do mesmo tamanho.
+     *
+     * @param semente Nova semente
+     */
+    public void reembaralhar(long semente) {
+        long estado = semente;
+        for (int i = 0; i < RODADAS; i++) {
+            // SplitMix64
+            estado += 0x9E3779B97F4A7C15L;
+            long z = estado;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            chaves[i] = (int) (z ^ (z >>> 31));
+        }
+    }
+
+    /**
+     * Troca a quantidade de índices permutados, mantendo a semente.
+     *
+     * @param tamanho Nova quantidade de índices
+     * @throws IllegalArgumentException Se o tamanho for negativo
+     */
+    public void redimensionar(int tamanho) {
+        if (tamanho < 0) {
+            throw new IllegalArgumentException("Tamanho negativo: " + tamanho);
+        }
+        this.tamanho = tamanho;
+        int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(Math.max(1, tamanho - 1)));
+        this.bitsMetade = (bits + 1) / 2;
+        this.mascara = (1 << bitsMetade) - 1;
+    }
+
+    /**
+     * Retorna o índice que ocupa uma posição da ordem embaralhada.
+     *
+     * @param posicao Posição na ordem embaralhada (0 a tamanho-1)
+     * @return Índice original nessa posição
+     * @throws IndexOutOfBoundsException Se a posição for inválida
+     */
+    public int aplicar(int posicao) {
+        validar(posicao);
+        int x = posicao;
+        do {
+            x = cifrar(x);
+        } while (Integer.compareUnsigned(x, tamanho) >= 0); // Fora do intervalo: cifra de novo
+        return x;
+    }
+
+    /**
+     * Retorna a posição de um índice na ordem embaralhada.
+     *
+     * @param indice Índice original (0 a tamanho-1)
+     * @return Posição em que o índice aparece
+     * @throws IndexOutOfBoundsException Se o índice for inválido
+     */
+    public int inverter(int indice) {
+        validar(indice);
+        int x = indice;
+        do {
+            x = decifrar(x);
+        } while (Integer.compareUnsigned(x, tamanho) >= 0); // Fora do intervalo: decifra de novo
+        return x;
+    }
+
+    /**
+     * Retorna a quantidade de índices permutados.
+     *
+     * @return Tamanho da permutação
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    private void validar(int valor) {
+        if (valor < 0 || valor >= tamanho) {
+            throw new IndexOutOfBoundsException("Índice " + valor + " fora de 0.." + (tamanho - 1));
+        }
+    }
+
+    private int cifrar(int x) {
+        int esquerda = x >>> bitsMetade;
+        int direita = x & mascara;
+        for (int i = 0; i < RODADAS; i++) {
+            int nova = esquerda ^ rodada(direita, chaves[i]);
+            esquerda = direita;
+            direita = nova;
+        }
+        return (esquerda << bitsMetade) | direita;
+    }
+
+    private int decifrar(int x) {
+        int esquerda = x >>> bitsMetade;
+        int direita = x & mascara;
+        for (int i = RODADAS - 1; i >= 0; i--) {
+            int anterior = direita ^ rodada(esquerda, chaves[i]);
+            direita = esquerda;
+            esquerda = anterior;
+        }
+        return (esquerda << bitsMetade) | direita;
+    }
+
+    /** Função de rodada: mistura a metade com a chave (finalizador do MurmurHash3). */
+    private int rodada(int metade, int chave) {
+        int h = metade ^ chave;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & mascara;
+    }
+}
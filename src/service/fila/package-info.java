@@ -0,0 +1,23 @@
+/**
+ * Pacote de estruturas da fila de reprodução do AudioStreaming.
+ * 
+ * <p>
+ * Contém as estruturas usadas pelo {@link service.PlayerService} para
+ * percorrer e reorganizar a fila sem copiá-la.
+ * </p>
+ * 
+ * <h2>Classes Disponíveis</h2>
+ * <ul>
+ * <li>{@link service.fila.FilaIndexada} - Fila em árvore balanceada, com
+ * acesso, inserção, remoção e movimento por posição em O(log n)</li>
+ * <li>{@link service.fila.OrdenadorFila} - Ordenação por chaves
+ * extraídas uma vez, com radix sort de índices</li>
+ * <li>{@link service.fila.Ordenacao} - Ordenações oferecidas pelo player
+ * (popularidade, reproduções, título, artista, álbum, duração)</li>
+ * <li>{@link service.fila.PermutacaoAleatoria} - Ordem embaralhada
+ * calculada sob demanda, com memória constante</li>
+ * </ul>
+ * 
+ * @see service.PlayerService
+ */
+package service.fila;
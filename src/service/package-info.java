@@ -16,6 +16,16 @@
  * <li>{@link service.UsuarioService} - Gerencia autenticação e usuários</li>
  * </ul>
  * 
+ * <h2>Subpacotes</h2>
+ * <ul>
+ * <li>{@code service.busca} - Índices de busca do catálogo</li>
+ * <li>{@code service.fila} - Estruturas da fila de reprodução</li>
+ * <li>{@code service.persistencia} - Journal de alterações de usuários</li>
+ * <li>{@code service.ranking} - Ranking de popularidade incremental</li>
+ * <li>{@code service.reproducao} - Relógio de reprodução (fim das faixas)</li>
+ * <li>{@code service.sessao} - Sessões de reprodução simultâneas</li>
+ * </ul>
+ * 
  * <h2>Padrões de Projeto Utilizados</h2>
  * <ul>
  * <li><b>Singleton:</b> BibliotecaService e UsuarioService usam instância
@@ -26,7 +36,8 @@
  * <h2>Uso de Coleções</h2>
  * <ul>
  * <li>List&lt;Audio&gt; - Catálogo e fila de reprodução</li>
- * <li>Map&lt;String, List&lt;Audio&gt;&gt; - Índice de busca rápida</li>
+ * <li>int[] (posting lists) - Índice invertido de busca por termos e
+ * n-gramas</li>
  * <li>Map&lt;String, Usuario&gt; - Mapeamento email → usuário</li>
  * </ul>
  * 
@@ -0,0 +1,412 @@
+package service.persistencia;
+
+import model.usuario.Usuario;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Representa uma única alteração no estado de um usuário.
+ * 
+ * <p>
+ * Cada ação do usuário (curtir, criar playlist, alterar senha etc.)
+ * gera um objeto desta classe, que é gravado no {@link JournalUsuarios}
+ * em formato binário compacto. Ao reiniciar o sistema, as alterações
+ * são lidas novamente e reaplicadas sobre o último snapshot.
+ * </p>
+ * 
+ * <h2>Formato Binário</h2>
+ * <p>
+ * O registro começa com um byte indicando o {@link Tipo}, seguido do
+ * email do usuário e apenas dos campos usados por aquele tipo. Assim
+ * uma curtida ocupa poucas dezenas de bytes, independentemente do
+ * tamanho do restante do cadastro.
+ * </p>
+ * 
+ * @see JournalUsuarios
+ */
+public class AlteracaoUsuario {
+
+    /**
+     * Tipos de alteração suportados pelo journal.
+     * 
+     * <p>
+     * O código numérico de cada tipo é gravado em disco, portanto
+     * nunca deve ser alterado. Novos tipos devem receber novos códigos.
+     * </p>
+     */
+    public enum Tipo {
+        /** Novo usuário cadastrado. */
+        CADASTRO(1),
+        /** Usuário removido do sistema. */
+        REMOCAO(2),
+        /** Áudio curtido ou descurtido. */
+        CURTIDA(3),
+        /** Nova playlist criada. */
+        PLAYLIST_CRIADA(4),
+        /** Playlist excluída. */
+        PLAYLIST_REMOVIDA(5),
+        /** Áudio adicionado a uma playlist. */
+        ITEM_ADICIONADO(6),
+        /** Áudio removido de uma playlist. */
+        ITEM_REMOVIDO(7),
+        /** Senha alterada. */
+        SENHA_ALTERADA(8),
+        /** Posição do player salva. */
+        ESTADO_PLAYER(9);
+
+        /** Código gravado em disco. */
+        private final int codigo;
+
+        Tipo(int codigo) {
+            this.codigo = codigo;
+        }
+
+        /**
+         * Retorna o código numérico gravado em disco.
+         * 
+         * @return Código do tipo
+         */
+        public int getCodigo() {
+            return codigo;
+        }
+
+        /**
+         * Obtém o tipo a partir do código lido do disco.
+         * 
+         * @param codigo Código lido
+         * @return Tipo correspondente
+         * @throws IOException Se o código for desconhecido
+         */
+        static Tipo deCodigo(int codigo) throws IOException {
+            for (Tipo t : values()) {
+                if (t.codigo == codigo) {
+                    return t;
+                }
+            }
+            throw new IOException("Tipo de alteração desconhecido: " + codigo);
+        }
+    }
+
+    /** Tipo da alteração. */
+    private final Tipo tipo;
+
+    /** Email do usuário alterado. */
+    private final String email;
+
+    /** UUID do usuário (apenas em CADASTRO). */
+    private String idUsuario;
+
+    /** Nome do usuário (CADASTRO) ou da playlist (PLAYLIST_CRIADA). */
+    private String nome;
+
+    /** Hash da senha (CADASTRO e SENHA_ALTERADA). */
+    private String senhaHash;
+
+    /** ID no catálogo do áudio referenciado (CURTIDA e ITEM_ADICIONADO). */
+    private int idAudio;
+
+    /** Índice da playlist na lista do usuário. */
+    private int indicePlaylist;
+
+    /** Índice do item removido ou posição salva do player. */
+    private int indice;
+
+    /** Estado final da curtida (true = curtido). */
+    private boolean curtido;
+
+    private AlteracaoUsuario(Tipo tipo, String email) {
+        this.tipo = tipo;
+        this.email = email;
+    }
+
+    // ========= FÁBRICAS =========
+
+    /**
+     * Cria o registro de cadastro de um novo usuário.
+     * 
+     * @param usuario Usuário recém-cadastrado
+     * @return Alteração do tipo CADASTRO
+     */
+    public static AlteracaoUsuario cadastro(Usuario usuario) {
+        AlteracaoUsuario a = new AlteracaoUsuario(Tipo.CADASTRO, usuario.getEmail());
+        a.idUsuario = usuario.getId();
+        a.nome = usuario.getNome();
+        a.senhaHash = usuario.getSenhaHash();
+        return a;
+    }
+
+    /**
+     * Cria o registro de remoção de um usuário.
+     * 
+     * @param email Email do usuário removido
+     * @return Alteração do tipo REMOCAO
+     */
+    public static AlteracaoUsuario remocao(String email) {
+        return new AlteracaoUsuario(Tipo.REMOCAO, email);
+    }
+
+    /**
+     * Cria o registro de curtida ou descurtida.
+     * 
+     * <p>
+     * Grava o estado final (e não o "toggle"), para que reaplicar o
+     * registro sempre produza o mesmo resultado.
+     * </p>
+     * 
+     * @param email   Email do usuário
+     * @param idAudio ID do áudio no catálogo
+     * @param curtido true se o áudio ficou curtido
+     * @return Alteração do tipo CURTIDA
+     */
+    public static AlteracaoUsuario curtida(String email, int idAudio, boolean curtido) {
+        AlteracaoUsuario a = new AlteracaoUsuario(Tipo.CURTIDA, email);
+        a.idAudio = idAudio;
+        a.curtido = curtido;
+        return a;
+    }
+
+    /**
+     * Cria o registro de criação de playlist.
+     * 
+     * @param email        Email do usuário
+     * @param nomePlaylist Nome da nova playlist
+     * @return Alteração do tipo PLAYLIST_CRIADA
+     */
+    public static AlteracaoUsuario playlistCriada(String email, String nomePlaylist) {
+        AlteracaoUsuario a = new AlteracaoUsuario(Tipo.PLAYLIST_CRIADA, email);
+        a.nome = nomePlaylist;
+        return a;
+    }
+
+    /**
+     * Cria o registro de exclusão de playlist.
+     * 
+     * @param email          Email do usuário
+     * @param indicePlaylist Índice da playlist excluída
+     * @return Alteração do tipo PLAYLIST_REMOVIDA
+     */
+    public static AlteracaoUsuario playlistRemovida(String email, int indicePlaylist) {
+        AlteracaoUsuario a = new AlteracaoUsuario(Tipo.PLAYLIST_REMOVIDA, email);
+        a.indicePlaylist = indicePlaylist;
+        return a;
+    }
+
+    /**
+     * Cria o registro de item adicionado a uma playlist.
+     * 
+     * @param email          Email do usuário
+     * @param indicePlaylist Índice da playlist
+     * @param idAudio        ID do áudio adicionado
+     * @return Alteração do tipo ITEM_ADICIONADO
+     */
+    public static AlteracaoUsuario itemAdicionado(String email, int indicePlaylist, int idAudio) {
+        AlteracaoUsuario a = new AlteracaoUsuario(Tipo.ITEM_ADICIONADO, email);
+        a.indicePlaylist = indicePlaylist;
+        a.idAudio = idAudio;
+        return a;
+    }
+
+    /**
+     * Cria o registro de item removido de uma playlist.
+     * 
+     * @param email          Email do usuário
+     * @param indicePlaylist Índice da playlist
+     * @param indiceItem     Índice do item removido
+     * @return Alteração do tipo ITEM_REMOVIDO
+     */
+    public static AlteracaoUsuario itemRemovido(String email, int indicePlaylist, int indiceItem) {
+        AlteracaoUsuario a = new AlteracaoUsuario(Tipo.ITEM_REMOVIDO, email);
+        a.indicePlaylist = indicePlaylist;
+        a.indice = indiceItem;
+        return a;
+    }
+
+    /**
+     * Cria o registro de alteração de senha.
+     * 
+     * @param email     Email do usuário
+     * @param senhaHash Novo hash da senha
+     * @return Alteração do tipo SENHA_ALTERADA
+     */
+    public static AlteracaoUsuario senhaAlterada(String email, String senhaHash) {
+        AlteracaoUsuario a = new AlteracaoUsuario(Tipo.SENHA_ALTERADA, email);
+        a.senhaHash = senhaHash;
+        return a;
+    }
+
+    /**
+     * Cria o registro da posição salva do player.
+     * 
+     * @param email  Email do usuário
+     * @param indice Índice salvo
+     * @return Alteração do tipo ESTADO_PLAYER
+     */
+    public static AlteracaoUsuario estadoPlayer(String email, int indice) {
+        AlteracaoUsuario a = new AlteracaoUsuario(Tipo.ESTADO_PLAYER, email);
+        a.indice = indice;
+        return a;
+    }
+
+    // ========= CODIFICAÇÃO =========
+
+    /**
+     * Grava a alteração em formato binário.
+     * 
+     * @param out Stream de destino
+     * @throws IOException Se ocorrer erro de escrita
+     */
+    public void escrever(DataOutputStream out) throws IOException {
+        out.writeByte(tipo.getCodigo());
+        out.writeUTF(email);
+        switch (tipo) {
+            case CADASTRO -> {
+                out.writeUTF(idUsuario);
+                out.writeUTF(nome);
+                out.writeUTF(senhaHash);
+            }
+            case CURTIDA -> {
+                out.writeInt(idAudio);
+                out.writeBoolean(curtido);
+            }
+            case PLAYLIST_CRIADA -> out.writeUTF(nome);
+            case PLAYLIST_REMOVIDA -> out.writeInt(indicePlaylist);
+            case ITEM_ADICIONADO -> {
+                out.writeInt(indicePlaylist);
+                out.writeInt(idAudio);
+            }
+            case ITEM_REMOVIDO -> {
+                out.writeInt(indicePlaylist);
+                out.writeInt(indice);
+            }
+            case SENHA_ALTERADA -> out.writeUTF(senhaHash);
+            case ESTADO_PLAYER -> out.writeInt(indice);
+            case REMOCAO -> {
+                // Apenas o email é necessário
+            }
+        }
+    }
+
+    /**
+     * Lê uma alteração gravada por {@link #escrever(DataOutputStream)}.
+     * 
+     * @param in Stream de origem
+     * @return Alteração lida
+     * @throws IOException Se os dados estiverem incompletos ou inválidos
+     */
+    public static AlteracaoUsuario ler(DataInputStream in) throws IOException {
+        Tipo tipo = Tipo.deCodigo(in.readUnsignedByte());
+        AlteracaoUsuario a = new AlteracaoUsuario(tipo, in.readUTF());
+        switch (tipo) {
+            case CADASTRO -> {
+                a.idUsuario = in.readUTF();
+                a.nome = in.readUTF();
+                a.senhaHash = in.readUTF();
+            }
+            case CURTIDA -> {
+                a.idAudio = in.readInt();
+                a.curtido = in.readBoolean();
+            }
+            case PLAYLIST_CRIADA -> a.nome = in.readUTF();
+            case PLAYLIST_REMOVIDA -> a.indicePlaylist = in.readInt();
+            case ITEM_ADICIONADO -> {
+                a.indicePlaylist = in.readInt();
+                a.idAudio = in.readInt();
+            }
+            case ITEM_REMOVIDO -> {
+                a.indicePlaylist = in.readInt();
+                a.indice = in.readInt();
+            }
+            case SENHA_ALTERADA -> a.senhaHash = in.readUTF();
+            case ESTADO_PLAYER -> a.indice = in.readInt();
+            case REMOCAO -> {
+                // Apenas o email é necessário
+            }
+        }
+        return a;
+    }
+
+    // ========= GETTERS =========
+
+    /**
+     * Retorna o tipo da alteração.
+     * 
+     * @return Tipo da alteração
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Retorna o email do usuário alterado.
+     * 
+     * @return Email normalizado
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Retorna o UUID do usuário (CADASTRO).
+     * 
+     * @return UUID do usuário
+     */
+    public String getIdUsuario() {
+        return idUsuario;
+    }
+
+    /**
+     * Retorna o nome do usuário (CADASTRO) ou da playlist (PLAYLIST_CRIADA).
+     * 
+     * @return Nome gravado
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Retorna o hash da senha (CADASTRO e SENHA_ALTERADA).
+     * 
+     * @return Hash SHA-256 da senha
+     */
+    public String getSenhaHash() {
+        return senhaHash;
+    }
+
+    /**
+     * Retorna o ID no catálogo do áudio referenciado.
+     * 
+     * @return ID do áudio
+     */
+    public int getIdAudio() {
+        return idAudio;
+    }
+
+    /**
+     * Retorna o índice da playlist afetada.
+     * 
+     * @return Índice da playlist
+     */
+    public int getIndicePlaylist() {
+        return indicePlaylist;
+    }
+
+    /**
+     * Retorna o índice do item removido ou a posição salva do player.
+     * 
+     * @return Índice gravado
+     */
+    public int getIndice() {
+        return indice;
+    }
+
+    /**
+     * Indica o estado final da curtida.
+     * 
+     * @return true se o áudio ficou curtido
+     */
+    public boolean isCurtido() {
+        return curtido;
+    }
+}
@@ -0,0 +1,658 @@
+package service.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32C;
+
+/**
+ * Armazenamento dos usuários em partições, um registro por usuário
+ * (diretório "usuarios/").
+ *
+ * <p>
+ * Substitui o snapshot único "usuarios.db": gravar um usuário reescreve
+ * só o registro dele, e ler um usuário (no login) lê só o registro dele.
+ * Nada é lido ao abrir o armazenamento além do LSN em
+ * {@value #ARQUIVO_ESTADO}, então o tempo de início não depende do número
+ * de contas.
+ * </p>
+ *
+ * <h2>Partições</h2>
+ * <p>
+ * O email escolhe uma de N partições pelo hash. Cada partição tem:
+ * </p>
+ * <ul>
+ * <li>"particao-NNN.dat": registros anexados em sequência, cada um com
+ * tamanho e CRC32C. Um usuário regravado ganha um registro novo e o
+ * antigo fica morto; uma conta removida ganha uma lápide</li>
+ * <li>"particao-NNN.idx": índice email → posição, gravado por
+ * {@link ArquivoSnapshot}, cobrindo o arquivo até um ponto. Os registros
+ * posteriores a esse ponto são lidos em sequência ao abrir a
+ * partição</li>
+ * </ul>
+ * <p>
+ * Uma partição só é aberta (índice carregado) quando um email dela é
+ * consultado. Quando os registros mortos passam dos vivos, a partição é
+ * reescrita só com os vivos, em um arquivo novo trocado de uma vez.
+ * </p>
+ *
+ * <h2>Consistência</h2>
+ * <p>
+ * {@link #gravar(Map, long)} grava e força para o disco os registros de
+ * todas as partições e só então o novo LSN em "estado". Cada registro
+ * guarda o LSN do journal que ele já contém, para que uma queda entre as
+ * duas etapas não faça o journal ser reaplicado duas vezes ao mesmo
+ * usuário. O índice é só um atalho: se estiver corrompido ou for de
+ * outra versão do arquivo (identificador diferente), a partição é lida
+ * inteira.
+ * </p>
+ *
+ * @see JournalUsuarios
+ * @see service.UsuarioService
+ */
+public class ArmazemUsuarios implements Closeable {
+
+    /** Assinatura no início de cada arquivo de partição ("USRP"). */
+    private static final int ASSINATURA = 0x55535250;
+
+    /** Cabeçalho do arquivo de partição: assinatura e identificador. */
+    private static final int TAMANHO_CABECALHO = Integer.BYTES + Long.BYTES;
+
+    /** Prefixo de cada registro: tamanho do corpo e CRC32C. */
+    private static final int TAMANHO_PREFIXO = 2 * Integer.BYTES;
+
+    /** Tamanho máximo aceito para um registro (proteção contra lixo). */
+    private static final int TAMANHO_MAXIMO_REGISTRO = 16 * 1024 * 1024;
+
+    private static final byte TIPO_USUARIO = 1;
+    private static final byte TIPO_LAPIDE = 2;
+
+    /** Bytes anexados desde o último índice que disparam um novo índice. */
+    private static final long LIMITE_SEM_INDICE = 256 * 1024;
+
+    /** Bytes mortos mínimos para reescrever uma partição. */
+    private static final long LIMITE_MORTOS = 1024 * 1024;
+
+    /** Arquivo com o LSN do journal contido no armazenamento. */
+    private static final String ARQUIVO_ESTADO = "estado";
+
+    /** Diretório do armazenamento. */
+    private final Path diretorio;
+
+    /** Partições, abertas sob demanda. */
+    private final Particao[] particoes;
+
+    /**
+     * Cria o armazenamento sobre um diretório, sem ler nada.
+     *
+     * @param diretorio      Diretório (criado na primeira gravação)
+     * @param totalParticoes Número de partições; não pode mudar depois
+     *                       que o diretório tiver dados
+     */
+    public ArmazemUsuarios(Path diretorio, int totalParticoes) {
+        if (totalParticoes <= 0) {
+            throw new IllegalArgumentException("Número de partições deve ser positivo");
+        }
+        this.diretorio = diretorio;
+        this.particoes = new Particao[totalParticoes];
+        for (int i = 0; i < totalParticoes; i++) {
+            particoes[i] = new Particao(String.format("particao-%03d", i));
+        }
+    }
+
+    /**
+     * Usuário lido do armazenamento, ainda serializado.
+     */
+    public static final class Registro {
+        private final long lsn;
+        private final byte[] dados;
+
+        Registro(long lsn, byte[] dados) {
+            this.lsn = lsn;
+            this.dados = dados;
+        }
+
+        /**
+         * Retorna o último LSN do journal contido neste registro.
+         *
+         * @return LSN da gravação
+         */
+        public long getLsn() {
+            return lsn;
+        }
+
+        /**
+         * Retorna o usuário serializado.
+         *
+         * @return Bytes gravados
+         */
+        public byte[] getDados() {
+            return dados;
+        }
+    }
+
+    /**
+     * Verifica se o armazenamento já foi gravado alguma vez.
+     *
+     * @return true se existe o arquivo de estado (ou sua geração anterior)
+     */
+    public boolean existe() {
+        Path estado = diretorio.resolve(ARQUIVO_ESTADO);
+        return Files.exists(estado) || Files.exists(ArquivoSnapshot.anterior(estado));
+    }
+
+    /**
+     * Retorna o LSN do journal que já está contido no armazenamento.
+     *
+     * @return LSN da última gravação, ou 0 se nunca foi gravado
+     * @throws IOException Se o estado e sua geração anterior estiverem
+     *                     corrompidos
+     */
+    public long getLsn() throws IOException {
+        try {
+            return ArquivoSnapshot.ler(diretorio.resolve(ARQUIVO_ESTADO), (geracao, tamanho) -> {
+                if (tamanho != Long.BYTES) {
+                    throw new IOException("Estado do armazenamento inválido: " + geracao.getFileName());
+                }
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(geracao))) {
+                    return in.readLong();
+                }
+            });
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Lê o registro de um usuário.
+     *
+     * @param email Email normalizado
+     * @return Registro, ou null se não existir (ou tiver sido removido)
+     * @throws IOException Se a partição ou o registro estiverem ilegíveis
+     */
+    public Registro ler(String email) throws IOException {
+        Particao particao = particaoDe(email);
+        synchronized (particao) {
+            return particao.ler(email);
+        }
+    }
+
+    /**
+     * Verifica se há um registro para o email, sem lê-lo.
+     *
+     * @param email Email normalizado
+     * @return true se o usuário está gravado
+     * @throws IOException Se a partição não puder ser aberta
+     */
+    public boolean contem(String email) throws IOException {
+        Particao particao = particaoDe(email);
+        synchronized (particao) {
+            particao.carregar();
+            return particao.locais.containsKey(email);
+        }
+    }
+
+    /**
+     * Conta os usuários gravados.
+     *
+     * <p>
+     * Abre todas as partições: o custo é proporcional ao número de
+     * contas. Não é usado no caminho do login nem da gravação.
+     * </p>
+     *
+     * @return Número de registros vivos
+     * @throws IOException Se alguma partição não puder ser aberta
+     */
+    public int contar() throws IOException {
+        int total = 0;
+        for (Particao particao : particoes) {
+            synchronized (particao) {
+                particao.carregar();
+                total += particao.locais.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Grava os usuários alterados e, depois deles, o LSN do journal que
+     * passam a conter.
+     *
+     * @param alterados Email → usuário serializado, ou null para remover
+     * @param lsn       Último LSN do journal refletido nos usuários
+     * @return true se o estado anterior virou a geração anterior (ver
+     *         {@link ArquivoSnapshot#gravar})
+     * @throws IOException Se a gravação falhar; o LSN gravado continua o
+     *                     anterior
+     */
+    public boolean gravar(Map<String, byte[]> alterados, long lsn) throws IOException {
+        Files.createDirectories(diretorio);
+        List<List<Map.Entry<String, byte[]>>> porParticao = new ArrayList<>(particoes.length);
+        for (int i = 0; i < particoes.length; i++) {
+            porParticao.add(null);
+        }
+        for (Map.Entry<String, byte[]> entrada : alterados.entrySet()) {
+            int indice = indiceDe(entrada.getKey());
+            if (porParticao.get(indice) == null) {
+                porParticao.set(indice, new ArrayList<>());
+            }
+            porParticao.get(indice).add(entrada);
+        }
+        for (int i = 0; i < particoes.length; i++) {
+            if (porParticao.get(i) != null) {
+                synchronized (particoes[i]) {
+                    particoes[i].gravar(porParticao.get(i), lsn);
+                }
+            }
+        }
+        ByteBuffer estado = ByteBuffer.allocate(Long.BYTES).putLong(0, lsn);
+        return ArquivoSnapshot.gravar(diretorio.resolve(ARQUIVO_ESTADO), estado);
+    }
+
+    /**
+     * Fecha os arquivos abertos. As partições são reabertas se usadas de
+     * novo.
+     *
+     * @throws IOException Se algum arquivo não puder ser fechado
+     */
+    @Override
+    public void close() throws IOException {
+        for (Particao particao : particoes) {
+            synchronized (particao) {
+                particao.fechar();
+            }
+        }
+    }
+
+    private Particao particaoDe(String email) {
+        return particoes[indiceDe(email)];
+    }
+
+    private int indiceDe(String email) {
+        int hash = email.hashCode(); // Definido pela especificação de String: estável entre execuções
+        return Math.floorMod(hash ^ (hash >>> 16), particoes.length);
+    }
+
+    /** Posição e tamanho (com o prefixo) de um registro vivo. */
+    private static final class Local {
+        final long posicao;
+        final int tamanho;
+
+        Local(long posicao, int tamanho) {
+            this.posicao = posicao;
+            this.tamanho = tamanho;
+        }
+    }
+
+    /**
+     * Uma partição: arquivo de registros e índice. Todos os métodos são
+     * chamados com o monitor da partição.
+     */
+    private final class Particao {
+        private final String nome;
+
+        /** Email → registro vivo; null enquanto a partição não foi aberta. */
+        private Map<String, Local> locais;
+
+        private FileChannel canal;
+
+        /** Identificador do arquivo atual, repetido no índice. */
+        private long identificador;
+
+        /** Fim do último registro válido. */
+        private long fim;
+
+        /** Até onde o índice gravado cobre o arquivo. */
+        private long fimIndexado;
+
+        /** Soma dos tamanhos dos registros vivos. */
+        private long bytesVivos;
+
+        Particao(String nome) {
+            this.nome = nome;
+        }
+
+        private Path arquivoDados() {
+            return diretorio.resolve(nome + ".dat");
+        }
+
+        private Path arquivoIndice() {
+            return diretorio.resolve(nome + ".idx");
+        }
+
+        /** Abre a partição: índice gravado e registros posteriores a ele. */
+        void carregar() throws IOException {
+            if (locais != null) {
+                return;
+            }
+            Map<String, Local> lidos = new HashMap<>();
+            bytesVivos = 0;
+            fim = 0;
+            fimIndexado = 0;
+            Path dados = arquivoDados();
+            if (!Files.exists(dados)) {
+                locais = lidos; // Criado na primeira gravação
+                return;
+            }
+
+            canal = FileChannel.open(dados, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            if (canal.size() < TAMANHO_CABECALHO) {
+                iniciarArquivo(); // Queda antes de o cabeçalho chegar ao disco
+                locais = lidos;
+                return;
+            }
+            lerTudo(canal, cabecalho, 0);
+            if (cabecalho.getInt(0) != ASSINATURA) {
+                fechar();
+                throw new IOException("Arquivo de partição inválido: " + dados.getFileName());
+            }
+            identificador = cabecalho.getLong(Integer.BYTES);
+
+            long inicio = TAMANHO_CABECALHO;
+            long indexado = lerIndice(lidos);
+            if (indexado > 0) {
+                inicio = indexado;
+            } else {
+                lidos.clear();
+                bytesVivos = 0;
+            }
+            fimIndexado = inicio;
+            fim = varrer(lidos, inicio);
+            locais = lidos;
+        }
+
+        /**
+         * Lê o índice gravado, se for deste arquivo.
+         *
+         * @return Posição até onde o índice cobre, ou 0 se não puder ser
+         *         usado
+         */
+        private long lerIndice(Map<String, Local> destino) {
+            try {
+                return ArquivoSnapshot.ler(arquivoIndice(), (geracao, tamanho) -> {
+                    try (DataInputStream in = new DataInputStream(
+                            new BufferedInputStream(Files.newInputStream(geracao)))) {
+                        if (tamanho == ArquivoSnapshot.SEM_RODAPE || in.readLong() != identificador) {
+                            return 0L;
+                        }
+                        long cobertura = in.readLong();
+                        if (cobertura < TAMANHO_CABECALHO || cobertura > canal.size()) {
+                            return 0L;
+                        }
+                        int total = in.readInt();
+                        for (int i = 0; i < total; i++) {
+                            String email = in.readUTF();
+                            Local local = new Local(in.readLong(), in.readInt());
+                            destino.put(email, local);
+                            bytesVivos += local.tamanho;
+                        }
+                        return cobertura;
+                    }
+                });
+            } catch (IOException e) {
+                return 0; // Sem índice utilizável: lê a partição inteira
+            }
+        }
+
+        /**
+         * Lê os registros em sequência a partir de uma posição, até o fim
+         * do arquivo ou o primeiro registro inválido (rastro de uma
+         * gravação interrompida).
+         *
+         * @return Fim do último registro válido
+         */
+        private long varrer(Map<String, Local> destino, long inicio) throws IOException {
+            long tamanhoArquivo = canal.size();
+            long posicao = inicio;
+            canal.position(inicio);
+            // O stream não é fechado: fecharia o canal
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(canal), 64 * 1024));
+            CRC32C crc = new CRC32C();
+            while (posicao + TAMANHO_PREFIXO <= tamanhoArquivo) {
+                int tamanho = in.readInt();
+                int soma = in.readInt();
+                if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO_REGISTRO
+                        || posicao + TAMANHO_PREFIXO + tamanho > tamanhoArquivo) {
+                    break;
+                }
+                byte[] corpo = new byte[tamanho];
+                in.readFully(corpo);
+                crc.reset();
+                crc.update(corpo);
+                if ((int) crc.getValue() != soma) {
+                    break;
+                }
+                DataInputStream campos = new DataInputStream(new ByteArrayInputStream(corpo));
+                byte tipo = campos.readByte();
+                campos.readLong(); // LSN
+                String email = campos.readUTF();
+
+                int total = TAMANHO_PREFIXO + tamanho;
+                Local antigo = tipo == TIPO_USUARIO
+                        ? destino.put(email, new Local(posicao, total))
+                        : destino.remove(email);
+                if (antigo != null) {
+                    bytesVivos -= antigo.tamanho;
+                }
+                if (tipo == TIPO_USUARIO) {
+                    bytesVivos += total;
+                }
+                posicao += total;
+            }
+            return posicao;
+        }
+
+        Registro ler(String email) throws IOException {
+            carregar();
+            Local local = locais.get(email);
+            if (local == null) {
+                return null;
+            }
+            ByteBuffer registro = ByteBuffer.allocate(local.tamanho);
+            lerTudo(canal, registro, local.posicao);
+            int tamanho = registro.getInt();
+            int soma = registro.getInt();
+            CRC32C crc = new CRC32C();
+            crc.update(registro.duplicate());
+            if (tamanho != local.tamanho - TAMANHO_PREFIXO || (int) crc.getValue() != soma) {
+                throw new IOException("Registro de " + email + " corrompido em " + arquivoDados().getFileName());
+            }
+            DataInputStream campos = new DataInputStream(new ByteArrayInputStream(
+                    registro.array(), TAMANHO_PREFIXO, tamanho));
+            byte tipo = campos.readByte();
+            long lsn = campos.readLong();
+            if (tipo != TIPO_USUARIO || !campos.readUTF().equals(email)) {
+                throw new IOException("Índice de " + arquivoDados().getFileName() + " aponta para outro registro");
+            }
+            return new Registro(lsn, campos.readAllBytes());
+        }
+
+        /** Anexa os registros, força para o disco e atualiza o índice em memória. */
+        void gravar(List<Map.Entry<String, byte[]>> entradas, long lsn) throws IOException {
+            carregar();
+            ByteArrayOutputStream lote = new ByteArrayOutputStream();
+            List<String> emails = new ArrayList<>();
+            List<Local> novos = new ArrayList<>();
+            for (Map.Entry<String, byte[]> entrada : entradas) {
+                String email = entrada.getKey();
+                byte[] dados = entrada.getValue();
+                if (dados == null && !locais.containsKey(email)) {
+                    continue; // Nunca gravado: a lápide não é necessária
+                }
+                int inicio = lote.size();
+                escreverRegistro(lote, dados == null ? TIPO_LAPIDE : TIPO_USUARIO, lsn, email, dados);
+                emails.add(email);
+                novos.add(dados == null ? null : new Local(inicio, lote.size() - inicio));
+            }
+            if (emails.isEmpty()) {
+                return;
+            }
+
+            if (canal == null) {
+                canal = FileChannel.open(arquivoDados(), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                iniciarArquivo();
+            }
+            if (canal.size() > fim) {
+                canal.truncate(fim); // Descarta o rastro de uma gravação interrompida
+            }
+            escreverTudo(canal, ByteBuffer.wrap(lote.toByteArray()), fim);
+            canal.force(false);
+
+            for (int i = 0; i < emails.size(); i++) {
+                Local antigo = locais.remove(emails.get(i));
+                if (antigo != null) {
+                    bytesVivos -= antigo.tamanho;
+                }
+                Local novo = novos.get(i);
+                if (novo != null) {
+                    locais.put(emails.get(i), new Local(fim + novo.posicao, novo.tamanho));
+                    bytesVivos += novo.tamanho;
+                }
+            }
+            fim += lote.size();
+
+            long mortos = fim - TAMANHO_CABECALHO - bytesVivos;
+            if (mortos > Math.max(LIMITE_MORTOS, bytesVivos)) {
+                reescrever();
+            } else if (fim - fimIndexado > LIMITE_SEM_INDICE) {
+                gravarIndice();
+            }
+        }
+
+        /** Começa um arquivo vazio com um identificador novo. */
+        private void iniciarArquivo() throws IOException {
+            identificador = ThreadLocalRandom.current().nextLong();
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO)
+                    .putInt(ASSINATURA).putLong(identificador).flip();
+            canal.truncate(0);
+            escreverTudo(canal, cabecalho, 0);
+            canal.force(true);
+            fim = TAMANHO_CABECALHO;
+            fimIndexado = TAMANHO_CABECALHO;
+            bytesVivos = 0;
+        }
+
+        /**
+         * Reescreve a partição só com os registros vivos, em um arquivo
+         * novo trocado de uma vez, e grava o índice dele.
+         */
+        private void reescrever() throws IOException {
+            Path temporario = diretorio.resolve(nome + ".dat.tmp");
+            long novoIdentificador = ThreadLocalRandom.current().nextLong();
+            Map<String, Local> reescritos = new HashMap<>();
+            long posicao = TAMANHO_CABECALHO;
+            try (FileChannel destino = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                escreverTudo(destino, ByteBuffer.allocate(TAMANHO_CABECALHO)
+                        .putInt(ASSINATURA).putLong(novoIdentificador).flip(), 0);
+                for (Map.Entry<String, Local> entrada : locais.entrySet()) {
+                    Local local = entrada.getValue();
+                    ByteBuffer registro = ByteBuffer.allocate(local.tamanho);
+                    lerTudo(canal, registro, local.posicao);
+                    escreverTudo(destino, registro, posicao);
+                    reescritos.put(entrada.getKey(), new Local(posicao, local.tamanho));
+                    posicao += local.tamanho;
+                }
+                destino.force(true);
+            }
+            canal.close();
+            canal = null;
+            Files.move(temporario, arquivoDados(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            canal = FileChannel.open(arquivoDados(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            identificador = novoIdentificador;
+            locais = reescritos;
+            fim = posicao;
+            gravarIndice();
+        }
+
+        /** Grava o índice em memória, cobrindo o arquivo até o fim atual. */
+        private void gravarIndice() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(identificador);
+            out.writeLong(fim);
+            out.writeInt(locais.size());
+            for (Map.Entry<String, Local> entrada : locais.entrySet()) {
+                out.writeUTF(entrada.getKey());
+                out.writeLong(entrada.getValue().posicao);
+                out.writeInt(entrada.getValue().tamanho);
+            }
+            ArquivoSnapshot.gravar(arquivoIndice(), ByteBuffer.wrap(bytes.toByteArray()));
+            fimIndexado = fim;
+        }
+
+        void fechar() throws IOException {
+            if (canal != null) {
+                canal.close();
+                canal = null;
+            }
+            locais = null;
+        }
+    }
+
+    private static void escreverRegistro(ByteArrayOutputStream destino, byte tipo, long lsn, String email,
+            byte[] dados) {
+        try {
+            ByteArrayOutputStream corpo = new ByteArrayOutputStream(64 + (dados == null ? 0 : dados.length));
+            DataOutputStream out = new DataOutputStream(corpo);
+            out.writeByte(tipo);
+            out.writeLong(lsn);
+            out.writeUTF(email);
+            if (dados != null) {
+                out.write(dados);
+            }
+            if (corpo.size() > TAMANHO_MAXIMO_REGISTRO) {
+                throw new IllegalArgumentException("Registro de " + email + " grande demais: " + corpo.size() + " bytes");
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(corpo.toByteArray());
+            DataOutputStream prefixo = new DataOutputStream(destino);
+            prefixo.writeInt(corpo.size());
+            prefixo.writeInt((int) crc.getValue());
+            corpo.writeTo(destino);
+        } catch (IOException e) {
+            // ByteArrayOutputStream não lança IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer dados, long posicao) throws IOException {
+        while (dados.hasRemaining()) {
+            posicao += canal.write(dados, posicao);
+        }
+    }
+
+    private static void lerTudo(FileChannel canal, ByteBuffer destino, long posicao) throws IOException {
+        while (destino.hasRemaining()) {
+            int lidos = canal.read(destino, posicao);
+            if (lidos < 0) {
+                throw new EOFException("Fim inesperado do arquivo");
+            }
+            posicao += lidos;
+        }
+        destino.flip();
+    }
+}
@@ -0,0 +1,296 @@
+package service.persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Gravação e leitura segura de snapshots ("catalogo.db" e o estado e os
+ * índices de "usuarios/").
+ *
+ * <h2>Gravação</h2>
+ * <ol>
+ * <li>O conteúdo e um rodapé com somas de verificação são gravados em
+ * um arquivo temporário, forçado para o disco (fsync)</li>
+ * <li>O arquivo atual, se estiver íntegro, vira a geração anterior
+ * ("arquivo.anterior")</li>
+ * <li>O temporário é renomeado sobre o arquivo, de uma vez, e o
+ * diretório é forçado para o disco</li>
+ * </ol>
+ * <p>
+ * Uma queda em qualquer ponto deixa o arquivo antigo ou o novo inteiro,
+ * nunca um arquivo pela metade. Entre as duas renomeações o arquivo não
+ * existe, e a leitura usa a geração anterior.
+ * </p>
+ *
+ * <h2>Rodapé</h2>
+ * <p>
+ * O conteúdo fica no início do arquivo, sem alteração (o catálogo é
+ * mapeado direto dele). Depois vêm o CRC32C de cada bloco de
+ * {@value #TAMANHO_BLOCO} bytes, o tamanho do conteúdo, o tamanho do
+ * bloco, o CRC32C do próprio rodapé e a assinatura "SNAP".
+ * </p>
+ *
+ * <h2>Leitura</h2>
+ * <p>
+ * {@link #verificar(Path)} confere os blocos em sequência, lendo o
+ * arquivo uma vez sem interpretá-lo. {@link #ler(Path, Leitura)} tenta o
+ * arquivo e, se ele estiver corrompido ou não puder ser interpretado, a
+ * geração anterior; se nenhuma servir, lança a exceção em vez de
+ * devolver um estado vazio.
+ * </p>
+ *
+ * <p>
+ * Arquivos sem rodapé (gravados antes deste formato) são entregues sem
+ * verificação, com tamanho {@value #SEM_RODAPE}; cabe a quem os lê
+ * aceitá-los ou não.
+ * </p>
+ */
+public final class ArquivoSnapshot {
+
+    /** Bytes cobertos por cada soma de verificação. */
+    public static final int TAMANHO_BLOCO = 64 * 1024;
+
+    /** Tamanho informado para arquivos sem rodapé. */
+    public static final long SEM_RODAPE = -1;
+
+    /** Assinatura no fim do arquivo ("SNAP"). */
+    private static final int ASSINATURA = 0x534E4150;
+
+    /** Bytes fixos no fim do rodapé: tamanho, bloco, CRC e assinatura. */
+    private static final int TAMANHO_FIM = Long.BYTES + 3 * Integer.BYTES;
+
+    /** Maior bloco aceito na leitura. */
+    private static final int MAXIMO_BLOCO = 16 * 1024 * 1024;
+
+    private static final String SUFIXO_ANTERIOR = ".anterior";
+    private static final String SUFIXO_TEMPORARIO = ".tmp";
+
+    private ArquivoSnapshot() {
+        // Classe utilitária
+    }
+
+    /**
+     * Interpreta o conteúdo de uma geração do snapshot.
+     *
+     * @param <T> Tipo do estado lido
+     */
+    @FunctionalInterface
+    public interface Leitura<T> {
+
+        /**
+         * Lê o conteúdo já verificado.
+         *
+         * @param arquivo Geração sendo lida
+         * @param tamanho Bytes de conteúdo, ou {@link #SEM_RODAPE}
+         * @return Estado lido
+         * @throws IOException Se o conteúdo não puder ser interpretado
+         */
+        T ler(Path arquivo, long tamanho) throws IOException;
+    }
+
+    /**
+     * Retorna o caminho da geração anterior de um snapshot.
+     *
+     * @param arquivo Caminho do snapshot
+     * @return Caminho "arquivo.anterior"
+     */
+    public static Path anterior(Path arquivo) {
+        return arquivo.resolveSibling(arquivo.getFileName() + SUFIXO_ANTERIOR);
+    }
+
+    /**
+     * Grava um snapshot de forma atômica, guardando o atual como geração
+     * anterior.
+     *
+     * @param arquivo  Caminho do snapshot
+     * @param conteudo Conteúdo (da posição ao limite; o buffer não é
+     *                 alterado)
+     * @return true se o arquivo atual virou a geração anterior; false se
+     *         não havia arquivo ou ele estava corrompido (a geração
+     *         anterior é mantida)
+     * @throws IOException Se a gravação falhar; o snapshot atual e a
+     *                     geração anterior continuam intactos
+     */
+    public static boolean gravar(Path arquivo, ByteBuffer conteudo) throws IOException {
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + SUFIXO_TEMPORARIO);
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escreverTudo(canal, conteudo.duplicate());
+            escreverTudo(canal, rodape(conteudo.duplicate()));
+            canal.force(true);
+        }
+
+        boolean guardouAnterior = false;
+        if (Files.exists(arquivo) && integro(arquivo)) {
+            Files.move(arquivo, anterior(arquivo), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            guardouAnterior = true;
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDiretorio(arquivo);
+        return guardouAnterior;
+    }
+
+    /**
+     * Lê a geração mais recente que estiver íntegra e puder ser
+     * interpretada.
+     *
+     * @param <T>     Tipo do estado lido
+     * @param arquivo Caminho do snapshot
+     * @param leitura Interpretação do conteúdo
+     * @return Estado lido do arquivo ou, se ele falhar, da geração
+     *         anterior
+     * @throws NoSuchFileException Se nenhuma geração existir
+     * @throws IOException         Se todas as gerações existentes
+     *                             estiverem corrompidas (as falhas de
+     *                             cada uma vêm como causa e suprimida)
+     */
+    public static <T> T ler(Path arquivo, Leitura<T> leitura) throws IOException {
+        IOException falha = null;
+        for (Path geracao : List.of(arquivo, anterior(arquivo))) {
+            if (!Files.exists(geracao)) {
+                continue;
+            }
+            try {
+                return leitura.ler(geracao, verificar(geracao));
+            } catch (IOException e) {
+                if (falha == null) {
+                    falha = new IOException("Nenhuma geração de " + arquivo.getFileName() + " pôde ser lida", e);
+                } else {
+                    falha.addSuppressed(e);
+                }
+            }
+        }
+        if (falha == null) {
+            throw new NoSuchFileException(arquivo.toString());
+        }
+        throw falha;
+    }
+
+    /**
+     * Confere as somas de verificação de um snapshot, lendo o arquivo em
+     * sequência.
+     *
+     * @param arquivo Caminho do snapshot
+     * @return Bytes de conteúdo, ou {@link #SEM_RODAPE} se o arquivo não
+     *         tiver rodapé
+     * @throws IOException Se o rodapé ou algum bloco estiver corrompido
+     */
+    public static long verificar(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanhoArquivo = canal.size();
+            if (tamanhoArquivo < TAMANHO_FIM) {
+                return SEM_RODAPE;
+            }
+            ByteBuffer fim = ByteBuffer.allocate(TAMANHO_FIM);
+            lerTudo(canal, fim, tamanhoArquivo - TAMANHO_FIM);
+            long tamanho = fim.getLong(0);
+            int bloco = fim.getInt(Long.BYTES);
+            int crcRodape = fim.getInt(Long.BYTES + Integer.BYTES);
+            if (fim.getInt(Long.BYTES + 2 * Integer.BYTES) != ASSINATURA) {
+                return SEM_RODAPE;
+            }
+            if (tamanho < 0 || bloco <= 0 || bloco > MAXIMO_BLOCO) {
+                throw corrompido(arquivo, "rodapé inválido");
+            }
+            long blocos = (tamanho + bloco - 1) / bloco;
+            if (blocos > Integer.MAX_VALUE / Integer.BYTES
+                    || tamanhoArquivo != tamanho + blocos * Integer.BYTES + TAMANHO_FIM) {
+                throw corrompido(arquivo, "tamanho inconsistente com o rodapé");
+            }
+
+            ByteBuffer somas = ByteBuffer.allocate((int) blocos * Integer.BYTES);
+            lerTudo(canal, somas, tamanho);
+            CRC32C crc = new CRC32C();
+            crc.update(somas.array());
+            crc.update(fim.array(), 0, Long.BYTES + Integer.BYTES);
+            if ((int) crc.getValue() != crcRodape) {
+                throw corrompido(arquivo, "rodapé corrompido");
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bloco);
+            for (int i = 0; i < blocos; i++) {
+                long inicio = (long) i * bloco;
+                buffer.clear().limit((int) Math.min(bloco, tamanho - inicio));
+                lerTudo(canal, buffer, inicio);
+                crc.reset();
+                crc.update(buffer);
+                if ((int) crc.getValue() != somas.getInt(i * Integer.BYTES)) {
+                    throw corrompido(arquivo, "bloco " + i + " corrompido");
+                }
+            }
+            return tamanho;
+        }
+    }
+
+    /** Rodapé com as somas de cada bloco do conteúdo. */
+    private static ByteBuffer rodape(ByteBuffer conteudo) {
+        long tamanho = conteudo.remaining();
+        int blocos = (int) ((tamanho + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO);
+        ByteBuffer rodape = ByteBuffer.allocate(blocos * Integer.BYTES + TAMANHO_FIM);
+        CRC32C crc = new CRC32C();
+        while (conteudo.hasRemaining()) {
+            ByteBuffer bloco = conteudo.slice().limit(Math.min(TAMANHO_BLOCO, conteudo.remaining()));
+            conteudo.position(conteudo.position() + bloco.remaining());
+            crc.reset();
+            crc.update(bloco);
+            rodape.putInt((int) crc.getValue());
+        }
+        rodape.putLong(tamanho);
+        rodape.putInt(TAMANHO_BLOCO);
+        crc.reset();
+        crc.update(rodape.array(), 0, rodape.position());
+        rodape.putInt((int) crc.getValue());
+        rodape.putInt(ASSINATURA);
+        return rodape.flip();
+    }
+
+    /** Arquivo sem rodapé (formato antigo) ou com todas as somas corretas. */
+    private static boolean integro(Path arquivo) {
+        try {
+            verificar(arquivo);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Força a entrada do diretório (a renomeação) para o disco. */
+    private static void sincronizarDiretorio(Path arquivo) {
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Nem todo sistema permite abrir diretórios (ex.: Windows)
+        }
+    }
+
+    private static IOException corrompido(Path arquivo, String motivo) {
+        return new IOException(arquivo.getFileName() + ": " + motivo);
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer dados) throws IOException {
+        while (dados.hasRemaining()) {
+            canal.write(dados);
+        }
+    }
+
+    private static void lerTudo(FileChannel canal, ByteBuffer destino, long posicao) throws IOException {
+        while (destino.hasRemaining()) {
+            int lidos = canal.read(destino, posicao);
+            if (lidos < 0) {
+                throw new IOException("Fim inesperado do arquivo");
+            }
+            posicao += lidos;
+        }
+        destino.flip();
+    }
+}
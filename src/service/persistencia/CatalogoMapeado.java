@@ -0,0 +1,677 @@
+package service.persistencia;
+
+import model.midia.Album;
+import model.midia.Artista;
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import static service.persistencia.CodecCatalogo.*;
+
+/**
+ * Catálogo lido de um arquivo mapeado em memória, decodificado sob
+ * demanda.
+ *
+ * <p>
+ * Abrir o catálogo lê apenas o cabeçalho de
+ * {@link CodecCatalogo#TAMANHO_CABECALHO} bytes: o custo não depende do
+ * tamanho do catálogo. Cada áudio (e o artista, o álbum e as strings que
+ * ele usa) é decodificado no primeiro {@link #get(int)}, achando o
+ * bloco do registro pela tabela de posições, e guardado para os acessos
+ * seguintes. Páginas do arquivo que nunca foram lidas continuam no
+ * disco, fora do heap.
+ * </p>
+ *
+ * <p>
+ * A exceção são as faixas de álbuns: os álbuns que têm faixas gravadas,
+ * e essas faixas, são decodificados na abertura, antes de a lista ser
+ * compartilhada, porque {@link Album} não se completa depois.
+ * </p>
+ *
+ * <p>
+ * Quem só precisa dos campos, como a montagem dos índices de busca, os
+ * lê com {@link #campos(int)} e {@link #getTotalCurtidas(int)}, sem
+ * criar o áudio.
+ * </p>
+ *
+ * <h2>Concorrência</h2>
+ * <p>
+ * Várias threads podem ler ao mesmo tempo: a leitura usa apenas posições
+ * absolutas do buffer, e cada objeto decodificado é publicado com
+ * compare-and-set, então todas recebem o mesmo objeto, mesmo que duas o
+ * decodifiquem juntas.
+ * </p>
+ *
+ * <h2>Erros</h2>
+ * <p>
+ * O cabeçalho é validado na abertura ({@link IOException}). Um registro
+ * corrompido só é notado quando lido, e {@link #get(int)} lança
+ * {@link UncheckedIOException}.
+ * </p>
+ *
+ * @see CodecCatalogo#mapear(java.nio.file.Path)
+ */
+public final class CatalogoMapeado extends AbstractList<Audio> implements RandomAccess {
+
+    /** Conteúdo do arquivo (lido só por posições absolutas). */
+    private final ByteBuffer dados;
+
+    /** Início de cada tabela de posições e do dicionário de gêneros. */
+    private final int tabelaStrings;
+    private final int tabelaArtistas;
+    private final int tabelaAlbuns;
+    private final int tabelaAudios;
+    private final int tabelaGeneros;
+
+    /** Objetos já decodificados (null = ainda no arquivo). */
+    private final AtomicReferenceArray<String> strings;
+    private final AtomicReferenceArray<Artista> artistas;
+    private final AtomicReferenceArray<Album> albuns;
+    private final AtomicReferenceArray<Audio> audios;
+
+    /** Quantidade de gêneros no dicionário. */
+    private final int totalGeneros;
+
+    /** Áudios por entrada da tabela de áudios (1 na versão 2). */
+    private final int audiosPorBloco;
+
+    /** Títulos gravados em relação ao anterior do bloco (versão 3). */
+    private final boolean titulosPrefixados;
+
+    /** Chamado com cada áudio decodificado, antes de ele ser publicado. */
+    private final Consumer<? super Audio> aoDecodificar;
+
+    /**
+     * Abre um catálogo codificado, lendo o cabeçalho e as faixas de
+     * álbuns.
+     *
+     * @param dados Conteúdo completo do arquivo, a partir da posição 0
+     * @throws IOException Se o cabeçalho for inválido ou de outra versão
+     */
+    CatalogoMapeado(ByteBuffer dados) throws IOException {
+        this(dados, audio -> { });
+    }
+
+    /**
+     * Abre um catálogo codificado, preparando cada áudio decodificado.
+     *
+     * @param dados         Conteúdo completo do arquivo, a partir da
+     *                      posição 0
+     * @param aoDecodificar Chamado com cada áudio decodificado (inclusive
+     *                      as faixas lidas na abertura) antes de ele ser
+     *                      devolvido a alguém; se duas threads decodificam
+     *                      juntas, também com a cópia descartada
+     * @throws IOException Se o cabeçalho for inválido ou de outra versão
+     */
+    CatalogoMapeado(ByteBuffer dados, Consumer<? super Audio> aoDecodificar) throws IOException {
+        this.dados = dados;
+        this.aoDecodificar = aoDecodificar;
+        if (dados.limit() < TAMANHO_CABECALHO || dados.getInt(0) != ASSINATURA) {
+            throw new IOException("Arquivo não é um catálogo " + ASSINATURA_TEXTO);
+        }
+        int versao = dados.get(POS_VERSAO) & 0xFF;
+        if (versao != VERSAO && versao != VERSAO_SEM_BLOCOS) {
+            throw new IOException("Versão do catálogo não suportada: " + versao);
+        }
+        titulosPrefixados = versao == VERSAO;
+        audiosPorBloco = titulosPrefixados ? AUDIOS_POR_BLOCO : 1;
+        int totalStrings = quantidade(POS_STRINGS);
+        int totalArtistas = quantidade(POS_ARTISTAS);
+        int totalAlbuns = quantidade(POS_ALBUNS);
+        int totalAudios = quantidade(POS_AUDIOS);
+        totalGeneros = quantidade(POS_GENEROS);
+        int totalBlocos = (int) (((long) totalAudios + audiosPorBloco - 1) / audiosPorBloco);
+        long fimTabelas = TAMANHO_CABECALHO + (long) Integer.BYTES
+                * ((long) totalStrings + totalArtistas + totalAlbuns + totalBlocos + totalGeneros);
+        if (fimTabelas > dados.limit()) {
+            throw new IOException("Catálogo truncado: tabelas até " + fimTabelas + ", arquivo com "
+                    + dados.limit() + " bytes");
+        }
+        tabelaStrings = TAMANHO_CABECALHO;
+        tabelaArtistas = tabelaStrings + Integer.BYTES * totalStrings;
+        tabelaAlbuns = tabelaArtistas + Integer.BYTES * totalArtistas;
+        tabelaAudios = tabelaAlbuns + Integer.BYTES * totalAlbuns;
+        tabelaGeneros = tabelaAudios + Integer.BYTES * totalBlocos;
+        strings = new AtomicReferenceArray<>(totalStrings);
+        artistas = new AtomicReferenceArray<>(totalArtistas);
+        albuns = new AtomicReferenceArray<>(totalAlbuns);
+        audios = new AtomicReferenceArray<>(totalAudios);
+        try {
+            lerFaixas(dados.getInt(POS_FAIXAS));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Catálogo truncado ou corrompido", e);
+        }
+    }
+
+    private int quantidade(int posicao) throws IOException {
+        int valor = dados.getInt(posicao);
+        if (valor < 0) {
+            throw new IOException("Quantidade inválida no catálogo: " + valor);
+        }
+        return valor;
+    }
+
+    /**
+     * Retorna o áudio na posição, decodificando-o no primeiro acesso.
+     *
+     * @param posicao Posição no catálogo
+     * @return Áudio (sempre o mesmo objeto para a mesma posição)
+     * @throws UncheckedIOException Se o registro estiver corrompido
+     */
+    @Override
+    public Audio get(int posicao) {
+        Objects.checkIndex(posicao, audios.length());
+        Audio audio = audios.get(posicao);
+        if (audio == null) {
+            Audio novo = decodificar(() -> decodificarAudio(posicao));
+            audio = audios.compareAndExchange(posicao, null, novo);
+            if (audio == null) {
+                audio = novo;
+            }
+        }
+        return audio;
+    }
+
+    @Override
+    public int size() {
+        return audios.length();
+    }
+
+    /**
+     * Informa se o áudio da posição já foi decodificado. Usado em
+     * diagnósticos e testes.
+     *
+     * @param posicao Posição no catálogo
+     * @return true se o áudio já está no heap
+     */
+    public boolean isDecodificado(int posicao) {
+        return audios.get(posicao) != null;
+    }
+
+    /**
+     * Lê os campos do áudio da posição sem decodificá-lo.
+     *
+     * <p>
+     * O título é lido do registro; o artista e o álbum são os mesmos
+     * objetos usados pelos áudios decodificados. Os contadores seguem
+     * {@link #getTotalCurtidas(int)}.
+     * </p>
+     *
+     * @param posicao Posição no catálogo
+     * @return Campos do áudio
+     * @throws UncheckedIOException Se o registro estiver corrompido
+     */
+    public Campos campos(int posicao) {
+        Objects.checkIndex(posicao, audios.length());
+        Campos campos = decodificar(() -> lerCampos(posicao));
+        Audio audio = audios.get(posicao);
+        if (audio != null) {
+            campos.reproducoes = audio.getTotalReproducoes();
+            campos.curtidas = audio.getTotalCurtidas();
+        }
+        return campos;
+    }
+
+    /**
+     * Retorna as curtidas do áudio da posição sem decodificá-lo.
+     *
+     * <p>
+     * Se o áudio já foi decodificado, o total é o dele, que pode ter
+     * mudado depois da abertura; senão, é o gravado no arquivo.
+     * </p>
+     *
+     * @param posicao Posição no catálogo
+     * @return Total de curtidas
+     * @throws UncheckedIOException Se o registro estiver corrompido
+     */
+    public long getTotalCurtidas(int posicao) {
+        Objects.checkIndex(posicao, audios.length());
+        Audio audio = audios.get(posicao);
+        if (audio != null) {
+            return audio.getTotalCurtidas();
+        }
+        return decodificar(() -> {
+            Leitor leitor = contadores(posicao);
+            leitor.varlong();
+            return leitor.varlong();
+        });
+    }
+
+    /**
+     * Retorna as reproduções do áudio da posição sem decodificá-lo, com
+     * a mesma regra de {@link #getTotalCurtidas(int)}.
+     *
+     * @param posicao Posição no catálogo
+     * @return Total de reproduções
+     * @throws UncheckedIOException Se o registro estiver corrompido
+     */
+    public long getTotalReproducoes(int posicao) {
+        Objects.checkIndex(posicao, audios.length());
+        Audio audio = audios.get(posicao);
+        if (audio != null) {
+            return audio.getTotalReproducoes();
+        }
+        return decodificar(() -> contadores(posicao).varlong());
+    }
+
+    /**
+     * Campos de um áudio lidos do arquivo, sem criar o {@link Audio}.
+     */
+    public static final class Campos {
+        private boolean musica;
+        private String titulo;
+        private int duracao;
+        private long reproducoes;
+        private long curtidas;
+        private int id;
+        private Artista artista;
+        private Album album;
+        private String apresentador;
+        private int episodio;
+
+        /**
+         * Informa se o áudio é uma música.
+         *
+         * @return true para música, false para podcast
+         */
+        public boolean isMusica() {
+            return musica;
+        }
+
+        /**
+         * Retorna o título do áudio.
+         *
+         * @return Título
+         */
+        public String getTitulo() {
+            return titulo;
+        }
+
+        /**
+         * Retorna o artista da música.
+         *
+         * @return Artista, ou null (sempre null em podcasts)
+         */
+        public Artista getArtista() {
+            return artista;
+        }
+
+        /**
+         * Retorna o nome do artista como {@link Musica#getNomeArtista()}.
+         *
+         * @return Nome do artista, ou null em podcasts
+         */
+        public String getNomeArtista() {
+            if (!musica) {
+                return null;
+            }
+            return artista != null ? artista.getNome() : "Desconhecido";
+        }
+
+        /**
+         * Retorna o álbum da música.
+         *
+         * @return Álbum, ou null
+         */
+        public Album getAlbum() {
+            return album;
+        }
+
+        /**
+         * Retorna o apresentador do podcast.
+         *
+         * @return Apresentador, ou null
+         */
+        public String getApresentador() {
+            return apresentador;
+        }
+
+        /**
+         * Retorna o total de reproduções.
+         *
+         * @return Número de reproduções
+         */
+        public long getTotalReproducoes() {
+            return reproducoes;
+        }
+
+        /**
+         * Retorna o total de curtidas.
+         *
+         * @return Número de curtidas
+         */
+        public long getTotalCurtidas() {
+            return curtidas;
+        }
+    }
+
+    // ========= DECODIFICAÇÃO =========
+
+    private Audio decodificarAudio(int posicao) throws IOException {
+        Campos campos = lerCampos(posicao);
+        Audio audio = campos.musica
+                ? new Musica(campos.titulo, campos.duracao, campos.artista, campos.album)
+                : new Podcast(campos.titulo, campos.duracao, campos.apresentador, campos.episodio);
+        audio.restaurarContadores(campos.reproducoes, campos.curtidas);
+        audio.atribuirId(campos.id);
+        aoDecodificar.accept(audio);
+        return audio;
+    }
+
+    private Campos lerCampos(int posicao) throws IOException {
+        Leitor leitor = registroAudio(posicao);
+        int flags = lerFlags(leitor);
+        int tipo = flags & MASCARA_TIPO;
+        Campos campos = new Campos();
+        byte[] titulo = leitor.titulo();
+        campos.titulo = titulo == null ? null : new String(titulo, StandardCharsets.UTF_8);
+        campos.duracao = leitor.zigzag();
+        campos.reproducoes = leitor.varlong();
+        campos.curtidas = leitor.varlong();
+        campos.id = (flags & ID_NA_POSICAO) != 0 ? posicao : leitor.zigzag();
+        if (tipo == TIPO_MUSICA) {
+            campos.musica = true;
+            campos.album = albumOuNull(leitor.varint());
+            if ((flags & ARTISTA_DO_ALBUM) != 0) {
+                if (campos.album == null) {
+                    throw new IOException("Música sem álbum marcada com o artista do álbum");
+                }
+                campos.artista = campos.album.getArtista();
+            } else {
+                campos.artista = artistaOuNull(leitor.varint());
+            }
+        } else if (tipo == TIPO_PODCAST) {
+            campos.apresentador = stringOuNull(leitor.varint());
+            campos.episodio = leitor.zigzag();
+        } else {
+            throw new IOException("Tipo de áudio desconhecido: " + tipo);
+        }
+        return campos;
+    }
+
+    /** Leitor posicionado nas reproduções do registro. */
+    private Leitor contadores(int posicao) throws IOException {
+        Leitor leitor = registroAudio(posicao);
+        lerFlags(leitor);
+        leitor.titulo();
+        leitor.zigzag(); // Duração
+        return leitor;
+    }
+
+    /**
+     * Leitor posicionado no registro do áudio, depois de passar pelos
+     * registros anteriores do mesmo bloco.
+     */
+    private Leitor registroAudio(int posicao) throws IOException {
+        Leitor leitor = registro(tabelaAudios, posicao / audiosPorBloco);
+        for (int anterior = posicao - posicao % audiosPorBloco; anterior < posicao; anterior++) {
+            int flags = lerFlags(leitor);
+            leitor.titulo();
+            leitor.zigzag(); // Duração
+            leitor.varlong(); // Reproduções
+            leitor.varlong(); // Curtidas
+            if ((flags & ID_NA_POSICAO) == 0) {
+                leitor.zigzag();
+            }
+            int tipo = flags & MASCARA_TIPO;
+            if (tipo == TIPO_MUSICA) {
+                leitor.varint(); // Álbum
+                if ((flags & ARTISTA_DO_ALBUM) == 0) {
+                    leitor.varint();
+                }
+            } else if (tipo == TIPO_PODCAST) {
+                leitor.varint(); // Apresentador
+                leitor.zigzag(); // Episódio
+            } else {
+                throw new IOException("Tipo de áudio desconhecido: " + tipo);
+            }
+        }
+        return leitor;
+    }
+
+    private static int lerFlags(Leitor leitor) throws IOException {
+        int flags = leitor.byte_();
+        if ((flags & ~(MASCARA_TIPO | ID_NA_POSICAO | ARTISTA_DO_ALBUM)) != 0) {
+            throw new IOException("Flags de áudio desconhecidas: " + flags);
+        }
+        return flags;
+    }
+
+    /** Referência + 1 a um artista (0 = null). */
+    private Artista artistaOuNull(int referencia) {
+        if (referencia == 0) {
+            return null;
+        }
+        int indice = referencia - 1;
+        Objects.checkIndex(indice, artistas.length());
+        Artista artista = artistas.get(indice);
+        if (artista == null) {
+            Artista novo = decodificar(() -> {
+                Leitor leitor = registro(tabelaArtistas, indice);
+                String id = lerId(leitor);
+                String nome = stringOuNull(leitor.varint());
+                int total = leitor.varint();
+                Set<String> generos = new HashSet<>(Math.max(4, total * 2));
+                for (int g = 0; g < total; g++) {
+                    generos.add(genero(leitor.varint()));
+                }
+                return Artista.restaurar(id, nome, generos);
+            });
+            artista = artistas.compareAndExchange(indice, null, novo);
+            if (artista == null) {
+                artista = novo;
+            }
+        }
+        return artista;
+    }
+
+    /** Referência + 1 a um álbum (0 = null). */
+    private Album albumOuNull(int referencia) {
+        if (referencia == 0) {
+            return null;
+        }
+        int indice = referencia - 1;
+        Objects.checkIndex(indice, albuns.length());
+        Album album = albuns.get(indice);
+        if (album == null) {
+            Album novo = decodificar(() -> {
+                Leitor leitor = registro(tabelaAlbuns, indice);
+                String id = lerId(leitor);
+                String titulo = stringOuNull(leitor.varint());
+                Artista artista = artistaOuNull(leitor.varint());
+                return Album.restaurar(id, titulo, artista, leitor.zigzag());
+            });
+            album = albuns.compareAndExchange(indice, null, novo);
+            if (album == null) {
+                album = novo;
+            }
+        }
+        return album;
+    }
+
+    /** Referência + 1 a uma string (0 = null). */
+    private String stringOuNull(int referencia) {
+        return referencia == 0 ? null : string(referencia - 1);
+    }
+
+    private String string(int indice) {
+        Objects.checkIndex(indice, strings.length());
+        String texto = strings.get(indice);
+        if (texto == null) {
+            texto = decodificar(() -> {
+                Leitor leitor = registro(tabelaStrings, indice);
+                return leitor.bytes(leitor.varint());
+            });
+            // Strings iguais são intercambiáveis: não importa qual thread vence
+            strings.compareAndSet(indice, null, texto);
+        }
+        return texto;
+    }
+
+    private String genero(int codigo) {
+        Objects.checkIndex(codigo, totalGeneros);
+        return string(dados.getInt(tabelaGeneros + Integer.BYTES * codigo));
+    }
+
+    private String lerId(Leitor leitor) throws IOException {
+        int marcador = leitor.varint();
+        if (marcador == ID_UUID) {
+            return new UUID(leitor.long_(), leitor.long_()).toString();
+        }
+        return stringOuNull(marcador - 1);
+    }
+
+    /**
+     * Liga aos álbuns as faixas gravadas. Só os álbuns com faixas, e as
+     * faixas, são decodificados.
+     */
+    private void lerFaixas(int inicio) throws IOException {
+        Leitor leitor = new Leitor(inicio);
+        int total = leitor.varint();
+        for (int a = 0; a < total; a++) {
+            Album album = albumOuNull(leitor.varint() + 1);
+            int faixas = leitor.varint();
+            for (int f = 0; f < faixas; f++) {
+                if (!(get(leitor.varint()) instanceof Musica musica)) {
+                    throw new IOException("Faixa de álbum não é uma música");
+                }
+                album.adicionarFaixa(musica);
+            }
+        }
+    }
+
+    /** Leitor posicionado no registro apontado pela tabela. */
+    private Leitor registro(int tabela, int indice) throws IOException {
+        int posicao = dados.getInt(tabela + Integer.BYTES * indice);
+        if (posicao < 0 || posicao >= dados.limit()) {
+            throw new IOException("Posição inválida no catálogo: " + posicao);
+        }
+        return new Leitor(posicao);
+    }
+
+    /**
+     * Executa uma decodificação, trocando erros de formato por
+     * {@link UncheckedIOException} (os métodos de {@link java.util.List}
+     * não declaram exceções verificadas).
+     */
+    private static <T> T decodificar(Decodificacao<T> decodificacao) {
+        try {
+            return decodificacao.executar();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (IndexOutOfBoundsException e) {
+            throw new UncheckedIOException(new IOException("Catálogo truncado ou corrompido", e));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Decodificacao<T> {
+        T executar() throws IOException;
+    }
+
+    /**
+     * Cursor de leitura sobre o buffer compartilhado, com posições
+     * absolutas (não altera a posição do buffer).
+     */
+    private final class Leitor {
+        private int posicao;
+
+        /** Último título lido, base do próximo (versão 3). */
+        private byte[] titulo;
+
+        Leitor(int posicao) {
+            this.posicao = posicao;
+        }
+
+        int byte_() {
+            return dados.get(posicao++);
+        }
+
+        long long_() {
+            long valor = dados.getLong(posicao);
+            posicao += Long.BYTES;
+            return valor;
+        }
+
+        int varint() throws IOException {
+            long valor = varlong();
+            if (valor > Integer.MAX_VALUE || valor < 0) {
+                throw new IOException("Inteiro fora do intervalo: " + valor);
+            }
+            return (int) valor;
+        }
+
+        int zigzag() throws IOException {
+            long valor = varlong();
+            return (int) ((valor >>> 1) ^ -(valor & 1));
+        }
+
+        long varlong() throws IOException {
+            long valor = 0;
+            for (int deslocamento = 0; deslocamento < Long.SIZE; deslocamento += 7) {
+                int b = dados.get(posicao++);
+                valor |= (long) (b & 0x7F) << deslocamento;
+                if ((b & 0x80) == 0) {
+                    return valor;
+                }
+            }
+            throw new IOException("Número de tamanho variável inválido");
+        }
+
+        /**
+         * Título de um áudio em UTF-8 (null se não houver): os bytes em
+         * comum com o título anterior do bloco, se houver, e o restante
+         * com tamanho + 1 (0 = null).
+         */
+        byte[] titulo() throws IOException {
+            int comum = titulosPrefixados ? varint() : 0;
+            int base = titulo == null ? 0 : titulo.length;
+            if (comum > base) {
+                throw new IOException("Prefixo de título inválido no catálogo: " + comum);
+            }
+            int tamanho = varint();
+            if (tamanho == 0) {
+                titulo = null;
+                return null;
+            }
+            int restante = tamanho - 1;
+            if (restante > dados.limit() - posicao) {
+                throw new IOException("Tamanho inválido no catálogo: " + restante);
+            }
+            byte[] utf8 = new byte[comum + restante];
+            if (comum > 0) {
+                System.arraycopy(titulo, 0, utf8, 0, comum);
+            }
+            dados.get(posicao, utf8, comum, restante);
+            posicao += restante;
+            titulo = utf8;
+            return utf8;
+        }
+
+        /** Os próximos bytes, em UTF-8. */
+        String bytes(int tamanho) throws IOException {
+            if (tamanho > dados.limit() - posicao) {
+                throw new IOException("Tamanho inválido no catálogo: " + tamanho);
+            }
+            byte[] utf8 = new byte[tamanho];
+            dados.get(posicao, utf8);
+            posicao += tamanho;
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+    }
+}
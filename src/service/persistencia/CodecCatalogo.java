@@ -0,0 +1,578 @@
+package service.persistencia;
+
+import model.midia.Album;
+import model.midia.Artista;
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Formato binário compacto do catálogo ("catalogo.db").
+ *
+ * <p>
+ * Substitui a serialização Java: em vez de descritores de classe,
+ * reflexão e um handle por objeto, grava apenas os campos, lidos e
+ * escritos por {@link ByteBuffer}s. A leitura é feita por
+ * {@link CatalogoMapeado}, que mapeia o arquivo em memória e decodifica
+ * cada registro só quando ele é usado.
+ * </p>
+ *
+ * <h2>Formato (versão 3)</h2>
+ * <ol>
+ * <li>Cabeçalho de {@value #TAMANHO_CABECALHO} bytes:
+ * {@value #ASSINATURA_TEXTO}, o byte da versão, as quantidades de
+ * strings, artistas, álbuns, áudios e gêneros e a posição da seção de
+ * faixas</li>
+ * <li>Tabelas de posições (4 bytes por entrada) de strings, artistas,
+ * álbuns e blocos de {@value #AUDIOS_POR_BLOCO} áudios, seguidas do
+ * dicionário de gêneros (posições na tabela de strings)</li>
+ * <li>Strings: cada nome, título de álbum e gênero aparece uma única
+ * vez; os registros se referem a eles pela posição</li>
+ * <li>Artistas: id, nome e gêneros (posições no dicionário)</li>
+ * <li>Álbuns: id, título, artista, ano</li>
+ * <li>Áudios: byte de tipo e flags, título (no próprio registro, pois
+ * raramente se repete inteiro), duração, contadores, id no catálogo e os
+ * campos de {@link Musica} (álbum, artista) ou {@link Podcast}
+ * (apresentador, episódio)</li>
+ * <li>Faixas: só os álbuns com faixas, com as posições dos áudios</li>
+ * </ol>
+ *
+ * <p>
+ * As tabelas de tamanho fixo permitem achar qualquer string, artista ou
+ * álbum sem ler os anteriores. Os áudios são achados pelo início do
+ * bloco, passando pelos registros anteriores do mesmo bloco (no máximo
+ * {@value #AUDIOS_POR_BLOCO} - 1). Dentro do bloco, cada título guarda
+ * só os bytes que diferem do título anterior: faixas de um mesmo álbum,
+ * gravadas em sequência, costumam repetir quase tudo. Dentro dos
+ * registros, inteiros são gravados em tamanho
+ * variável (7 bits por byte; valores com sinal em zigue-zague), então
+ * IDs e contadores pequenos ocupam um byte. Referências que podem ser
+ * nulas são gravadas como posição + 1, com 0 para null. Os UUIDs de
+ * artistas e álbuns ocupam 16 bytes em vez de 36 caracteres; um id fora
+ * do formato UUID é gravado como string. Flags indicam quando o id do
+ * áudio é a sua posição e quando o artista da música é o do álbum, e
+ * nesses casos nada é gravado.
+ * </p>
+ *
+ * <p>
+ * Artistas e álbuns compartilhados continuam compartilhados depois da
+ * leitura. Faixas de um álbum que não pertencem à lista gravada são
+ * omitidas.
+ * </p>
+ *
+ * @see service.BibliotecaService
+ */
+public final class CodecCatalogo {
+
+    /** Assinatura no início do arquivo, como texto. */
+    static final String ASSINATURA_TEXTO = "AUDC";
+
+    /** Assinatura no início do arquivo ("AUDC"). */
+    static final int ASSINATURA = 0x41554443;
+
+    /** Versão atual do formato. */
+    public static final int VERSAO = 3;
+
+    /**
+     * Versão anterior, ainda lida: uma entrada de tabela por áudio e
+     * títulos inteiros.
+     */
+    static final int VERSAO_SEM_BLOCOS = 2;
+
+    /** Áudios por entrada da tabela de posições de áudios. */
+    static final int AUDIOS_POR_BLOCO = 16;
+
+    /** Bytes do cabeçalho, antes das tabelas de posições. */
+    static final int TAMANHO_CABECALHO = 32;
+
+    /** Posições dos campos do cabeçalho. */
+    static final int POS_VERSAO = 4;
+    static final int POS_STRINGS = 8;
+    static final int POS_ARTISTAS = 12;
+    static final int POS_ALBUNS = 16;
+    static final int POS_AUDIOS = 20;
+    static final int POS_GENEROS = 24;
+    static final int POS_FAIXAS = 28;
+
+    /** Tipos de áudio gravados (dois bits mais baixos do byte de flags). */
+    static final int TIPO_MUSICA = 1;
+    static final int TIPO_PODCAST = 2;
+    static final int MASCARA_TIPO = 0b11;
+
+    /** Flag: o id do áudio é a sua posição na lista (não é gravado). */
+    static final int ID_NA_POSICAO = 1 << 2;
+
+    /** Flag: o artista da música é o do álbum (não é gravado). */
+    static final int ARTISTA_DO_ALBUM = 1 << 3;
+
+    /** Marcador de id de artista/álbum gravado como UUID binário. */
+    static final int ID_UUID = 0;
+
+    private CodecCatalogo() {
+        // Classe utilitária
+    }
+
+    // ========= ARQUIVO =========
+
+    /**
+     * Grava o catálogo em um arquivo.
+     *
+     * <p>
+     * A gravação passa por {@link ArquivoSnapshot}: arquivo temporário
+     * com somas de verificação, fsync e renomeação sobre o original (que
+     * vira a geração anterior). O arquivo que ainda estiver mapeado por
+     * um {@link CatalogoMapeado} nunca é alterado.
+     * </p>
+     *
+     * @param arquivo Caminho do arquivo (substituído)
+     * @param audios  Áudios do catálogo, em ordem
+     * @throws IOException Se a gravação falhar
+     */
+    public static void gravar(Path arquivo, List<Audio> audios) throws IOException {
+        ArquivoSnapshot.gravar(arquivo, codificar(audios));
+    }
+
+    /**
+     * Verifica as somas do arquivo e o mapeia em memória, sem decodificar
+     * os áudios.
+     *
+     * @param arquivo Caminho do arquivo
+     * @return Catálogo mapeado, decodificado sob demanda
+     * @throws IOException Se o arquivo estiver corrompido, não tiver
+     *                     somas de verificação ou o cabeçalho for inválido
+     */
+    public static CatalogoMapeado mapear(Path arquivo) throws IOException {
+        long tamanho = ArquivoSnapshot.verificar(arquivo);
+        if (tamanho == ArquivoSnapshot.SEM_RODAPE) {
+            throw new IOException("Catálogo sem somas de verificação: " + arquivo.getFileName());
+        }
+        return mapear(arquivo, tamanho);
+    }
+
+    /**
+     * Mapeia os primeiros bytes de um arquivo já verificado por
+     * {@link ArquivoSnapshot}.
+     *
+     * @param arquivo Caminho do arquivo
+     * @param tamanho Bytes do catálogo (sem o rodapé)
+     * @return Catálogo mapeado, decodificado sob demanda
+     * @throws IOException Se o arquivo não puder ser mapeado ou o
+     *                     cabeçalho for inválido
+     */
+    public static CatalogoMapeado mapear(Path arquivo, long tamanho) throws IOException {
+        return mapear(arquivo, tamanho, audio -> { });
+    }
+
+    /**
+     * Mapeia um arquivo já verificado, preparando cada áudio quando ele
+     * for decodificado (por exemplo, registrando um ouvinte).
+     *
+     * @param arquivo       Caminho do arquivo
+     * @param tamanho       Bytes do catálogo (sem o rodapé)
+     * @param aoDecodificar Chamado com cada áudio decodificado, antes de
+     *                      ele ser devolvido
+     * @return Catálogo mapeado, decodificado sob demanda
+     * @throws IOException Se o arquivo não puder ser mapeado ou o
+     *                     cabeçalho for inválido
+     */
+    public static CatalogoMapeado mapear(Path arquivo, long tamanho, Consumer<? super Audio> aoDecodificar)
+            throws IOException {
+        if (tamanho > Integer.MAX_VALUE) {
+            throw new IOException("Catálogo grande demais: " + tamanho + " bytes");
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois de o canal ser fechado
+            return new CatalogoMapeado(canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho), aoDecodificar);
+        }
+    }
+
+    /**
+     * Lê o catálogo inteiro de um arquivo.
+     *
+     * @param arquivo Caminho do arquivo
+     * @return Áudios na ordem gravada, todos decodificados
+     * @throws IOException Se a leitura falhar ou o formato for inválido
+     */
+    public static List<Audio> ler(Path arquivo) throws IOException {
+        return materializar(mapear(arquivo));
+    }
+
+    /**
+     * Verifica se o arquivo começa com a assinatura deste formato.
+     *
+     * <p>
+     * Usado para continuar lendo catálogos gravados por serialização
+     * Java, que são convertidos na próxima gravação.
+     * </p>
+     *
+     * @param arquivo Caminho do arquivo
+     * @return true se for um catálogo neste formato
+     * @throws IOException Se o arquivo não puder ser lido
+     */
+    public static boolean reconhece(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate(Integer.BYTES);
+            while (cabecalho.hasRemaining() && canal.read(cabecalho) >= 0) {
+                // Lê a assinatura
+            }
+            return !cabecalho.hasRemaining() && cabecalho.getInt(0) == ASSINATURA;
+        }
+    }
+
+    // ========= CODIFICAÇÃO =========
+
+    /**
+     * Codifica o catálogo.
+     *
+     * @param audios Áudios do catálogo, em ordem
+     * @return Buffer pronto para leitura (posição 0)
+     */
+    public static ByteBuffer codificar(List<Audio> audios) {
+        TabelaStrings strings = new TabelaStrings();
+        Map<String, Integer> generos = new HashMap<>();
+        List<Integer> dicionario = new ArrayList<>();
+        Map<Artista, Integer> artistas = new IdentityHashMap<>();
+        Map<Album, Integer> albuns = new IdentityHashMap<>();
+        Map<Audio, Integer> posicoes = new IdentityHashMap<>();
+
+        // Numera artistas e álbuns na ordem em que aparecem
+        for (int i = 0; i < audios.size(); i++) {
+            Audio audio = audios.get(i);
+            posicoes.put(audio, i);
+            if (audio instanceof Musica musica) {
+                numerar(artistas, musica.getArtista());
+                Album album = musica.getAlbum();
+                if (album != null) {
+                    numerar(albuns, album);
+                    numerar(artistas, album.getArtista());
+                }
+            }
+        }
+
+        Saida registros = new Saida(64 + audios.size() * 16);
+
+        List<Artista> ordemArtistas = ordenados(artistas);
+        int[] posArtistas = new int[ordemArtistas.size()];
+        for (int i = 0; i < posArtistas.length; i++) {
+            Artista artista = ordemArtistas.get(i);
+            posArtistas[i] = registros.posicao();
+            escreverId(registros, strings, artista.getId());
+            registros.varint(strings.referencia(artista.getNome()));
+            Set<String> doArtista = artista.getGeneros();
+            registros.varint(doArtista.size());
+            for (String genero : doArtista) {
+                Integer codigo = generos.get(genero);
+                if (codigo == null) {
+                    codigo = dicionario.size();
+                    generos.put(genero, codigo);
+                    dicionario.add(strings.referencia(genero) - 1);
+                }
+                registros.varint(codigo);
+            }
+        }
+
+        List<Album> ordemAlbuns = ordenados(albuns);
+        int[] posAlbuns = new int[ordemAlbuns.size()];
+        for (int i = 0; i < posAlbuns.length; i++) {
+            Album album = ordemAlbuns.get(i);
+            posAlbuns[i] = registros.posicao();
+            escreverId(registros, strings, album.getId());
+            registros.varint(strings.referencia(album.getTitulo()));
+            registros.varint(referencia(artistas, album.getArtista()));
+            registros.zigzag(album.getAnoLancamento());
+        }
+
+        int[] posBlocos = new int[(audios.size() + AUDIOS_POR_BLOCO - 1) / AUDIOS_POR_BLOCO];
+        byte[] anterior = null;
+        for (int i = 0; i < audios.size(); i++) {
+            Audio audio = audios.get(i);
+            if (i % AUDIOS_POR_BLOCO == 0) {
+                posBlocos[i / AUDIOS_POR_BLOCO] = registros.posicao();
+                anterior = null; // O bloco é lido a partir do próprio início
+            }
+            int flags = audio.getId() == i ? ID_NA_POSICAO : 0;
+            if (audio instanceof Musica musica) {
+                Album album = musica.getAlbum();
+                boolean artistaDoAlbum = album != null && album.getArtista() == musica.getArtista();
+                registros.byte_(TIPO_MUSICA | flags | (artistaDoAlbum ? ARTISTA_DO_ALBUM : 0));
+                anterior = escreverAudio(registros, audio, flags, anterior);
+                registros.varint(referencia(albuns, album));
+                if (!artistaDoAlbum) {
+                    registros.varint(referencia(artistas, musica.getArtista()));
+                }
+            } else if (audio instanceof Podcast podcast) {
+                registros.byte_(TIPO_PODCAST | flags);
+                anterior = escreverAudio(registros, audio, flags, anterior);
+                registros.varint(strings.referencia(podcast.getApresentador()));
+                registros.zigzag(podcast.getNumeroEpisodio());
+            } else {
+                throw new IllegalArgumentException("Tipo de áudio não suportado: " + audio.getClass().getName());
+            }
+        }
+
+        // Faixas por último: referem-se às posições dos áudios
+        int posFaixas = registros.posicao();
+        List<int[]> comFaixas = new ArrayList<>();
+        for (int a = 0; a < ordemAlbuns.size(); a++) {
+            List<Musica> faixas = ordemAlbuns.get(a).getFaixas();
+            int[] gravadas = new int[faixas.size() + 1];
+            int total = 0;
+            gravadas[total++] = a;
+            for (Musica faixa : faixas) {
+                Integer posicao = posicoes.get(faixa);
+                if (posicao != null) {
+                    gravadas[total++] = posicao;
+                }
+            }
+            if (total > 1) {
+                comFaixas.add(Arrays.copyOf(gravadas, total));
+            }
+        }
+        registros.varint(comFaixas.size());
+        for (int[] album : comFaixas) {
+            registros.varint(album[0]);
+            registros.varint(album.length - 1);
+            for (int f = 1; f < album.length; f++) {
+                registros.varint(album[f]);
+            }
+        }
+
+        // Strings depois de conhecidas; as tabelas vêm antes de tudo
+        Saida textos = new Saida(strings.bytes);
+        int[] posStrings = new int[strings.lista.size()];
+        for (int i = 0; i < posStrings.length; i++) {
+            byte[] texto = strings.lista.get(i);
+            posStrings[i] = textos.posicao();
+            textos.varint(texto.length);
+            textos.bytes(texto);
+        }
+
+        int tabelas = Integer.BYTES * (posStrings.length + posArtistas.length + posAlbuns.length
+                + posBlocos.length + dicionario.size());
+        int inicioTextos = TAMANHO_CABECALHO + tabelas;
+        int inicioRegistros = inicioTextos + textos.posicao();
+        ByteBuffer saida = ByteBuffer.allocate(inicioRegistros + registros.posicao());
+        saida.putInt(ASSINATURA);
+        saida.put((byte) VERSAO);
+        saida.put(new byte[POS_STRINGS - POS_VERSAO - 1]);
+        saida.putInt(posStrings.length);
+        saida.putInt(posArtistas.length);
+        saida.putInt(posAlbuns.length);
+        saida.putInt(audios.size());
+        saida.putInt(dicionario.size());
+        saida.putInt(inicioRegistros + posFaixas);
+        escreverTabela(saida, posStrings, inicioTextos);
+        escreverTabela(saida, posArtistas, inicioRegistros);
+        escreverTabela(saida, posAlbuns, inicioRegistros);
+        escreverTabela(saida, posBlocos, inicioRegistros);
+        for (int referencia : dicionario) {
+            saida.putInt(referencia);
+        }
+        saida.put(textos.buffer.flip());
+        saida.put(registros.buffer.flip());
+        return saida.flip();
+    }
+
+    /** Lê e decodifica todos os registros de um catálogo codificado. */
+    static List<Audio> materializar(CatalogoMapeado catalogo) throws IOException {
+        try {
+            return new ArrayList<>(catalogo);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Decodifica um catálogo gravado por {@link #codificar(List)}.
+     *
+     * <p>
+     * Os IDs de catálogo gravados são restaurados; os contadores também,
+     * sem avisar nenhum ouvinte.
+     * </p>
+     *
+     * @param dados Buffer posicionado no início do catálogo
+     * @return Áudios na ordem gravada
+     * @throws IOException Se o formato for inválido ou de outra versão
+     */
+    public static List<Audio> decodificar(ByteBuffer dados) throws IOException {
+        return materializar(new CatalogoMapeado(dados.slice()));
+    }
+
+    private static void escreverTabela(ByteBuffer saida, int[] posicoes, int inicio) {
+        for (int posicao : posicoes) {
+            saida.putInt(inicio + posicao);
+        }
+    }
+
+    /**
+     * Grava os campos comuns do áudio, com o título em relação ao
+     * anterior do bloco.
+     *
+     * @return Título gravado, em UTF-8 (null se não houver)
+     */
+    private static byte[] escreverAudio(Saida saida, Audio audio, int flags, byte[] anterior) {
+        byte[] titulo = audio.getTitulo() == null ? null : audio.getTitulo().getBytes(StandardCharsets.UTF_8);
+        int comum = 0;
+        if (titulo != null && anterior != null) {
+            int limite = Math.min(titulo.length, anterior.length);
+            while (comum < limite && titulo[comum] == anterior[comum]) {
+                comum++;
+            }
+        }
+        // Bytes em comum com o título anterior e o restante (tamanho + 1, 0 = null)
+        saida.varint(comum);
+        if (titulo == null) {
+            saida.varint(0);
+        } else {
+            saida.varint(titulo.length - comum + 1);
+            saida.bytes(Arrays.copyOfRange(titulo, comum, titulo.length));
+        }
+        saida.zigzag(audio.getDuracaoSegundos());
+        saida.varlong(audio.getTotalReproducoes());
+        saida.varlong(audio.getTotalCurtidas());
+        if ((flags & ID_NA_POSICAO) == 0) {
+            saida.zigzag(audio.getId());
+        }
+        return titulo;
+    }
+
+    /** Id de artista/álbum: {@link #ID_UUID} + 16 bytes, ou referência + 1. */
+    private static void escreverId(Saida saida, TabelaStrings strings, String id) {
+        UUID uuid = comoUuid(id);
+        if (uuid != null) {
+            saida.byte_(ID_UUID);
+            saida.garantir(16);
+            saida.buffer.putLong(uuid.getMostSignificantBits());
+            saida.buffer.putLong(uuid.getLeastSignificantBits());
+        } else {
+            saida.varint(strings.referencia(id) + 1);
+        }
+    }
+
+    /** O id como UUID, se voltar ao mesmo texto ao ser lido. */
+    private static UUID comoUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static <T> void numerar(Map<T, Integer> numeros, T objeto) {
+        if (objeto != null && !numeros.containsKey(objeto)) {
+            numeros.put(objeto, numeros.size());
+        }
+    }
+
+    private static <T> int referencia(Map<T, Integer> numeros, T objeto) {
+        return objeto == null ? 0 : numeros.get(objeto) + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> ordenados(Map<T, Integer> numeros) {
+        Object[] ordem = new Object[numeros.size()];
+        for (Map.Entry<T, Integer> entrada : numeros.entrySet()) {
+            ordem[entrada.getValue()] = entrada.getKey();
+        }
+        return (List<T>) List.of(ordem);
+    }
+
+    // ========= APOIO =========
+
+    /**
+     * Strings distintas em UTF-8, na ordem da primeira aparição.
+     */
+    private static final class TabelaStrings {
+        private final Map<String, Integer> posicoes = new HashMap<>();
+        private final List<byte[]> lista = new ArrayList<>();
+        private int bytes;
+
+        /** Posição + 1 do texto na tabela (0 = null). */
+        int referencia(String texto) {
+            if (texto == null) {
+                return 0;
+            }
+            Integer posicao = posicoes.get(texto);
+            if (posicao == null) {
+                posicao = lista.size();
+                posicoes.put(texto, posicao);
+                byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+                lista.add(utf8);
+                bytes += utf8.length + 5;
+            }
+            return posicao + 1;
+        }
+    }
+
+    /**
+     * ByteBuffer que cresce conforme a escrita.
+     */
+    private static final class Saida {
+        private ByteBuffer buffer;
+
+        Saida(int capacidade) {
+            buffer = ByteBuffer.allocate(Math.max(16, capacidade));
+        }
+
+        int posicao() {
+            return buffer.position();
+        }
+
+        void garantir(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer maior = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                maior.put(buffer);
+                buffer = maior;
+            }
+        }
+
+        void byte_(int valor) {
+            garantir(1);
+            buffer.put((byte) valor);
+        }
+
+        void bytes(byte[] valor) {
+            garantir(valor.length);
+            buffer.put(valor);
+        }
+
+        void varint(int valor) {
+            varlong(valor & 0xFFFFFFFFL);
+        }
+
+        void zigzag(int valor) {
+            varlong(((long) valor << 1) ^ ((long) valor >> 63));
+        }
+
+        void varlong(long valor) {
+            garantir(10);
+            while ((valor & ~0x7FL) != 0) {
+                buffer.put((byte) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            buffer.put((byte) valor);
+        }
+    }
+}
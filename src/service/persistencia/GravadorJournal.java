@@ -0,0 +1,230 @@
+package service.persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gravação em segundo plano (write-behind) do {@link JournalUsuarios}.
+ *
+ * <p>
+ * Sem ele, cada alteração espera o fsync do journal antes de voltar ao
+ * menu. Com ele, a alteração só é anexada ao buffer do journal e a
+ * thread "gravacao-journal" grava o que se acumulou de uma vez:
+ * </p>
+ * <ul>
+ * <li>depois de {@code intervaloMillis} desde a primeira alteração
+ * pendente, juntando as que chegarem nesse meio tempo em um único
+ * fsync</li>
+ * <li>ou antes, assim que houver {@code limiteLoteBytes} pendentes</li>
+ * </ul>
+ *
+ * <h2>Contrapressão</h2>
+ * <p>
+ * O buffer do journal é a fila de gravação, limitada a
+ * {@code limitePendenteBytes}. Se o disco não acompanhar e o limite for
+ * atingido, quem alterou passa a gravar (e esperar) ele mesmo, como
+ * antes, em vez de deixar a memória crescer sem limite.
+ * </p>
+ *
+ * <h2>Durabilidade</h2>
+ * <p>
+ * Uma queda pode perder as alterações dos últimos
+ * {@code intervaloMillis}. O journal continua consistente: os registros
+ * chegam ao disco em ordem, e os que ficarem pela metade são descartados
+ * pelo CRC na leitura. {@link #descarregar()} grava tudo na hora, para o
+ * encerramento.
+ * </p>
+ *
+ * <h2>Falhas</h2>
+ * <p>
+ * Uma gravação que falha devolve os registros ao buffer do journal e
+ * fica em {@link #getUltimaFalha()} até uma gravação dar certo. Quem
+ * altera deve consultá-la: sem isso, um disco cheio passaria despercebido
+ * enquanto as alterações se acumulam só na memória.
+ * </p>
+ *
+ * @see JournalUsuarios
+ * @see service.UsuarioService
+ */
+public class GravadorJournal implements Closeable {
+
+    /** Journal gravado por esta thread. */
+    private final JournalUsuarios journal;
+
+    /** Janela de agrupamento das alterações, em nanossegundos. */
+    private final long intervaloNanos;
+
+    /** Bytes pendentes que antecipam a gravação. */
+    private final int limiteLoteBytes;
+
+    /** Bytes pendentes a partir dos quais quem altera grava ele mesmo. */
+    private final int limitePendenteBytes;
+
+    /** Protege os indicadores abaixo. */
+    private final ReentrantLock trava = new ReentrantLock();
+
+    /** Acorda a thread de gravação. */
+    private final Condition aviso = trava.newCondition();
+
+    /** Há alterações esperando a próxima gravação. */
+    private boolean agendado;
+
+    /** {@link #close()} foi chamado. */
+    private boolean encerrado;
+
+    /** Falha da última gravação em segundo plano (null se gravou). */
+    private volatile IOException ultimaFalha;
+
+    private final Thread gravador;
+
+    /**
+     * Cria o gravador e inicia sua thread.
+     *
+     * @param journal             Journal a gravar
+     * @param intervaloMillis     Tempo máximo que uma alteração espera
+     *                            para ir ao disco
+     * @param limiteLoteBytes     Bytes pendentes que disparam a gravação
+     *                            antes do intervalo
+     * @param limitePendenteBytes Bytes pendentes a partir dos quais quem
+     *                            altera grava ele mesmo (contrapressão)
+     */
+    public GravadorJournal(JournalUsuarios journal, long intervaloMillis, int limiteLoteBytes,
+            int limitePendenteBytes) {
+        if (intervaloMillis <= 0 || limiteLoteBytes <= 0 || limitePendenteBytes < limiteLoteBytes) {
+            throw new IllegalArgumentException("Intervalo e limites devem ser positivos, com o lote até o limite de pendentes");
+        }
+        this.journal = journal;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMillis);
+        this.limiteLoteBytes = limiteLoteBytes;
+        this.limitePendenteBytes = limitePendenteBytes;
+        this.gravador = new Thread(this::executar, "gravacao-journal");
+        this.gravador.setDaemon(true);
+        this.gravador.start();
+    }
+
+    /**
+     * Avisa que um registro foi anexado ao journal.
+     *
+     * <p>
+     * Normalmente volta sem esperar o disco. Se a fila estiver cheia,
+     * grava até o registro antes de voltar.
+     * </p>
+     *
+     * @param lsn LSN devolvido por {@link JournalUsuarios#anexar}
+     * @throws IOException Se a fila estava cheia e a gravação falhou (o
+     *                     registro continua pendente e a falha fica em
+     *                     {@link #getUltimaFalha()})
+     */
+    public void registrado(long lsn) throws IOException {
+        int pendentes = journal.getBytesPendentes();
+        if (pendentes >= limitePendenteBytes) {
+            gravar(lsn);
+            return;
+        }
+        trava.lock();
+        try {
+            if (!agendado || pendentes >= limiteLoteBytes) {
+                agendado = true;
+                aviso.signal();
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Grava agora todos os registros anexados até aqui.
+     *
+     * @throws IOException Se a gravação falhar (também guardada em
+     *                     {@link #getUltimaFalha()})
+     */
+    public void descarregar() throws IOException {
+        gravar(journal.getUltimoLsn());
+    }
+
+    /**
+     * Retorna a falha da última gravação, em segundo plano ou não.
+     *
+     * @return Exceção da última tentativa, ou null se ela gravou
+     */
+    public IOException getUltimaFalha() {
+        return ultimaFalha;
+    }
+
+    /**
+     * Encerra a thread e grava o que estiver pendente.
+     *
+     * @throws IOException Se a gravação final falhar
+     */
+    @Override
+    public void close() throws IOException {
+        trava.lock();
+        try {
+            encerrado = true;
+            aviso.signal();
+        } finally {
+            trava.unlock();
+        }
+        boolean interrompida = false;
+        while (gravador.isAlive()) {
+            try {
+                gravador.join();
+            } catch (InterruptedException e) {
+                interrompida = true; // Espera até o fim e preserva a interrupção
+            }
+        }
+        if (interrompida) {
+            Thread.currentThread().interrupt();
+        }
+        descarregar();
+    }
+
+    /** Laço da thread: espera alterações, agrupa e grava. */
+    private void executar() {
+        while (true) {
+            trava.lock();
+            try {
+                while (!agendado && !encerrado) {
+                    aviso.awaitUninterruptibly();
+                }
+                if (encerrado) {
+                    return;
+                }
+                // Janela de agrupamento: até o intervalo ou um lote cheio
+                long resta = intervaloNanos;
+                while (resta > 0 && !encerrado && journal.getBytesPendentes() < limiteLoteBytes) {
+                    resta = aviso.awaitNanos(resta);
+                }
+                agendado = false;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                trava.unlock();
+            }
+            gravarPendentes();
+        }
+    }
+
+    private void gravarPendentes() {
+        try {
+            gravar(journal.getUltimoLsn());
+        } catch (IOException e) {
+            // Os registros voltam ao buffer; quem alterar em seguida vê a
+            // falha e tenta de novo, e o encerramento grava de forma síncrona
+        }
+    }
+
+    /** Grava até o LSN e guarda o resultado em {@link #ultimaFalha}. */
+    private void gravar(long lsn) throws IOException {
+        try {
+            journal.sincronizar(lsn);
+            ultimaFalha = null;
+        } catch (IOException e) {
+            ultimaFalha = e;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package service.persistencia;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Log append-only (write-ahead log) das alterações de usuários.
+ * 
+ * <p>
+ * Em vez de reescrever o arquivo inteiro de usuários a cada curtida,
+ * cada alteração é anexada ao final do journal como um registro
+ * binário pequeno. O custo de salvar passa a ser proporcional ao
+ * tamanho da alteração, e não ao número de usuários.
+ * </p>
+ * 
+ * <h2>Segmentos</h2>
+ * <p>
+ * O journal é dividido em segmentos numerados ({@code usuarios.journal.1},
+ * {@code usuarios.journal.2}, ...). A compactação fecha o segmento atual
+ * com {@link #rotacionar()}, grava um snapshot e então apaga os segmentos
+ * antigos com {@link #descartarAte(int)}.
+ * </p>
+ * 
+ * <h2>Formato do Registro</h2>
+ * 
+ * <pre>
+ *   [int tamanho][int crc32][long lsn][alteração...]
+ * </pre>
+ * <p>
+ * O LSN (log sequence number) cresce a cada registro. O snapshot guarda
+ * o último LSN que já contém, e registros com LSN menor ou igual são
+ * ignorados na reaplicação. O CRC detecta registros cortados por uma
+ * queda no meio da escrita: a leitura do segmento para no primeiro
+ * registro inválido.
+ * </p>
+ * 
+ * <h2>Group Commit</h2>
+ * <p>
+ * {@link #anexar(AlteracaoUsuario)} apenas coloca o registro em um buffer
+ * em memória. {@link #sincronizar(long)} garante que ele chegou ao disco:
+ * a primeira thread que chega grava de uma vez todos os registros
+ * pendentes (com um único fsync), enquanto as demais apenas aguardam.
+ * </p>
+ * 
+ * @see AlteracaoUsuario
+ * @see service.UsuarioService
+ */
+public class JournalUsuarios implements Closeable {
+
+    /** Tamanho máximo aceito para um registro (proteção contra lixo). */
+    private static final int TAMANHO_MAXIMO_REGISTRO = 1 << 20;
+
+    /** Diretório onde os segmentos são gravados. */
+    private final File diretorio;
+
+    /** Prefixo do nome dos arquivos de segmento. */
+    private final String prefixo;
+
+    /** Trava que protege o buffer pendente e os contadores de LSN. */
+    private final ReentrantLock trava = new ReentrantLock();
+
+    /** Sinaliza o fim de uma gravação em lote. */
+    private final Condition gravacaoConcluida = trava.newCondition();
+
+    /** Registros anexados que ainda não foram gravados. */
+    private ByteArrayOutputStream pendente = new ByteArrayOutputStream();
+
+    /** Canal do segmento atual (aberto sob demanda). */
+    private FileChannel canal;
+
+    /** Número do segmento que recebe novos registros. */
+    private int segmentoAtual;
+
+    /**
+     * Bytes já gravados no segmento atual. Também é o fim do último lote
+     * gravado por inteiro: o que houver depois é rastro de uma tentativa
+     * que falhou.
+     */
+    private long tamanhoSegmento;
+
+    /** Último LSN atribuído a um registro. */
+    private long ultimoLsn;
+
+    /** Último LSN com garantia de estar em disco. */
+    private long lsnDuravel;
+
+    /** Indica se alguma thread está gravando um lote. */
+    private boolean gravando;
+
+    /**
+     * Cria o journal sobre um diretório.
+     * 
+     * <p>
+     * Nenhum arquivo é criado até o primeiro registro ser gravado.
+     * Novos registros sempre vão para um segmento novo, posterior aos
+     * que já existem em disco.
+     * </p>
+     * 
+     * @param diretorio Diretório dos segmentos
+     * @param prefixo   Prefixo dos arquivos (ex.: "usuarios.journal")
+     */
+    public JournalUsuarios(File diretorio, String prefixo) {
+        this.diretorio = diretorio;
+        this.prefixo = prefixo;
+        List<Integer> existentes = listarSegmentos();
+        this.segmentoAtual = existentes.isEmpty() ? 1 : existentes.get(existentes.size() - 1) + 1;
+    }
+
+    /**
+     * Reaplica todos os registros gravados com LSN maior que o informado.
+     * 
+     * <p>
+     * Os segmentos são lidos em ordem. Um registro incompleto ou com CRC
+     * inválido encerra a leitura daquele segmento (é o rastro de uma
+     * escrita interrompida). Após a reaplicação, o contador de LSN
+     * continua a partir do maior valor encontrado.
+     * </p>
+     * 
+     * @param lsnMinimo  LSN já contido no snapshot
+     * @param consumidor Função que aplica cada alteração
+     * @return Número de alterações reaplicadas
+     * @throws IOException Se um segmento não puder ser lido
+     */
+    public int reproduzir(long lsnMinimo, Consumer<AlteracaoUsuario> consumidor) throws IOException {
+        return reproduzirComLsn(lsnMinimo, (alteracao, lsn) -> consumidor.accept(alteracao));
+    }
+
+    /**
+     * Como {@link #reproduzir(long, Consumer)}, entregando também o LSN de
+     * cada alteração.
+     * 
+     * @param lsnMinimo  LSN já contido no armazenamento
+     * @param consumidor Função que aplica cada alteração, com seu LSN
+     * @return Número de alterações entregues
+     * @throws IOException Se um segmento não puder ser lido
+     */
+    public int reproduzirComLsn(long lsnMinimo, ObjLongConsumer<AlteracaoUsuario> consumidor) throws IOException {
+        long maiorLsn = lsnMinimo;
+        int aplicadas = 0;
+
+        for (int segmento : listarSegmentos()) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(arquivoSegmento(segmento))))) {
+                byte[] registro;
+                while ((registro = lerRegistro(in)) != null) {
+                    DataInputStream dados = new DataInputStream(new ByteArrayInputStream(registro));
+                    long lsn = dados.readLong();
+                    if (lsn > lsnMinimo) {
+                        consumidor.accept(AlteracaoUsuario.ler(dados), lsn);
+                        aplicadas++;
+                    }
+                    maiorLsn = Math.max(maiorLsn, lsn);
+                }
+            }
+        }
+
+        trava.lock();
+        try {
+            ultimoLsn = Math.max(ultimoLsn, maiorLsn);
+            lsnDuravel = ultimoLsn;
+        } finally {
+            trava.unlock();
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Lê o próximo registro válido de um segmento.
+     * 
+     * @return Bytes do registro (LSN + alteração), ou null no fim do segmento
+     */
+    private byte[] lerRegistro(DataInputStream in) throws IOException {
+        try {
+            int tamanho = in.readInt();
+            if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO_REGISTRO) {
+                return null;
+            }
+            int crcEsperado = in.readInt();
+            byte[] registro = new byte[tamanho];
+            in.readFully(registro);
+
+            CRC32 crc = new CRC32();
+            crc.update(registro);
+            return (int) crc.getValue() == crcEsperado ? registro : null;
+        } catch (EOFException e) {
+            // Registro cortado no fim do segmento
+            return null;
+        }
+    }
+
+    /**
+     * Anexa uma alteração ao buffer do journal.
+     * 
+     * <p>
+     * O registro ainda não está em disco ao retornar; use
+     * {@link #sincronizar(long)} com o LSN devolvido para aguardar a
+     * gravação.
+     * </p>
+     * 
+     * @param alteracao Alteração a registrar
+     * @return LSN atribuído ao registro
+     */
+    public long anexar(AlteracaoUsuario alteracao) {
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream(64);
+        try {
+            DataOutputStream out = new DataOutputStream(corpo);
+            out.writeLong(0L); // Espaço reservado para o LSN
+            alteracao.escrever(out);
+        } catch (IOException e) {
+            // ByteArrayOutputStream não lança IOException
+            throw new UncheckedIOException(e);
+        }
+        byte[] registro = corpo.toByteArray();
+
+        trava.lock();
+        try {
+            long lsn = ++ultimoLsn;
+            ByteBuffer.wrap(registro).putLong(0, lsn);
+
+            CRC32 crc = new CRC32();
+            crc.update(registro);
+
+            DataOutputStream out = new DataOutputStream(pendente);
+            out.writeInt(registro.length);
+            out.writeInt((int) crc.getValue());
+            out.write(registro);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Garante que todos os registros até o LSN informado estão em disco.
+     * 
+     * <p>
+     * Implementa o group commit: se nenhuma gravação estiver em curso,
+     * esta thread grava todo o buffer pendente com um único fsync; caso
+     * contrário, aguarda a gravação atual e verifica novamente.
+     * </p>
+     * 
+     * @param lsn LSN devolvido por {@link #anexar(AlteracaoUsuario)}
+     * @throws IOException Se a gravação falhar
+     */
+    public void sincronizar(long lsn) throws IOException {
+        trava.lock();
+        try {
+            while (lsnDuravel < lsn) {
+                if (gravando) {
+                    gravacaoConcluida.awaitUninterruptibly();
+                    continue;
+                }
+                gravando = true;
+                byte[] lote = pendente.toByteArray();
+                pendente.reset();
+                long ate = ultimoLsn;
+
+                trava.unlock();
+                IOException erro = null;
+                try {
+                    gravarNoSegmento(lote);
+                } catch (IOException e) {
+                    erro = e;
+                } finally {
+                    trava.lock();
+                }
+
+                gravando = false;
+                if (erro != null) {
+                    // Devolve o lote ao buffer para uma próxima tentativa
+                    ByteArrayOutputStream restaurado = new ByteArrayOutputStream();
+                    restaurado.write(lote);
+                    pendente.writeTo(restaurado);
+                    pendente = restaurado;
+                    gravacaoConcluida.signalAll();
+                    throw erro;
+                }
+                lsnDuravel = Math.max(lsnDuravel, ate);
+                gravacaoConcluida.signalAll();
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Grava um lote no segmento atual e força a ida ao disco.
+     * Só é chamado pela thread que detém a vez de gravar.
+     * 
+     * <p>
+     * O lote é gravado logo após o último lote completo. Se uma tentativa
+     * anterior falhou no meio (registro cortado) ou só no fsync (lote já
+     * escrito), o arquivo é cortado de volta antes: o lote devolvido ao
+     * buffer não fica depois de um registro inválido, que encerraria a
+     * leitura do segmento, nem é gravado duas vezes.
+     * </p>
+     */
+    private void gravarNoSegmento(byte[] lote) throws IOException {
+        if (lote.length == 0) {
+            return;
+        }
+        if (canal == null) {
+            canal = FileChannel.open(arquivoSegmento(segmentoAtual).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            tamanhoSegmento = canal.size();
+        }
+        if (canal.size() > tamanhoSegmento) {
+            canal.truncate(tamanhoSegmento);
+        }
+        escreverLote(canal, ByteBuffer.wrap(lote), tamanhoSegmento);
+        tamanhoSegmento += lote.length;
+    }
+
+    /**
+     * Escreve o lote na posição informada e força a ida ao disco.
+     * 
+     * <p>
+     * Separado para que os testes possam simular falhas de escrita e de
+     * fsync.
+     * </p>
+     * 
+     * @param canal   Canal do segmento atual
+     * @param lote    Registros a gravar
+     * @param posicao Fim do último lote completo
+     * @throws IOException Se a escrita ou o fsync falhar
+     */
+    protected void escreverLote(FileChannel canal, ByteBuffer lote, long posicao) throws IOException {
+        while (lote.hasRemaining()) {
+            posicao += canal.write(lote, posicao);
+        }
+        canal.force(false);
+    }
+
+    /**
+     * Fecha o segmento atual e passa a gravar em um novo.
+     * 
+     * <p>
+     * Registros pendentes são gravados no segmento que está sendo
+     * fechado. Usado pela compactação: depois que o snapshot com o
+     * {@link #getUltimoLsn()} anterior à rotação estiver salvo, os
+     * segmentos até o número devolvido podem ser descartados.
+     * </p>
+     * 
+     * @return Número do segmento fechado
+     * @throws IOException Se a gravação dos pendentes falhar
+     */
+    public int rotacionar() throws IOException {
+        trava.lock();
+        try {
+            while (gravando) {
+                gravacaoConcluida.awaitUninterruptibly();
+            }
+            gravarNoSegmento(pendente.toByteArray());
+            pendente.reset();
+            lsnDuravel = ultimoLsn;
+            fecharCanal();
+            int fechado = segmentoAtual;
+            segmentoAtual++;
+            return fechado;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Apaga os segmentos com número menor ou igual ao informado.
+     * 
+     * @param segmento Último segmento a apagar
+     */
+    public void descartarAte(int segmento) {
+        for (int n : listarSegmentos()) {
+            if (n <= segmento) {
+                arquivoSegmento(n).delete();
+            }
+        }
+    }
+
+    /**
+     * Retorna o último LSN atribuído.
+     * 
+     * @return Último LSN
+     */
+    public long getUltimoLsn() {
+        trava.lock();
+        try {
+            return ultimoLsn;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Retorna o último LSN com garantia de estar em disco.
+     * 
+     * @return LSN durável
+     */
+    public long getLsnDuravel() {
+        trava.lock();
+        try {
+            return lsnDuravel;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Retorna quantos bytes foram anexados e ainda não gravados.
+     * 
+     * @return Bytes pendentes no buffer
+     */
+    public int getBytesPendentes() {
+        trava.lock();
+        try {
+            return pendente.size();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Retorna o tamanho em bytes do segmento atual, incluindo o que
+     * ainda está no buffer. Usado para decidir quando compactar.
+     * 
+     * @return Tamanho do segmento atual
+     */
+    public long getTamanhoSegmentoAtual() {
+        trava.lock();
+        try {
+            return tamanhoSegmento + pendente.size();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Grava os pendentes e fecha o segmento atual.
+     * 
+     * @throws IOException Se a gravação falhar
+     */
+    @Override
+    public void close() throws IOException {
+        trava.lock();
+        try {
+            while (gravando) {
+                gravacaoConcluida.awaitUninterruptibly();
+            }
+            gravarNoSegmento(pendente.toByteArray());
+            pendente.reset();
+            lsnDuravel = ultimoLsn;
+            fecharCanal();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void fecharCanal() throws IOException {
+        if (canal != null) {
+            canal.close();
+            canal = null;
+        }
+        tamanhoSegmento = 0;
+    }
+
+    private File arquivoSegmento(int numero) {
+        return new File(diretorio, prefixo + "." + numero);
+    }
+
+    /**
+     * Lista os números dos segmentos existentes, em ordem crescente.
+     */
+    private List<Integer> listarSegmentos() {
+        List<Integer> numeros = new ArrayList<>();
+        String[] nomes = diretorio.list();
+        if (nomes == null) {
+            return numeros;
+        }
+        String inicio = prefixo + ".";
+        for (String nome : nomes) {
+            if (nome.startsWith(inicio)) {
+                try {
+                    numeros.add(Integer.parseInt(nome.substring(inicio.length())));
+                } catch (NumberFormatException e) {
+                    // Arquivo com o mesmo prefixo, mas que não é segmento
+                }
+            }
+        }
+        Collections.sort(numeros);
+        return numeros;
+    }
+}
@@ -0,0 +1,149 @@
+package service.persistencia.legado;
+
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Leitura de usuários gravados antes de as curtidas e as playlists
+ * guardarem só o ID dos áudios no catálogo.
+ *
+ * <p>
+ * No formato antigo cada usuário (serialVersionUID 3) e cada playlist
+ * (serialVersionUID 1) levam cópias dos áudios. Este fluxo lê essas
+ * versões como as classes {@link Usuario} e {@link Playlist} deste
+ * pacote, e {@link #converter(Object)} monta o usuário atual trocando
+ * cada cópia pelo áudio do catálogo de mesmo tipo, título e autor
+ * (artista da música ou apresentador do podcast). Áudios que não estão
+ * mais no catálogo são descartados.
+ * </p>
+ *
+ * <p>
+ * Usuários já no formato atual são lidos e devolvidos sem alteração.
+ * </p>
+ *
+ * @see service.UsuarioService#carregarUsuarios()
+ */
+public class EntradaUsuariosLegado extends ObjectInputStream {
+
+    private static final long UID_USUARIO_ANTIGO = 3L;
+    private static final long UID_PLAYLIST_ANTIGA = 1L;
+
+    private final Supplier<? extends Collection<Audio>> catalogo;
+
+    /** Áudios do catálogo por {@link #chave(Audio)}; montado no primeiro usuário antigo. */
+    private Map<String, Audio> porChave;
+
+    /**
+     * Cria o fluxo de leitura.
+     *
+     * @param entrada  Conteúdo serializado
+     * @param catalogo Fornece os áudios do catálogo; só é consultado se
+     *                 houver algum usuário no formato antigo
+     * @throws IOException Se o cabeçalho do fluxo não puder ser lido
+     */
+    public EntradaUsuariosLegado(InputStream entrada, Supplier<? extends Collection<Audio>> catalogo)
+            throws IOException {
+        super(entrada);
+        this.catalogo = catalogo;
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass descritor) throws IOException, ClassNotFoundException {
+        String nome = descritor.getName();
+        long uid = descritor.getSerialVersionUID();
+        if (nome.equals(model.usuario.Usuario.class.getName()) && uid == UID_USUARIO_ANTIGO) {
+            return Usuario.class;
+        }
+        if (nome.equals(model.playlist.Playlist.class.getName()) && uid == UID_PLAYLIST_ANTIGA) {
+            return Playlist.class;
+        }
+        return super.resolveClass(descritor);
+    }
+
+    /**
+     * Converte um usuário lido deste fluxo para o formato atual.
+     *
+     * <p>
+     * As curtidas e os itens das playlists apontam para os áudios do
+     * catálogo, sem alterar os contadores de curtidas deles.
+     * </p>
+     *
+     * @param lido Objeto lido deste fluxo
+     * @return O próprio objeto, se já estiver no formato atual, ou o
+     *         usuário convertido
+     * @throws InvalidObjectException Se o objeto não for um usuário
+     */
+    public model.usuario.Usuario converter(Object lido) throws InvalidObjectException {
+        if (lido instanceof model.usuario.Usuario atual) {
+            return atual;
+        }
+        if (!(lido instanceof Usuario antigo)) {
+            throw new InvalidObjectException("Registro de usuário inválido: "
+                    + (lido == null ? "null" : lido.getClass().getName()));
+        }
+
+        model.usuario.Usuario usuario = model.usuario.Usuario.restaurar(antigo.id, antigo.email,
+                antigo.senhaHash, antigo.nome);
+        if (antigo.curtidas != null) {
+            for (Audio audio : antigo.curtidas) {
+                Audio doCatalogo = localizar(audio);
+                if (doCatalogo != null) {
+                    usuario.getCurtidas().add(doCatalogo);
+                }
+            }
+        }
+        if (antigo.playlists != null) {
+            List<model.playlist.Playlist> playlists = usuario.getPlaylists();
+            for (Playlist playlistAntiga : antigo.playlists) {
+                usuario.criarPlaylist(playlistAntiga.nome);
+                model.playlist.Playlist playlist = playlists.get(playlists.size() - 1);
+                if (playlistAntiga.itens != null) {
+                    for (Audio audio : playlistAntiga.itens) {
+                        Audio doCatalogo = localizar(audio);
+                        if (doCatalogo != null) {
+                            playlist.adicionarItem(doCatalogo);
+                        }
+                    }
+                }
+            }
+        }
+        usuario.setEstadoPlayerIndice(antigo.estadoPlayerIndice);
+        return usuario;
+    }
+
+    private Audio localizar(Audio copia) {
+        if (copia == null) {
+            return null;
+        }
+        if (porChave == null) {
+            porChave = new HashMap<>();
+            for (Audio audio : catalogo.get()) {
+                porChave.putIfAbsent(chave(audio), audio);
+            }
+        }
+        return porChave.get(chave(copia));
+    }
+
+    /** Tipo, título e autor: o que identifica um áudio entre versões do catálogo. */
+    private static String chave(Audio audio) {
+        String autor = "";
+        if (audio instanceof Musica musica) {
+            autor = musica.getNomeArtista();
+        } else if (audio instanceof Podcast podcast) {
+            autor = podcast.getApresentador();
+        }
+        return audio.getClass().getName() + '\n' + audio.getTitulo() + '\n' + autor;
+    }
+}
@@ -0,0 +1,24 @@
+package service.persistencia.legado;
+
+import model.midia.Audio;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Playlist como era gravada no antigo "usuarios.db" (serialVersionUID 1),
+ * com os áudios embutidos.
+ *
+ * <p>
+ * Só é usada na leitura por {@link EntradaUsuariosLegado}. O nome simples
+ * da classe, o serialVersionUID e os campos precisam continuar iguais aos
+ * da classe gravada.
+ * </p>
+ */
+class Playlist implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    String nome;
+    List<Audio> itens;
+}
@@ -0,0 +1,30 @@
+package service.persistencia.legado;
+
+import model.midia.Audio;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Usuário como era gravado no antigo "usuarios.db" (serialVersionUID 3),
+ * com os áudios curtidos e as playlists embutidos no próprio registro.
+ *
+ * <p>
+ * Só é usado na leitura por {@link EntradaUsuariosLegado}. O nome simples
+ * da classe, o serialVersionUID e os campos precisam continuar iguais aos
+ * da classe gravada.
+ * </p>
+ */
+class Usuario implements Serializable {
+
+    private static final long serialVersionUID = 3L;
+
+    String id;
+    String email;
+    String senhaHash;
+    String nome;
+    List<Playlist> playlists;
+    Set<Audio> curtidas;
+    int estadoPlayerIndice;
+}
@@ -0,0 +1,20 @@
+/**
+ * Leitura de formatos antigos de persistência de usuários.
+ * 
+ * <p>
+ * Os arquivos gravados por versões anteriores continuam legíveis: ao
+ * carregar, o serviço de usuários lê o antigo "usuarios.db" por este
+ * pacote e grava os usuários convertidos no formato atual, uma única
+ * vez.
+ * </p>
+ * 
+ * <h2>Classes Disponíveis</h2>
+ * <ul>
+ * <li>{@link service.persistencia.legado.EntradaUsuariosLegado} - Fluxo
+ * de leitura que aceita usuários e playlists com áudios embutidos e os
+ * converte para áudios do catálogo</li>
+ * </ul>
+ * 
+ * @see service.UsuarioService
+ */
+package service.persistencia.legado;
@@ -0,0 +1,51 @@
+/**
+ * Pacote de persistência em disco do AudioStreaming.
+ * 
+ * <p>
+ * Este pacote contém as classes de apoio usadas pelos serviços para
+ * gravar e recuperar dados do disco sem precisar reescrever todo o
+ * estado a cada alteração.
+ * </p>
+ * 
+ * <h2>Classes Disponíveis</h2>
+ * <ul>
+ * <li>{@link service.persistencia.CodecCatalogo} - Formato binário
+ * compacto do catálogo</li>
+ * <li>{@link service.persistencia.CatalogoMapeado} - Catálogo mapeado em
+ * memória, decodificado sob demanda</li>
+ * <li>{@link service.persistencia.AlteracaoUsuario} - Registro binário de
+ * uma alteração em um usuário</li>
+ * <li>{@link service.persistencia.JournalUsuarios} - Log append-only
+ * (write-ahead log) das alterações de usuários</li>
+ * <li>{@link service.persistencia.GravadorJournal} - Gravação do journal
+ * em segundo plano, em lotes, com contrapressão</li>
+ * <li>{@link service.persistencia.ArquivoSnapshot} - Gravação atômica de
+ * snapshots com CRC32C e geração anterior</li>
+ * <li>{@link service.persistencia.ArmazemUsuarios} - Um registro por
+ * usuário, em partições com índice e lápides</li>
+ * </ul>
+ * <p>
+ * A leitura de formatos antigos fica em {@link service.persistencia.legado}.
+ * </p>
+ * 
+ * <h2>Journal + Snapshot</h2>
+ * <p>
+ * Cada alteração gera um registro pequeno anexado ao final do journal.
+ * Periodicamente o estado é gravado e os segmentos antigos do journal
+ * são descartados (compactação). Ao iniciar, o journal é reaplicado
+ * sobre o estado gravado.
+ * </p>
+ * <p>
+ * O catálogo é gravado inteiro em um snapshot. Os usuários ficam no
+ * {@link service.persistencia.ArmazemUsuarios}: a compactação regrava
+ * só os usuários alterados, e cada um é lido quando usado.
+ * </p>
+ * <p>
+ * Os snapshots são trocados de uma vez por {@link
+ * service.persistencia.ArquivoSnapshot}, que guarda a versão anterior e
+ * confere as somas de verificação antes de qualquer leitura.
+ * </p>
+ * 
+ * @see service.UsuarioService
+ */
+package service.persistencia;
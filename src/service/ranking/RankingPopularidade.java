@@ -0,0 +1,558 @@
+package service.ranking;
+
+import interfaces.OuvintePopularidade;
+import model.midia.Audio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Ranking de popularidade mantido de forma incremental.
+ * 
+ * <p>
+ * Guarda os áudios do catálogo ordenados por curtidas (decrescente) e,
+ * em caso de empate, por reproduções (decrescente). Em vez de ordenar o
+ * catálogo inteiro a cada consulta, cada curtida ou reprodução apenas
+ * reposiciona o áudio alterado em O(log n).
+ * </p>
+ * 
+ * <h2>Estrutura</h2>
+ * <p>
+ * Uma treap (árvore de busca binária com prioridades de heap) com
+ * contagem de nós por subárvore, o que a torna uma árvore de estatística
+ * de ordem:
+ * </p>
+ * <ul>
+ * <li>{@link #getPorPosicao(int)} - o k-ésimo mais popular em O(log n)</li>
+ * <li>{@link #getPosicao(Audio)} - a posição de um áudio em O(log n)</li>
+ * <li>{@link #getPagina(int, int)} - uma página do ranking em
+ * O(log n + tamanho da página)</li>
+ * </ul>
+ * <p>
+ * Os nós ficam em arrays paralelos indexados pelo ID do áudio
+ * ({@link Audio#getId()}), sem um objeto por nó. Cada nó guarda as
+ * curtidas e reproduções com que foi inserido, de modo que ele sempre
+ * pode ser localizado e removido mesmo depois que o áudio mudou.
+ * </p>
+ * <p>
+ * Um nó também pode ser inserido só pelo ID e pelos totais
+ * ({@link #inserir(int, long, long)}); o áudio é obtido do catálogo
+ * quando aparece em uma consulta. Assim o catálogo mapeado é ordenado
+ * sem decodificar os áudios que nunca são exibidos.
+ * </p>
+ * 
+ * <h2>Leitura Concorrente</h2>
+ * <p>
+ * As operações são sincronizadas. A lista completa, porém, também é
+ * publicada como uma fotografia imutável ({@link #getInstantaneo()}):
+ * enquanto o ranking não muda, várias threads a leem sem travas.
+ * </p>
+ * 
+ * <h2>Desempate</h2>
+ * <p>
+ * Áudios com as mesmas curtidas e reproduções ficam na ordem do
+ * catálogo (menor ID primeiro), garantindo uma ordem total e estável.
+ * </p>
+ * 
+ * @see OuvintePopularidade
+ * @see service.BibliotecaService#getCatalogoPorPopularidade()
+ */
+public class RankingPopularidade implements OuvintePopularidade {
+
+    /** Indica ausência de nó (filho vazio). */
+    private static final int NULO = -1;
+
+    /** Capacidade inicial dos arrays. */
+    private static final int CAPACIDADE_INICIAL = 64;
+
+    /**
+     * Catálogo usado para obter os áudios inseridos só pelo ID, ou null
+     * se todos são inseridos como objeto.
+     */
+    private final IntFunction<Audio> catalogo;
+
+    /** Indica os IDs presentes no ranking. */
+    private boolean[] presentes = new boolean[CAPACIDADE_INICIAL];
+
+    /** Áudio de cada nó (posição = ID do áudio; null se ainda não obtido). */
+    private Audio[] audios = new Audio[CAPACIDADE_INICIAL];
+
+    /** Curtidas usadas como chave quando o nó foi inserido. */
+    private long[] curtidas = new long[CAPACIDADE_INICIAL];
+
+    /** Reproduções usadas como chave quando o nó foi inserido. */
+    private long[] reproducoes = new long[CAPACIDADE_INICIAL];
+
+    /** Prioridade de heap de cada nó. */
+    private int[] prioridades = new int[CAPACIDADE_INICIAL];
+
+    /** Filho esquerdo (mais popular). */
+    private int[] esquerda = new int[CAPACIDADE_INICIAL];
+
+    /** Filho direito (menos popular). */
+    private int[] direita = new int[CAPACIDADE_INICIAL];
+
+    /** Número de nós da subárvore enraizada em cada nó. */
+    private int[] tamanhos = new int[CAPACIDADE_INICIAL];
+
+    /** Raiz da treap. */
+    private int raiz = NULO;
+
+    /** Versão do ranking, incrementada a cada mudança de ordem. */
+    private volatile long versao;
+
+    /** Última lista completa publicada e a versão de que ela é cópia. */
+    private volatile Instantaneo instantaneo;
+
+    /** Resultado esquerdo de {@link #dividir(int, int)}. */
+    private int divisaoEsquerda;
+
+    /** Resultado direito de {@link #dividir(int, int)}. */
+    private int divisaoDireita;
+
+    /**
+     * Cria um ranking vazio em que os áudios são inseridos como objetos.
+     */
+    public RankingPopularidade() {
+        this(null);
+    }
+
+    /**
+     * Cria um ranking vazio que também aceita áudios inseridos só pelo
+     * ID.
+     * 
+     * @param catalogo Devolve o áudio do catálogo com o ID informado
+     */
+    public RankingPopularidade(IntFunction<Audio> catalogo) {
+        this.catalogo = catalogo;
+    }
+
+    /**
+     * Insere um áudio do catálogo no ranking.
+     * 
+     * <p>
+     * O áudio já deve ter recebido um ID. Inserir novamente um áudio
+     * presente apenas atualiza sua posição.
+     * </p>
+     * 
+     * @param audio Áudio a inserir
+     * @throws IllegalArgumentException Se o áudio não tiver ID
+     */
+    public synchronized void inserir(Audio audio) {
+        int id = audio.getId();
+        if (id < 0) {
+            throw new IllegalArgumentException("Áudio sem ID no catálogo: " + audio.getTitulo());
+        }
+        inserirNo(id, audio, audio.getTotalCurtidas(), audio.getTotalReproducoes());
+    }
+
+    /**
+     * Insere um áudio do catálogo pelo ID e pelos totais, sem o objeto.
+     * 
+     * <p>
+     * O áudio só é obtido do catálogo quando aparece em uma consulta.
+     * Inserir novamente um ID presente apenas atualiza sua posição.
+     * </p>
+     * 
+     * @param id          ID do áudio no catálogo
+     * @param curtidas    Curtidas do áudio neste momento
+     * @param reproducoes Reproduções do áudio neste momento
+     * @throws IllegalArgumentException Se o ID for negativo
+     * @throws IllegalStateException    Se o ranking foi criado sem
+     *                                  catálogo
+     */
+    public synchronized void inserir(int id, long curtidas, long reproducoes) {
+        if (id < 0) {
+            throw new IllegalArgumentException("ID inválido no catálogo: " + id);
+        }
+        if (catalogo == null) {
+            throw new IllegalStateException("Ranking sem catálogo: insira o áudio");
+        }
+        inserirNo(id, null, curtidas, reproducoes);
+    }
+
+    private void inserirNo(int id, Audio audio, long novasCurtidas, long novasReproducoes) {
+        garantirCapacidade(id + 1);
+        if (presentes[id]) {
+            raiz = remover(raiz, id);
+        }
+        presentes[id] = true;
+        audios[id] = audio;
+        curtidas[id] = novasCurtidas;
+        reproducoes[id] = novasReproducoes;
+        prioridades[id] = misturar(id);
+        esquerda[id] = NULO;
+        direita[id] = NULO;
+        tamanhos[id] = 1;
+        raiz = inserir(raiz, id);
+        versao++;
+    }
+
+    /**
+     * Reposiciona o áudio alterado.
+     * 
+     * <p>
+     * Lê uma fotografia dos contadores do áudio e a guarda como nova
+     * chave. Avisos simultâneos de várias threads chegam aqui um de cada
+     * vez, e o último lê os totais mais recentes.
+     * </p>
+     * 
+     * @param audio Áudio cujas estatísticas mudaram
+     */
+    @Override
+    public synchronized void popularidadeAlterada(Audio audio) {
+        int id = audio.getId();
+        if (!pertence(id, audio)) {
+            return; // Não pertence a este ranking
+        }
+        long novasCurtidas = audio.getTotalCurtidas();
+        long novasReproducoes = audio.getTotalReproducoes();
+        if (novasCurtidas == curtidas[id] && novasReproducoes == reproducoes[id]) {
+            return; // Já reposicionado por um aviso anterior
+        }
+        raiz = remover(raiz, id);
+        curtidas[id] = novasCurtidas;
+        reproducoes[id] = novasReproducoes;
+        esquerda[id] = NULO;
+        direita[id] = NULO;
+        tamanhos[id] = 1;
+        raiz = inserir(raiz, id);
+        versao++;
+    }
+
+    /**
+     * Remove todos os áudios do ranking.
+     */
+    public synchronized void limpar() {
+        Arrays.fill(presentes, false);
+        Arrays.fill(audios, null);
+        raiz = NULO;
+        versao++;
+    }
+
+    /**
+     * Retorna o número de áudios no ranking.
+     * 
+     * @return Quantidade de áudios
+     */
+    public synchronized int tamanho() {
+        return tamanho(raiz);
+    }
+
+    /**
+     * Retorna o áudio em uma posição do ranking.
+     * 
+     * @param posicao Posição (0 = mais popular)
+     * @return Áudio na posição
+     * @throws IndexOutOfBoundsException Se a posição não existir
+     */
+    public synchronized Audio getPorPosicao(int posicao) {
+        if (posicao < 0 || posicao >= tamanho(raiz)) {
+            throw new IndexOutOfBoundsException("Posição fora do ranking: " + posicao);
+        }
+        return audio(selecionar(posicao));
+    }
+
+    /**
+     * Retorna a posição de um áudio no ranking.
+     * 
+     * @param audio Áudio procurado
+     * @return Posição (0 = mais popular), ou -1 se não estiver no ranking
+     */
+    public synchronized int getPosicao(Audio audio) {
+        int id = audio.getId();
+        if (!pertence(id, audio)) {
+            return -1;
+        }
+        int posicao = 0;
+        int no = raiz;
+        while (no != NULO) {
+            int cmp = comparar(id, no);
+            if (cmp == 0) {
+                return posicao + tamanho(esquerda[no]);
+            }
+            if (cmp < 0) {
+                no = esquerda[no];
+            } else {
+                posicao += tamanho(esquerda[no]) + 1;
+                no = direita[no];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retorna o ranking completo como uma lista imutável.
+     * 
+     * <p>
+     * Se o ranking não mudou desde a última chamada, devolve a mesma
+     * lista sem travas. Caso contrário, monta uma nova cópia em O(n) e a
+     * publica para as próximas leituras.
+     * </p>
+     * 
+     * @return Todos os áudios, do mais para o menos popular
+     */
+    public List<Audio> getInstantaneo() {
+        Instantaneo atual = instantaneo;
+        if (atual != null && atual.versao == versao) {
+            return atual.audios;
+        }
+        synchronized (this) {
+            atual = new Instantaneo(versao, Collections.unmodifiableList(getPagina(0, tamanho(raiz))));
+            instantaneo = atual;
+            return atual.audios;
+        }
+    }
+
+    /**
+     * Retorna os mais populares.
+     * 
+     * @param quantidade Número máximo de áudios
+     * @return Lista com até {@code quantidade} áudios, do mais popular
+     *         para o menos popular
+     */
+    public List<Audio> getTop(int quantidade) {
+        return getPagina(0, quantidade);
+    }
+
+    /**
+     * Retorna uma página do ranking.
+     * 
+     * <p>
+     * Localiza o início da página em O(log n) e percorre a árvore em
+     * ordem apenas pelos itens pedidos.
+     * </p>
+     * 
+     * @param inicio     Posição do primeiro item (0 = mais popular)
+     * @param quantidade Número máximo de itens
+     * @return Lista com os itens da página (vazia se {@code inicio} passar
+     *         do fim)
+     */
+    public synchronized List<Audio> getPagina(int inicio, int quantidade) {
+        int total = tamanho(raiz);
+        if (inicio < 0 || quantidade <= 0 || inicio >= total) {
+            return new ArrayList<>();
+        }
+        int fim = Math.min(total, inicio + quantidade);
+        List<Audio> pagina = new ArrayList<>(fim - inicio);
+
+        // Pilha com o caminho até o primeiro item (ancestrais à direita)
+        int[] pilha = new int[64];
+        int topo = 0;
+        int no = raiz;
+        int alvo = inicio;
+        while (no != NULO) {
+            int esq = tamanho(esquerda[no]);
+            if (alvo < esq) {
+                if (topo == pilha.length) {
+                    pilha = Arrays.copyOf(pilha, topo * 2);
+                }
+                pilha[topo++] = no;
+                no = esquerda[no];
+            } else if (alvo == esq) {
+                break;
+            } else {
+                alvo -= esq + 1;
+                no = direita[no];
+            }
+        }
+
+        // Percurso em ordem a partir do primeiro item
+        while (pagina.size() < fim - inicio) {
+            pagina.add(audio(no));
+            no = direita[no];
+            while (no != NULO) {
+                if (topo == pilha.length) {
+                    pilha = Arrays.copyOf(pilha, topo * 2);
+                }
+                pilha[topo++] = no;
+                no = esquerda[no];
+            }
+            if (topo == 0) {
+                break;
+            }
+            no = pilha[--topo];
+        }
+        return pagina;
+    }
+
+    // ========= TREAP =========
+
+    /**
+     * Compara dois nós pela chave guardada.
+     * Negativo se {@code a} é mais popular que {@code b}.
+     */
+    private int comparar(int a, int b) {
+        if (curtidas[a] != curtidas[b]) {
+            return Long.compare(curtidas[b], curtidas[a]);
+        }
+        if (reproducoes[a] != reproducoes[b]) {
+            return Long.compare(reproducoes[b], reproducoes[a]);
+        }
+        return Integer.compare(a, b);
+    }
+
+    private int inserir(int no, int novo) {
+        if (no == NULO) {
+            return novo;
+        }
+        if (prioridades[novo] > prioridades[no]) {
+            dividir(no, novo);
+            esquerda[novo] = divisaoEsquerda;
+            direita[novo] = divisaoDireita;
+            atualizar(novo);
+            return novo;
+        }
+        if (comparar(novo, no) < 0) {
+            esquerda[no] = inserir(esquerda[no], novo);
+        } else {
+            direita[no] = inserir(direita[no], novo);
+        }
+        atualizar(no);
+        return no;
+    }
+
+    private int remover(int no, int alvo) {
+        if (no == NULO) {
+            return NULO;
+        }
+        if (no == alvo) {
+            return juntar(esquerda[no], direita[no]);
+        }
+        if (comparar(alvo, no) < 0) {
+            esquerda[no] = remover(esquerda[no], alvo);
+        } else {
+            direita[no] = remover(direita[no], alvo);
+        }
+        atualizar(no);
+        return no;
+    }
+
+    /**
+     * Divide a subárvore em nós mais populares que {@code chave}
+     * ({@link #divisaoEsquerda}) e os demais ({@link #divisaoDireita}).
+     */
+    private void dividir(int no, int chave) {
+        if (no == NULO) {
+            divisaoEsquerda = NULO;
+            divisaoDireita = NULO;
+            return;
+        }
+        if (comparar(no, chave) < 0) {
+            dividir(direita[no], chave);
+            direita[no] = divisaoEsquerda;
+            atualizar(no);
+            divisaoEsquerda = no;
+        } else {
+            dividir(esquerda[no], chave);
+            esquerda[no] = divisaoDireita;
+            atualizar(no);
+            divisaoDireita = no;
+        }
+    }
+
+    /**
+     * Junta duas subárvores em que todos os nós de {@code a} são mais
+     * populares que os de {@code b}.
+     */
+    private int juntar(int a, int b) {
+        if (a == NULO) {
+            return b;
+        }
+        if (b == NULO) {
+            return a;
+        }
+        if (prioridades[a] > prioridades[b]) {
+            direita[a] = juntar(direita[a], b);
+            atualizar(a);
+            return a;
+        }
+        esquerda[b] = juntar(a, esquerda[b]);
+        atualizar(b);
+        return b;
+    }
+
+    /**
+     * Localiza o nó na posição informada.
+     */
+    private int selecionar(int posicao) {
+        int no = raiz;
+        while (true) {
+            int esq = tamanho(esquerda[no]);
+            if (posicao < esq) {
+                no = esquerda[no];
+            } else if (posicao == esq) {
+                return no;
+            } else {
+                posicao -= esq + 1;
+                no = direita[no];
+            }
+        }
+    }
+
+    /** Informa se o áudio é o do nó com o seu ID. */
+    private boolean pertence(int id, Audio audio) {
+        return id >= 0 && id < presentes.length && presentes[id] && audio(id) == audio;
+    }
+
+    /** Áudio do nó, obtido do catálogo no primeiro uso se foi inserido pelo ID. */
+    private Audio audio(int no) {
+        Audio audio = audios[no];
+        if (audio == null) {
+            audio = catalogo.apply(no);
+            audios[no] = audio;
+        }
+        return audio;
+    }
+
+    private void atualizar(int no) {
+        tamanhos[no] = 1 + tamanho(esquerda[no]) + tamanho(direita[no]);
+    }
+
+    private int tamanho(int no) {
+        return no == NULO ? 0 : tamanhos[no];
+    }
+
+    /**
+     * Prioridade pseudoaleatória derivada do ID (determinística, o que
+     * torna o formato da árvore reproduzível entre execuções).
+     */
+    private static int misturar(int id) {
+        int h = id * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private void garantirCapacidade(int minimo) {
+        if (minimo <= audios.length) {
+            return;
+        }
+        int nova = Math.max(minimo, audios.length * 2);
+        presentes = Arrays.copyOf(presentes, nova);
+        audios = Arrays.copyOf(audios, nova);
+        curtidas = Arrays.copyOf(curtidas, nova);
+        reproducoes = Arrays.copyOf(reproducoes, nova);
+        prioridades = Arrays.copyOf(prioridades, nova);
+        esquerda = Arrays.copyOf(esquerda, nova);
+        direita = Arrays.copyOf(direita, nova);
+        tamanhos = Arrays.copyOf(tamanhos, nova);
+    }
+
+    /**
+     * Lista completa do ranking em uma versão.
+     */
+    private static final class Instantaneo {
+        private final long versao;
+        private final List<Audio> audios;
+
+        Instantaneo(long versao, List<Audio> audios) {
+            this.versao = versao;
+            this.audios = audios;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Pacote de rankings do catálogo do AudioStreaming.
+ * 
+ * <p>
+ * Contém estruturas mantidas de forma incremental a partir das
+ * estatísticas dos áudios, para que listagens ordenadas (como o Top
+ * Charts) possam ser lidas sem ordenar o catálogo a cada consulta.
+ * </p>
+ * 
+ * <h2>Classes Disponíveis</h2>
+ * <ul>
+ * <li>{@link service.ranking.RankingPopularidade} - Árvore de estatística
+ * de ordem por curtidas e reproduções</li>
+ * </ul>
+ * 
+ * @see service.BibliotecaService
+ */
+package service.ranking;
@@ -0,0 +1,341 @@
+package service.reproducao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roda de temporização hierárquica (hierarchical timing wheel) que
+ * avisa o fim das faixas de todos os players.
+ *
+ * <p>
+ * O tempo é dividido em ticks de {@code resolucao} milissegundos. Há
+ * {@value #NIVEIS} rodas de {@value #POSICOES} posições: a primeira guarda
+ * os temporizadores que vencem nos próximos 64 ticks, a segunda os dos
+ * próximos 64², e assim por diante. Cada posição é uma lista duplamente
+ * ligada, então agendar e cancelar custam O(1), independentemente de
+ * quantos temporizadores existam.
+ * </p>
+ *
+ * <p>
+ * A cada tick a posição corrente da primeira roda vence de uma vez. Quando
+ * a primeira roda completa uma volta, a posição correspondente da roda
+ * seguinte é redistribuída (cascata) nas rodas de baixo. Com ticks de
+ * 100 ms, quatro níveis cobrem cerca de 19 dias; atrasos maiores são
+ * limitados ao alcance da última roda.
+ * </p>
+ *
+ * <h2>Concorrência</h2>
+ * <p>
+ * Agendar, cancelar e avançar usam a mesma trava, por pouco tempo cada.
+ * As ações vencidas rodam fora dela, na thread que avançou a roda, então
+ * uma ação pode agendar ou cancelar outros temporizadores. Uma única
+ * thread (ver {@link #iniciar()}) avança a roda compartilhada por todas as
+ * sessões, em vez de uma thread agendada por sessão.
+ * </p>
+ *
+ * <h2>Erros</h2>
+ * <p>
+ * Como a thread é de todas as sessões, uma ação que lança uma exceção
+ * não interrompe as outras: a falha é entregue ao tratador de exceções
+ * não capturadas da thread ({@link Thread.UncaughtExceptionHandler}),
+ * como faria um executor, e as demais ações do tick rodam normalmente.
+ * </p>
+ *
+ * @see service.PlayerService
+ */
+public class RodaTemporizacao {
+
+    /** Bits de índice por roda. */
+    private static final int BITS = 6;
+
+    /** Posições por roda. */
+    static final int POSICOES = 1 << BITS;
+
+    /** Quantidade de rodas. */
+    static final int NIVEIS = 4;
+
+    /** Maior atraso representável, em ticks. */
+    private static final long ALCANCE = (1L << (BITS * NIVEIS)) - 1;
+
+    /** Resolução do tick padrão da roda compartilhada, em milissegundos. */
+    public static final long RESOLUCAO_PADRAO = 100;
+
+    /** Duração de um tick, em milissegundos. */
+    private final long resolucao;
+
+    /** Sentinelas das listas de cada posição: [nível][posição]. */
+    private final Temporizador[][] rodas;
+
+    /** Último tick processado (escrito sob a trava). */
+    private volatile long tickAtual;
+
+    /** Temporizadores agendados e ainda não vencidos. */
+    private int pendentes;
+
+    /** Thread que avança a roda em tempo real, se iniciada. */
+    private Thread relogio;
+
+    /**
+     * Cria uma roda parada no instante 0.
+     *
+     * @param resolucao Duração de um tick, em milissegundos
+     * @throws IllegalArgumentException Se a resolução não for positiva
+     */
+    public RodaTemporizacao(long resolucao) {
+        if (resolucao <= 0) {
+            throw new IllegalArgumentException("Resolução deve ser positiva: " + resolucao);
+        }
+        this.resolucao = resolucao;
+        this.rodas = new Temporizador[NIVEIS][POSICOES];
+        for (Temporizador[] roda : rodas) {
+            for (int i = 0; i < POSICOES; i++) {
+                roda[i] = new Temporizador(null);
+                roda[i].anterior = roda[i];
+                roda[i].proximo = roda[i];
+            }
+        }
+    }
+
+    /**
+     * Retorna a roda compartilhada pelos players, já avançando em tempo
+     * real.
+     *
+     * @return Instância única, com ticks de {@value #RESOLUCAO_PADRAO} ms
+     */
+    public static RodaTemporizacao getInstance() {
+        return Instancia.UNICA;
+    }
+
+    /**
+     * Inicialização tardia e segura da instância única.
+     */
+    private static class Instancia {
+        private static final RodaTemporizacao UNICA = new RodaTemporizacao(RESOLUCAO_PADRAO);
+
+        static {
+            UNICA.iniciar();
+        }
+    }
+
+    /**
+     * Agenda uma ação para daqui a {@code atraso} milissegundos.
+     *
+     * <p>
+     * O atraso é arredondado para cima até o próximo tick, e é de ao menos
+     * um tick.
+     * </p>
+     *
+     * @param atraso Atraso em milissegundos
+     * @param acao   Ação executada ao vencer
+     * @return Temporizador, que pode ser cancelado
+     */
+    public Temporizador agendar(long atraso, Runnable acao) {
+        Temporizador temporizador = new Temporizador(acao);
+        long ticks = Math.max(1, (atraso + resolucao - 1) / resolucao);
+        synchronized (this) {
+            temporizador.vencimento = tickAtual + Math.min(ticks, ALCANCE);
+            inserir(temporizador);
+            pendentes++;
+        }
+        return temporizador;
+    }
+
+    /**
+     * Cancela um temporizador, se ainda não venceu.
+     *
+     * @param temporizador Temporizador a cancelar (pode ser null)
+     * @return true se foi cancelado, false se já tinha vencido ou sido
+     *         cancelado
+     */
+    public synchronized boolean cancelar(Temporizador temporizador) {
+        if (temporizador == null || temporizador.proximo == null) {
+            return false;
+        }
+        desligar(temporizador);
+        pendentes--;
+        return true;
+    }
+
+    /**
+     * Processa todos os ticks até o instante informado e executa as ações
+     * vencidas.
+     *
+     * <p>
+     * As ações de cada tick rodam antes do tick seguinte ser processado,
+     * com {@link #getTempoAtual()} no instante do seu vencimento; assim,
+     * uma ação que agenda outro temporizador conta o atraso a partir do
+     * próprio vencimento, mesmo quando a roda está atrasada.
+     * </p>
+     *
+     * <p>
+     * Uma ação que falha é contada como executada e não impede as
+     * seguintes (ver {@link #reportar(Throwable)}).
+     * </p>
+     *
+     * @param agora Instante em milissegundos desde o início da roda
+     * @return Quantidade de ações executadas
+     */
+    public int avancarAte(long agora) {
+        long alvo = agora / resolucao;
+        List<Temporizador> vencidos = new ArrayList<>();
+        int executadas = 0;
+        while (true) {
+            synchronized (this) {
+                if (tickAtual >= alvo) {
+                    break;
+                }
+                if (pendentes == 0) {
+                    tickAtual = alvo; // Rodas vazias: nada a cascatear
+                    break;
+                }
+                long tick = tickAtual + 1;
+                int indice = (int) (tick & (POSICOES - 1));
+                // A cada volta completa de um nível, desce uma posição do nível de cima
+                for (int nivel = 1; nivel < NIVEIS && indice == 0; nivel++) {
+                    indice = (int) ((tick >>> (BITS * nivel)) & (POSICOES - 1));
+                    cascata(nivel, indice);
+                }
+                tickAtual = tick;
+                Temporizador sentinela = rodas[0][(int) (tick & (POSICOES - 1))];
+                while (sentinela.proximo != sentinela) {
+                    Temporizador vencido = sentinela.proximo;
+                    desligar(vencido);
+                    vencidos.add(vencido);
+                }
+                pendentes -= vencidos.size();
+            }
+            for (Temporizador vencido : vencidos) {
+                try {
+                    vencido.acao.run();
+                } catch (Throwable falha) {
+                    // Já saíram da roda: as demais ações do tick precisam rodar
+                    reportar(falha);
+                }
+            }
+            executadas += vencidos.size();
+            vencidos.clear();
+        }
+        return executadas;
+    }
+
+    /**
+     * Entrega a falha de uma ação ao tratador de exceções não capturadas
+     * da thread atual, sem encerrá-la.
+     */
+    private static void reportar(Throwable falha) {
+        Thread atual = Thread.currentThread();
+        atual.getUncaughtExceptionHandler().uncaughtException(atual, falha);
+    }
+
+    /**
+     * Redistribui os temporizadores de uma posição nas rodas de baixo.
+     */
+    private void cascata(int nivel, int indice) {
+        Temporizador sentinela = rodas[nivel][indice];
+        while (sentinela.proximo != sentinela) {
+            Temporizador temporizador = sentinela.proximo;
+            desligar(temporizador);
+            inserir(temporizador);
+        }
+    }
+
+    /**
+     * Coloca o temporizador na roda cujo alcance cobre o seu vencimento.
+     */
+    private void inserir(Temporizador temporizador) {
+        // Referência: o próximo tick a processar
+        long falta = Math.max(0, temporizador.vencimento - (tickAtual + 1));
+        int nivel = 0;
+        while (nivel < NIVEIS - 1 && falta >= 1L << (BITS * (nivel + 1))) {
+            nivel++;
+        }
+        long vencimento = Math.max(temporizador.vencimento, tickAtual + 1);
+        int indice = (int) ((vencimento >>> (BITS * nivel)) & (POSICOES - 1));
+        Temporizador sentinela = rodas[nivel][indice];
+        temporizador.anterior = sentinela.anterior;
+        temporizador.proximo = sentinela;
+        sentinela.anterior.proximo = temporizador;
+        sentinela.anterior = temporizador;
+    }
+
+    private static void desligar(Temporizador temporizador) {
+        temporizador.anterior.proximo = temporizador.proximo;
+        temporizador.proximo.anterior = temporizador.anterior;
+        temporizador.anterior = null;
+        temporizador.proximo = null;
+    }
+
+    /**
+     * Inicia uma thread daemon que avança a roda em tempo real.
+     * Chamadas repetidas não criam outra thread.
+     *
+     * <p>
+     * A thread só termina em {@link #parar()}: uma falha ao avançar é
+     * reportada e a roda continua no tick seguinte.
+     * </p>
+     */
+    public synchronized void iniciar() {
+        if (relogio != null) {
+            return;
+        }
+        long inicio = System.nanoTime() - tickAtual * resolucao * 1_000_000;
+        relogio = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(resolucao);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    avancarAte((System.nanoTime() - inicio) / 1_000_000);
+                } catch (RuntimeException falha) {
+                    reportar(falha);
+                }
+            }
+        }, "relogio-reproducao");
+        relogio.setDaemon(true);
+        relogio.start();
+    }
+
+    /**
+     * Para a thread iniciada por {@link #iniciar()}.
+     */
+    public synchronized void parar() {
+        if (relogio != null) {
+            relogio.interrupt();
+            relogio = null;
+        }
+    }
+
+    /**
+     * Retorna o instante do último tick processado.
+     *
+     * @return Tempo em milissegundos desde o início da roda
+     */
+    public long getTempoAtual() {
+        return tickAtual * resolucao;
+    }
+
+    /**
+     * Retorna a quantidade de temporizadores agendados.
+     *
+     * @return Temporizadores ainda não vencidos nem cancelados
+     */
+    public synchronized int getPendentes() {
+        return pendentes;
+    }
+
+    /**
+     * Temporizador agendado: um nó da lista de uma posição da roda.
+     */
+    public static final class Temporizador {
+        private final Runnable acao;
+        private long vencimento;
+        private Temporizador anterior;
+        private Temporizador proximo;
+
+        private Temporizador(Runnable acao) {
+            this.acao = acao;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Pacote do relógio de reprodução do AudioStreaming.
+ * 
+ * <p>
+ * Contém a roda de temporização usada pelos players para simular a
+ * reprodução em tempo real: cada faixa tocando agenda o seu fim, e uma
+ * única thread avisa todos os players cujas faixas terminaram.
+ * </p>
+ * 
+ * <h2>Classes Disponíveis</h2>
+ * <ul>
+ * <li>{@link service.reproducao.RodaTemporizacao} - Roda de temporização
+ * hierárquica com agendamento e cancelamento em O(1)</li>
+ * </ul>
+ * 
+ * @see service.PlayerService
+ */
+package service.reproducao;
@@ -0,0 +1,47 @@
+package service.sessao;
+
+import service.PlayerService;
+
+/**
+ * Comandos de reprodução aceitos por uma {@link SessaoPlayer}.
+ *
+ * <p>
+ * Cada comando corresponde a um método do {@link PlayerService} e
+ * devolve o mesmo resultado booleano dele.
+ * </p>
+ *
+ * @see GerenciadorSessoes#enviar(String, Comando)
+ */
+public enum Comando {
+
+    /** {@link PlayerService#play()} */
+    PLAY,
+
+    /** {@link PlayerService#pause()} */
+    PAUSE,
+
+    /** {@link PlayerService#proxima()} */
+    PROXIMA,
+
+    /** {@link PlayerService#anterior()} */
+    ANTERIOR,
+
+    /** {@link PlayerService#shuffle()} */
+    SHUFFLE;
+
+    /**
+     * Executa o comando no player.
+     *
+     * @param player Player da sessão
+     * @return Resultado do método correspondente do player
+     */
+    public boolean aplicar(PlayerService player) {
+        return switch (this) {
+            case PLAY -> player.play();
+            case PAUSE -> player.pause();
+            case PROXIMA -> player.proxima();
+            case ANTERIOR -> player.anterior();
+            case SHUFFLE -> player.shuffle();
+        };
+    }
+}
@@ -0,0 +1,278 @@
+package service.sessao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import service.PlayerService;
+import service.reproducao.RodaTemporizacao;
+
+/**
+ * Hospeda várias sessões de reprodução independentes na mesma JVM.
+ *
+ * <p>
+ * Cada ouvinte tem uma {@link SessaoPlayer}, aberta no primeiro comando
+ * e encerrada depois de um tempo sem uso. Todas as sessões compartilham
+ * um único executor: uma sessão só ocupa uma thread enquanto executa
+ * comandos, então milhares de sessões cabem em poucas threads.
+ * </p>
+ *
+ * <h2>Executor</h2>
+ * <p>
+ * Por padrão, usa uma thread virtual por laço de comandos quando a JVM
+ * oferece threads virtuais (Java 21 ou superior); caso contrário, usa
+ * um pool fixo com uma thread por processador. Nos dois casos o estado
+ * do player fica no objeto da sessão, e não na pilha da thread.
+ * </p>
+ *
+ * <h2>Expiração</h2>
+ * <p>
+ * Uma thread de manutenção procura sessões ociosas periodicamente. A
+ * sessão expirada é removida e entregue ao aviso de expiração (por
+ * exemplo, para salvar a posição do player); um comando posterior para
+ * o mesmo identificador abre uma sessão nova.
+ * </p>
+ *
+ * @see SessaoPlayer
+ */
+public class GerenciadorSessoes {
+
+    /** Sessões ativas por identificador. */
+    private final ConcurrentHashMap<String, SessaoPlayer> sessoes = new ConcurrentHashMap<>();
+
+    /** Executor compartilhado pelos laços de comandos. */
+    private final ExecutorService executor;
+
+    /** Procura sessões ociosas periodicamente. */
+    private final ScheduledExecutorService manutencao;
+
+    /** Tempo sem comandos para uma sessão expirar, em nanossegundos. */
+    private final long tempoOcioso;
+
+    /** Chamado para cada sessão expirada ou encerrada. */
+    private final Consumer<SessaoPlayer> aoExpirar;
+
+    /** Relógio de reprodução dos players (null = reprodução instantânea). */
+    private final RodaTemporizacao relogio;
+
+    /**
+     * Cria um gerenciador com o executor padrão e sem aviso de expiração.
+     *
+     * @param tempoOciosoMillis Tempo sem comandos para uma sessão expirar
+     */
+    public GerenciadorSessoes(long tempoOciosoMillis) {
+        this(criarExecutorPadrao(), tempoOciosoMillis, sessao -> {
+        });
+    }
+
+    /**
+     * Cria um gerenciador.
+     *
+     * @param executor          Executor dos laços de comandos (passa a
+     *                          pertencer ao gerenciador)
+     * @param tempoOciosoMillis Tempo sem comandos para uma sessão expirar
+     * @param aoExpirar         Chamado com cada sessão expirada, já
+     *                          encerrada
+     * @throws IllegalArgumentException Se o tempo ocioso não for positivo
+     */
+    public GerenciadorSessoes(ExecutorService executor, long tempoOciosoMillis, Consumer<SessaoPlayer> aoExpirar) {
+        this(executor, tempoOciosoMillis, aoExpirar, null);
+    }
+
+    /**
+     * Cria um gerenciador cujos players tocam em tempo real.
+     *
+     * <p>
+     * Todos os players usam a mesma roda de temporização para avançar
+     * sozinhos ao fim de cada faixa. Uma sessão com faixa tocando não
+     * expira.
+     * </p>
+     *
+     * @param executor          Executor dos laços de comandos (passa a
+     *                          pertencer ao gerenciador)
+     * @param tempoOciosoMillis Tempo sem comandos para uma sessão expirar
+     * @param aoExpirar         Chamado com cada sessão expirada, já
+     *                          encerrada
+     * @param relogio           Relógio de reprodução compartilhado (ou null)
+     * @throws IllegalArgumentException Se o tempo ocioso não for positivo
+     */
+    public GerenciadorSessoes(ExecutorService executor, long tempoOciosoMillis, Consumer<SessaoPlayer> aoExpirar,
+            RodaTemporizacao relogio) {
+        if (tempoOciosoMillis <= 0) {
+            throw new IllegalArgumentException("Tempo ocioso deve ser positivo: " + tempoOciosoMillis);
+        }
+        this.executor = executor;
+        this.tempoOcioso = TimeUnit.MILLISECONDS.toNanos(tempoOciosoMillis);
+        this.aoExpirar = aoExpirar;
+        this.relogio = relogio;
+        this.manutencao = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "expiracao-sessoes");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalo = Math.max(1, tempoOciosoMillis / 2);
+        manutencao.scheduleWithFixedDelay(this::removerOciosas, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cria o executor padrão: threads virtuais se disponíveis, ou um
+     * pool fixo de threads daemon.
+     *
+     * <p>
+     * O projeto ainda compila no Java 17 (veja o README), onde
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} não existe; por
+     * isso o método é obtido por reflexão, e não chamado diretamente.
+     * </p>
+     *
+     * @return Executor para os laços de comandos
+     */
+    public static ExecutorService criarExecutorPadrao() {
+        try {
+            // Threads virtuais existem a partir do Java 21
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger contador = new AtomicInteger();
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                Thread t = new Thread(r, "sessoes-player-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Retorna a sessão do identificador, abrindo-a se necessário.
+     *
+     * @param id Identificador da sessão
+     * @return Sessão ativa
+     */
+    public SessaoPlayer abrir(String id) {
+        return sessoes.computeIfAbsent(id, chave -> new SessaoPlayer(chave, executor, relogio));
+    }
+
+    /**
+     * Envia um comando de reprodução à sessão do identificador.
+     *
+     * @param id      Identificador da sessão (aberta se necessário)
+     * @param comando Comando a executar
+     * @return Resultado do comando
+     */
+    public CompletableFuture<Boolean> enviar(String id, Comando comando) {
+        return executar(id, comando::aplicar);
+    }
+
+    /**
+     * Executa uma operação no player da sessão do identificador.
+     *
+     * <p>
+     * Se a sessão expirar entre a consulta e o envio, uma sessão nova é
+     * aberta e recebe a operação.
+     * </p>
+     *
+     * @param <T>      Tipo do resultado
+     * @param id       Identificador da sessão (aberta se necessário)
+     * @param operacao Operação a executar no player
+     * @return Resultado da operação
+     */
+    public <T> CompletableFuture<T> executar(String id, Function<PlayerService, T> operacao) {
+        while (true) {
+            SessaoPlayer sessao = abrir(id);
+            CompletableFuture<T> resultado = sessao.tentarExecutar(operacao);
+            if (resultado != null) {
+                return resultado;
+            }
+            sessoes.remove(id, sessao); // Expirou agora há pouco
+        }
+    }
+
+    /**
+     * Retorna a sessão ativa do identificador, sem abri-la.
+     *
+     * @param id Identificador da sessão
+     * @return Sessão ativa, ou null se não houver
+     */
+    public SessaoPlayer getSessao(String id) {
+        return sessoes.get(id);
+    }
+
+    /**
+     * Encerra a sessão do identificador. Comandos já enviados ainda são
+     * executados.
+     *
+     * @param id Identificador da sessão
+     * @return true se havia uma sessão ativa
+     */
+    public boolean fechar(String id) {
+        SessaoPlayer sessao = sessoes.remove(id);
+        if (sessao == null) {
+            return false;
+        }
+        sessao.encerrar();
+        return true;
+    }
+
+    /**
+     * Encerra e remove as sessões ociosas, avisando cada uma.
+     *
+     * <p>
+     * Chamado periodicamente pela thread de manutenção.
+     * </p>
+     *
+     * @return Quantidade de sessões removidas
+     */
+    public int removerOciosas() {
+        long agora = System.nanoTime();
+        int removidas = 0;
+        for (SessaoPlayer sessao : sessoes.values()) {
+            if (sessao.encerrarSeOciosa(agora, tempoOcioso) && sessoes.remove(sessao.getId(), sessao)) {
+                removidas++;
+                aoExpirar.accept(sessao);
+            }
+        }
+        return removidas;
+    }
+
+    /**
+     * Retorna a quantidade de sessões ativas.
+     *
+     * @return Número de sessões
+     */
+    public int getTotalSessoes() {
+        return sessoes.size();
+    }
+
+    /**
+     * Encerra todas as sessões, espera os comandos pendentes e avisa
+     * cada sessão encerrada.
+     *
+     * @throws InterruptedException Se interrompido enquanto espera
+     */
+    public void encerrar() throws InterruptedException {
+        manutencao.shutdownNow();
+        List<SessaoPlayer> encerradas = new ArrayList<>(sessoes.values());
+        for (SessaoPlayer sessao : encerradas) {
+            sessao.encerrar();
+        }
+        sessoes.clear();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (SessaoPlayer sessao : encerradas) {
+            // Um laço com comandos pendentes ainda pode se reagendar
+            while (!sessao.isParada() && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        for (SessaoPlayer sessao : encerradas) {
+            aoExpirar.accept(sessao);
+        }
+    }
+}
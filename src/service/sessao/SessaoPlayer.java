@@ -0,0 +1,237 @@
+package service.sessao;
+
+import service.PlayerService;
+import service.reproducao.RodaTemporizacao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Sessão de reprodução de um ouvinte: um {@link PlayerService} e a fila
+ * de comandos que o alteram.
+ *
+ * <p>
+ * Os comandos entram em uma caixa de entrada e são executados em ordem
+ * por uma única tarefa de cada vez (o laço de comandos da sessão),
+ * agendada no executor compartilhado só quando há algo a fazer. Uma
+ * sessão parada não ocupa nenhuma thread, apenas o objeto do player no
+ * heap. O único acesso ao player fora do laço é o aviso de fim de faixa
+ * do relógio de reprodução, que usa a trava do próprio player.
+ * </p>
+ *
+ * <p>
+ * A passagem do laço entre threads do executor é ordenada pelo
+ * {@link AtomicBoolean} de agendamento, então cada tarefa enxerga o
+ * estado deixado pela anterior.
+ * </p>
+ *
+ * @see GerenciadorSessoes
+ */
+public final class SessaoPlayer {
+
+    /** Comandos executados por vez antes de devolver a thread ao executor. */
+    private static final int LOTE = 64;
+
+    /** Identificador da sessão (por exemplo, o email do usuário). */
+    private final String id;
+
+    /** Player confinado à sessão. */
+    private final PlayerService player;
+
+    /** Executor compartilhado que roda o laço de comandos. */
+    private final Executor executor;
+
+    /** Comandos aguardando execução. */
+    private final ConcurrentLinkedQueue<Runnable> caixaEntrada = new ConcurrentLinkedQueue<>();
+
+    /** Indica se o laço de comandos está agendado ou rodando. */
+    private final AtomicBoolean agendada = new AtomicBoolean();
+
+    /** Instante ({@link System#nanoTime()}) do último comando recebido. */
+    private volatile long ultimoAcesso;
+
+    /** Comandos iniciados (escrito apenas pelo laço de comandos). */
+    private volatile long comandosExecutados;
+
+    /** Sessão encerrada: não aceita novos comandos (protegido por this). */
+    private boolean encerrada;
+
+    /**
+     * Cria uma sessão com um player vazio.
+     *
+     * @param id       Identificador da sessão
+     * @param executor Executor que roda o laço de comandos
+     * @param relogio  Relógio de reprodução do player (ou null)
+     */
+    SessaoPlayer(String id, Executor executor, RodaTemporizacao relogio) {
+        this.id = id;
+        this.executor = executor;
+        this.player = new PlayerService(relogio);
+        this.ultimoAcesso = System.nanoTime();
+    }
+
+    /**
+     * Envia um comando de reprodução à sessão.
+     *
+     * @param comando Comando a executar
+     * @return Resultado do comando, concluído quando ele for executado
+     * @throws IllegalStateException Se a sessão já foi encerrada
+     */
+    public CompletableFuture<Boolean> enviar(Comando comando) {
+        return executar(comando::aplicar);
+    }
+
+    /**
+     * Executa uma operação qualquer no player da sessão, na vez dela.
+     *
+     * <p>
+     * Usado para operações que não são comandos simples, como
+     * {@link PlayerService#definirFila} ou a leitura do áudio atual.
+     * </p>
+     *
+     * @param <T>      Tipo do resultado
+     * @param operacao Operação a executar no player
+     * @return Resultado da operação
+     * @throws IllegalStateException Se a sessão já foi encerrada
+     */
+    public <T> CompletableFuture<T> executar(Function<PlayerService, T> operacao) {
+        CompletableFuture<T> resultado = tentarExecutar(operacao);
+        if (resultado == null) {
+            throw new IllegalStateException("Sessão encerrada: " + id);
+        }
+        return resultado;
+    }
+
+    /**
+     * Enfileira a operação, ou retorna null se a sessão foi encerrada.
+     */
+    <T> CompletableFuture<T> tentarExecutar(Function<PlayerService, T> operacao) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        synchronized (this) {
+            if (encerrada) {
+                return null;
+            }
+            ultimoAcesso = System.nanoTime();
+            caixaEntrada.add(() -> {
+                try {
+                    resultado.complete(operacao.apply(player));
+                } catch (RuntimeException e) {
+                    resultado.completeExceptionally(e);
+                }
+            });
+        }
+        agendar();
+        return resultado;
+    }
+
+    /**
+     * Agenda o laço de comandos, se ainda não estiver agendado.
+     */
+    private void agendar() {
+        if (agendada.compareAndSet(false, true)) {
+            executor.execute(this::processar);
+        }
+    }
+
+    /**
+     * Laço de comandos: executa até {@link #LOTE} comandos e devolve a
+     * thread, reagendando-se se ainda houver comandos na caixa.
+     *
+     * <p>
+     * A marca de agendada é desfeita mesmo que um comando lance um
+     * Error; sem isso a sessão nunca mais seria agendada.
+     * </p>
+     */
+    private void processar() {
+        try {
+            int executados = 0;
+            Runnable tarefa;
+            while (executados < LOTE && (tarefa = caixaEntrada.poll()) != null) {
+                comandosExecutados++; // Antes de concluir o resultado do comando
+                tarefa.run();
+                executados++;
+            }
+        } finally {
+            agendada.set(false);
+            if (!caixaEntrada.isEmpty()) {
+                agendar();
+            }
+        }
+    }
+
+    /**
+     * Encerra a sessão se ela estiver parada há pelo menos o tempo
+     * informado, sem comandos pendentes e sem uma faixa tocando no
+     * relógio.
+     *
+     * @param agora       Instante atual ({@link System#nanoTime()})
+     * @param tempoOcioso Tempo mínimo sem comandos, em nanossegundos
+     * @return true se a sessão está encerrada
+     */
+    synchronized boolean encerrarSeOciosa(long agora, long tempoOcioso) {
+        if (!encerrada && (agora - ultimoAcesso < tempoOcioso || !isParada() || player.isReproducaoEmAndamento())) {
+            return false;
+        }
+        encerrada = true;
+        return true;
+    }
+
+    /**
+     * Verifica se o laço de comandos está parado e sem comandos pendentes.
+     */
+    boolean isParada() {
+        return !agendada.get() && caixaEntrada.isEmpty();
+    }
+
+    /**
+     * Encerra a sessão. Comandos já enviados ainda são executados.
+     */
+    synchronized void encerrar() {
+        encerrada = true;
+    }
+
+    /**
+     * Retorna o identificador da sessão.
+     *
+     * @return Identificador informado ao abrir a sessão
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Retorna o player da sessão.
+     *
+     * <p>
+     * Só deve ser lido diretamente depois que a sessão for encerrada
+     * (por exemplo, no aviso de expiração, para salvar o estado). Com a
+     * sessão ativa, use {@link #executar(Function)}.
+     * </p>
+     *
+     * @return Player da sessão
+     */
+    public PlayerService getPlayer() {
+        return player;
+    }
+
+    /**
+     * Retorna a quantidade de comandos já executados.
+     *
+     * @return Total de comandos executados
+     */
+    public long getComandosExecutados() {
+        return comandosExecutados;
+    }
+
+    /**
+     * Verifica se a sessão foi encerrada.
+     *
+     * @return true se não aceita mais comandos
+     */
+    public synchronized boolean isEncerrada() {
+        return encerrada;
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Pacote de sessões de reprodução do AudioStreaming.
+ * 
+ * <p>
+ * Permite hospedar muitos players independentes na mesma JVM, um por
+ * ouvinte, sem dedicar uma thread a cada um. Cada sessão confina o seu
+ * {@link service.PlayerService} e executa os comandos recebidos em ordem,
+ * em um executor compartilhado por todas as sessões.
+ * </p>
+ * 
+ * <h2>Classes Disponíveis</h2>
+ * <ul>
+ * <li>{@link service.sessao.GerenciadorSessoes} - Abre, localiza e expira
+ * sessões</li>
+ * <li>{@link service.sessao.SessaoPlayer} - Player e caixa de entrada de
+ * comandos de um ouvinte</li>
+ * <li>{@link service.sessao.Comando} - Comandos de reprodução (play, pause,
+ * próxima, anterior, shuffle)</li>
+ * </ul>
+ * 
+ * @see main.GeradorCarga
+ */
+package service.sessao;
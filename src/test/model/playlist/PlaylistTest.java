@@ -6,6 +6,8 @@ import model.playlist.Playlist;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.*;
+
 /**
  * Testes unitários para a classe Playlist usando JUnit 5.
  * Verifica funcionalidades de adição, remoção e prevenção de duplicatas.
@@ -89,4 +91,30 @@ public class PlaylistTest {
         assertTrue(str.contains("Minha Playlist"), "Deve conter nome");
         assertTrue(str.contains("1 itens"), "Deve conter quantidade");
     }
+
+    @Test
+    @DisplayName("Serialização deve gravar apenas IDs e restaurar os mesmos áudios")
+    void testSerializacaoPorId() throws Exception {
+        Musica musica = new Musica("Música", 180, artistaTeste);
+        Podcast podcast = new Podcast("Podcast", 3600, "Host", 1);
+        musica.atribuirId(0);
+        podcast.atribuirId(1);
+        Audio[] catalogo = { musica, podcast };
+        playlist.adicionarItem(podcast);
+        playlist.adicionarItem(musica);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(playlist);
+        }
+        Playlist lida;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            lida = (Playlist) in.readObject();
+        }
+        lida.resolverReferencias(id -> catalogo[id]);
+
+        assertEquals("Minha Playlist", lida.getNome());
+        assertSame(podcast, lida.getItens().get(0), "Deve apontar para o áudio do catálogo");
+        assertSame(musica, lida.getItens().get(1), "Ordem dos itens deve ser preservada");
+    }
 }
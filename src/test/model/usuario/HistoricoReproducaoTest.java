@@ -0,0 +1,116 @@
+package test.model.usuario;
+
+import model.midia.*;
+import model.usuario.HistoricoReproducao;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Testes unitários para o HistoricoReproducao usando JUnit 5.
+ * Verifica o buffer circular, os contadores, as consultas por período e
+ * a persistência compacta.
+ * 
+ */
+@DisplayName("HistoricoReproducao Tests")
+public class HistoricoReproducaoTest {
+
+    private static final long DIA = 24L * 60 * 60 * 1000;
+
+    private HistoricoReproducao historico;
+    private List<Audio> catalogo;
+
+    @BeforeEach
+    void setUp() {
+        historico = new HistoricoReproducao(4);
+        catalogo = new ArrayList<>();
+        Artista ana = new Artista("Ana");
+        Artista beto = new Artista("Beto");
+        catalogo.add(new Musica("Faixa 0", 180, ana));
+        catalogo.add(new Musica("Faixa 1", 180, beto));
+        catalogo.add(new Podcast("Episódio 2", 600, "Carla", 1));
+        catalogo.add(new Musica("Faixa 3", 180, ana));
+    }
+
+    @Test
+    @DisplayName("Deve sobrescrever a entrada mais antiga sem perder os totais")
+    void testBufferCircular() {
+        for (int i = 0; i < 6; i++) {
+            historico.registrar(i, 1_000L * i);
+            assertTrue(historico.acumular(i, 10));
+        }
+
+        assertEquals(4, historico.getTamanho());
+        assertEquals(5, historico.getIdAudio(0), "Entrada 0 é a mais recente");
+        assertEquals(2, historico.getIdAudio(3));
+        assertEquals(2_000L, historico.getInstante(3));
+        assertEquals(6, historico.getTotalReproducoes());
+        assertEquals(60, historico.getTotalSegundos(), "Total inclui entradas sobrescritas");
+        assertThrows(IndexOutOfBoundsException.class, () -> historico.getIdAudio(4));
+    }
+
+    @Test
+    @DisplayName("Tempo ouvido só deve somar na reprodução mais recente do mesmo áudio")
+    void testAcumular() {
+        assertFalse(historico.acumular(1, 30), "Histórico vazio");
+        historico.registrar(1, 0);
+        historico.acumular(1, 30);
+        historico.acumular(1, 15);
+        assertFalse(historico.acumular(2, 99), "Áudio diferente do último");
+
+        assertEquals(45, historico.getSegundos(0));
+        assertEquals(45, historico.getTotalSegundos());
+    }
+
+    @Test
+    @DisplayName("Deve listar recentes sem repetir e artistas mais ouvidos do período")
+    void testConsultas() {
+        long agora = 100 * DIA;
+        historico.registrar(1, agora - 40 * DIA); // Fora do período de 30 dias
+        historico.acumular(1, 5_000);
+        historico.registrar(0, agora - 2 * DIA);
+        historico.acumular(0, 100);
+        historico.registrar(2, agora - DIA);
+        historico.acumular(2, 300);
+        historico.registrar(3, agora);
+        historico.acumular(3, 150);
+        historico.registrar(0, agora);
+
+        assertArrayEquals(new int[] { 0, 3, 2 }, historico.recentes(3));
+        var top = historico.topArtistas(agora - 30 * DIA, 5, catalogo::get);
+        assertEquals(List.of("Carla", "Ana"), top.stream().map(Map.Entry::getKey).toList());
+        assertEquals(251L, top.get(1).getValue(), "100 + 150 + 1 (reprodução sem tempo)");
+    }
+
+    @Test
+    @DisplayName("Deve gravar e ler o histórico sem perder entradas")
+    void testPersistencia() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            historico.registrar(i % 4, 1_700_000_000_000L + 60_000L * i);
+            historico.acumular(i % 4, 30 * i);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(historico);
+        }
+        HistoricoReproducao lido;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            lido = (HistoricoReproducao) in.readObject();
+        }
+
+        assertEquals(historico.getTamanho(), lido.getTamanho());
+        assertEquals(historico.getTotalSegundos(), lido.getTotalSegundos());
+        assertEquals(historico.getTotalReproducoes(), lido.getTotalReproducoes());
+        for (int i = 0; i < lido.getTamanho(); i++) {
+            assertEquals(historico.getIdAudio(i), lido.getIdAudio(i));
+            assertEquals(historico.getInstante(i), lido.getInstante(i));
+            assertEquals(historico.getSegundos(i), lido.getSegundos(i));
+        }
+        lido.registrar(3, 0);
+        assertEquals(3, lido.getIdAudio(0), "Deve continuar gravando depois de lido");
+    }
+}
@@ -2,6 +2,7 @@ package test.service;
 
 import model.midia.*;
 import service.BibliotecaService;
+import service.busca.ResultadoBusca;
 
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -75,6 +76,67 @@ public class BibliotecaServiceTest {
         assertFalse(resultados.isEmpty(), "Deve encontrar músicas do artista");
     }
 
+    @Test
+    @DisplayName("Deve buscar por substring ignorando acentos e maiúsculas")
+    void testBuscaSubstringSemAcentos() {
+        Artista ze = biblioteca.getOuCriarArtista("Zé Ramalho Teste");
+        Musica musica = new Musica("Chão de Giz Teste", 270, ze);
+        biblioteca.adicionarAudio(musica);
+
+        assertTrue(biblioteca.buscar("ze ramalho teste").contains(musica), "Deve ignorar acentos");
+        assertTrue(biblioteca.buscar("DE GIZ TES").contains(musica), "Deve encontrar trecho do título");
+    }
+
+    @Test
+    @DisplayName("Deve encontrar termos com erros de digitação na busca aproximada")
+    void testBuscaAproximada() {
+        assertTrue(biblioteca.buscar("bohemian rapsody").isEmpty(), "Busca exata não tolera erros");
+
+        List<Audio> resultados = biblioteca.buscar("bohemian rapsody", true);
+        assertTrue(resultados.stream().anyMatch(a -> a.getTitulo().equals("Bohemian Rhapsody")),
+                "Deve encontrar o título apesar do erro");
+    }
+
+    @Test
+    @DisplayName("Deve combinar texto livre e filtros por campo")
+    void testBuscaComFiltros() {
+        Artista artista = biblioteca.getOuCriarArtista("Artista Filtro Teste");
+        artista.adicionarGenero("Xaxado Teste");
+        Musica antiga = new Musica("Xote Filtro", 200, artista, new Album("Antigo", artista, 1961));
+        Musica nova = new Musica("Xote Filtro Novo", 200, artista, new Album("Novo", artista, 2001));
+        biblioteca.adicionarAudio(antiga);
+        biblioteca.adicionarAudio(nova);
+
+        assertEquals(List.of(antiga, nova), biblioteca.buscar("genre:\"xaxado teste\""));
+        assertEquals(List.of(antiga), biblioteca.buscar("xote genre:\"xaxado teste\" year:1950..1970"));
+        assertEquals(List.of(nova), biblioteca.buscar("novo artist:\"filtro teste\" type:musica"));
+        assertEquals(List.of(nova), biblioteca.buscar("genre:\"xaxado teste\" -year:..1970"));
+        assertEquals(List.of(antiga), biblioteca.buscar("genre:\"xaxado teste\" liked:sim", false, List.of(antiga)));
+    }
+
+    @Test
+    @DisplayName("Deve ordenar a busca por relevância e popularidade")
+    void testBuscaRanqueada() {
+        Artista artista = biblioteca.getOuCriarArtista("Maracatu Ranking");
+        Musica noAlbum = new Musica("Outra Faixa", 200, artista, new Album("Baque Solto Ranking", artista, 1990));
+        Musica noTitulo = new Musica("Baque Solto Ranking", 200, artista);
+        Musica popular = new Musica("Baque Solto Ranking", 200, artista); // mesmo texto, mais curtidas
+        biblioteca.adicionarAudio(noAlbum);
+        biblioteca.adicionarAudio(noTitulo);
+        biblioteca.adicionarAudio(popular);
+        for (int i = 0; i < 50; i++) {
+            popular.curtir();
+        }
+
+        ResultadoBusca resultado = biblioteca.buscarRanqueado("baque solto ranking", false, null);
+        List<Audio> primeira = resultado.proximaPagina(2);
+
+        assertEquals(3, resultado.getTotal());
+        assertEquals(List.of(popular, noTitulo), primeira, "Popular antes do igual, título antes do álbum");
+        assertEquals(List.of(noAlbum), resultado.proximaPagina(2));
+        assertFalse(resultado.temMais());
+    }
+
     @Test
     @DisplayName("Deve retornar lista vazia para busca sem resultados")
     void testBuscaSemResultados() {
@@ -122,4 +184,88 @@ public class BibliotecaServiceTest {
         assertNotNull(catalogo, "Catálogo não deve ser null");
         assertFalse(catalogo.isEmpty(), "Catálogo deve conter músicas");
     }
+
+    @Test
+    @DisplayName("Busca repetida deve vir do cache e ver áudios adicionados depois")
+    void testCacheBusca() {
+        List<Audio> primeira = biblioteca.buscar("rock you");
+        long acertos = biblioteca.getCacheBusca().getAcertos();
+
+        assertEquals(primeira, biblioteca.buscar("Rock  YOU"), "Mesma consulta normalizada");
+        assertEquals(acertos + 1, biblioteca.getCacheBusca().getAcertos());
+
+        Musica nova = new Musica("Rock You Like a Hurricane", 250, biblioteca.getOuCriarArtista("Scorpions"));
+        biblioteca.adicionarAudio(nova);
+        assertTrue(biblioteca.buscar("rock you").contains(nova), "Versão nova do catálogo invalida o cache");
+    }
+
+    @Test
+    @DisplayName("Catálogo publicado deve ser imutável e não mudar com novas adições")
+    void testCatalogoImutavel() {
+        List<Audio> antes = biblioteca.getCatalogo();
+        int tamanho = antes.size();
+
+        biblioteca.adicionarAudio(new Musica("Fotografia Antiga", 180, biblioteca.getOuCriarArtista("Queen")));
+
+        assertEquals(tamanho, antes.size(), "Fotografia anterior não deve crescer");
+        assertEquals(tamanho + 1, biblioteca.getCatalogo().size());
+        assertThrows(UnsupportedOperationException.class, () -> antes.add(null));
+    }
+
+    @Test
+    @DisplayName("Buscas simultâneas a adições devem sempre ver um catálogo consistente")
+    void testBuscasEAdicoesSimultaneas() throws Exception {
+        int escritas = 200;
+        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(4);
+        try {
+            java.util.concurrent.Future<?> escritor = executor.submit(() -> {
+                Artista artista = biblioteca.getOuCriarArtista("Banda Concorrente");
+                for (int i = 0; i < escritas; i++) {
+                    biblioteca.adicionarAudio(new Musica("Concorrente " + i, 180, artista));
+                }
+            });
+            List<java.util.concurrent.Future<Integer>> leitores = new java.util.ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                leitores.add(executor.submit(() -> {
+                    int anterior = 0;
+                    while (!escritor.isDone()) {
+                        int encontrados = biblioteca.buscar("concorrente").size();
+                        assertTrue(encontrados >= anterior, "Resultados não devem regredir");
+                        anterior = encontrados;
+                        for (Audio a : biblioteca.getCatalogo()) {
+                            assertNotNull(a, "Fotografia não deve ter posições vazias");
+                        }
+                    }
+                    return anterior;
+                }));
+            }
+            escritor.get();
+            for (java.util.concurrent.Future<Integer> leitor : leitores) {
+                leitor.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(escritas, biblioteca.buscar("concorrente").size());
+        assertSame(biblioteca.getOuCriarArtista("banda concorrente"),
+                biblioteca.getOuCriarArtista("BANDA CONCORRENTE"));
+    }
+
+    @Test
+    @DisplayName("Ranking e autocompletar devem refletir curtidas feitas entre consultas")
+    void testPopularidadeAplicadaNaConsulta() {
+        Musica sucesso = new Musica("Sucesso Repentino", 200, biblioteca.getOuCriarArtista("Banda Nova"));
+        biblioteca.adicionarAudio(sucesso);
+        long maximo = biblioteca.recomendarMaisCurtidos().get(0).getTotalCurtidas();
+
+        for (long i = 0; i <= maximo; i++) {
+            sucesso.curtir();
+        }
+        sucesso.incrementarReproducao();
+
+        assertEquals(0, biblioteca.getPosicaoPorPopularidade(sucesso), "Deve subir para o topo");
+        assertSame(sucesso, biblioteca.getCatalogoPorPopularidade().get(0));
+        assertEquals(List.of("Sucesso Repentino"), biblioteca.sugerir("sucesso rep", 1));
+    }
 }
@@ -2,9 +2,13 @@ package test.service;
 
 import model.midia.*;
 import service.PlayerService;
+import service.fila.Ordenacao;
+import service.reproducao.RodaTemporizacao;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -134,6 +138,293 @@ public class PlayerServiceTest {
      * 
      * @return Lista com 3 músicas de teste
      */
+    @Test
+    @DisplayName("Shuffle deve tocar cada item uma vez sem alterar a fila")
+    void testShufflePercorreTodos() {
+        List<Audio> grande = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            grande.add(new Musica("Faixa " + i, 100, artistaTeste));
+        }
+        player.definirFila(grande);
+        player.setIndiceAtual(10);
+        player.shuffle(1234);
+
+        Set<Audio> tocados = new HashSet<>();
+        tocados.add(player.getAudioAtual());
+        assertSame(grande.get(10), player.getAudioAtual(), "Atual deve abrir a ordem embaralhada");
+        while (player.proxima()) {
+            assertTrue(tocados.add(player.getAudioAtual()), "Nenhum item deve repetir");
+        }
+        assertEquals(50, tocados.size());
+
+        Audio ultimo = player.getAudioAtual();
+        assertTrue(player.desembaralhar());
+        assertEquals(grande, player.getFila(), "Desembaralhar deve restaurar a ordem original");
+        assertSame(ultimo, player.getAudioAtual());
+        assertEquals(grande.indexOf(ultimo), player.getIndiceAtual());
+    }
+
+    @Test
+    @DisplayName("Anterior deve refazer a ordem embaralhada de trás para frente")
+    void testShuffleAnterior() {
+        List<Audio> grande = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            grande.add(new Musica("Faixa " + i, 100, artistaTeste));
+        }
+        player.definirFila(grande);
+        player.shuffle(99);
+        List<Audio> ida = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ida.add(player.getAudioAtual());
+            player.proxima();
+        }
+        for (int i = 4; i >= 0; i--) {
+            player.anterior();
+            assertSame(ida.get(i), player.getAudioAtual());
+        }
+        assertEquals(player.getFila().subList(0, 5), ida, "getFila deve seguir a ordem embaralhada");
+    }
+
+    @Test
+    @DisplayName("Adicionar à fila embaralhada deve manter o que já tocou e sortear só o restante")
+    void testAdicionarComShuffle() {
+        List<Audio> grande = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            grande.add(new Musica("Faixa " + i, 100, artistaTeste));
+        }
+        player.definirFila(grande);
+        player.shuffle(7);
+        List<Audio> tocadas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tocadas.add(player.getAudioAtual());
+            player.proxima();
+        }
+        tocadas.add(player.getAudioAtual());
+
+        List<Audio> novas = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            novas.add(new Musica("Nova " + i, 100, artistaTeste));
+        }
+        player.adicionarAFila(novas.get(0));
+        player.adicionarListaAFila(novas.subList(1, 10), "Teste");
+
+        assertTrue(player.isModoShuffle());
+        assertEquals(10, player.getIndiceAtual(), "O áudio atual deve continuar na mesma posição");
+        assertEquals(tocadas, player.getFila().subList(0, 11), "O que já tocou não deve mudar de ordem");
+
+        Set<Audio> restante = new HashSet<>();
+        while (player.proxima()) {
+            assertFalse(tocadas.contains(player.getAudioAtual()), "Faixa já tocada não deve voltar");
+            assertTrue(restante.add(player.getAudioAtual()), "Nenhum item deve repetir");
+        }
+        assertEquals(29, restante.size(), "Os 19 que faltavam e as 10 novas");
+        assertTrue(restante.containsAll(novas));
+
+        for (int i = 0; i < 29; i++) {
+            player.anterior();
+        }
+        for (int i = 10; i >= 0; i--) {
+            assertSame(tocadas.get(i), player.getAudioAtual(), "Anterior deve refazer o caminho tocado");
+            player.anterior();
+        }
+
+        assertTrue(player.desembaralhar());
+        List<Audio> original = new ArrayList<>(grande);
+        original.addAll(novas);
+        assertEquals(original, player.getFila(), "A fila original não deve ter sido alterada");
+    }
+
+    @Test
+    @DisplayName("Shuffle de fila com um milhão de itens deve ser instantâneo")
+    void testShuffleFilaGrande() {
+        Audio faixa = filaTeste.get(0);
+        player.adicionarListaAFila(java.util.Collections.nCopies(1_000_000, faixa), "Teste");
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            player.shuffle();
+        }
+        long decorrido = System.nanoTime() - inicio;
+
+        assertTrue(decorrido < 100_000_000L, "100 shuffles devem levar bem menos de 100 ms: " + decorrido);
+        assertTrue(player.proxima());
+        assertEquals(1, player.getIndiceAtual());
+    }
+
+    @Test
+    @DisplayName("Deve avançar sozinho ao fim da faixa com relógio")
+    void testAvancoAutomatico() {
+        RodaTemporizacao relogio = new RodaTemporizacao(100);
+        PlayerService tocando = new PlayerService(relogio);
+        List<Audio> terminadas = new ArrayList<>();
+        tocando.registrarOuvinte(terminadas::add);
+        tocando.definirFila(filaTeste);
+        tocando.play();
+
+        relogio.avancarAte(90_000);
+        assertEquals(90, tocando.getPosicaoSegundos());
+        assertEquals(0, tocando.getIndiceAtual());
+
+        relogio.avancarAte(180_000); // Fim da "Música 1"
+        assertEquals(List.of(filaTeste.get(0)), terminadas);
+        assertEquals(1, tocando.getIndiceAtual(), "Deve tocar a próxima faixa");
+        assertEquals(1, filaTeste.get(1).getTotalReproducoes());
+
+        relogio.avancarAte(180_000 + 200_000 + 220_000); // Fim da fila
+        assertEquals(3, terminadas.size());
+        assertFalse(tocando.isTocando(), "Deve parar no fim da fila");
+        assertEquals(0, relogio.getPendentes());
+    }
+
+    @Test
+    @DisplayName("Pausa deve guardar a posição e cancelar o avanço")
+    void testPausaComRelogio() {
+        RodaTemporizacao relogio = new RodaTemporizacao(100);
+        PlayerService tocando = new PlayerService(relogio);
+        tocando.definirFila(filaTeste);
+        tocando.play();
+        relogio.avancarAte(60_000);
+        tocando.pause();
+
+        relogio.avancarAte(500_000);
+        assertEquals(0, tocando.getIndiceAtual(), "Pausado não deve avançar");
+        assertEquals(60, tocando.getPosicaoSegundos());
+        assertFalse(tocando.isReproducaoEmAndamento());
+
+        tocando.play(); // Retoma de 1:00
+        assertEquals(1, filaTeste.get(0).getTotalReproducoes(), "Retomar não conta outra reprodução");
+        relogio.avancarAte(500_000 + 120_000);
+        assertEquals(1, tocando.getIndiceAtual(), "Deve avançar depois dos 2:00 restantes");
+    }
+
+    @Test
+    @DisplayName("Pular de faixa deve cancelar o temporizador anterior")
+    void testPularCancelaTemporizador() {
+        RodaTemporizacao relogio = new RodaTemporizacao(100);
+        PlayerService tocando = new PlayerService(relogio);
+        tocando.definirFila(filaTeste);
+        tocando.play();
+        tocando.proxima();
+        tocando.proxima();
+
+        assertEquals(1, relogio.getPendentes(), "Só a faixa atual deve ter temporizador");
+        relogio.avancarAte(180_000);
+        assertEquals(2, tocando.getIndiceAtual());
+        assertEquals(180, tocando.getPosicaoSegundos(), "Música 3 deve estar em 3:00 de 3:40");
+    }
+
+    @Test
+    @DisplayName("Tocar em seguida deve inserir logo depois do atual")
+    void testTocarEmSeguida() {
+        player.definirFila(filaTeste);
+        player.proxima();
+        Audio extra = new Musica("Extra", 150, artistaTeste);
+
+        assertTrue(player.tocarEmSeguida(extra));
+        assertEquals(4, player.getTamanhoFila());
+        assertSame(filaTeste.get(1), player.getAudioAtual(), "Atual não deve mudar");
+        assertTrue(player.proxima());
+        assertSame(extra, player.getAudioAtual());
+        assertTrue(player.proxima());
+        assertSame(filaTeste.get(2), player.getAudioAtual());
+    }
+
+    @Test
+    @DisplayName("Remover e mover devem manter o áudio atual selecionado")
+    void testRemoverEMover() {
+        player.definirFila(filaTeste);
+        player.proxima(); // Atual: Música 2 (tocando)
+
+        assertTrue(player.moverNaFila(1, 2));
+        assertSame(filaTeste.get(1), player.getAudioAtual());
+        assertEquals(2, player.getIndiceAtual(), "Índice deve acompanhar o movimento");
+        assertTrue(player.removerDaFila(0));
+        assertEquals(1, player.getIndiceAtual());
+        assertFalse(player.removerDaFila(5));
+        assertFalse(player.moverNaFila(0, 2));
+
+        // Removendo o atual (o último), o anterior vira o atual, pausado
+        assertTrue(player.removerDaFila(1));
+        assertSame(filaTeste.get(2), player.getAudioAtual());
+        assertFalse(player.isTocando());
+        assertTrue(player.removerDaFila(0));
+        assertNull(player.getAudioAtual());
+        assertEquals(-1, player.getIndiceAtual());
+    }
+
+    @Test
+    @DisplayName("Alterar a fila embaralhada deve fixar a ordem que está sendo tocada")
+    void testAlterarFilaEmbaralhada() {
+        List<Audio> grande = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            grande.add(new Musica("Faixa " + i, 100, artistaTeste));
+        }
+        player.definirFila(grande);
+        player.shuffle(5);
+        player.proxima();
+        List<Audio> ordem = new ArrayList<>(player.getFila());
+        Audio atual = player.getAudioAtual();
+
+        assertTrue(player.removerDaFila(10));
+        ordem.remove(10);
+        assertFalse(player.isModoShuffle());
+        assertEquals(ordem, player.getFila(), "Fila deve ficar na ordem embaralhada");
+        assertSame(atual, player.getAudioAtual());
+        assertEquals(1, player.getIndiceAtual());
+    }
+
+    @Test
+    @DisplayName("Ordenar por critério deve manter o áudio atual selecionado")
+    void testOrdenarPorCriterio() {
+        player.definirFila(filaTeste);
+        player.proxima(); // Música 2 (200 s)
+        filaTeste.get(2).incrementarReproducao();
+        filaTeste.get(2).incrementarReproducao();
+
+        assertTrue(player.ordenar(Ordenacao.REPRODUCOES));
+        assertEquals(List.of(filaTeste.get(2), filaTeste.get(1), filaTeste.get(0)), player.getFila());
+        assertSame(filaTeste.get(1), player.getAudioAtual());
+        assertEquals(1, player.getIndiceAtual());
+
+        assertTrue(player.ordenar(Ordenacao.TITULO));
+        assertEquals(filaTeste, player.getFila());
+        assertEquals(1, player.getIndiceAtual());
+        assertFalse(new PlayerService().ordenar(Ordenacao.DURACAO), "Fila vazia não ordena");
+    }
+
+    @Test
+    @DisplayName("Deve avisar o início de cada reprodução e o tempo ouvido de cada trecho")
+    void testAvisosDeAudicao() {
+        RodaTemporizacao relogio = new RodaTemporizacao(100);
+        PlayerService tocando = new PlayerService(relogio);
+        List<String> avisos = new ArrayList<>();
+        tocando.registrarOuvinte(new interfaces.OuvinteReproducao() {
+            @Override
+            public void faixaTerminada(Audio audio) {
+            }
+
+            @Override
+            public void reproducaoIniciada(Audio audio) {
+                avisos.add("inicio " + audio.getTitulo());
+            }
+
+            @Override
+            public void trechoOuvido(Audio audio, long millis) {
+                avisos.add(audio.getTitulo() + " " + millis);
+            }
+        });
+        tocando.definirFila(filaTeste);
+        tocando.play();
+        relogio.avancarAte(30_000);
+        tocando.pause();
+        tocando.play(); // Retoma: não é uma nova reprodução
+        relogio.avancarAte(40_000);
+        tocando.proxima();
+        relogio.avancarAte(40_000 + 200_000); // Música 2 toca até o fim
+
+        assertEquals(List.of("inicio Música 1", "Música 1 30000", "Música 1 10000",
+                "inicio Música 2", "Música 2 200000", "inicio Música 3"), avisos);
+    }
+
     private List<Audio> criarFilaTeste() {
         List<Audio> fila = new ArrayList<>();
         fila.add(new Musica("Música 1", 180, artistaTeste));
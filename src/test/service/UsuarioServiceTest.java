@@ -1,6 +1,11 @@
 package test.service;
 
+import model.midia.Artista;
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
 import model.usuario.Usuario;
+import service.BibliotecaService;
 import service.UsuarioService;
 import exception.ValidacaoException;
 
@@ -8,6 +13,17 @@ import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Testes unitários para o UsuarioService usando JUnit 5.
@@ -21,6 +37,12 @@ public class UsuarioServiceTest {
     private static UsuarioService service;
     private static final String ARQUIVO_TESTE = "usuarios_teste.db";
 
+    /** Diretório de dados dos testes de journal e concorrência. */
+    private Path pasta;
+
+    /** Serviço com os arquivos em {@link #pasta}. */
+    private UsuarioService isolado;
+
     /**
      * Configura o ambiente de teste antes de todos os testes.
      * Usa instância singleton do UsuarioService.
@@ -30,6 +52,41 @@ public class UsuarioServiceTest {
         service = UsuarioService.getInstance();
     }
 
+    /**
+     * Encerra o serviço isolado e apaga seu diretório.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        if (isolado == null) {
+            return;
+        }
+        isolado.close();
+        try (Stream<Path> arquivos = Files.walk(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    /**
+     * Abre um serviço com os arquivos em um diretório temporário, sem
+     * tocar nos dados da aplicação.
+     */
+    private UsuarioService abrirIsolado() throws IOException {
+        if (pasta == null) {
+            pasta = Files.createTempDirectory("usuario-service");
+        }
+        isolado = new UsuarioService(pasta);
+        isolado.carregarUsuarios();
+        return isolado;
+    }
+
+    /** Encerra o serviço isolado e o abre de novo sobre os mesmos arquivos. */
+    private UsuarioService reabrirIsolado() throws IOException {
+        isolado.close();
+        return abrirIsolado();
+    }
+
     /**
      * Limpa arquivo de teste após todos os testes.
      */
@@ -131,4 +188,226 @@ public class UsuarioServiceTest {
         assertTrue(service.existeUsuario(email), "Usuário cadastrado deve existir");
         assertFalse(service.existeUsuario("inexistente@xyz.com"), "Usuário não cadastrado não deve existir");
     }
+
+    @Test
+    @Order(9)
+    @DisplayName("Deve recuperar alterações do journal ao recarregar")
+    void testRecuperarAlteracoesDoJournal() throws IOException {
+        UsuarioService usuarios = abrirIsolado();
+        String email = "journal@email.com";
+        Usuario user = usuarios.cadastrar(email, "senha123", "Journal");
+        usuarios.criarPlaylist(user, "Favoritas");
+        usuarios.alterarSenha(user, "novasenha");
+
+        // Recarrega do disco: armazenamento + reaplicação do journal
+        usuarios = reabrirIsolado();
+
+        Usuario recarregado = usuarios.login(email, "novasenha");
+        assertNotSame(user, recarregado, "Usuário deve ter sido recriado a partir do disco");
+        assertEquals(user.getId(), recarregado.getId(), "UUID deve ser preservado");
+        assertEquals(1, recarregado.getPlaylists().size(), "Playlist criada deve ser recuperada");
+        assertEquals("Favoritas", recarregado.getPlaylists().get(0).getNome());
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Deve manter dados após compactação do journal")
+    void testCompactacaoPreservaDados() throws IOException {
+        UsuarioService usuarios = abrirIsolado();
+        String email = "compacta@email.com";
+        Usuario user = usuarios.cadastrar(email, "senha123", "Compacta");
+        usuarios.criarPlaylist(user, "Antes");
+
+        assertTrue(usuarios.salvarUsuarios()); // Armazenamento + descarte do journal
+        usuarios.criarPlaylist(user, "Depois");
+        usuarios = reabrirIsolado();
+
+        Usuario recarregado = usuarios.login(email, "senha123");
+        assertEquals(2, recarregado.getPlaylists().size(),
+                "Deve combinar o snapshot com o journal posterior a ele");
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Cadastros simultâneos com o mesmo email devem ter um único sucesso")
+    void testCadastrosSimultaneos() throws InterruptedException, IOException {
+        UsuarioService usuarios = abrirIsolado();
+        String email = "simultaneo@email.com";
+        AtomicInteger sucessos = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    largada.await();
+                    usuarios.cadastrar(email, "senha123", "Simultâneo");
+                    sucessos.incrementAndGet();
+                } catch (ValidacaoException | InterruptedException e) {
+                    // Esperado para todas menos uma
+                }
+            });
+            threads[t].start();
+        }
+        largada.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, sucessos.get(), "Apenas um cadastro deve vencer");
+        assertNotNull(usuarios.login(email, "senha123"));
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Curtidas e logins simultâneos não devem se perder")
+    void testCurtidasSimultaneas() throws InterruptedException, IOException {
+        UsuarioService usuarios = abrirIsolado();
+        String email = "curtidas@email.com";
+        Usuario user = usuarios.cadastrar(email, "senha123", "Curtidas");
+        List<Audio> audios = new ArrayList<>();
+        Artista artista = new Artista("Artista Concorrente");
+        for (int i = 0; i < 8; i++) {
+            Musica m = new Musica("Concorrente " + i, 100, artista);
+            m.atribuirId(10_000 + i);
+            audios.add(m);
+        }
+
+        Thread[] threads = new Thread[audios.size()];
+        for (int t = 0; t < threads.length; t++) {
+            Audio audio = audios.get(t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 51; i++) { // Número ímpar: termina curtido
+                    usuarios.curtirAudio(user, audio);
+                    assertSame(user, usuarios.login(email, "senha123"));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (Audio audio : audios) {
+            assertTrue(user.getCurtidas().contains(audio), "Cada áudio deve terminar curtido");
+            assertEquals(1, audio.getTotalCurtidas());
+        }
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("Deve migrar um usuarios.db da versão com áudios embutidos")
+    void testMigrarFormatoAntigo() throws IOException {
+        Podcast episodio = new Podcast("Episodio Legado", 1800, "Apresentadora", 7);
+        BibliotecaService.getInstance().adicionarAudio(episodio);
+        pasta = Files.createTempDirectory("usuario-service");
+        Files.copy(Paths.get("src", "test", "service", "persistencia", "legado", "usuarios-baseline.db"),
+                pasta.resolve("usuarios.db"));
+
+        UsuarioService usuarios = abrirIsolado();
+        assertTrue(Files.exists(pasta.resolve("usuarios.db.migrado")), "O arquivo antigo deve ser guardado");
+
+        // Lido do armazenamento, com as curtidas resolvidas pelo ID do catálogo
+        usuarios = reabrirIsolado();
+        Usuario ana = usuarios.login("ana@email.com", "senha123");
+        assertEquals("Ana", ana.getNome());
+        assertTrue(ana.getCurtidas().contains(episodio));
+        assertTrue(ana.getCurtidas().stream().noneMatch(a -> a.getTitulo().equals("Faixa Fora do Catalogo")));
+        assertEquals(List.of("Rock", "Vazia"), ana.getPlaylists().stream().map(p -> p.getNome()).toList());
+        assertEquals(2, ana.getEstadoPlayerIndice());
+        assertNotNull(usuarios.login("bruno@email.com", "outra456"));
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("Deve migrar usuários logo depois de carregar um catálogo antigo")
+    void testMigrarComCatalogoAntigo() throws IOException {
+        BibliotecaService biblioteca = BibliotecaService.getInstance();
+        List<Audio> anterior = new ArrayList<>(biblioteca.getCatalogo());
+        pasta = Files.createTempDirectory("usuario-service");
+
+        // Catálogo grande o bastante para a indexação de fundo ainda estar
+        // em andamento durante a migração; os áudios curtidos ficam no fim
+        Artista artista = new Artista("Artista Antigo");
+        Artista queen = new Artista("Queen");
+        List<Audio> antigo = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            antigo.add(new Musica("Faixa Antiga " + i, 200, artista));
+        }
+        antigo.add(new Musica("Bohemian Rhapsody", 354, queen));
+        antigo.add(new Musica("Love of My Life", 219, queen));
+        antigo.add(new Podcast("Episodio Legado", 1800, "Apresentadora", 7));
+        gravarCatalogoSerializado(pasta.resolve("catalogo.db"), antigo);
+        Files.copy(Paths.get("src", "test", "service", "persistencia", "legado", "usuarios-baseline.db"),
+                pasta.resolve("usuarios.db"));
+
+        try {
+            assertTrue(biblioteca.carregarDadosDoDisco(pasta.resolve("catalogo.db")));
+            assertEquals(100_002, biblioteca.getCatalogo().get(100_002).getId(),
+                    "Os IDs devem valer assim que o catálogo é publicado");
+
+            UsuarioService usuarios = abrirIsolado();
+            usuarios = reabrirIsolado();
+            Usuario ana = usuarios.login("ana@email.com", "senha123");
+            assertEquals(List.of("Bohemian Rhapsody", "Episodio Legado"),
+                    ana.getCurtidas().stream().map(Audio::getTitulo).sorted().toList());
+            assertEquals(List.of("Bohemian Rhapsody", "Love of My Life"),
+                    ana.getPlaylists().get(0).getItens().stream().map(Audio::getTitulo).toList());
+        } finally {
+            // Devolve o catálogo dos outros testes
+            gravarCatalogoSerializado(pasta.resolve("anterior.db"), anterior);
+            biblioteca.carregarDadosDoDisco(pasta.resolve("anterior.db"));
+            biblioteca.getCatalogoPorPopularidade(); // Espera a indexação
+        }
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Descurtidas simultâneas do mesmo usuário não devem deixar as curtidas negativas")
+    void testDescurtirSimultaneo() throws InterruptedException, IOException {
+        UsuarioService usuarios = abrirIsolado();
+        Musica musica = new Musica("Descurtida Concorrente", 180, new Artista("Banda Concorrente"));
+        musica.atribuirId(20_000);
+        List<Usuario> fas = new ArrayList<>();
+        for (int u = 0; u < 2; u++) {
+            fas.add(usuarios.cadastrar("fa" + u + "@email.com", "senha123", "Fã " + u));
+        }
+
+        // Oito threads por usuário alternando a curtida dele ao mesmo tempo
+        AtomicInteger negativos = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] threads = new Thread[fas.size() * 8];
+        for (int t = 0; t < threads.length; t++) {
+            Usuario fa = fas.get(t % fas.size());
+            threads[t] = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) { // Número par: termina sem curtida
+                    usuarios.curtirAudio(fa, musica);
+                    if (musica.getTotalCurtidas() < 0) {
+                        negativos.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        largada.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, negativos.get(), "Curtidas não devem ficar negativas");
+        assertEquals(0, musica.getTotalCurtidas());
+        musica.curtir();
+        assertEquals(1, musica.getTotalCurtidas(), "Nenhuma curtida deve ter sido removida a mais");
+    }
+
+    /** Grava um catálogo no formato antigo, por serialização Java. */
+    private static void gravarCatalogoSerializado(Path arquivo, List<Audio> audios) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(arquivo))) {
+            out.writeObject(new ArrayList<>(audios));
+        }
+    }
 }
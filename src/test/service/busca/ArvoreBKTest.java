@@ -0,0 +1,71 @@
+package test.service.busca;
+
+import service.busca.ArvoreBK;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para a ArvoreBK usando JUnit 5.
+ * Verifica a distância de edição e a equivalência com uma busca linear
+ * no dicionário.
+ * 
+ */
+@DisplayName("ArvoreBK Tests")
+public class ArvoreBKTest {
+
+    private static final String[] DICIONARIO = { "bohemian", "rhapsody", "belchior", "queen", "asa", "branca",
+            "luiz", "gonzaga", "lua", "luar", "sertao", "rapaz", "raposa", "reboco", "rei", "baiao", "xote",
+            "xodo", "chao", "giz", "avohai", "frevo", "mulher", "festa", "faraó", "requebra" };
+
+    private ArvoreBK arvore;
+
+    @BeforeEach
+    void setUp() {
+        arvore = new ArvoreBK();
+        for (String termo : DICIONARIO) {
+            arvore.adicionar(termo);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve calcular a distância de Levenshtein")
+    void testDistancia() {
+        assertEquals(0, ArvoreBK.distancia("queen", "queen", 2));
+        assertEquals(1, ArvoreBK.distancia("rapsody", "rhapsody", 2));
+        assertEquals(2, ArvoreBK.distancia("belchoir", "belchior", 2));
+        assertEquals(3, ArvoreBK.distancia("kitten", "sitting", Integer.MAX_VALUE));
+        assertEquals(2, ArvoreBK.distancia("kitten", "sitting", 1), "Acima do limite retorna limite + 1");
+    }
+
+    @Test
+    @DisplayName("Deve ignorar termos repetidos")
+    void testTermosRepetidos() {
+        arvore.adicionar("queen");
+        arvore.adicionar("rhapsody");
+
+        assertEquals(DICIONARIO.length, arvore.tamanho());
+    }
+
+    @Test
+    @DisplayName("Deve encontrar os mesmos termos que uma busca linear")
+    void testEquivaleABuscaLinear() {
+        String[] consultas = { "rapsody", "belchoir", "quen", "lu", "raposo", "xodó", "zzzz", "bohemian" };
+        for (String consulta : consultas) {
+            for (int maximo = 0; maximo <= 2; maximo++) {
+                Map<String, Integer> esperado = new HashMap<>();
+                for (String termo : DICIONARIO) {
+                    int d = ArvoreBK.distancia(consulta, termo, Integer.MAX_VALUE);
+                    if (d <= maximo) {
+                        esperado.put(termo, d);
+                    }
+                }
+                Map<String, Integer> obtido = new HashMap<>();
+                arvore.buscar(consulta, maximo, obtido::put);
+                assertEquals(esperado, obtido, "Consulta: " + consulta + ", máximo: " + maximo);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package test.service.busca;
+
+import service.busca.BitmapIds;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para o BitmapIds usando JUnit 5.
+ * Compara as operações E, OU e E NÃO com um TreeSet, cobrindo os
+ * containers em array, bitmap e runs.
+ * 
+ */
+@DisplayName("BitmapIds Tests")
+public class BitmapIdsTest {
+
+    private static BitmapIds bitmapDe(Collection<Integer> ids) {
+        return BitmapIds.de(ids.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int[] paraArray(Collection<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Conjunto aleatório com trechos esparsos, densos e contínuos. */
+    private static TreeSet<Integer> conjuntoAleatorio(Random random) {
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(random.nextInt(200_000));
+        }
+        for (int i = 0; i < 6000; i++) {
+            ids.add(70_000 + random.nextInt(10_000));
+        }
+        int inicio = random.nextInt(60_000);
+        for (int i = 0; i < 5000; i++) {
+            ids.add(inicio + i);
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Deve adicionar, consultar e contar IDs")
+    void testAdicionarEContar() {
+        BitmapIds bitmap = new BitmapIds();
+        assertTrue(bitmap.vazio());
+
+        bitmap.adicionar(5);
+        bitmap.adicionar(70_000);
+        bitmap.adicionar(5);
+        bitmap.adicionar(1);
+
+        assertEquals(3, bitmap.cardinalidade());
+        assertTrue(bitmap.contem(70_000));
+        assertFalse(bitmap.contem(6));
+        assertArrayEquals(new int[] { 1, 5, 70_000 }, bitmap.paraArray());
+        assertThrows(IllegalArgumentException.class, () -> bitmap.adicionar(-1));
+    }
+
+    @Test
+    @DisplayName("Deve iterar em ordem com o iterador primitivo")
+    void testIterador() {
+        BitmapIds bitmap = BitmapIds.de(65_535, 0, 65_536, 3, 4, 5, 200_000);
+        PrimitiveIterator.OfInt it = bitmap.iterador();
+        List<Integer> obtidos = new ArrayList<>();
+        while (it.hasNext()) {
+            obtidos.add(it.nextInt());
+        }
+
+        assertEquals(List.of(0, 3, 4, 5, 65_535, 65_536, 200_000), obtidos);
+        assertThrows(NoSuchElementException.class, it::nextInt);
+    }
+
+    @Test
+    @DisplayName("Deve manter runs após otimizar e continuar aceitando IDs")
+    void testRuns() {
+        int[] sequencia = new int[10_000];
+        for (int i = 0; i < sequencia.length; i++) {
+            sequencia[i] = 1000 + i;
+        }
+        BitmapIds bitmap = BitmapIds.de(sequencia);
+
+        assertEquals(10_000, bitmap.cardinalidade());
+        assertTrue(bitmap.contem(1000) && bitmap.contem(10_999));
+        assertFalse(bitmap.contem(999) || bitmap.contem(11_000));
+
+        bitmap.adicionar(20_000);
+        assertEquals(10_001, bitmap.cardinalidade());
+        assertTrue(bitmap.contem(20_000) && bitmap.contem(5000));
+    }
+
+    @Test
+    @DisplayName("Operações devem equivaler às de um TreeSet")
+    void testEquivaleATreeSet() {
+        Random random = new Random(42);
+        for (int rodada = 0; rodada < 10; rodada++) {
+            TreeSet<Integer> a = conjuntoAleatorio(random);
+            TreeSet<Integer> b = conjuntoAleatorio(random);
+            BitmapIds ba = bitmapDe(a);
+            BitmapIds bb = bitmapDe(b);
+
+            TreeSet<Integer> e = new TreeSet<>(a);
+            e.retainAll(b);
+            TreeSet<Integer> ou = new TreeSet<>(a);
+            ou.addAll(b);
+            TreeSet<Integer> exceto = new TreeSet<>(a);
+            exceto.removeAll(b);
+
+            assertArrayEquals(paraArray(a), ba.paraArray());
+            assertArrayEquals(paraArray(e), ba.e(bb).paraArray());
+            assertArrayEquals(paraArray(ou), ba.ou(bb).paraArray());
+            assertArrayEquals(paraArray(exceto), ba.exceto(bb).paraArray());
+            assertEquals(ou.size(), ba.ou(bb).cardinalidade());
+            assertArrayEquals(paraArray(a), ba.paraArray(), "Operandos não devem mudar");
+        }
+    }
+
+    @Test
+    @DisplayName("Resultado de uma operação não deve compartilhar estado com os operandos")
+    void testResultadoIndependente() {
+        BitmapIds a = BitmapIds.de(1, 2, 3);
+        BitmapIds b = BitmapIds.de(100_000);
+        BitmapIds uniao = a.ou(b);
+
+        uniao.adicionar(4);
+
+        assertFalse(a.contem(4));
+        assertEquals(5, uniao.cardinalidade());
+    }
+}
@@ -0,0 +1,136 @@
+package test.service.busca;
+
+import service.busca.CacheBusca;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para o CacheBusca usando JUnit 5.
+ * Verifica acertos, versão, limite de peso e a admissão por frequência.
+ *
+ */
+@DisplayName("CacheBusca Tests")
+public class CacheBuscaTest {
+
+    private CacheBusca<int[]> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CacheBusca<>(10, 16, ids -> ids.length);
+    }
+
+    @Test
+    @DisplayName("Deve contar acertos e falhas")
+    void testAcertosEFalhas() {
+        assertNull(cache.obter("queen", 1));
+        assertTrue(cache.guardar("queen", new int[] { 1, 2 }, 1));
+        assertArrayEquals(new int[] { 1, 2 }, cache.obter("queen", 1));
+
+        assertEquals(1, cache.getAcertos());
+        assertEquals(1, cache.getFalhas());
+        assertEquals(2, cache.getPesoTotal());
+    }
+
+    @Test
+    @DisplayName("Entrada de outra versão deve ser falha e ser substituída")
+    void testVersao() {
+        cache.guardar("queen", new int[] { 1, 2 }, 1);
+
+        assertNull(cache.obter("queen", 2), "Versão nova não deve ver o valor antigo");
+        assertTrue(cache.guardar("queen", new int[] { 1, 2, 3 }, 2));
+        assertArrayEquals(new int[] { 1, 2, 3 }, cache.obter("queen", 2));
+        assertEquals(1, cache.tamanho());
+        assertEquals(3, cache.getPesoTotal());
+    }
+
+    @Test
+    @DisplayName("Não deve guardar valor maior que a capacidade")
+    void testValorGrandeDemais() {
+        assertFalse(cache.guardar("a", new int[11], 1));
+
+        assertEquals(0, cache.tamanho());
+        assertEquals(1, cache.getRejeicoes());
+    }
+
+    @Test
+    @DisplayName("Busca frequente deve expulsar a menos frequente")
+    void testAdmissaoPorFrequencia() {
+        for (int i = 0; i < 5; i++) {
+            cache.obter("popular", 1);
+        }
+        cache.obter("rara", 1);
+        cache.guardar("rara", new int[8], 1);
+
+        assertTrue(cache.guardar("popular", new int[5], 1));
+        assertNull(cache.obter("rara", 1), "A menos frequente deve sair");
+        assertNotNull(cache.obter("popular", 1));
+        assertEquals(1, cache.getRemocoes());
+        assertTrue(cache.getPesoTotal() <= 10);
+    }
+
+    @Test
+    @DisplayName("Busca rara não deve expulsar a frequente")
+    void testRejeicaoDaRara() {
+        for (int i = 0; i < 5; i++) {
+            cache.obter("popular", 1);
+        }
+        cache.guardar("popular", new int[8], 1);
+
+        cache.obter("rara", 1);
+        assertFalse(cache.guardar("rara", new int[5], 1));
+        assertNotNull(cache.obter("popular", 1));
+        assertEquals(1, cache.getRejeicoes());
+        assertEquals(0, cache.getRemocoes());
+    }
+
+    @Test
+    @DisplayName("Entrada desatualizada deve sair sem comparar frequência")
+    void testDesatualizadaSaiPrimeiro() {
+        for (int i = 0; i < 5; i++) {
+            cache.obter("antiga", 1);
+        }
+        cache.guardar("antiga", new int[8], 1);
+
+        assertTrue(cache.guardar("nova", new int[5], 2));
+        assertEquals(1, cache.tamanho());
+    }
+
+    @Test
+    @DisplayName("Sequência de buscas únicas deve respeitar a capacidade")
+    void testCapacidade() {
+        for (int i = 0; i < 1_000; i++) {
+            String chave = "termo" + i;
+            if (cache.obter(chave, 1) == null) {
+                cache.guardar(chave, new int[i % 4 + 1], 1);
+            }
+            assertTrue(cache.getPesoTotal() <= 10);
+        }
+        assertEquals(1_000, cache.getFalhas());
+    }
+
+    @Test
+    @DisplayName("Leituras e escritas simultâneas devem respeitar a capacidade")
+    void testAcessoSimultaneo() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int semente = t;
+            threads[t] = new Thread(() -> {
+                java.util.Random random = new java.util.Random(semente);
+                for (int i = 0; i < 2_000; i++) {
+                    String chave = "termo" + random.nextInt(50);
+                    if (cache.obter(chave, 1) == null) {
+                        cache.guardar(chave, new int[random.nextInt(4) + 1], 1);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8_000, cache.getAcertos() + cache.getFalhas(), "Nenhuma consulta deve se perder");
+        assertTrue(cache.getPesoTotal() <= 10);
+    }
+}
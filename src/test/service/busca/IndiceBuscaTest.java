@@ -0,0 +1,156 @@
+package test.service.busca;
+
+import model.midia.*;
+import service.busca.IndiceBusca;
+import service.busca.Normalizador;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para o IndiceBusca usando JUnit 5.
+ * Verifica a normalização, a busca por substring nos campos indexados
+ * e a equivalência com uma busca linear.
+ * 
+ */
+@DisplayName("IndiceBusca Tests")
+public class IndiceBuscaTest {
+
+    private IndiceBusca indice;
+    private List<Audio> audios;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceBusca();
+        audios = new ArrayList<>();
+
+        Artista ze = new Artista("Zé Ramalho");
+        Artista alceu = new Artista("Alceu Valença");
+        Album avohai = new Album("Avohai", ze, 1978);
+
+        adicionar(new Musica("Chão de Giz", 270, ze, avohai));
+        adicionar(new Musica("Frevo Mulher", 220, ze, avohai));
+        adicionar(new Musica("Anunciação", 250, alceu));
+        adicionar(new Podcast("História do Java", 3600, "DevCast", 42));
+        adicionar(new Musica("Leãozinho", 205, new Artista("Caetano Veloso")));
+    }
+
+    private void adicionar(Audio audio) {
+        audio.atribuirId(audios.size());
+        audios.add(audio);
+        indice.indexar(audio);
+    }
+
+    @Test
+    @DisplayName("Deve normalizar acentos, maiúsculas e espaços")
+    void testNormalizar() {
+        assertEquals("ze ramalho", Normalizador.normalizar("  ZÉ   Ramalho "));
+        assertEquals("leaozinho", Normalizador.normalizar("Leãozinho"));
+        assertEquals(List.of("chico", "science", "nacao", "zumbi"),
+                Normalizador.tokenizar(Normalizador.normalizar("Chico Science & Nação Zumbi")));
+    }
+
+    @Test
+    @DisplayName("Caminho rápido deve coincidir com a normalização Unicode completa")
+    void testCaminhoRapidoEquivalente() {
+        StringBuilder todos = new StringBuilder();
+        for (char c = 0; c < 0x180; c++) {
+            todos.append(c).append('x');
+        }
+        String[] textos = { todos.toString(), " Forró \t do  Zé ", "Ação", "Ñandú", "Øre Æsir ß" };
+        for (String texto : textos) {
+            String esperado = java.text.Normalizer.normalize(texto, java.text.Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT)
+                    .replaceAll("\\s+", " ").replaceAll("^ | $", "");
+            assertEquals(esperado, Normalizador.normalizar(texto), "Texto: " + texto);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve localizar chaves em bytes")
+    void testIndiceDeBytes() {
+        byte[] chave = Normalizador.chave("Alceu Valença");
+
+        assertEquals(6, Normalizador.indiceDe(chave, Normalizador.chave("VALENCA")));
+        assertEquals(-1, Normalizador.indiceDe(chave, Normalizador.chave("valencia")));
+    }
+
+    @Test
+    @DisplayName("Deve encontrar artista sem acentos")
+    void testBuscaSemAcentos() {
+        assertArrayEquals(new int[] { 0, 1 }, indice.buscar("ze ramalho"));
+        assertArrayEquals(new int[] { 2 }, indice.buscar("VALENCA"));
+    }
+
+    @Test
+    @DisplayName("Deve buscar em álbum e apresentador")
+    void testBuscaAlbumEApresentador() {
+        assertArrayEquals(new int[] { 0, 1 }, indice.buscar("avohai"));
+        assertArrayEquals(new int[] { 3 }, indice.buscar("devcast"));
+    }
+
+    @Test
+    @DisplayName("Deve buscar termos curtos e palavras exatas")
+    void testTermosCurtosEPalavras() {
+        assertArrayEquals(new int[] { 0 }, indice.buscar("gi"));
+        assertArrayEquals(new int[] { 4 }, indice.buscarTermo("leaozinho"));
+        assertEquals(0, indice.buscarTermo("leao").length, "Palavra parcial não é termo exato");
+    }
+
+    @Test
+    @DisplayName("Deve tolerar erros de digitação e listar os exatos primeiro")
+    void testBuscaAproximada() {
+        assertEquals(0, indice.buscar("frevu mulhe").length, "Busca exata não tolera erros");
+        assertArrayEquals(new int[] { 1 }, indice.buscar("frevu mulhe", true));
+        assertArrayEquals(new int[] { 2 }, indice.buscar("anunsiacao", true));
+        assertArrayEquals(new int[] { 4 }, indice.buscar("leaozino", true));
+        assertArrayEquals(indice.buscar("ramalho"), indice.buscar("ramalho", false));
+
+        // "giz" é exato no áudio 0; "gis" não tolera erro (palavra curta)
+        assertArrayEquals(new int[] { 0 }, indice.buscar("giz", true));
+        assertEquals(0, indice.buscar("gis", true).length);
+
+        // "Romalho" está a uma edição de "ramalho": vem depois dos exatos
+        adicionar(new Musica("Romalho", 180, new Artista("Outro")));
+        assertArrayEquals(new int[] { 0, 1, 5 }, indice.buscar("ramalho", true));
+    }
+
+    @Test
+    @DisplayName("Deve pontuar título acima de álbum e termos raros acima de comuns")
+    void testPontuarBM25() {
+        // "avohai" é título de nenhum áudio aqui, mas é álbum dos áudios 0 e 1
+        adicionar(new Musica("Avohai", 300, new Artista("Outro")));
+        int[] ids = { 0, 1, 5 };
+        double[] pontuacoes = indice.pontuar("avohai", ids);
+
+        assertTrue(pontuacoes[2] > pontuacoes[0], "Título deve valer mais que álbum");
+        assertEquals(pontuacoes[0], pontuacoes[1], 1e-9);
+
+        double[] porPalavra = indice.pontuar("ze giz", new int[] { 0, 1 });
+        assertTrue(porPalavra[0] > porPalavra[1], "Áudio com as duas palavras deve vir primeiro");
+        assertEquals(0.0, indice.pontuar("xyz", new int[] { 0 })[0]);
+    }
+
+    @Test
+    @DisplayName("Deve retornar o mesmo que uma busca linear por contains")
+    void testEquivaleABuscaLinear() {
+        String[] consultas = { "a", "ra", "ama", "ramal", "o de g", "java", "zinho", "xyz", "ção", "lher" };
+        for (String consulta : consultas) {
+            String normalizada = Normalizador.normalizar(consulta);
+            List<Integer> esperado = new ArrayList<>();
+            for (Audio a : audios) {
+                for (IndiceBusca.Campo campo : IndiceBusca.Campo.values()) {
+                    String texto = IndiceBusca.textoDoCampo(a, campo);
+                    if (texto != null && Normalizador.normalizar(texto).contains(normalizada)) {
+                        esperado.add(a.getId());
+                        break;
+                    }
+                }
+            }
+            int[] obtido = indice.buscar(consulta);
+            assertEquals(esperado, Arrays.stream(obtido).boxed().toList(), "Consulta: " + consulta);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package test.service.busca;
+
+import exception.ValidacaoException;
+import model.midia.*;
+import service.busca.BitmapIds;
+import service.busca.Consulta;
+import service.busca.IndiceCampos;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para a Consulta e o IndiceCampos usando JUnit 5.
+ * Verifica a interpretação dos filtros por campo e a combinação (E, OU,
+ * NÃO) dos índices de artista, gênero, ano, tipo e curtidas.
+ * 
+ */
+@DisplayName("IndiceCampos Tests")
+public class IndiceCamposTest {
+
+    private IndiceCampos indice;
+    private List<Audio> audios;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceCampos();
+        audios = new ArrayList<>();
+
+        Artista luiz = new Artista("Luiz Gonzaga");
+        luiz.adicionarGenero("Forró");
+        luiz.adicionarGenero("Baião");
+        Artista ze = new Artista("Zé Ramalho");
+        ze.adicionarGenero("MPB");
+        Artista elba = new Artista("Elba Ramalho");
+        elba.adicionarGenero("Forró");
+
+        adicionar(new Musica("Asa Branca", 195, luiz, new Album("O Rei do Baião", luiz, 1950)));
+        adicionar(new Musica("Chão de Giz", 270, ze, new Album("Avohai", ze, 1978)));
+        adicionar(new Musica("Banho de Cheiro", 200, elba, new Album("O Grande Encontro", elba, 1996)));
+        adicionar(new Podcast("História do Java", 3600, "DevCast", 42));
+        adicionar(new Musica("Sem Álbum", 180, ze));
+    }
+
+    private void adicionar(Audio audio) {
+        audio.atribuirId(audios.size());
+        audios.add(audio);
+        indice.indexar(audio);
+    }
+
+    private int[] filtrar(String consulta) {
+        return filtrar(consulta, null);
+    }
+
+    private int[] filtrar(String consulta, BitmapIds curtidas) {
+        return indice.filtrar(Consulta.interpretar(consulta).getClausulas(), curtidas).paraArray();
+    }
+
+    @Test
+    @DisplayName("Deve separar filtros do texto livre")
+    void testInterpretar() {
+        Consulta consulta = Consulta.interpretar("asa GÊNERO:Forró artist:\"luiz gonzaga\" News: #1");
+
+        assertEquals("asa News: #1", consulta.getTextoLivre());
+        assertEquals(2, consulta.getFiltros().size());
+        assertEquals(Consulta.CampoFiltro.GENERO, consulta.getFiltros().get(0).getCampo());
+        assertEquals("forro", consulta.getFiltros().get(0).getValor());
+        assertEquals("luiz gonzaga", consulta.getFiltros().get(1).getValor());
+        assertFalse(Consulta.interpretar("asa branca").temFiltros());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar filtros inválidos")
+    void testFiltrosInvalidos() {
+        assertThrows(ValidacaoException.class, () -> Consulta.interpretar("year:abc"));
+        assertThrows(ValidacaoException.class, () -> Consulta.interpretar("year:1990..1980"));
+        assertThrows(ValidacaoException.class, () -> Consulta.interpretar("type:video"));
+        assertThrows(ValidacaoException.class, () -> Consulta.interpretar("genre:"));
+        assertThrows(ValidacaoException.class, () -> Consulta.interpretar("liked:talvez"));
+        assertThrows(ValidacaoException.class, () -> filtrar("liked:sim"), "Curtidas exigem usuário");
+    }
+
+    @Test
+    @DisplayName("Deve filtrar por artista, gênero, ano e tipo")
+    void testFiltrosSimples() {
+        assertArrayEquals(new int[] { 1, 4 }, filtrar("artist:\"ze ramalho\""));
+        assertArrayEquals(new int[] { 1, 2, 4 }, filtrar("artista:ramalho"));
+        assertArrayEquals(new int[] { 0, 2 }, filtrar("genre:forro"));
+        assertArrayEquals(new int[] { 1 }, filtrar("year:1978"));
+        assertArrayEquals(new int[] { 1, 2 }, filtrar("year:1970..2000"));
+        assertArrayEquals(new int[] { 0, 1 }, filtrar("ano:..1980"));
+        assertArrayEquals(new int[] { 3 }, filtrar("type:podcast"));
+        assertArrayEquals(new int[] { 0, 1, 2, 4 }, filtrar("tipo:música"));
+    }
+
+    @Test
+    @DisplayName("Deve intersectar os filtros")
+    void testIntersecao() {
+        assertArrayEquals(new int[] { 2 }, filtrar("genre:forró year:1970..2000 type:musica"));
+        assertArrayEquals(new int[] { 1 }, filtrar("artist:ramalho genre:mpb year:1970.."));
+        assertEquals(0, filtrar("genre:forro type:podcast").length);
+    }
+
+    @Test
+    @DisplayName("Deve combinar alternativas com OU e negar com -")
+    void testOuENao() {
+        Consulta consulta = Consulta.interpretar("genre:mpb,forro -year:1978");
+        assertTrue(consulta.getClausulas().get(1).isNegada());
+        assertEquals(2, consulta.getClausulas().get(0).getAlternativas().size());
+
+        assertArrayEquals(new int[] { 0, 1, 2, 4 }, filtrar("genre:mpb,forro"));
+        assertArrayEquals(new int[] { 0, 2, 4 }, filtrar("genre:mpb,forro -year:1978"));
+        assertArrayEquals(new int[] { 0, 3 }, filtrar("-artist:ramalho"));
+        assertArrayEquals(new int[] { 0, 1, 3, 4 }, filtrar("-artist:elba type:musica,podcast -year:1996"));
+    }
+
+    @Test
+    @DisplayName("Deve filtrar pelas curtidas do usuário")
+    void testCurtidas() {
+        BitmapIds curtidas = BitmapIds.de(1, 3);
+
+        assertArrayEquals(new int[] { 1, 3 }, filtrar("liked:sim", curtidas));
+        assertArrayEquals(new int[] { 0, 2, 4 }, filtrar("curtida:não", curtidas));
+        assertArrayEquals(new int[] { 1 }, filtrar("liked:yes type:musica", curtidas));
+    }
+}
@@ -0,0 +1,81 @@
+package test.service.busca;
+
+import model.midia.*;
+import service.busca.HeapTopK;
+import service.busca.ResultadoBusca;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para o HeapTopK e o ResultadoBusca usando JUnit 5.
+ * Verifica a seleção dos k melhores e a paginação sob demanda, comparando
+ * com uma ordenação completa.
+ * 
+ */
+@DisplayName("ResultadoBusca Tests")
+public class ResultadoBuscaTest {
+
+    private List<Audio> audios;
+
+    @BeforeEach
+    void setUp() {
+        audios = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Musica musica = new Musica("Faixa " + i, 180, new Artista("Artista " + i));
+            musica.atribuirId(i);
+            audios.add(musica);
+        }
+    }
+
+    @Test
+    @DisplayName("Heap deve guardar os k melhores, desempatando pelo ID")
+    void testHeapTopK() {
+        HeapTopK heap = new HeapTopK(3);
+        heap.oferecer(7, 1.0);
+        heap.oferecer(2, 5.0);
+        heap.oferecer(9, 3.0);
+        heap.oferecer(4, 3.0);
+        heap.oferecer(1, 0.5);
+
+        assertEquals(3, heap.tamanho());
+        assertEquals(3.0, heap.getPiorPontuacao());
+        assertArrayEquals(new int[] { 2, 4, 9 }, heap.extrairOrdenados());
+        assertEquals(0, heap.tamanho());
+    }
+
+    @Test
+    @DisplayName("Páginas devem seguir a ordenação completa, com aproximados no fim")
+    void testPaginasEquivalemAOrdenacao() {
+        Random random = new Random(7);
+        int[] ids = new int[150];
+        double[] pontuacoes = new double[150];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+            pontuacoes[i] = random.nextInt(20); // muitos empates
+        }
+        int[] aproximados = { 180, 160, 170 };
+
+        List<Integer> esperado = new ArrayList<>();
+        for (int id : ids) {
+            esperado.add(id);
+        }
+        esperado.sort((a, b) -> pontuacoes[a] != pontuacoes[b] ? Double.compare(pontuacoes[b], pontuacoes[a])
+                : Integer.compare(a, b));
+        esperado.addAll(List.of(180, 160, 170));
+
+        ResultadoBusca resultado = new ResultadoBusca(ids, pontuacoes, aproximados, audios::get);
+        List<Integer> obtido = new ArrayList<>();
+        while (resultado.temMais()) {
+            for (Audio a : resultado.proximaPagina(7)) {
+                obtido.add(a.getId());
+            }
+        }
+
+        assertEquals(153, resultado.getTotal());
+        assertEquals(esperado, obtido);
+        assertTrue(resultado.proximaPagina(7).isEmpty());
+    }
+}
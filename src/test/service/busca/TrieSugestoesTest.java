@@ -0,0 +1,64 @@
+package test.service.busca;
+
+import model.midia.*;
+import service.busca.TrieSugestoes;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para a TrieSugestoes usando JUnit 5.
+ * Verifica o autocompletar por prefixo e a ordem por popularidade.
+ * 
+ */
+@DisplayName("TrieSugestoes Tests")
+public class TrieSugestoesTest {
+
+    private TrieSugestoes trie;
+    private List<Musica> musicas;
+
+    @BeforeEach
+    void setUp() {
+        trie = new TrieSugestoes();
+        musicas = new ArrayList<>();
+        Artista luiz = new Artista("Luiz Gonzaga");
+        Artista lulu = new Artista("Lulu Santos");
+        adicionar(new Musica("Asa Branca", 195, luiz));
+        adicionar(new Musica("Luar do Sertão", 200, luiz));
+        adicionar(new Musica("Como uma Onda", 210, lulu));
+    }
+
+    private void adicionar(Musica musica) {
+        musica.atribuirId(musicas.size());
+        musicas.add(musica);
+        trie.indexar(musica, musica.getTitulo(), musica.getNomeArtista());
+        musica.registrarOuvinte(trie::popularidadeAlterada);
+    }
+
+    @Test
+    @DisplayName("Deve sugerir textos que começam com o prefixo, ignorando acentos")
+    void testSugerirPorPrefixo() {
+        List<String> sugestoes = trie.sugerir("LU", 10);
+
+        assertEquals(Set.of("Luiz Gonzaga", "Luar do Sertão", "Lulu Santos"), new HashSet<>(sugestoes));
+        assertEquals(List.of("Luar do Sertão"), trie.sugerir("luar do sertao", 10));
+        assertTrue(trie.sugerir("xyz", 10).isEmpty(), "Prefixo inexistente não tem sugestões");
+    }
+
+    @Test
+    @DisplayName("Deve ordenar sugestões por popularidade e respeitar o limite")
+    void testOrdemPorPopularidade() {
+        musicas.get(2).curtir(); // Lulu Santos e "Como uma Onda"
+        musicas.get(0).curtir(); // Luiz Gonzaga e "Asa Branca"
+        musicas.get(1).curtir(); // Luiz Gonzaga e "Luar do Sertão"
+
+        assertEquals(List.of("Luiz Gonzaga", "Luar do Sertão"), trie.sugerir("lu", 2),
+                "Artista soma as curtidas das suas faixas");
+
+        musicas.get(0).descurtir();
+        musicas.get(1).descurtir();
+        assertEquals("Lulu Santos", trie.sugerir("lu", 1).get(0), "Deve recalcular ao perder curtidas");
+    }
+}
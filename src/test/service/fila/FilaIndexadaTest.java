@@ -0,0 +1,131 @@
+package test.service.fila;
+
+import model.midia.*;
+import service.fila.FilaIndexada;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para a FilaIndexada usando JUnit 5.
+ * Compara as operações por posição com um ArrayList e verifica que os
+ * itens continuam apontando para os seus áudios depois das alterações.
+ *
+ */
+@DisplayName("FilaIndexada Tests")
+public class FilaIndexadaTest {
+
+    private FilaIndexada fila;
+    private List<Audio> audios;
+
+    @BeforeEach
+    void setUp() {
+        fila = new FilaIndexada();
+        audios = new ArrayList<>();
+        Artista artista = new Artista("Artista Fila");
+        for (int i = 0; i < 500; i++) {
+            audios.add(new Musica("Faixa " + i, 100 + i, artista));
+        }
+    }
+
+    @Test
+    @DisplayName("Operações aleatórias devem equivaler às de um ArrayList")
+    void testEquivalenciaComLista() {
+        List<Audio> esperado = new ArrayList<>(audios.subList(0, 100));
+        fila.adicionarTodos(esperado);
+        Random random = new Random(11);
+
+        for (int passo = 0; passo < 5_000; passo++) {
+            int tamanho = esperado.size();
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int posicao = random.nextInt(tamanho + 1);
+                    Audio audio = audios.get(random.nextInt(audios.size()));
+                    esperado.add(posicao, audio);
+                    assertSame(audio, fila.inserir(posicao, audio).getAudio());
+                }
+                case 1 -> {
+                    if (tamanho > 0) {
+                        int posicao = random.nextInt(tamanho);
+                        assertSame(esperado.remove(posicao), fila.remover(posicao).getAudio());
+                    }
+                }
+                default -> {
+                    if (tamanho > 0) {
+                        int de = random.nextInt(tamanho);
+                        int para = random.nextInt(tamanho);
+                        esperado.add(para, esperado.remove(de));
+                        fila.mover(de, para);
+                    }
+                }
+            }
+        }
+
+        assertEquals(esperado.size(), fila.tamanho());
+        assertEquals(esperado, fila.visao());
+        for (int i = 0; i < esperado.size(); i++) {
+            assertSame(esperado.get(i), fila.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Item deve acompanhar o áudio em inserções, remoções e ordenação")
+    void testItemEstavel() {
+        fila.adicionarTodos(audios);
+        FilaIndexada.Item item = fila.itemEm(250);
+
+        fila.inserir(0, audios.get(1));
+        assertEquals(251, fila.posicaoDe(item));
+        fila.remover(10);
+        fila.remover(400);
+        assertEquals(250, fila.posicaoDe(item));
+        fila.mover(250, 3);
+        assertEquals(3, fila.posicaoDe(item));
+
+        fila.ordenar(Comparator.comparingInt(Audio::getDuracaoSegundos).reversed());
+        assertSame(audios.get(250), item.getAudio());
+        assertSame(item, fila.itemEm(fila.posicaoDe(item)));
+        assertTrue(fila.posicaoDe(item) < fila.tamanho());
+    }
+
+    @Test
+    @DisplayName("Visão deve refletir alterações sem copiar")
+    void testVisao() {
+        List<Audio> visao = fila.visao();
+        assertTrue(visao.isEmpty());
+
+        fila.adicionarTodos(audios.subList(0, 3));
+        assertEquals(audios.subList(0, 3), visao);
+        fila.remover(0);
+        assertEquals(audios.subList(1, 3), visao);
+        assertThrows(UnsupportedOperationException.class, () -> visao.add(audios.get(0)));
+        assertThrows(IndexOutOfBoundsException.class, () -> fila.get(2));
+        fila.limpar();
+        assertTrue(visao.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Operações por posição devem ser rápidas com 1 milhão de itens")
+    void testFilaGrande() {
+        List<Audio> grande = new ArrayList<>(1_000_000);
+        for (int i = 0; i < 1_000_000; i++) {
+            grande.add(audios.get(i % audios.size()));
+        }
+        fila.adicionarTodos(grande);
+        FilaIndexada.Item atual = fila.itemEm(500_000);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 100_000; i++) {
+            fila.inserir(fila.posicaoDe(atual) + 1, audios.get(0)); // Tocar em seguida
+            fila.mover(i % 1_000, 999_000);
+            fila.remover(fila.tamanho() / 3);
+        }
+        long duracao = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertEquals(1_000_000, fila.tamanho());
+        assertSame(audios.get(0), fila.get(fila.posicaoDe(atual) + 1));
+        assertTrue(duracao < 2_000, "300 mil operações levaram " + duracao + " ms");
+    }
+}
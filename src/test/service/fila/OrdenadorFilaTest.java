@@ -0,0 +1,107 @@
+package test.service.fila;
+
+import interfaces.CriterioOrdenacao;
+import model.midia.*;
+import service.busca.Normalizador;
+import service.fila.Ordenacao;
+import service.fila.OrdenadorFila;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para o OrdenadorFila usando JUnit 5.
+ * Compara cada ordenação com uma ordenação estável por Comparator e
+ * verifica critérios criados fora do pacote.
+ *
+ */
+@DisplayName("OrdenadorFila Tests")
+public class OrdenadorFilaTest {
+
+    private List<Audio> fila;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(21);
+        String[] nomes = { "Zé Ramalho", "ana", "Álvaro", "Abelha", "abelhudo", "Beto" };
+        List<Album> albuns = new ArrayList<>();
+        for (String nome : nomes) {
+            albuns.add(new Album("Álbum de " + nome, new Artista(nome), 2000));
+        }
+        fila = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Audio audio;
+            if (i % 7 == 0) {
+                audio = new Podcast("Episódio " + random.nextInt(50), 60 + random.nextInt(3_000),
+                        nomes[random.nextInt(nomes.length)], random.nextInt(100));
+            } else {
+                Album album = albuns.get(random.nextInt(albuns.size()));
+                Musica musica = new Musica(nomes[random.nextInt(nomes.length)] + " " + i,
+                        60 + random.nextInt(300), album.getArtista(), album);
+                album.adicionarFaixa(musica);
+                audio = musica;
+            }
+            for (int c = random.nextInt(5); c > 0; c--) {
+                audio.curtir();
+            }
+            for (int r = random.nextInt(5); r > 0; r--) {
+                audio.incrementarReproducao();
+            }
+            fila.add(audio);
+        }
+    }
+
+    @Test
+    @DisplayName("Todas as ordenações devem equivaler a um sort estável por Comparator")
+    void testEquivalenciaComComparator() {
+        for (Ordenacao ordenacao : Ordenacao.values()) {
+            Comparator<Audio> comparador = Comparator
+                    .comparing((Audio a) -> ordenacao.texto(a) == null ? "" : Normalizador.normalizar(ordenacao.texto(a)))
+                    .thenComparingLong(ordenacao::chave);
+            List<Audio> esperado = new ArrayList<>(fila);
+            esperado.sort(comparador);
+
+            assertEquals(esperado, aplicar(OrdenadorFila.ordenar(fila, ordenacao)), ordenacao.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Ordem por álbum deve seguir as faixas dentro de cada álbum")
+    void testOrdemDasFaixas() {
+        List<Audio> ordenada = aplicar(OrdenadorFila.ordenar(fila, Ordenacao.ALBUM));
+        Musica anterior = null;
+        for (Audio audio : ordenada) {
+            if (audio instanceof Musica musica) {
+                if (anterior != null && anterior.getAlbum() == musica.getAlbum()) {
+                    List<Musica> faixas = musica.getAlbum().getFaixas();
+                    assertTrue(faixas.indexOf(anterior) < faixas.indexOf(musica));
+                }
+                anterior = musica;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Critério criado fora do pacote deve ser aceito")
+    void testCriterioPersonalizado() {
+        // Podcasts primeiro, depois músicas, mantendo a ordem original em cada grupo
+        CriterioOrdenacao podcastsPrimeiro = audio -> audio instanceof Podcast ? 0 : 1;
+        List<Audio> ordenada = aplicar(OrdenadorFila.ordenar(fila, podcastsPrimeiro));
+
+        List<Audio> esperado = new ArrayList<>();
+        fila.stream().filter(a -> a instanceof Podcast).forEach(esperado::add);
+        fila.stream().filter(a -> !(a instanceof Podcast)).forEach(esperado::add);
+        assertEquals(esperado, ordenada);
+        assertArrayEquals(new int[0], OrdenadorFila.ordenar(List.of(), podcastsPrimeiro));
+    }
+
+    private List<Audio> aplicar(int[] ordem) {
+        List<Audio> resultado = new ArrayList<>();
+        for (int indice : ordem) {
+            resultado.add(fila.get(indice));
+        }
+        return resultado;
+    }
+}
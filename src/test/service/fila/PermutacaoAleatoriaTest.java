@@ -0,0 +1,74 @@
+package test.service.fila;
+
+import service.fila.PermutacaoAleatoria;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a PermutacaoAleatoria usando JUnit 5.
+ * Verifica que a permutação é uma bijeção, que a inversa a desfaz e que
+ * a semente a determina.
+ *
+ */
+@DisplayName("PermutacaoAleatoria Tests")
+public class PermutacaoAleatoriaTest {
+
+    @Test
+    @DisplayName("Deve visitar cada índice exatamente uma vez")
+    void testBijecao() {
+        for (int tamanho : new int[] { 1, 2, 3, 7, 64, 65, 1000, 4097 }) {
+            PermutacaoAleatoria permutacao = new PermutacaoAleatoria(tamanho, 42);
+            boolean[] visto = new boolean[tamanho];
+            for (int posicao = 0; posicao < tamanho; posicao++) {
+                int indice = permutacao.aplicar(posicao);
+                assertFalse(visto[indice], "Índice repetido com tamanho " + tamanho);
+                visto[indice] = true;
+                assertEquals(posicao, permutacao.inverter(indice), "Inversa deve desfazer a permutação");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Mesma semente deve gerar a mesma ordem, outra semente outra ordem")
+    void testSemente() {
+        PermutacaoAleatoria a = new PermutacaoAleatoria(100, 7);
+        PermutacaoAleatoria b = new PermutacaoAleatoria(100, 7);
+        int iguais = 0;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.aplicar(i), b.aplicar(i));
+        }
+        b.reembaralhar(8);
+        for (int i = 0; i < 100; i++) {
+            if (a.aplicar(i) == b.aplicar(i)) {
+                iguais++;
+            }
+        }
+        assertTrue(iguais < 20, "Sementes diferentes devem embaralhar de forma diferente");
+    }
+
+    @Test
+    @DisplayName("Deve embaralhar de verdade, sem manter a ordem original")
+    void testEmbaralha() {
+        PermutacaoAleatoria permutacao = new PermutacaoAleatoria(1_000, 3);
+        int fixos = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (permutacao.aplicar(i) == i) {
+                fixos++;
+            }
+        }
+        assertTrue(fixos < 20, "Poucos índices devem ficar no lugar: " + fixos);
+    }
+
+    @Test
+    @DisplayName("Deve funcionar em domínios grandes sem memória proporcional")
+    void testTamanhoGrande() {
+        PermutacaoAleatoria permutacao = new PermutacaoAleatoria(Integer.MAX_VALUE, 11);
+        for (int i = Integer.MAX_VALUE - 1_000; i < Integer.MAX_VALUE; i++) {
+            int indice = permutacao.aplicar(i);
+            assertTrue(indice >= 0);
+            assertEquals(i, permutacao.inverter(indice));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> permutacao.aplicar(-1));
+    }
+}
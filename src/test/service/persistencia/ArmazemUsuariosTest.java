@@ -0,0 +1,186 @@
+package test.service.persistencia;
+
+import service.persistencia.ArmazemUsuarios;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Testes unitários para o ArmazemUsuarios usando JUnit 5.
+ * Verifica a ida e volta dos registros, as lápides, a reabertura pelo
+ * índice, o descarte de um registro cortado e a reescrita da partição.
+ *
+ */
+@DisplayName("ArmazemUsuarios Tests")
+public class ArmazemUsuariosTest {
+
+    private Path pasta;
+    private ArmazemUsuarios armazem;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pasta = Files.createTempDirectory("armazem-usuarios");
+        armazem = new ArmazemUsuarios(pasta, 4);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        armazem.close();
+        try (Stream<Path> arquivos = Files.walk(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    private static byte[] dados(int tamanho, int semente) {
+        byte[] dados = new byte[tamanho];
+        Arrays.fill(dados, (byte) semente);
+        return dados;
+    }
+
+    private ArmazemUsuarios reabrir(int particoes) throws IOException {
+        armazem.close();
+        armazem = new ArmazemUsuarios(pasta, particoes);
+        return armazem;
+    }
+
+    @Test
+    @DisplayName("Deve ler cada usuário gravado com o LSN da gravação")
+    void testIdaEVolta() throws IOException {
+        assertFalse(armazem.existe());
+        assertEquals(0, armazem.getLsn());
+
+        Map<String, byte[]> lote = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            lote.put("usuario" + i + "@email.com", dados(100 + i, i));
+        }
+        armazem.gravar(lote, 7);
+        armazem.gravar(Map.of("usuario3@email.com", dados(10, 99)), 9);
+
+        reabrir(4);
+        assertTrue(armazem.existe());
+        assertEquals(9, armazem.getLsn());
+        assertEquals(50, armazem.contar());
+        ArmazemUsuarios.Registro registro = armazem.ler("usuario10@email.com");
+        assertEquals(7, registro.getLsn());
+        assertArrayEquals(dados(110, 10), registro.getDados());
+        assertEquals(9, armazem.ler("usuario3@email.com").getLsn());
+        assertArrayEquals(dados(10, 99), armazem.ler("usuario3@email.com").getDados());
+        assertNull(armazem.ler("ninguem@email.com"));
+    }
+
+    @Test
+    @DisplayName("Remover deve gravar só uma lápide")
+    void testLapide() throws IOException {
+        Map<String, byte[]> lote = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            lote.put("usuario" + i + "@email.com", dados(1000, i));
+        }
+        armazem.gravar(lote, 1);
+        long antes = tamanhoParticoes();
+
+        Map<String, byte[]> remocao = new HashMap<>();
+        remocao.put("usuario5@email.com", null);
+        remocao.put("nunca-gravado@email.com", null);
+        armazem.gravar(remocao, 2);
+
+        assertTrue(tamanhoParticoes() - antes < 100, "Apenas a lápide deve ser anexada");
+        assertNull(armazem.ler("usuario5@email.com"));
+        assertFalse(armazem.contem("usuario5@email.com"));
+        reabrir(4);
+        assertNull(armazem.ler("usuario5@email.com"), "A lápide deve valer depois de reabrir");
+        assertEquals(19, armazem.contar());
+    }
+
+    @Test
+    @DisplayName("Deve reabrir pelo índice e pelos registros gravados depois dele")
+    void testReabrirComIndiceECauda() throws IOException {
+        reabrir(1);
+        for (int lote = 0; lote < 4; lote++) {
+            Map<String, byte[]> usuarios = new HashMap<>();
+            for (int i = 0; i < 100; i++) {
+                usuarios.put("lote" + lote + "-" + i + "@email.com", dados(1000, lote));
+            }
+            armazem.gravar(usuarios, lote + 1);
+        }
+        assertTrue(Files.exists(pasta.resolve("particao-000.idx")), "O índice deve ter sido gravado");
+        armazem.gravar(Map.of("cauda@email.com", dados(50, 1)), 5);
+
+        reabrir(1);
+        assertEquals(401, armazem.contar());
+        assertArrayEquals(dados(1000, 2), armazem.ler("lote2-42@email.com").getDados());
+        assertArrayEquals(dados(50, 1), armazem.ler("cauda@email.com").getDados());
+
+        // Índice corrompido: a partição é lida inteira
+        Files.write(pasta.resolve("particao-000.idx"), new byte[] { 1, 2, 3 });
+        Files.deleteIfExists(pasta.resolve("particao-000.idx.anterior"));
+        reabrir(1);
+        assertEquals(401, armazem.contar());
+        assertArrayEquals(dados(1000, 3), armazem.ler("lote3-99@email.com").getDados());
+    }
+
+    @Test
+    @DisplayName("Deve descartar um registro cortado no fim da partição")
+    void testRegistroCortado() throws IOException {
+        reabrir(1);
+        armazem.gravar(Map.of("inteiro@email.com", dados(200, 1)), 1);
+        armazem.gravar(Map.of("cortado@email.com", dados(200, 2)), 2);
+        armazem.close();
+
+        Path particao = pasta.resolve("particao-000.dat");
+        try (FileChannel canal = FileChannel.open(particao, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 10);
+        }
+
+        reabrir(1);
+        assertArrayEquals(dados(200, 1), armazem.ler("inteiro@email.com").getDados());
+        assertNull(armazem.ler("cortado@email.com"));
+
+        armazem.gravar(Map.of("depois@email.com", dados(30, 3)), 3);
+        reabrir(1);
+        assertEquals(2, armazem.contar());
+        assertArrayEquals(dados(30, 3), armazem.ler("depois@email.com").getDados());
+    }
+
+    @Test
+    @DisplayName("Deve reescrever a partição quando os registros mortos passam dos vivos")
+    void testReescritaDaParticao() throws IOException {
+        reabrir(1);
+        armazem.gravar(Map.of("fixo@email.com", dados(1000, 7)), 1);
+        for (int i = 0; i < 30; i++) {
+            armazem.gravar(Map.of("regravado@email.com", dados(100 * 1024, i)), i + 2);
+        }
+
+        assertTrue(tamanhoParticoes() < 1024 * 1024 + 200 * 1024,
+                "Versões antigas devem ter sido descartadas: " + tamanhoParticoes());
+        reabrir(1);
+        assertEquals(2, armazem.contar());
+        assertArrayEquals(dados(100 * 1024, 29), armazem.ler("regravado@email.com").getDados());
+        assertEquals(31, armazem.ler("regravado@email.com").getLsn());
+        assertArrayEquals(dados(1000, 7), armazem.ler("fixo@email.com").getDados());
+    }
+
+    private long tamanhoParticoes() throws IOException {
+        long total = 0;
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                if (arquivo.getFileName().toString().endsWith(".dat")) {
+                    total += Files.size(arquivo);
+                }
+            }
+        }
+        return total;
+    }
+}
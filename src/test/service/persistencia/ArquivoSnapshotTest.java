@@ -0,0 +1,134 @@
+package test.service.persistencia;
+
+import service.persistencia.ArquivoSnapshot;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Testes unitários para o ArquivoSnapshot usando JUnit 5.
+ * Verifica a ida e volta do conteúdo, a detecção de blocos corrompidos,
+ * o uso da geração anterior e a leitura de arquivos sem rodapé.
+ *
+ */
+@DisplayName("ArquivoSnapshot Tests")
+public class ArquivoSnapshotTest {
+
+    private Path pasta;
+    private Path arquivo;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pasta = Files.createTempDirectory("arquivo-snapshot");
+        arquivo = pasta.resolve("dados.db");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(arquivo);
+        Files.deleteIfExists(ArquivoSnapshot.anterior(arquivo));
+        Files.deleteIfExists(pasta);
+    }
+
+    private static byte[] conteudo(int tamanho, int semente) {
+        byte[] dados = new byte[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            dados[i] = (byte) (i * 31 + semente);
+        }
+        return dados;
+    }
+
+    private byte[] lerConteudo(Path geracao) throws IOException {
+        return ArquivoSnapshot.ler(geracao, (lido, tamanho) -> Arrays.copyOf(Files.readAllBytes(lido), (int) tamanho));
+    }
+
+    @Test
+    @DisplayName("Deve gravar e ler o conteúdo sem alterá-lo")
+    void testIdaEVolta() throws IOException {
+        for (int tamanho : new int[] { 0, 1, ArquivoSnapshot.TAMANHO_BLOCO, 3 * ArquivoSnapshot.TAMANHO_BLOCO + 7 }) {
+            byte[] dados = conteudo(tamanho, tamanho);
+
+            ArquivoSnapshot.gravar(arquivo, ByteBuffer.wrap(dados));
+
+            assertEquals(tamanho, ArquivoSnapshot.verificar(arquivo));
+            assertArrayEquals(dados, lerConteudo(arquivo), "Tamanho " + tamanho);
+            byte[] inicio = Arrays.copyOf(Files.readAllBytes(arquivo), tamanho);
+            assertArrayEquals(dados, inicio, "Conteúdo deve ficar no início do arquivo");
+        }
+        assertFalse(Files.exists(pasta.resolve("dados.db.tmp")));
+    }
+
+    @Test
+    @DisplayName("Deve detectar um byte alterado em qualquer bloco ou no rodapé")
+    void testCorrupcaoDetectada() throws IOException {
+        byte[] dados = conteudo(2 * ArquivoSnapshot.TAMANHO_BLOCO + 100, 3);
+        ArquivoSnapshot.gravar(arquivo, ByteBuffer.wrap(dados));
+        byte[] original = Files.readAllBytes(arquivo);
+
+        for (int posicao : new int[] { 0, ArquivoSnapshot.TAMANHO_BLOCO + 5, dados.length - 1,
+                dados.length + 2, original.length - 10 }) {
+            byte[] alterado = original.clone();
+            alterado[posicao] ^= 0x10;
+            Files.write(arquivo, alterado);
+            assertThrows(IOException.class, () -> ArquivoSnapshot.verificar(arquivo), "Posição " + posicao);
+        }
+
+        Files.write(arquivo, Arrays.copyOf(original, original.length - 1));
+        assertEquals(ArquivoSnapshot.SEM_RODAPE, ArquivoSnapshot.verificar(arquivo),
+                "Arquivo truncado perde o rodapé");
+    }
+
+    @Test
+    @DisplayName("Deve usar a geração anterior quando a atual estiver corrompida")
+    void testGeracaoAnterior() throws IOException {
+        byte[] primeira = conteudo(5_000, 1);
+        byte[] segunda = conteudo(7_000, 2);
+        assertFalse(ArquivoSnapshot.gravar(arquivo, ByteBuffer.wrap(primeira)), "Não havia arquivo anterior");
+        assertTrue(ArquivoSnapshot.gravar(arquivo, ByteBuffer.wrap(segunda)));
+        assertArrayEquals(primeira, lerConteudo(ArquivoSnapshot.anterior(arquivo)));
+
+        byte[] corrompido = Files.readAllBytes(arquivo);
+        corrompido[10] ^= 1;
+        Files.write(arquivo, corrompido);
+        assertArrayEquals(primeira, lerConteudo(arquivo), "Deve cair na geração anterior");
+
+        // Um arquivo corrompido não substitui a geração anterior íntegra
+        byte[] terceira = conteudo(3_000, 3);
+        assertFalse(ArquivoSnapshot.gravar(arquivo, ByteBuffer.wrap(terceira)));
+        assertArrayEquals(terceira, lerConteudo(arquivo));
+        assertEquals(primeira.length, ArquivoSnapshot.verificar(ArquivoSnapshot.anterior(arquivo)));
+
+        Files.write(arquivo, corrompido);
+        Files.write(ArquivoSnapshot.anterior(arquivo), corrompido);
+        IOException falha = assertThrows(IOException.class, () -> lerConteudo(arquivo));
+        assertEquals(1, falha.getSuppressed().length, "Falha de cada geração deve ser preservada");
+
+        Files.delete(arquivo);
+        Files.delete(ArquivoSnapshot.anterior(arquivo));
+        assertThrows(NoSuchFileException.class, () -> lerConteudo(arquivo));
+    }
+
+    @Test
+    @DisplayName("Deve entregar arquivos antigos, sem rodapé, sem verificação")
+    void testArquivoSemRodape() throws IOException {
+        byte[] antigo = "formato antigo".getBytes(StandardCharsets.UTF_8);
+        Files.write(arquivo, antigo);
+
+        assertEquals(ArquivoSnapshot.SEM_RODAPE, ArquivoSnapshot.verificar(arquivo));
+        long[] tamanhoLido = new long[1];
+        ArquivoSnapshot.ler(arquivo, (lido, tamanho) -> tamanhoLido[0] = tamanho);
+        assertEquals(ArquivoSnapshot.SEM_RODAPE, tamanhoLido[0]);
+
+        assertTrue(ArquivoSnapshot.gravar(arquivo, ByteBuffer.wrap(conteudo(10, 0))),
+                "Arquivo antigo deve virar a geração anterior");
+        assertArrayEquals(antigo, Files.readAllBytes(ArquivoSnapshot.anterior(arquivo)));
+    }
+}
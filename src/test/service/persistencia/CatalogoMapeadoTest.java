@@ -0,0 +1,176 @@
+package test.service.persistencia;
+
+import model.midia.*;
+import service.persistencia.ArquivoSnapshot;
+import service.persistencia.CatalogoMapeado;
+import service.persistencia.CodecCatalogo;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Testes unitários para o CatalogoMapeado usando JUnit 5.
+ * Verifica a decodificação sob demanda, a leitura dos campos sem
+ * decodificar, a identidade dos objetos entre acessos e threads e a
+ * leitura de um arquivo substituído.
+ *
+ */
+@DisplayName("CatalogoMapeado Tests")
+public class CatalogoMapeadoTest {
+
+    private Path pasta;
+    private Path arquivo;
+    private List<Audio> audios;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pasta = Files.createTempDirectory("catalogo-mapeado");
+        arquivo = pasta.resolve("catalogo.db");
+        audios = new ArrayList<>();
+        for (int a = 0; a < 100; a++) {
+            Artista artista = new Artista("Artista " + a, new HashSet<>(List.of("Rock", "Gênero " + (a % 7))));
+            Album album = new Album("Álbum " + a, artista, 1970 + a % 30);
+            for (int f = 0; f < 9; f++) {
+                audios.add(new Musica("Faixa " + a + "-" + f, 100 + f, artista, album));
+            }
+            audios.add(new Podcast("Episódio " + a, 1_800, "Apresentador " + (a % 5), a));
+        }
+        for (int i = 0; i < audios.size(); i++) {
+            audios.get(i).atribuirId(i);
+            audios.get(i).restaurarContadores(i, i % 3);
+        }
+        CodecCatalogo.gravar(arquivo, audios);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(arquivo);
+        Files.deleteIfExists(ArquivoSnapshot.anterior(arquivo));
+        Files.deleteIfExists(pasta);
+    }
+
+    @Test
+    @DisplayName("Deve decodificar apenas os áudios acessados")
+    void testDecodificacaoSobDemanda() throws IOException {
+        CatalogoMapeado catalogo = CodecCatalogo.mapear(arquivo);
+
+        assertEquals(audios.size(), catalogo.size());
+        for (int i = 0; i < catalogo.size(); i++) {
+            assertFalse(catalogo.isDecodificado(i), "Nada deve ser decodificado ao abrir");
+        }
+
+        Musica musica = (Musica) catalogo.get(505);
+        assertEquals("Faixa 50-5", musica.getTitulo());
+        assertEquals(505, musica.getId());
+        assertEquals(505, musica.getTotalReproducoes());
+        assertEquals(1, musica.getTotalCurtidas());
+        assertEquals("Álbum 50", musica.getNomeAlbum());
+        assertEquals(Set.of("Rock", "Gênero 1"), musica.getArtista().getGeneros());
+        assertTrue(catalogo.isDecodificado(505));
+        assertFalse(catalogo.isDecodificado(504));
+        assertFalse(catalogo.isDecodificado(506));
+
+        assertSame(musica, catalogo.get(505), "Mesmo objeto a cada acesso");
+        Musica vizinha = (Musica) catalogo.get(500);
+        assertSame(musica.getAlbum(), vizinha.getAlbum(), "Álbum compartilhado entre faixas");
+        assertSame(musica.getArtista(), vizinha.getArtista());
+
+        Podcast podcast = (Podcast) catalogo.get(999);
+        assertEquals("Apresentador 4", podcast.getApresentador());
+        assertEquals(99, podcast.getNumeroEpisodio());
+        assertThrows(IndexOutOfBoundsException.class, () -> catalogo.get(audios.size()));
+    }
+
+    @Test
+    @DisplayName("Deve entregar o mesmo objeto a threads simultâneas")
+    void testAcessoConcorrente() throws Exception {
+        CatalogoMapeado catalogo = CodecCatalogo.mapear(arquivo);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier largada = new CyclicBarrier(threads);
+        try {
+            List<Future<Audio[]>> lidos = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                lidos.add(executor.submit(() -> {
+                    largada.await();
+                    Audio[] vistos = new Audio[catalogo.size()];
+                    for (int i = 0; i < vistos.length; i++) {
+                        vistos[i] = catalogo.get(i);
+                    }
+                    return vistos;
+                }));
+            }
+            Audio[] primeiro = lidos.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Audio[]> outro : lidos) {
+                Audio[] vistos = outro.get(10, TimeUnit.SECONDS);
+                for (int i = 0; i < vistos.length; i++) {
+                    assertSame(primeiro[i], vistos[i], "Posição " + i);
+                }
+            }
+            Set<Album> albuns = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Audio audio : primeiro) {
+                if (audio instanceof Musica musica) {
+                    albuns.add(musica.getAlbum());
+                }
+            }
+            assertEquals(100, albuns.size(), "Um objeto por álbum");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve ler os campos gravados sem decodificar os áudios")
+    void testCamposSemDecodificar() throws IOException {
+        List<Audio> decodificados = new ArrayList<>();
+        CatalogoMapeado catalogo = CodecCatalogo.mapear(arquivo, ArquivoSnapshot.verificar(arquivo), decodificados::add);
+
+        CatalogoMapeado.Campos musica = catalogo.campos(505);
+        assertTrue(musica.isMusica());
+        assertEquals("Faixa 50-5", musica.getTitulo());
+        assertEquals("Artista 50", musica.getNomeArtista());
+        assertEquals("Álbum 50", musica.getAlbum().getTitulo());
+        assertNull(musica.getApresentador());
+        assertEquals(505, musica.getTotalReproducoes());
+        assertEquals(1, musica.getTotalCurtidas());
+
+        CatalogoMapeado.Campos podcast = catalogo.campos(999);
+        assertFalse(podcast.isMusica());
+        assertEquals("Episódio 99", podcast.getTitulo());
+        assertEquals("Apresentador 4", podcast.getApresentador());
+        assertNull(podcast.getNomeArtista());
+        assertEquals(999, catalogo.getTotalReproducoes(999));
+        assertEquals(0, catalogo.getTotalCurtidas(999));
+
+        for (int i = 0; i < catalogo.size(); i++) {
+            assertFalse(catalogo.isDecodificado(i), "Ler os campos não deve decodificar");
+        }
+        assertTrue(decodificados.isEmpty());
+
+        Audio audio = catalogo.get(505);
+        assertEquals(List.of(audio), decodificados, "O gancho deve ver cada áudio decodificado uma vez");
+        catalogo.get(505);
+        assertEquals(1, decodificados.size());
+
+        audio.curtir();
+        assertEquals(2, catalogo.getTotalCurtidas(505), "Depois de decodificado, vale o contador vivo");
+        assertEquals(2, catalogo.campos(505).getTotalCurtidas());
+    }
+
+    @Test
+    @DisplayName("Deve continuar lendo o arquivo mapeado depois de uma nova gravação")
+    void testGravacaoSobreArquivoMapeado() throws IOException {
+        CatalogoMapeado antigo = CodecCatalogo.mapear(arquivo);
+
+        CodecCatalogo.gravar(arquivo, audios.subList(0, 10));
+
+        assertEquals("Faixa 99-8", antigo.get(998).getTitulo());
+        assertEquals(10, CodecCatalogo.mapear(arquivo).size());
+    }
+}
@@ -0,0 +1,128 @@
+package test.service.persistencia;
+
+import model.midia.*;
+import service.persistencia.CodecCatalogo;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Testes unitários para o CodecCatalogo usando JUnit 5.
+ * Verifica que todos os campos do modelo voltam iguais, o tamanho em
+ * relação à serialização Java e a rejeição de dados inválidos.
+ *
+ */
+@DisplayName("CodecCatalogo Tests")
+public class CodecCatalogoTest {
+
+    @Test
+    @DisplayName("Deve restaurar todos os campos e compartilhamentos")
+    void testIdaEVolta() throws IOException {
+        Artista banda = new Artista("Mutantes", new HashSet<>(List.of("Rock", "Tropicália")));
+        Artista convidado = new Artista("Sérgio Dias");
+        Album album = new Album("Mutantes", banda, 1968);
+        Musica faixa1 = new Musica("Panis et Circenses", 215, banda, album);
+        Musica faixa2 = new Musica("Bat Macumba", 190, convidado, album);
+        album.adicionarFaixa(faixa1);
+        album.adicionarFaixa(faixa2);
+        Musica single = new Musica("Ando Meio Desligado", 260, banda);
+        Podcast episodio = new Podcast("Episódio Ω", 3_600, null, -1);
+        faixa1.restaurarContadores(5_000_000_000L, 42);
+        episodio.restaurarContadores(0, 7);
+        List<Audio> audios = List.of(faixa1, single, episodio, faixa2);
+        for (int i = 0; i < audios.size(); i++) {
+            audios.get(i).atribuirId(i * 1_000);
+        }
+
+        List<Audio> lidos = CodecCatalogo.decodificar(CodecCatalogo.codificar(audios));
+
+        assertEquals(audios.size(), lidos.size());
+        for (int i = 0; i < audios.size(); i++) {
+            Audio original = audios.get(i);
+            Audio lido = lidos.get(i);
+            assertEquals(original.getClass(), lido.getClass());
+            assertEquals(original.getTitulo(), lido.getTitulo());
+            assertEquals(original.getDuracaoSegundos(), lido.getDuracaoSegundos());
+            assertEquals(original.getTotalReproducoes(), lido.getTotalReproducoes());
+            assertEquals(original.getTotalCurtidas(), lido.getTotalCurtidas());
+            assertEquals(original.getId(), lido.getId());
+        }
+
+        Musica lida1 = (Musica) lidos.get(0);
+        Musica lida2 = (Musica) lidos.get(3);
+        Album albumLido = lida1.getAlbum();
+        assertSame(albumLido, lida2.getAlbum(), "Álbum deve continuar compartilhado");
+        assertSame(lida1.getArtista(), ((Musica) lidos.get(1)).getArtista(), "Artista deve continuar compartilhado");
+        assertSame(lida1.getArtista(), albumLido.getArtista());
+        assertEquals(banda.getId(), lida1.getArtista().getId());
+        assertEquals(banda.getGeneros(), lida1.getArtista().getGeneros());
+        assertEquals(convidado.getId(), lida2.getArtista().getId());
+        assertEquals(album.getId(), albumLido.getId());
+        assertEquals(1968, albumLido.getAnoLancamento());
+        assertEquals(List.of(lida1, lida2), albumLido.getFaixas());
+        assertSame(lida2, albumLido.getFaixas().get(1));
+        assertNull(((Musica) lidos.get(1)).getAlbum());
+
+        Podcast lido = (Podcast) lidos.get(2);
+        assertNull(lido.getApresentador());
+        assertEquals(-1, lido.getNumeroEpisodio());
+    }
+
+    @Test
+    @DisplayName("Deve ocupar ao menos 3x menos que a serialização Java")
+    void testTamanho() throws IOException {
+        String[] generos = { "Rock", "Pop", "MPB", "Forró", "Jazz" };
+        List<Audio> audios = new ArrayList<>();
+        for (int a = 0; a < 200; a++) {
+            Artista artista = new Artista("Artista " + a, new HashSet<>(List.of(generos[a % 5], generos[(a + 2) % 5])));
+            Album album = new Album("Álbum " + a, artista, 1960 + a % 60);
+            for (int f = 0; f < 10; f++) {
+                Musica musica = new Musica("Faixa " + a + "-" + f, 120 + f * 17, artista, album);
+                musica.restaurarContadores(a * 31L + f, f);
+                album.adicionarFaixa(musica);
+                audios.add(musica);
+            }
+            audios.add(new Podcast("Conversa " + a, 3_000, "Apresentador " + (a % 10), a));
+        }
+        for (int i = 0; i < audios.size(); i++) {
+            audios.get(i).atribuirId(i);
+        }
+
+        ByteArrayOutputStream serializado = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(serializado)) {
+            oos.writeObject(new ArrayList<>(audios));
+        }
+        int binario = CodecCatalogo.codificar(audios).remaining();
+
+        assertTrue(binario * 3 <= serializado.size(),
+                "Binário: " + binario + " bytes, serialização: " + serializado.size() + " bytes");
+        assertEquals(audios.size(), CodecCatalogo.decodificar(CodecCatalogo.codificar(audios)).size());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar dados inválidos, truncados ou de versão futura")
+    void testDadosInvalidos() {
+        assertThrows(IOException.class,
+                () -> CodecCatalogo.decodificar(ByteBuffer.wrap(new byte[] { (byte) 0xAC, (byte) 0xED, 0, 5, 1 })));
+
+        Artista artista = new Artista("Teste");
+        ByteBuffer valido = CodecCatalogo.codificar(List.of(new Musica("Uma", 10, artista), new Musica("Duas", 20, artista)));
+        byte[] bytes = new byte[valido.remaining()];
+        valido.get(bytes);
+
+        for (int corte = 0; corte < bytes.length; corte++) {
+            ByteBuffer truncado = ByteBuffer.wrap(Arrays.copyOf(bytes, corte));
+            assertThrows(IOException.class, () -> CodecCatalogo.decodificar(truncado), "Corte em " + corte);
+        }
+
+        byte[] futuro = bytes.clone();
+        futuro[4] = (byte) (CodecCatalogo.VERSAO + 1);
+        assertThrows(IOException.class, () -> CodecCatalogo.decodificar(ByteBuffer.wrap(futuro)));
+    }
+}
@@ -0,0 +1,188 @@
+package test.service.persistencia;
+
+import service.persistencia.AlteracaoUsuario;
+import service.persistencia.GravadorJournal;
+import service.persistencia.JournalUsuarios;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Testes unitários para o GravadorJournal usando JUnit 5.
+ * Verifica que as alterações não esperam o disco, a gravação ao fim do
+ * intervalo ou com o lote cheio, a contrapressão, a falha guardada para
+ * quem altera e a gravação final.
+ *
+ */
+@DisplayName("GravadorJournal Tests")
+public class GravadorJournalTest {
+
+    private static final String PREFIXO = "teste.journal";
+
+    private Path pasta;
+    private JournalComFalha journal;
+    private GravadorJournal gravador;
+
+    /** Journal cujo disco pode ser "desligado" para simular falhas de escrita. */
+    private static final class JournalComFalha extends JournalUsuarios {
+        private volatile boolean falhar;
+
+        JournalComFalha(Path diretorio) {
+            super(diretorio.toFile(), PREFIXO);
+        }
+
+        @Override
+        protected void escreverLote(FileChannel canal, ByteBuffer lote, long posicao) throws IOException {
+            if (falhar) {
+                throw new IOException("Falha simulada na escrita");
+            }
+            super.escreverLote(canal, lote, posicao);
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pasta = Files.createTempDirectory("gravador-journal");
+        journal = new JournalComFalha(pasta);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (gravador != null) {
+            gravador.close();
+        }
+        journal.close();
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+        Files.delete(pasta);
+    }
+
+    private long anexar(int idAudio) throws IOException {
+        long lsn = journal.anexar(AlteracaoUsuario.curtida("gravador@email.com", idAudio, true));
+        gravador.registrado(lsn);
+        return lsn;
+    }
+
+    private int registrosEmDisco() throws IOException {
+        List<AlteracaoUsuario> lidas = new ArrayList<>();
+        new JournalUsuarios(pasta.toFile(), PREFIXO).reproduzir(0, lidas::add);
+        return lidas.size();
+    }
+
+    private void aguardarDuravel(long lsn) throws InterruptedException {
+        long prazo = System.currentTimeMillis() + 5_000;
+        while (journal.getLsnDuravel() < lsn && System.currentTimeMillis() < prazo) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("Alterações devem voltar sem esperar o disco e ser gravadas juntas ao descarregar")
+    void testSemEsperarDisco() throws IOException {
+        gravador = new GravadorJournal(journal, 60_000, 1024 * 1024, 1024 * 1024);
+
+        long ultimo = 0;
+        for (int i = 0; i < 10; i++) {
+            ultimo = anexar(i);
+        }
+
+        assertEquals(0, journal.getLsnDuravel(), "Nada deve ter ido ao disco dentro do intervalo");
+        assertEquals(0, registrosEmDisco());
+
+        gravador.descarregar();
+        assertEquals(ultimo, journal.getLsnDuravel());
+        assertEquals(10, registrosEmDisco());
+    }
+
+    @Test
+    @DisplayName("Deve gravar ao fim do intervalo ou antes, com o lote cheio")
+    void testIntervaloELote() throws Exception {
+        gravador = new GravadorJournal(journal, 20, 1024 * 1024, 1024 * 1024);
+        long lsn = anexar(1);
+        aguardarDuravel(lsn);
+        assertEquals(lsn, journal.getLsnDuravel(), "Intervalo curto deve gravar sozinho");
+        gravador.close();
+
+        // Intervalo longo: só o lote cheio explica a gravação
+        gravador = new GravadorJournal(journal, 60_000, 256, 1024 * 1024);
+        int anexados = 1;
+        while (journal.getBytesPendentes() < 256) {
+            journal.anexar(AlteracaoUsuario.curtida("gravador@email.com", 2, true));
+            anexados++;
+        }
+        long ultimo = anexar(3);
+        aguardarDuravel(ultimo);
+        assertEquals(ultimo, journal.getLsnDuravel(), "Lote cheio deve antecipar a gravação");
+        assertEquals(anexados + 1, registrosEmDisco());
+    }
+
+    @Test
+    @DisplayName("Com a fila cheia, a alteração deve esperar a gravação")
+    void testContrapressao() throws IOException {
+        gravador = new GravadorJournal(journal, 60_000, 128, 128);
+
+        long lsn = anexar(1);
+        assertEquals(0, journal.getLsnDuravel(), "Abaixo do limite não deve esperar o disco");
+        while (journal.getBytesPendentes() < 128) {
+            journal.anexar(AlteracaoUsuario.curtida("gravador@email.com", 2, true));
+        }
+        long cheio = anexar(3);
+
+        assertTrue(cheio > lsn);
+        assertEquals(cheio, journal.getLsnDuravel(), "Com a fila cheia deve voltar já gravado");
+        assertEquals(0, journal.getBytesPendentes());
+    }
+
+    @Test
+    @DisplayName("Falha na gravação deve ficar visível até uma gravação dar certo")
+    void testFalhaGuardada() throws Exception {
+        gravador = new GravadorJournal(journal, 20, 1024 * 1024, 1024 * 1024);
+        journal.falhar = true;
+
+        anexar(1);
+        long prazo = System.currentTimeMillis() + 5_000;
+        while (gravador.getUltimaFalha() == null && System.currentTimeMillis() < prazo) {
+            Thread.sleep(5);
+        }
+        assertNotNull(gravador.getUltimaFalha(), "Falha em segundo plano deve ser guardada");
+        assertEquals(0, journal.getLsnDuravel());
+
+        assertThrows(IOException.class, gravador::descarregar);
+        assertNotNull(gravador.getUltimaFalha());
+
+        journal.falhar = false;
+        long ultimo = anexar(2);
+        gravador.descarregar();
+        assertNull(gravador.getUltimaFalha(), "Gravação bem-sucedida deve limpar a falha");
+        assertEquals(ultimo, journal.getLsnDuravel());
+        assertEquals(2, registrosEmDisco(), "Registro da tentativa que falhou não deve se perder");
+    }
+
+    @Test
+    @DisplayName("Encerrar deve gravar o que estiver pendente")
+    void testEncerramento() throws IOException {
+        gravador = new GravadorJournal(journal, 60_000, 1024 * 1024, 1024 * 1024);
+        long ultimo = 0;
+        for (int i = 0; i < 5; i++) {
+            ultimo = anexar(i);
+        }
+
+        gravador.close();
+        gravador = null;
+
+        assertEquals(ultimo, journal.getLsnDuravel());
+        assertEquals(5, registrosEmDisco());
+    }
+}
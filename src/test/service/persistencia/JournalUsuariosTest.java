@@ -0,0 +1,121 @@
+package test.service.persistencia;
+
+import service.persistencia.AlteracaoUsuario;
+import service.persistencia.JournalUsuarios;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Testes unitários para o JournalUsuarios usando JUnit 5.
+ * Verifica que um lote cuja gravação falhou é gravado de novo no mesmo
+ * lugar: sem registro cortado antes dele e sem registros duplicados.
+ *
+ */
+@DisplayName("JournalUsuarios Tests")
+public class JournalUsuariosTest {
+
+    private static final String PREFIXO = "teste.journal";
+
+    private Path pasta;
+    private JournalComFalhas journal;
+
+    /** Falhas simuladas na próxima gravação de lote. */
+    private enum Falha {
+        NENHUMA, ESCRITA_PELA_METADE, FSYNC
+    }
+
+    /** Journal que falha uma vez na gravação, como um disco com problemas. */
+    private static final class JournalComFalhas extends JournalUsuarios {
+        private Falha proxima = Falha.NENHUMA;
+
+        JournalComFalhas(Path diretorio) {
+            super(diretorio.toFile(), PREFIXO);
+        }
+
+        @Override
+        protected void escreverLote(FileChannel canal, ByteBuffer lote, long posicao) throws IOException {
+            Falha falha = proxima;
+            proxima = Falha.NENHUMA;
+            switch (falha) {
+                case ESCRITA_PELA_METADE -> {
+                    ByteBuffer metade = lote.duplicate();
+                    metade.limit(metade.position() + metade.remaining() / 2);
+                    canal.write(metade, posicao);
+                    throw new IOException("Falha simulada na escrita");
+                }
+                case FSYNC -> {
+                    super.escreverLote(canal, lote, posicao);
+                    throw new IOException("Falha simulada no fsync");
+                }
+                default -> super.escreverLote(canal, lote, posicao);
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        pasta = Files.createTempDirectory("journal-usuarios");
+        journal = new JournalComFalhas(pasta);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+        Files.delete(pasta);
+    }
+
+    private long curtir(int idAudio) {
+        return journal.anexar(AlteracaoUsuario.curtida("journal@email.com", idAudio, true));
+    }
+
+    /** Lê os áudios curtidos gravados em disco, em ordem. */
+    private List<Integer> lerDoDisco() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        new JournalUsuarios(pasta.toFile(), PREFIXO).reproduzir(0, alteracao -> ids.add(alteracao.getIdAudio()));
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Lote devolvido após escrita pela metade não deve ficar atrás do registro cortado")
+    void testFalhaNaEscrita() throws IOException {
+        journal.sincronizar(curtir(1));
+
+        journal.proxima = Falha.ESCRITA_PELA_METADE;
+        long falhou = curtir(2);
+        assertThrows(IOException.class, () -> journal.sincronizar(falhou));
+        assertTrue(journal.getLsnDuravel() < falhou);
+
+        journal.sincronizar(curtir(3));
+
+        assertEquals(List.of(1, 2, 3), lerDoDisco(), "Os registros da nova tentativa devem ser lidos");
+    }
+
+    @Test
+    @DisplayName("Lote devolvido após falha no fsync não deve ser gravado duas vezes")
+    void testFalhaNoFsync() throws IOException {
+        journal.sincronizar(curtir(1));
+
+        journal.proxima = Falha.FSYNC;
+        long falhou = curtir(2);
+        assertThrows(IOException.class, () -> journal.sincronizar(falhou));
+
+        journal.sincronizar(curtir(3));
+
+        assertEquals(List.of(1, 2, 3), lerDoDisco());
+    }
+}
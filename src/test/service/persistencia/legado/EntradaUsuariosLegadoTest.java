@@ -0,0 +1,144 @@
+package test.service.persistencia.legado;
+
+import model.midia.Artista;
+import model.midia.Audio;
+import model.midia.Musica;
+import model.midia.Podcast;
+import model.playlist.Playlist;
+import model.usuario.Usuario;
+import service.persistencia.legado.EntradaUsuariosLegado;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Testes unitários para o EntradaUsuariosLegado usando JUnit 5.
+ * Lê um "usuarios.db" gravado pela versão com áudios embutidos nos
+ * usuários ("usuarios-baseline.db", nesta pasta) e confere a conversão.
+ *
+ */
+@DisplayName("EntradaUsuariosLegado Tests")
+public class EntradaUsuariosLegadoTest {
+
+    /** HashMap de usuários gravado pela versão anterior, sem LSN nem rodapé. */
+    private static final Path FIXTURE = Paths.get("src", "test", "service", "persistencia", "legado",
+            "usuarios-baseline.db");
+
+    private Musica bohemian;
+    private Musica love;
+    private Musica homonima;
+    private Podcast podcast;
+    private List<Audio> catalogo;
+
+    @BeforeEach
+    void setUp() {
+        Artista queen = new Artista("Queen");
+        bohemian = new Musica("Bohemian Rhapsody", 354, queen);
+        love = new Musica("Love of My Life", 219, queen);
+        homonima = new Musica("Bohemian Rhapsody", 300, new Artista("Outra Banda"));
+        podcast = new Podcast("Episodio Legado", 1800, "Apresentadora", 7);
+        // A homônima vem antes: só o artista diferencia as duas
+        catalogo = new ArrayList<>(List.of(homonima, bohemian, love, podcast));
+    }
+
+    private Map<String, Usuario> lerFixture() throws IOException, ClassNotFoundException {
+        try (EntradaUsuariosLegado entrada = new EntradaUsuariosLegado(Files.newInputStream(FIXTURE),
+                () -> catalogo)) {
+            Map<String, Usuario> usuarios = new HashMap<>();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) entrada.readObject()).entrySet()) {
+                usuarios.put((String) e.getKey(), entrada.converter(e.getValue()));
+            }
+            return usuarios;
+        }
+    }
+
+    @Test
+    @DisplayName("Deve ler usuários do formato antigo com senha, playlists e estado do player")
+    void testLerFormatoAntigo() throws Exception {
+        Map<String, Usuario> usuarios = lerFixture();
+
+        assertEquals(Set.of("ana@email.com", "bruno@email.com"), usuarios.keySet());
+        Usuario ana = usuarios.get("ana@email.com");
+        assertEquals("Ana", ana.getNome());
+        assertNotNull(ana.getId());
+        assertTrue(ana.verificarSenha("senha123"), "O hash da senha deve ser preservado");
+        assertEquals(2, ana.getEstadoPlayerIndice());
+        assertEquals(2, ana.getPlaylists().size());
+        assertEquals("Rock", ana.getPlaylists().get(0).getNome());
+        assertEquals("Vazia", ana.getPlaylists().get(1).getNome());
+        assertTrue(ana.getPlaylists().get(1).getItens().isEmpty());
+
+        Usuario bruno = usuarios.get("bruno@email.com");
+        assertTrue(bruno.verificarSenha("outra456"));
+        assertTrue(bruno.getCurtidas().isEmpty());
+        assertTrue(bruno.getPlaylists().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve trocar os áudios embutidos pelos do catálogo com mesmo título e autor")
+    void testAudiosDoCatalogo() throws Exception {
+        Usuario ana = lerFixture().get("ana@email.com");
+
+        Set<Audio> curtidas = ana.getCurtidas();
+        assertEquals(2, curtidas.size(), "A faixa fora do catálogo deve ser descartada");
+        assertTrue(curtidas.stream().anyMatch(a -> a == bohemian));
+        assertTrue(curtidas.stream().anyMatch(a -> a == podcast));
+        assertEquals(0, bohemian.getTotalCurtidas(), "A conversão não deve contar curtidas de novo");
+
+        Playlist rock = ana.getPlaylists().get(0);
+        assertEquals(2, rock.getItens().size());
+        assertSame(bohemian, rock.getItens().get(0));
+        assertSame(love, rock.getItens().get(1), "A ordem da playlist deve ser mantida");
+    }
+
+    @Test
+    @DisplayName("Usuário no formato atual deve passar sem alteração")
+    void testFormatoAtual() throws Exception {
+        Usuario atual = new Usuario("atual@email.com", "senha123", "Atual");
+        atual.criarPlaylist("Nova");
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream saida = new ObjectOutputStream(buffer)) {
+            saida.writeObject(atual);
+        }
+
+        boolean[] consultouCatalogo = { false };
+        InputStream bytes = new ByteArrayInputStream(buffer.toByteArray());
+        try (EntradaUsuariosLegado entrada = new EntradaUsuariosLegado(bytes, () -> {
+            consultouCatalogo[0] = true;
+            return catalogo;
+        })) {
+            Object lido = entrada.readObject();
+            Usuario convertido = entrada.converter(lido);
+            assertSame(lido, convertido);
+            assertEquals(atual.getId(), convertido.getId());
+            assertEquals("Nova", convertido.getPlaylists().get(0).getNome());
+        }
+        assertFalse(consultouCatalogo[0], "O catálogo só deve ser lido para usuários antigos");
+    }
+
+    @Test
+    @DisplayName("Objeto que não é usuário deve ser rejeitado")
+    void testObjetoInvalido() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new ObjectOutputStream(buffer).close();
+        try (EntradaUsuariosLegado entrada = new EntradaUsuariosLegado(
+                new ByteArrayInputStream(buffer.toByteArray()), () -> catalogo)) {
+            assertThrows(InvalidObjectException.class, () -> entrada.converter("texto"));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package test.service.ranking;
+
+import model.midia.*;
+import service.ranking.RankingPopularidade;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Testes unitários para o RankingPopularidade usando JUnit 5.
+ * Verifica a ordem do ranking após curtidas e reproduções, as
+ * consultas por posição, a paginação e a inserção pelo ID.
+ * 
+ */
+@DisplayName("RankingPopularidade Tests")
+public class RankingPopularidadeTest {
+
+    private RankingPopularidade ranking;
+    private List<Audio> audios;
+
+    @BeforeEach
+    void setUp() {
+        ranking = new RankingPopularidade();
+        audios = new ArrayList<>();
+        Artista artista = new Artista("Artista Teste");
+        for (int i = 0; i < 10; i++) {
+            Musica m = new Musica("Música " + i, 180, artista);
+            m.atribuirId(i);
+            ranking.inserir(m);
+            m.registrarOuvinte(ranking);
+            audios.add(m);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve reposicionar áudio ao receber curtidas")
+    void testCurtidaReposiciona() {
+        Audio ultimo = audios.get(9);
+        ultimo.curtir();
+
+        assertSame(ultimo, ranking.getPorPosicao(0), "Áudio curtido deve ir para o topo");
+        assertEquals(0, ranking.getPosicao(ultimo));
+
+        ultimo.descurtir();
+        assertEquals(9, ranking.getPosicao(ultimo), "Sem curtidas deve voltar à ordem do catálogo");
+    }
+
+    @Test
+    @DisplayName("Deve desempatar curtidas pelas reproduções")
+    void testDesempatePorReproducoes() {
+        audios.get(3).curtir();
+        audios.get(5).curtir();
+        audios.get(5).incrementarReproducao();
+
+        List<Audio> top = ranking.getTop(2);
+
+        assertSame(audios.get(5), top.get(0), "Mais reproduções deve vencer o empate");
+        assertSame(audios.get(3), top.get(1));
+    }
+
+    @Test
+    @DisplayName("Deve retornar páginas consistentes com o ranking completo")
+    void testPaginacao() {
+        audios.get(7).curtir();
+        audios.get(2).incrementarReproducao();
+
+        List<Audio> completo = ranking.getPagina(0, 10);
+        assertEquals(completo.subList(3, 6), ranking.getPagina(3, 3));
+        assertEquals(completo.subList(8, 10), ranking.getPagina(8, 5), "Última página pode ser menor");
+        assertTrue(ranking.getPagina(10, 5).isEmpty(), "Página além do fim deve ser vazia");
+    }
+
+    @Test
+    @DisplayName("Deve manter a mesma ordem que uma ordenação completa")
+    void testEquivaleAOrdenacao() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Audio a = audios.get(random.nextInt(audios.size()));
+            switch (random.nextInt(3)) {
+                case 0 -> a.curtir();
+                case 1 -> {
+                    // Só descurte o que foi curtido, como faz o Usuario
+                    if (a.getTotalCurtidas() > 0) {
+                        a.descurtir();
+                    }
+                }
+                default -> a.incrementarReproducao();
+            }
+        }
+
+        List<Audio> esperado = new ArrayList<>(audios);
+        esperado.sort(Comparator.comparingLong(Audio::getTotalCurtidas).reversed()
+                .thenComparing(Comparator.comparingLong(Audio::getTotalReproducoes).reversed())
+                .thenComparingInt(Audio::getId));
+
+        assertEquals(esperado, ranking.getTop(audios.size()));
+        for (int i = 0; i < esperado.size(); i++) {
+            assertEquals(i, ranking.getPosicao(esperado.get(i)), "Posição deve corresponder à ordenação");
+        }
+    }
+
+    @Test
+    @DisplayName("Reproduções simultâneas não devem se perder nem desordenar o ranking")
+    void testReproducoesSimultaneas() throws InterruptedException {
+        Audio ultimo = audios.get(9);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    ultimo.incrementarReproducao();
+                    audios.get(i % 5).curtir();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8_000, ultimo.getTotalReproducoes(), "Nenhum incremento deve se perder");
+        assertEquals(1_600, audios.get(0).getTotalCurtidas());
+        assertEquals(5, ranking.getPosicao(ultimo), "Mais reproduções lidera os sem curtidas");
+        assertEquals(audios.subList(0, 5), ranking.getTop(5));
+    }
+
+    @Test
+    @DisplayName("Áudios inseridos pelo ID só devem ser obtidos quando consultados")
+    void testInsercaoPeloId() {
+        Artista artista = new Artista("Artista Catálogo");
+        List<Integer> obtidos = new ArrayList<>();
+        Map<Integer, Audio> catalogo = new HashMap<>();
+        RankingPopularidade porId = new RankingPopularidade(id -> {
+            obtidos.add(id);
+            return catalogo.computeIfAbsent(id, i -> {
+                Musica m = new Musica("Música " + i, 180, artista);
+                m.atribuirId(i);
+                return m;
+            });
+        });
+        for (int i = 0; i < 100; i++) {
+            porId.inserir(i, i % 10, i);
+        }
+
+        assertEquals(100, porId.tamanho());
+        assertTrue(obtidos.isEmpty(), "Inserir pelo ID não deve obter o áudio");
+
+        List<Audio> top = porId.getTop(3);
+        assertEquals(List.of(99, 89, 79), top.stream().map(Audio::getId).toList());
+        assertEquals(List.of(99, 89, 79), obtidos, "Só os áudios da página devem ser obtidos");
+
+        Audio ultimo = catalogo.get(79);
+        ultimo.restaurarContadores(500, 10);
+        porId.popularidadeAlterada(ultimo);
+        assertEquals(0, porId.getPosicao(ultimo));
+        assertThrows(IllegalStateException.class, () -> ranking.inserir(0, 1, 1),
+                "Ranking sem catálogo deve exigir o áudio");
+    }
+
+    @Test
+    @DisplayName("Contadores devem sobreviver à serialização")
+    void testSerializacaoDosContadores() throws Exception {
+        Audio audio = audios.get(0);
+        audio.curtir();
+        audio.incrementarReproducao();
+        audio.incrementarReproducao();
+
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        try (java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(bytes)) {
+            out.writeObject(audio);
+        }
+        Audio lido;
+        try (java.io.ObjectInputStream in = new java.io.ObjectInputStream(
+                new java.io.ByteArrayInputStream(bytes.toByteArray()))) {
+            lido = (Audio) in.readObject();
+        }
+
+        assertEquals(audio.getTitulo(), lido.getTitulo());
+        assertEquals(1, lido.getTotalCurtidas());
+        assertEquals(2, lido.getTotalReproducoes());
+        lido.curtir();
+        assertEquals(2, lido.getTotalCurtidas(), "Contador lido deve continuar funcionando");
+    }
+}
@@ -0,0 +1,166 @@
+package test.service.reproducao;
+
+import service.reproducao.RodaTemporizacao;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes unitários para a RodaTemporizacao usando JUnit 5.
+ * Verifica o vencimento no tick certo, o cancelamento, a cascata entre
+ * os níveis da roda e o isolamento de ações que falham.
+ *
+ */
+@DisplayName("RodaTemporizacao Tests")
+public class RodaTemporizacaoTest {
+
+    private RodaTemporizacao roda;
+
+    @BeforeEach
+    void setUp() {
+        roda = new RodaTemporizacao(10); // Ticks de 10 ms
+    }
+
+    @Test
+    @DisplayName("Deve executar a ação só depois do atraso")
+    void testVencimento() {
+        List<String> vencidos = new ArrayList<>();
+        roda.agendar(25, () -> vencidos.add("a")); // Arredonda para 30 ms
+
+        roda.avancarAte(20);
+        assertTrue(vencidos.isEmpty());
+        roda.avancarAte(30);
+        assertEquals(List.of("a"), vencidos);
+        assertEquals(0, roda.getPendentes());
+    }
+
+    @Test
+    @DisplayName("Temporizador cancelado não deve vencer")
+    void testCancelamento() {
+        List<String> vencidos = new ArrayList<>();
+        RodaTemporizacao.Temporizador a = roda.agendar(50, () -> vencidos.add("a"));
+        roda.agendar(50, () -> vencidos.add("b"));
+
+        assertTrue(roda.cancelar(a));
+        assertFalse(roda.cancelar(a), "Segundo cancelamento não deve ter efeito");
+        roda.avancarAte(100);
+
+        assertEquals(List.of("b"), vencidos);
+        assertFalse(roda.cancelar(a));
+    }
+
+    @Test
+    @DisplayName("Atrasos em todos os níveis devem vencer no tick exato")
+    void testCascata() {
+        Random random = new Random(7);
+        Map<Long, Long> vencimentoPorAtraso = new HashMap<>();
+        long[] agora = new long[1];
+        List<Long> atrasos = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // Até 64³ ticks: passa pelos três primeiros níveis
+            long atraso = 10L * (1 + random.nextInt(64 * 64 * 64));
+            atrasos.add(atraso);
+            roda.agendar(atraso, () -> vencimentoPorAtraso.merge(atraso, agora[0], Math::max));
+        }
+
+        long fim = 10L * 64 * 64 * 64;
+        for (agora[0] = 0; agora[0] <= fim; agora[0] += 10 * 37) {
+            roda.avancarAte(agora[0]);
+        }
+        roda.avancarAte(fim);
+
+        for (long atraso : atrasos) {
+            long vencido = vencimentoPorAtraso.get(atraso);
+            assertTrue(vencido >= atraso && vencido < atraso + 10 * 37,
+                    "Atraso " + atraso + " venceu em " + vencido);
+        }
+        assertEquals(0, roda.getPendentes());
+    }
+
+    @Test
+    @DisplayName("Ação vencida pode agendar outro temporizador")
+    void testReagendamento() {
+        List<Long> vencimentos = new ArrayList<>();
+        Runnable[] repetir = new Runnable[1];
+        repetir[0] = () -> {
+            vencimentos.add(roda.getTempoAtual());
+            if (vencimentos.size() < 3) {
+                roda.agendar(100, repetir[0]);
+            }
+        };
+        roda.agendar(100, repetir[0]);
+
+        roda.avancarAte(1_000);
+        assertEquals(List.of(100L, 200L, 300L), vencimentos);
+    }
+
+    @Test
+    @DisplayName("Ação que falha não deve impedir as demais do mesmo tick")
+    void testAcaoQueFalha() {
+        List<String> vencidos = new ArrayList<>();
+        List<Throwable> reportadas = new ArrayList<>();
+        Thread atual = Thread.currentThread();
+        Thread.UncaughtExceptionHandler anterior = atual.getUncaughtExceptionHandler();
+        atual.setUncaughtExceptionHandler((thread, falha) -> reportadas.add(falha));
+        try {
+            roda.agendar(30, () -> vencidos.add("a"));
+            roda.agendar(30, () -> {
+                throw new IllegalStateException("Player com defeito");
+            });
+            roda.agendar(30, () -> vencidos.add("c"));
+            roda.agendar(60, () -> vencidos.add("d"));
+
+            assertEquals(4, roda.avancarAte(100));
+        } finally {
+            atual.setUncaughtExceptionHandler(anterior);
+        }
+
+        assertEquals(List.of("a", "c", "d"), vencidos);
+        assertEquals(1, reportadas.size());
+        assertEquals("Player com defeito", reportadas.get(0).getMessage());
+        assertEquals(0, roda.getPendentes());
+    }
+
+    @Test
+    @DisplayName("Relógio deve continuar avançando depois de uma ação que falha")
+    void testRelogioSobreviveAFalha() throws InterruptedException {
+        Thread.UncaughtExceptionHandler padrao = Thread.getDefaultUncaughtExceptionHandler();
+        List<Throwable> reportadas = Collections.synchronizedList(new ArrayList<>());
+        Thread.setDefaultUncaughtExceptionHandler((thread, falha) -> reportadas.add(falha));
+        CountDownLatch depois = new CountDownLatch(1);
+        try {
+            roda.iniciar();
+            roda.agendar(10, () -> {
+                throw new IllegalStateException("Player com defeito");
+            });
+            roda.agendar(50, depois::countDown);
+
+            assertTrue(depois.await(5, TimeUnit.SECONDS), "A ação seguinte deve vencer");
+            assertEquals(1, reportadas.size());
+        } finally {
+            roda.parar();
+            Thread.setDefaultUncaughtExceptionHandler(padrao);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve suportar 100 mil temporizadores")
+    void testMuitosTemporizadores() {
+        int[] vencidos = new int[1];
+        List<RodaTemporizacao.Temporizador> temporizadores = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            temporizadores.add(roda.agendar(1_000 + i % 300_000, () -> vencidos[0]++));
+        }
+        for (int i = 0; i < temporizadores.size(); i += 2) {
+            roda.cancelar(temporizadores.get(i));
+        }
+
+        assertEquals(50_000, roda.getPendentes());
+        roda.avancarAte(400_000);
+        assertEquals(50_000, vencidos[0]);
+    }
+}
@@ -0,0 +1,141 @@
+package test.service.sessao;
+
+import main.GeradorCarga;
+import model.midia.*;
+import service.sessao.Comando;
+import service.sessao.GerenciadorSessoes;
+import service.sessao.SessaoPlayer;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes unitários para o GerenciadorSessoes usando JUnit 5.
+ * Verifica a ordem dos comandos de cada sessão, o isolamento entre
+ * sessões e a expiração das sessões ociosas.
+ *
+ */
+@DisplayName("GerenciadorSessoes Tests")
+public class GerenciadorSessoesTest {
+
+    private GerenciadorSessoes gerenciador;
+    private ConcurrentLinkedQueue<SessaoPlayer> expiradas;
+    private List<Audio> fila;
+
+    @BeforeEach
+    void setUp() {
+        expiradas = new ConcurrentLinkedQueue<>();
+        gerenciador = new GerenciadorSessoes(Executors.newFixedThreadPool(4), 60_000, expiradas::add);
+        fila = new ArrayList<>();
+        Artista artista = new Artista("Artista Sessões");
+        for (int i = 0; i < 5; i++) {
+            fila.add(new Musica("Faixa " + i, 120, artista));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        gerenciador.encerrar();
+    }
+
+    @Test
+    @DisplayName("Deve executar os comandos de uma sessão na ordem de envio")
+    void testOrdemDosComandos() {
+        gerenciador.executar("ana", player -> player.definirFila(fila));
+        gerenciador.enviar("ana", Comando.PLAY);
+        gerenciador.enviar("ana", Comando.PROXIMA);
+        gerenciador.enviar("ana", Comando.PROXIMA);
+        CompletableFuture<Boolean> pausa = gerenciador.enviar("ana", Comando.PAUSE);
+
+        assertTrue(pausa.join());
+        Audio atual = gerenciador.executar("ana", player -> player.getAudioAtual()).join();
+        assertSame(fila.get(2), atual);
+        assertEquals(1, gerenciador.getTotalSessoes());
+    }
+
+    @Test
+    @DisplayName("Sessões simultâneas devem ter players independentes")
+    void testSessoesIndependentes() {
+        List<CompletableFuture<Integer>> indices = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String id = "ouvinte-" + i;
+            gerenciador.executar(id, player -> player.definirFila(fila));
+            for (int passo = 0; passo < i % 5; passo++) {
+                gerenciador.enviar(id, Comando.PROXIMA);
+            }
+            indices.add(gerenciador.executar(id, player -> player.getIndiceAtual()));
+        }
+
+        for (int i = 0; i < indices.size(); i++) {
+            assertEquals(i % 5, indices.get(i).join(), "Cada sessão deve avançar só com os próprios comandos");
+        }
+        assertEquals(1_000, gerenciador.getTotalSessoes());
+    }
+
+    @Test
+    @DisplayName("Deve expirar sessões ociosas e abrir uma nova no próximo comando")
+    void testExpiracao() throws InterruptedException {
+        GerenciadorSessoes curto = new GerenciadorSessoes(Executors.newSingleThreadExecutor(), 20, expiradas::add);
+        curto.executar("ana", player -> player.definirFila(fila)).join();
+        curto.enviar("ana", Comando.PROXIMA).join();
+        SessaoPlayer original = curto.getSessao("ana");
+
+        long limite = System.currentTimeMillis() + 5_000;
+        while (curto.getTotalSessoes() > 0 && System.currentTimeMillis() < limite) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(0, curto.getTotalSessoes(), "Sessão ociosa deve expirar");
+        assertTrue(original.isEncerrada());
+        assertSame(original, expiradas.peek(), "Expiração deve ser avisada");
+        assertEquals(1, expiradas.peek().getPlayer().getIndiceAtual(), "Estado deve estar disponível no aviso");
+        assertThrows(IllegalStateException.class, () -> original.enviar(Comando.PLAY));
+
+        assertFalse(curto.enviar("ana", Comando.PLAY).join(), "Sessão nova começa com fila vazia");
+        assertNotSame(original, curto.getSessao("ana"));
+        curto.encerrar();
+    }
+
+    @Test
+    @DisplayName("Sessão deve continuar recebendo comandos depois de um Error")
+    void testErrorNoComando() throws Exception {
+        // A thread que recebe o Error morre em silêncio; o pool cria outra
+        GerenciadorSessoes comFalha = new GerenciadorSessoes(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "sessoes-com-falha");
+            t.setUncaughtExceptionHandler((thread, erro) -> { });
+            return t;
+        }), 60_000, expiradas::add);
+        try {
+            comFalha.executar("ana", player -> player.definirFila(fila)).join();
+            comFalha.executar("ana", player -> {
+                throw new AssertionError("Falha simulada");
+            });
+
+            CompletableFuture<Boolean> proxima = comFalha.enviar("ana", Comando.PROXIMA);
+            assertTrue(proxima.get(5, TimeUnit.SECONDS), "A sessão não deve ficar presa como agendada");
+        } finally {
+            comFalha.encerrar();
+        }
+    }
+
+    @Test
+    @DisplayName("Gerador de carga deve concluir todos os comandos")
+    void testGeradorCarga() throws InterruptedException {
+        GeradorCarga.Resultado resultado = GeradorCarga.executar(gerenciador, fila, 500, 20);
+
+        assertEquals(10_000, resultado.getTotalComandos());
+        assertEquals(500, gerenciador.getTotalSessoes());
+        assertTrue(resultado.getPercentil(50) <= resultado.getPercentil(99));
+        long executados = 0;
+        for (int i = 0; i < 500; i++) {
+            executados += gerenciador.getSessao("ouvinte-" + i).getComandosExecutados();
+        }
+        assertEquals(500 * 21, executados, "Fila inicial e comandos de cada ouvinte");
+    }
+}